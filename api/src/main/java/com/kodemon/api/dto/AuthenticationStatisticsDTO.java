@@ -0,0 +1,133 @@
+package com.kodemon.api.dto;
+
+/**
+ * DTO representing the queue and the latency of the password hashing pool
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class AuthenticationStatisticsDTO {
+    private int threads;
+    private int queueCapacity;
+    private int queueDepth;
+    private int activeCount;
+    private long completedCount;
+    private long rejectedCount;
+    private long averageWaitMicros;
+    private long maxWaitMicros;
+    private long averageHashMicros;
+    private long maxHashMicros;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(int activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public long getAverageWaitMicros() {
+        return averageWaitMicros;
+    }
+
+    public void setAverageWaitMicros(long averageWaitMicros) {
+        this.averageWaitMicros = averageWaitMicros;
+    }
+
+    public long getMaxWaitMicros() {
+        return maxWaitMicros;
+    }
+
+    public void setMaxWaitMicros(long maxWaitMicros) {
+        this.maxWaitMicros = maxWaitMicros;
+    }
+
+    public long getAverageHashMicros() {
+        return averageHashMicros;
+    }
+
+    public void setAverageHashMicros(long averageHashMicros) {
+        this.averageHashMicros = averageHashMicros;
+    }
+
+    public long getMaxHashMicros() {
+        return maxHashMicros;
+    }
+
+    public void setMaxHashMicros(long maxHashMicros) {
+        this.maxHashMicros = maxHashMicros;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AuthenticationStatisticsDTO that = (AuthenticationStatisticsDTO) o;
+
+        if (getThreads() != that.getThreads()) return false;
+        if (getQueueCapacity() != that.getQueueCapacity()) return false;
+        if (getQueueDepth() != that.getQueueDepth()) return false;
+        if (getActiveCount() != that.getActiveCount()) return false;
+        if (getCompletedCount() != that.getCompletedCount()) return false;
+        if (getRejectedCount() != that.getRejectedCount()) return false;
+        if (getAverageWaitMicros() != that.getAverageWaitMicros()) return false;
+        if (getMaxWaitMicros() != that.getMaxWaitMicros()) return false;
+        if (getAverageHashMicros() != that.getAverageHashMicros()) return false;
+        return getMaxHashMicros() == that.getMaxHashMicros();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getThreads();
+        result = 31 * result + getQueueCapacity();
+        result = 31 * result + getQueueDepth();
+        result = 31 * result + getActiveCount();
+        result = 31 * result + (int) (getCompletedCount() ^ (getCompletedCount() >>> 32));
+        result = 31 * result + (int) (getRejectedCount() ^ (getRejectedCount() >>> 32));
+        result = 31 * result + (int) (getAverageWaitMicros() ^ (getAverageWaitMicros() >>> 32));
+        result = 31 * result + (int) (getMaxWaitMicros() ^ (getMaxWaitMicros() >>> 32));
+        result = 31 * result + (int) (getAverageHashMicros() ^ (getAverageHashMicros() >>> 32));
+        result = 31 * result + (int) (getMaxHashMicros() ^ (getMaxHashMicros() >>> 32));
+        return result;
+    }
+}
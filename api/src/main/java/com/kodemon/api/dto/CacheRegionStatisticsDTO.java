@@ -0,0 +1,78 @@
+package com.kodemon.api.dto;
+
+/**
+ * DTO representing usage statistics of one second-level cache region
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class CacheRegionStatisticsDTO {
+    private String regionName;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long elementCountInMemory;
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public void setRegionName(String regionName) {
+        this.regionName = regionName;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public void setPutCount(long putCount) {
+        this.putCount = putCount;
+    }
+
+    public long getElementCountInMemory() {
+        return elementCountInMemory;
+    }
+
+    public void setElementCountInMemory(long elementCountInMemory) {
+        this.elementCountInMemory = elementCountInMemory;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CacheRegionStatisticsDTO that = (CacheRegionStatisticsDTO) o;
+
+        if (getHitCount() != that.getHitCount()) return false;
+        if (getMissCount() != that.getMissCount()) return false;
+        if (getPutCount() != that.getPutCount()) return false;
+        if (getElementCountInMemory() != that.getElementCountInMemory()) return false;
+        return getRegionName() != null ? getRegionName().equals(that.getRegionName()) : that.getRegionName() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getRegionName() != null ? getRegionName().hashCode() : 0;
+        result = 31 * result + (int) (getHitCount() ^ (getHitCount() >>> 32));
+        result = 31 * result + (int) (getMissCount() ^ (getMissCount() >>> 32));
+        result = 31 * result + (int) (getPutCount() ^ (getPutCount() >>> 32));
+        result = 31 * result + (int) (getElementCountInMemory() ^ (getElementCountInMemory() >>> 32));
+        return result;
+    }
+}
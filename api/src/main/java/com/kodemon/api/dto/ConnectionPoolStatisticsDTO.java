@@ -0,0 +1,122 @@
+package com.kodemon.api.dto;
+
+/**
+ * DTO representing the occupancy and acquire latency of the database connection pool
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class ConnectionPoolStatisticsDTO {
+    private boolean pooled;
+    private int activeConnections;
+    private int idleConnections;
+    private int totalConnections;
+    private int threadsAwaitingConnection;
+    private long acquireCount;
+    private long averageAcquireMicros;
+    private long maxAcquireMicros;
+    private long timeoutCount;
+
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    public void setPooled(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public void setActiveConnections(int activeConnections) {
+        this.activeConnections = activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public void setIdleConnections(int idleConnections) {
+        this.idleConnections = idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public void setTotalConnections(int totalConnections) {
+        this.totalConnections = totalConnections;
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return threadsAwaitingConnection;
+    }
+
+    public void setThreadsAwaitingConnection(int threadsAwaitingConnection) {
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+    }
+
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    public void setAcquireCount(long acquireCount) {
+        this.acquireCount = acquireCount;
+    }
+
+    public long getAverageAcquireMicros() {
+        return averageAcquireMicros;
+    }
+
+    public void setAverageAcquireMicros(long averageAcquireMicros) {
+        this.averageAcquireMicros = averageAcquireMicros;
+    }
+
+    public long getMaxAcquireMicros() {
+        return maxAcquireMicros;
+    }
+
+    public void setMaxAcquireMicros(long maxAcquireMicros) {
+        this.maxAcquireMicros = maxAcquireMicros;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public void setTimeoutCount(long timeoutCount) {
+        this.timeoutCount = timeoutCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ConnectionPoolStatisticsDTO that = (ConnectionPoolStatisticsDTO) o;
+
+        if (isPooled() != that.isPooled()) return false;
+        if (getActiveConnections() != that.getActiveConnections()) return false;
+        if (getIdleConnections() != that.getIdleConnections()) return false;
+        if (getTotalConnections() != that.getTotalConnections()) return false;
+        if (getThreadsAwaitingConnection() != that.getThreadsAwaitingConnection()) return false;
+        if (getAcquireCount() != that.getAcquireCount()) return false;
+        if (getAverageAcquireMicros() != that.getAverageAcquireMicros()) return false;
+        if (getMaxAcquireMicros() != that.getMaxAcquireMicros()) return false;
+        return getTimeoutCount() == that.getTimeoutCount();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = isPooled() ? 1 : 0;
+        result = 31 * result + getActiveConnections();
+        result = 31 * result + getIdleConnections();
+        result = 31 * result + getTotalConnections();
+        result = 31 * result + getThreadsAwaitingConnection();
+        result = 31 * result + (int) (getAcquireCount() ^ (getAcquireCount() >>> 32));
+        result = 31 * result + (int) (getAverageAcquireMicros() ^ (getAverageAcquireMicros() >>> 32));
+        result = 31 * result + (int) (getMaxAcquireMicros() ^ (getMaxAcquireMicros() >>> 32));
+        result = 31 * result + (int) (getTimeoutCount() ^ (getTimeoutCount() >>> 32));
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package com.kodemon.api.dto;
+
+import java.util.Date;
+
+/**
+ * DTO representing a fight in the fight history
+ * <p>
+ * Unlike {@link FightDTO}, it holds only the ids and names of the challenger and the gym, not their whole graphs.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class FightSummaryDTO {
+    private Long id;
+    private Date fightTime;
+    private Long challengerId;
+    private String challengerUserName;
+    private String challengerFirstName;
+    private Long targetGymId;
+    private String targetGymCity;
+    private boolean wasChallengerSuccessful;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Date getFightTime() {
+        return fightTime;
+    }
+
+    public void setFightTime(Date fightTime) {
+        this.fightTime = fightTime;
+    }
+
+    public Long getChallengerId() {
+        return challengerId;
+    }
+
+    public void setChallengerId(Long challengerId) {
+        this.challengerId = challengerId;
+    }
+
+    public String getChallengerUserName() {
+        return challengerUserName;
+    }
+
+    public void setChallengerUserName(String challengerUserName) {
+        this.challengerUserName = challengerUserName;
+    }
+
+    public String getChallengerFirstName() {
+        return challengerFirstName;
+    }
+
+    public void setChallengerFirstName(String challengerFirstName) {
+        this.challengerFirstName = challengerFirstName;
+    }
+
+    public Long getTargetGymId() {
+        return targetGymId;
+    }
+
+    public void setTargetGymId(Long targetGymId) {
+        this.targetGymId = targetGymId;
+    }
+
+    public String getTargetGymCity() {
+        return targetGymCity;
+    }
+
+    public void setTargetGymCity(String targetGymCity) {
+        this.targetGymCity = targetGymCity;
+    }
+
+    public boolean isWasChallengerSuccessful() {
+        return wasChallengerSuccessful;
+    }
+
+    public void setWasChallengerSuccessful(boolean wasChallengerSuccessful) {
+        this.wasChallengerSuccessful = wasChallengerSuccessful;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FightSummaryDTO that = (FightSummaryDTO) o;
+
+        if (isWasChallengerSuccessful() != that.isWasChallengerSuccessful()) return false;
+        if (getId() != null ? !getId().equals(that.getId()) : that.getId() != null) return false;
+        if (getFightTime() != null ? !getFightTime().equals(that.getFightTime()) : that.getFightTime() != null) return false;
+        if (getChallengerId() != null ? !getChallengerId().equals(that.getChallengerId()) : that.getChallengerId() != null) return false;
+        return getTargetGymId() != null ? getTargetGymId().equals(that.getTargetGymId()) : that.getTargetGymId() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getId() != null ? getId().hashCode() : 0;
+        result = 31 * result + (getFightTime() != null ? getFightTime().hashCode() : 0);
+        result = 31 * result + (getChallengerId() != null ? getChallengerId().hashCode() : 0);
+        result = 31 * result + (getTargetGymId() != null ? getTargetGymId().hashCode() : 0);
+        result = 31 * result + (isWasChallengerSuccessful() ? 1 : 0);
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+package com.kodemon.api.dto;
+
+/**
+ * DTO representing how many simulated challengers won the badge of a gym
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class GymDifficultyDTO {
+    private Long gymId;
+    private String city;
+    private String badgeName;
+    private String leaderUserName;
+    private long challengerCount;
+    private long winCount;
+    private double difficulty;
+
+    public Long getGymId() {
+        return gymId;
+    }
+
+    public void setGymId(Long gymId) {
+        this.gymId = gymId;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getBadgeName() {
+        return badgeName;
+    }
+
+    public void setBadgeName(String badgeName) {
+        this.badgeName = badgeName;
+    }
+
+    public String getLeaderUserName() {
+        return leaderUserName;
+    }
+
+    public void setLeaderUserName(String leaderUserName) {
+        this.leaderUserName = leaderUserName;
+    }
+
+    public long getChallengerCount() {
+        return challengerCount;
+    }
+
+    public void setChallengerCount(long challengerCount) {
+        this.challengerCount = challengerCount;
+    }
+
+    public long getWinCount() {
+        return winCount;
+    }
+
+    public void setWinCount(long winCount) {
+        this.winCount = winCount;
+    }
+
+    /**
+     * @return share of the challengers who lost, from 0 (everybody wins) to 1 (nobody wins)
+     */
+    public double getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(double difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        GymDifficultyDTO that = (GymDifficultyDTO) o;
+
+        if (getChallengerCount() != that.getChallengerCount()) return false;
+        if (getWinCount() != that.getWinCount()) return false;
+        return getGymId() != null ? getGymId().equals(that.getGymId()) : that.getGymId() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getGymId() != null ? getGymId().hashCode() : 0;
+        result = 31 * result + (int) (getChallengerCount() ^ (getChallengerCount() >>> 32));
+        result = 31 * result + (int) (getWinCount() ^ (getWinCount() >>> 32));
+        return result;
+    }
+}
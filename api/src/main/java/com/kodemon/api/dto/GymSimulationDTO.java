@@ -0,0 +1,71 @@
+package com.kodemon.api.dto;
+
+import java.util.List;
+
+/**
+ * DTO representing the simulated challenges of every trainer against every gym
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class GymSimulationDTO {
+    private List<GymDifficultyDTO> gyms;
+    private List<Long> trainersByGymsBeaten;
+    private long matchupCount;
+    private long elapsedMillis;
+
+    public List<GymDifficultyDTO> getGyms() {
+        return gyms;
+    }
+
+    public void setGyms(List<GymDifficultyDTO> gyms) {
+        this.gyms = gyms;
+    }
+
+    /**
+     * @return at index k the number of the trainers who would win exactly k badges
+     */
+    public List<Long> getTrainersByGymsBeaten() {
+        return trainersByGymsBeaten;
+    }
+
+    public void setTrainersByGymsBeaten(List<Long> trainersByGymsBeaten) {
+        this.trainersByGymsBeaten = trainersByGymsBeaten;
+    }
+
+    public long getMatchupCount() {
+        return matchupCount;
+    }
+
+    public void setMatchupCount(long matchupCount) {
+        this.matchupCount = matchupCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        GymSimulationDTO that = (GymSimulationDTO) o;
+
+        if (getMatchupCount() != that.getMatchupCount()) return false;
+        if (getGyms() != null ? !getGyms().equals(that.getGyms()) : that.getGyms() != null) return false;
+        return getTrainersByGymsBeaten() != null ? getTrainersByGymsBeaten().equals(that.getTrainersByGymsBeaten())
+                : that.getTrainersByGymsBeaten() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getGyms() != null ? getGyms().hashCode() : 0;
+        result = 31 * result + (getTrainersByGymsBeaten() != null ? getTrainersByGymsBeaten().hashCode() : 0);
+        result = 31 * result + (int) (getMatchupCount() ^ (getMatchupCount() >>> 32));
+        return result;
+    }
+}
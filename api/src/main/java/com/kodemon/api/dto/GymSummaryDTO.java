@@ -0,0 +1,87 @@
+package com.kodemon.api.dto;
+
+import com.kodemon.persistence.enums.PokemonType;
+
+/**
+ * DTO representing a gym in a list of gyms
+ * <p>
+ * Unlike {@link GymDTO}, it holds only the id and the username of the gym leader, not the leader's whole graph.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class GymSummaryDTO {
+    private Long id;
+    private String city;
+    private String badgeName;
+    private PokemonType type;
+    private Long leaderId;
+    private String leaderUserName;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getBadgeName() {
+        return badgeName;
+    }
+
+    public void setBadgeName(String badgeName) {
+        this.badgeName = badgeName;
+    }
+
+    public PokemonType getType() {
+        return type;
+    }
+
+    public void setType(PokemonType type) {
+        this.type = type;
+    }
+
+    public Long getLeaderId() {
+        return leaderId;
+    }
+
+    public void setLeaderId(Long leaderId) {
+        this.leaderId = leaderId;
+    }
+
+    public String getLeaderUserName() {
+        return leaderUserName;
+    }
+
+    public void setLeaderUserName(String leaderUserName) {
+        this.leaderUserName = leaderUserName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        GymSummaryDTO that = (GymSummaryDTO) o;
+
+        if (getId() != null ? !getId().equals(that.getId()) : that.getId() != null) return false;
+        if (getCity() != null ? !getCity().equals(that.getCity()) : that.getCity() != null) return false;
+        return getBadgeName() != null ? getBadgeName().equals(that.getBadgeName()) : that.getBadgeName() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getId() != null ? getId().hashCode() : 0;
+        result = 31 * result + (getCity() != null ? getCity().hashCode() : 0);
+        result = 31 * result + (getBadgeName() != null ? getBadgeName().hashCode() : 0);
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kodemon.api.dto;
+
+/**
+ * DTO representing how often the long lists were mapped on the calling thread and how often in parallel
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class MappingStatisticsDTO {
+    private int parallelism;
+    private int parallelThreshold;
+    private long sequentialCount;
+    private long parallelCount;
+    private long chunkCount;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public long getSequentialCount() {
+        return sequentialCount;
+    }
+
+    public void setSequentialCount(long sequentialCount) {
+        this.sequentialCount = sequentialCount;
+    }
+
+    public long getParallelCount() {
+        return parallelCount;
+    }
+
+    public void setParallelCount(long parallelCount) {
+        this.parallelCount = parallelCount;
+    }
+
+    public long getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(long chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        MappingStatisticsDTO that = (MappingStatisticsDTO) o;
+
+        if (getParallelism() != that.getParallelism()) return false;
+        if (getParallelThreshold() != that.getParallelThreshold()) return false;
+        if (getSequentialCount() != that.getSequentialCount()) return false;
+        if (getParallelCount() != that.getParallelCount()) return false;
+        return getChunkCount() == that.getChunkCount();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getParallelism();
+        result = 31 * result + getParallelThreshold();
+        result = 31 * result + (int) (getSequentialCount() ^ (getSequentialCount() >>> 32));
+        result = 31 * result + (int) (getParallelCount() ^ (getParallelCount() >>> 32));
+        result = 31 * result + (int) (getChunkCount() ^ (getChunkCount() >>> 32));
+        return result;
+    }
+}
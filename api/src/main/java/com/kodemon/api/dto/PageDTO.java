@@ -0,0 +1,106 @@
+package com.kodemon.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO representing one page of a list
+ * <p>
+ * A page is either addressed by its number, or follows the page whose {@link #getNextCursor()} was passed back.
+ * The total number of items is not known, only whether there is a next page.
+ *
+ * @param <T> type of the items on the page
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class PageDTO<T> {
+    private List<T> content = new ArrayList<>();
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public PageDTO() {
+    }
+
+    public PageDTO(List<T> content, int page, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    /**
+     * @return number of the page, starting at 0, always 0 for a page following a cursor
+     */
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    /**
+     * @return requested number of items on the page, the last page may have fewer
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * @return cursor of the next page, null for a page addressed by its number or when there is no next page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PageDTO<?> pageDTO = (PageDTO<?>) o;
+
+        if (getPage() != pageDTO.getPage()) return false;
+        if (getSize() != pageDTO.getSize()) return false;
+        if (isHasNext() != pageDTO.isHasNext()) return false;
+        if (getContent() != null ? !getContent().equals(pageDTO.getContent()) : pageDTO.getContent() != null)
+            return false;
+        return getNextCursor() != null ? getNextCursor().equals(pageDTO.getNextCursor()) : pageDTO.getNextCursor() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getContent() != null ? getContent().hashCode() : 0;
+        result = 31 * result + getPage();
+        result = 31 * result + getSize();
+        result = 31 * result + (isHasNext() ? 1 : 0);
+        result = 31 * result + (getNextCursor() != null ? getNextCursor().hashCode() : 0);
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package com.kodemon.api.dto;
+
+import com.kodemon.api.enums.SuggestionKind;
+
+/**
+ * DTO representing a term suggested for a typed prefix, with how popular it is
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class SuggestionDTO {
+    private SuggestionKind kind;
+    private String term;
+    private long popularity;
+
+    public SuggestionKind getKind() {
+        return kind;
+    }
+
+    public void setKind(SuggestionKind kind) {
+        this.kind = kind;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public void setTerm(String term) {
+        this.term = term;
+    }
+
+    public long getPopularity() {
+        return popularity;
+    }
+
+    public void setPopularity(long popularity) {
+        this.popularity = popularity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        SuggestionDTO that = (SuggestionDTO) o;
+
+        if (getPopularity() != that.getPopularity()) return false;
+        if (getKind() != that.getKind()) return false;
+        return getTerm() != null ? getTerm().equals(that.getTerm()) : that.getTerm() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getKind() != null ? getKind().hashCode() : 0;
+        result = 31 * result + (getTerm() != null ? getTerm().hashCode() : 0);
+        result = 31 * result + (int) (getPopularity() ^ (getPopularity() >>> 32));
+        return result;
+    }
+}
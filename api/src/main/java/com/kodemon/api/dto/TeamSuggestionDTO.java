@@ -0,0 +1,86 @@
+package com.kodemon.api.dto;
+
+import java.util.List;
+
+/**
+ * DTO representing the active team suggested to a trainer against a gym
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TeamSuggestionDTO {
+    private Long gymId;
+    private List<Integer> pokemonIndices;
+    private List<PokemonDTO> pokemons;
+    private double margin;
+    private boolean winning;
+
+    public Long getGymId() {
+        return gymId;
+    }
+
+    public void setGymId(Long gymId) {
+        this.gymId = gymId;
+    }
+
+    /**
+     * @return positions of the suggested Pokemons among all the Pokemons of the trainer, in the order they fight
+     */
+    public List<Integer> getPokemonIndices() {
+        return pokemonIndices;
+    }
+
+    public void setPokemonIndices(List<Integer> pokemonIndices) {
+        this.pokemonIndices = pokemonIndices;
+    }
+
+    /**
+     * @return the suggested Pokemons, in the order they fight
+     */
+    public List<PokemonDTO> getPokemons() {
+        return pokemons;
+    }
+
+    public void setPokemons(List<PokemonDTO> pokemons) {
+        this.pokemons = pokemons;
+    }
+
+    /**
+     * @return score of the suggested team minus the score of the gym leader
+     */
+    public double getMargin() {
+        return margin;
+    }
+
+    public void setMargin(double margin) {
+        this.margin = margin;
+    }
+
+    /**
+     * @return whether the suggested team wins the badge
+     */
+    public boolean isWinning() {
+        return winning;
+    }
+
+    public void setWinning(boolean winning) {
+        this.winning = winning;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TeamSuggestionDTO that = (TeamSuggestionDTO) o;
+
+        if (getGymId() != null ? !getGymId().equals(that.getGymId()) : that.getGymId() != null) return false;
+        return getPokemonIndices() != null ? getPokemonIndices().equals(that.getPokemonIndices()) : that.getPokemonIndices() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getGymId() != null ? getGymId().hashCode() : 0;
+        result = 31 * result + (getPokemonIndices() != null ? getPokemonIndices().hashCode() : 0);
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+package com.kodemon.api.dto;
+
+/**
+ * DTO representing a trainer seeded into a simulated tournament
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TournamentEntryDTO {
+    private int seed;
+    private Long userId;
+    private String userName;
+    private int levelSum;
+    private int winCount;
+
+    /**
+     * @return position of the trainer in the seeding, 0 for the strongest
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    public void setSeed(int seed) {
+        this.seed = seed;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public int getLevelSum() {
+        return levelSum;
+    }
+
+    public void setLevelSum(int levelSum) {
+        this.levelSum = levelSum;
+    }
+
+    /**
+     * @return number of the other trainers of the tournament the trainer beats as the challenger
+     */
+    public int getWinCount() {
+        return winCount;
+    }
+
+    public void setWinCount(int winCount) {
+        this.winCount = winCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TournamentEntryDTO that = (TournamentEntryDTO) o;
+
+        if (getSeed() != that.getSeed()) return false;
+        if (getWinCount() != that.getWinCount()) return false;
+        return getUserId() != null ? getUserId().equals(that.getUserId()) : that.getUserId() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getSeed();
+        result = 31 * result + (getUserId() != null ? getUserId().hashCode() : 0);
+        result = 31 * result + getWinCount();
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package com.kodemon.api.dto;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DTO representing a simulated tournament among the strongest trainers
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TournamentSimulationDTO {
+    private List<TournamentEntryDTO> entries;
+    private boolean[][] winMatrix;
+    private TournamentEntryDTO champion;
+    private long matchupCount;
+    private long elapsedMillis;
+
+    /**
+     * @return the trainers of the tournament in the order of their seeds
+     */
+    public List<TournamentEntryDTO> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<TournamentEntryDTO> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @return at [i][j] whether the trainer seeded i beats the trainer seeded j as the challenger
+     */
+    public boolean[][] getWinMatrix() {
+        return winMatrix;
+    }
+
+    public void setWinMatrix(boolean[][] winMatrix) {
+        this.winMatrix = winMatrix;
+    }
+
+    /**
+     * @return winner of the single-elimination bracket, null for an empty tournament
+     */
+    public TournamentEntryDTO getChampion() {
+        return champion;
+    }
+
+    public void setChampion(TournamentEntryDTO champion) {
+        this.champion = champion;
+    }
+
+    public long getMatchupCount() {
+        return matchupCount;
+    }
+
+    public void setMatchupCount(long matchupCount) {
+        this.matchupCount = matchupCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TournamentSimulationDTO that = (TournamentSimulationDTO) o;
+
+        if (getEntries() != null ? !getEntries().equals(that.getEntries()) : that.getEntries() != null) return false;
+        if (!Arrays.deepEquals(getWinMatrix(), that.getWinMatrix())) return false;
+        return getChampion() != null ? getChampion().equals(that.getChampion()) : that.getChampion() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getEntries() != null ? getEntries().hashCode() : 0;
+        result = 31 * result + Arrays.deepHashCode(getWinMatrix());
+        result = 31 * result + (getChampion() != null ? getChampion().hashCode() : 0);
+        return result;
+    }
+}
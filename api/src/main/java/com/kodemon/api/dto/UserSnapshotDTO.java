@@ -0,0 +1,66 @@
+package com.kodemon.api.dto;
+
+/**
+ * DTO representing an user as of a version of the trainer
+ * <p>
+ * The snapshot is current for as long as the trainer's version stays the same, see
+ * {@link com.kodemon.api.facade.UserFacade#refreshUserSnapshot(UserSnapshotDTO)}.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class UserSnapshotDTO {
+    private Long userId;
+    private long version;
+    private UserDTO user;
+
+    public UserSnapshotDTO() {
+    }
+
+    public UserSnapshotDTO(Long userId, long version, UserDTO user) {
+        this.userId = userId;
+        this.version = version;
+        this.user = user;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public UserDTO getUser() {
+        return user;
+    }
+
+    public void setUser(UserDTO user) {
+        this.user = user;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        UserSnapshotDTO that = (UserSnapshotDTO) o;
+
+        if (getVersion() != that.getVersion()) return false;
+        return getUserId() != null ? getUserId().equals(that.getUserId()) : that.getUserId() == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getUserId() != null ? getUserId().hashCode() : 0;
+        result = 31 * result + (int) (getVersion() ^ (getVersion() >>> 32));
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+package com.kodemon.api.dto;
+
+/**
+ * DTO representing how often the snapshots of the logged in users were still current and how often they were reloaded
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class UserSnapshotStatisticsDTO {
+    private long hitCount;
+    private long reloadCount;
+    private int trackedUsers;
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getReloadCount() {
+        return reloadCount;
+    }
+
+    public void setReloadCount(long reloadCount) {
+        this.reloadCount = reloadCount;
+    }
+
+    public int getTrackedUsers() {
+        return trackedUsers;
+    }
+
+    public void setTrackedUsers(int trackedUsers) {
+        this.trackedUsers = trackedUsers;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        UserSnapshotStatisticsDTO that = (UserSnapshotStatisticsDTO) o;
+
+        if (getHitCount() != that.getHitCount()) return false;
+        if (getReloadCount() != that.getReloadCount()) return false;
+        return getTrackedUsers() == that.getTrackedUsers();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (getHitCount() ^ (getHitCount() >>> 32));
+        result = 31 * result + (int) (getReloadCount() ^ (getReloadCount() >>> 32));
+        result = 31 * result + getTrackedUsers();
+        return result;
+    }
+}
@@ -0,0 +1,13 @@
+package com.kodemon.api.enums;
+
+/**
+ * Enum, whose cases represent periods of the fight history, each ending now
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public enum FightPeriod {
+    TODAY,
+    MONTH,
+    YEAR,
+    ALL
+}
@@ -0,0 +1,13 @@
+package com.kodemon.api.enums;
+
+/**
+ * Enum, whose cases represent the kinds of terms suggested while typing
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public enum SuggestionKind {
+    TRAINER,
+    GYM,
+    BADGE,
+    NICKNAME
+}
@@ -0,0 +1,25 @@
+package com.kodemon.api.exception;
+
+/**
+ * Thrown when a request is turned away as the service cannot take more work of its kind at the moment
+ * <p>
+ * Carries an estimate of when the work queued before it will be done, for the clients to retry after.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return number of seconds to wait before trying again, at least 1
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,14 +1,19 @@
 package com.kodemon.api.facade;
 
 import com.kodemon.api.dto.FightDTO;
+import com.kodemon.api.dto.FightExportDTO;
+import com.kodemon.api.dto.FightSummaryDTO;
 import com.kodemon.api.dto.GymDTO;
+import com.kodemon.api.dto.PageDTO;
 import com.kodemon.api.dto.PokemonDTO;
 import com.kodemon.api.dto.UserDTO;
+import com.kodemon.api.enums.FightPeriod;
 import com.kodemon.api.enums.WildPokemonFightMode;
 
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Facade providing access to the fight system
@@ -76,6 +81,64 @@ public interface FightFacade {
      */
     Collection<FightDTO> listAllFights();
 
+    /**
+     * Returns a page of all fights, newest first
+     *
+     * @param page number of the page, starting at 0
+     * @param size number of fights on the page, at most {@link com.kodemon.persistence.util.Constants#MAX_PAGE_SIZE}
+     * @return a {@link PageDTO} of {@link FightDTO}s
+     */
+    PageDTO<FightDTO> listAllFights(int page, int size);
+
+    /**
+     * Returns a page of the fights that happened between two specified dates, newest first
+     *
+     * @param from start date from which to list fights
+     * @param to   end date to which to list fights
+     * @param page number of the page, starting at 0
+     * @param size number of fights on the page, at most {@link com.kodemon.persistence.util.Constants#MAX_PAGE_SIZE}
+     * @return a {@link PageDTO} of {@link FightDTO}s
+     */
+    PageDTO<FightDTO> listFightsBetween(Date from, Date to, int page, int size);
+
+    /**
+     * Returns the fights of the given period, newest first, following the fight of the given cursor
+     * <p/>
+     * Unlike a page number, the cursor does not make the database skip over the newer fights,
+     * so deep pages of the history are as cheap as the first one.
+     *
+     * @param period period of the fights
+     * @param cursor {@link PageDTO#getNextCursor()} of the previous page, null for the first page
+     * @param size   number of fights on the page, at most {@link com.kodemon.persistence.util.Constants#MAX_PAGE_SIZE}
+     * @return a {@link PageDTO} of {@link FightDTO}s
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    PageDTO<FightDTO> listFightsOfPeriod(FightPeriod period, String cursor, int size);
+
+    /**
+     * Returns summaries of the fights of the given period, newest first, following the fight of the given cursor
+     * <p/>
+     * Pages the same way as {@link #listFightsOfPeriod(FightPeriod, String, int)}, but the summaries are read
+     * straight from the database, without loading the challengers and the gyms.
+     *
+     * @param period period of the fights
+     * @param cursor {@link PageDTO#getNextCursor()} of the previous page, null for the first page
+     * @param size   number of fights on the page, at most {@link com.kodemon.persistence.util.Constants#MAX_PAGE_SIZE}
+     * @return a {@link PageDTO} of {@link FightSummaryDTO}s
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    PageDTO<FightSummaryDTO> listFightSummariesOfPeriod(FightPeriod period, String cursor, int size);
+
+    /**
+     * Passes every fight that ever ocurred, ordered by id, to the given consumer as it is read from the database
+     * <p/>
+     * Only the fights being passed are held in memory, so the whole history can be exported at once.
+     *
+     * @param consumer consumer of the rows, e.g. writing them to a response
+     * @return number of the exported fights
+     */
+    long exportFights(Consumer<FightExportDTO> consumer);
+
     /**
      * Returns all fights of the given user
      *
@@ -92,6 +155,22 @@ public interface FightFacade {
      */
     Collection<FightDTO> listFightsOfGym(GymDTO gym);
 
+    /**
+     * Returns summaries of all fights of the given user, newest first
+     *
+     * @param user user, whose fights we want to find
+     * @return a {@link List} of {@link FightSummaryDTO}s
+     */
+    Collection<FightSummaryDTO> listFightSummariesOfTrainer(UserDTO user);
+
+    /**
+     * Returns summaries of all fights that was hosted in the given {@link com.kodemon.persistence.entity.Gym}, newest first
+     *
+     * @param gym gym that hosted the fights
+     * @return a {@link List} of {@link FightSummaryDTO}s
+     */
+    Collection<FightSummaryDTO> listFightSummariesOfGym(GymDTO gym);
+
     /**
      * Returns fight of given id
      *
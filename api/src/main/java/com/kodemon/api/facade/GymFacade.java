@@ -1,6 +1,7 @@
 package com.kodemon.api.facade;
 
 import com.kodemon.api.dto.GymDTO;
+import com.kodemon.api.dto.GymSummaryDTO;
 
 import java.util.Collection;
 import java.util.List;
@@ -19,10 +20,17 @@ public interface GymFacade {
     Collection<GymDTO> findAll();
 
     /**
-     * Returns gym of given id
+     * Returns summaries of all {@link com.kodemon.persistence.entity.Gym}s, without their leaders' Pokemons and badges
      *
-     * @param id
-     * @return
+     * @return a {@link List} of {@link GymSummaryDTO}s
+     */
+    Collection<GymSummaryDTO> findAllSummaries();
+
+    /**
+     * Returns gym of given id, with its leader's Pokemons and badges
+     *
+     * @param id id of the gym
+     * @return the gym, or null if there is no gym with the id
      */
     GymDTO findGymById(Long id);
 }
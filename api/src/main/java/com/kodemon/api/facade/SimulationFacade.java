@@ -0,0 +1,29 @@
+package com.kodemon.api.facade;
+
+import com.kodemon.api.dto.GymSimulationDTO;
+import com.kodemon.api.dto.TournamentSimulationDTO;
+
+/**
+ * Facade simulating fights for badges in bulk, for the what-if analyses of the administrators
+ * <p>
+ * Nothing is stored: the trainers win no badges and the fight history stays as it is.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public interface SimulationFacade {
+    /**
+     * Simulates the fight of every trainer against every gym, but the own gym of the trainer
+     *
+     * @return number of the challengers who would win per gym, with the difficulty of the gym
+     */
+    GymSimulationDTO simulateGymChallenges();
+
+    /**
+     * Simulates a tournament among the trainers whose active Pokemons have the highest sum of levels: everybody against
+     * everybody, and a single-elimination bracket
+     *
+     * @param size number of the trainers
+     * @return the win matrix, the wins of every trainer and the bracket champion
+     */
+    TournamentSimulationDTO simulateTournament(int size);
+}
@@ -0,0 +1,54 @@
+package com.kodemon.api.facade;
+
+import com.kodemon.api.dto.AuthenticationStatisticsDTO;
+import com.kodemon.api.dto.CacheRegionStatisticsDTO;
+import com.kodemon.api.dto.ConnectionPoolStatisticsDTO;
+import com.kodemon.api.dto.MappingStatisticsDTO;
+import com.kodemon.api.dto.UserSnapshotStatisticsDTO;
+
+import java.util.Collection;
+
+/**
+ * Facade providing runtime statistics of the application
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public interface StatisticsFacade {
+    /**
+     * Returns hit and miss statistics of every second-level cache region, entity and query regions alike,
+     * and of the cache of the gyms looked up by id
+     *
+     * @return statistics of all the cache regions
+     */
+    Collection<CacheRegionStatisticsDTO> getCacheStatistics();
+
+    /**
+     * Returns the current occupancy and the acquire latency of the database connection pool
+     *
+     * @return statistics of the pool, all zero when the DataSource is not pooled
+     */
+    ConnectionPoolStatisticsDTO getConnectionPoolStatistics();
+
+    /**
+     * Returns how many long lists were mapped on the calling thread and how many in parallel chunks
+     *
+     * @return statistics of the list mapping
+     */
+    MappingStatisticsDTO getMappingStatistics();
+
+    /**
+     * Returns the queue of the password hashing pool, the time spent waiting in it and the time the hashing took
+     *
+     * @return statistics of the password hashing
+     */
+    AuthenticationStatisticsDTO getAuthenticationStatistics();
+
+    /**
+     * Returns how often the snapshots of the logged in users were still current and how often they were taken anew
+     * <p>
+     * The counts are kept by the application whose sessions hold the snapshots, they stay zero elsewhere.
+     *
+     * @return statistics of the user snapshots
+     */
+    UserSnapshotStatisticsDTO getUserSnapshotStatistics();
+}
@@ -0,0 +1,23 @@
+package com.kodemon.api.facade;
+
+import com.kodemon.api.dto.SuggestionDTO;
+import com.kodemon.api.enums.SuggestionKind;
+
+import java.util.List;
+
+/**
+ * Facade suggesting the usernames, gym cities, badge names and Pokemon nicknames starting with what the user typed
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public interface SuggestionFacade {
+    /**
+     * Returns the most popular terms starting with the given prefix, ignoring case
+     *
+     * @param prefix typed prefix of the term
+     * @param kind   kind of the terms to suggest, null for all the kinds
+     * @param limit  maximal number of the suggestions
+     * @return {@link List} of {@link SuggestionDTO}s, the most popular first
+     */
+    List<SuggestionDTO> suggest(String prefix, SuggestionKind kind, int limit);
+}
@@ -1,11 +1,17 @@
 package com.kodemon.api.facade;
 
+import com.kodemon.api.dto.PageDTO;
+import com.kodemon.api.dto.TeamSuggestionDTO;
 import com.kodemon.api.dto.UserAuthDTO;
 import com.kodemon.api.dto.UserDTO;
 import com.kodemon.api.dto.UserRegisterDTO;
+import com.kodemon.api.dto.UserSnapshotDTO;
+import com.kodemon.api.dto.UserSummaryDTO;
+import com.kodemon.api.exception.ServiceOverloadedException;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Facade providing access to the user administration
@@ -22,6 +28,17 @@ public interface UserFacade {
      */
     UserDTO register(UserRegisterDTO user);
 
+    /**
+     * Creates new user in the database, the password is hashed off the calling thread
+     * <p>
+     * The user is stored once the password is hashed, on the thread that hashed it.
+     *
+     * @param user User details
+     * @return future completed with the created user, or exceptionally if the user could not be stored
+     * @throws ServiceOverloadedException if too many passwords are being hashed already
+     */
+    CompletableFuture<UserDTO> registerAsync(UserRegisterDTO user);
+
     /**
      * Authenticates the user with given credentials
      *
@@ -29,6 +46,17 @@ public interface UserFacade {
      */
     boolean login(UserAuthDTO auth);
 
+    /**
+     * Authenticates the user with given credentials, the password is verified off the calling thread
+     * <p>
+     * The username is matched ignoring case. The user is found before the password is verified, the future does not touch the database any more.
+     *
+     * @param auth credentials to authenticate with
+     * @return future completed with the authenticated user, or with {@code null} if the credentials do not match
+     * @throws ServiceOverloadedException if too many passwords are being verified already
+     */
+    CompletableFuture<UserDTO> authenticate(UserAuthDTO auth);
+
     /**
      * Finds users with the given username
      *
@@ -37,6 +65,15 @@ public interface UserFacade {
      */
     Collection<UserDTO> findUserByUserNameIgnoringCaseIncludeSubstrings(String userName);
 
+    /**
+     * Finds the user with the given username, ignoring case. Unlike
+     * {@link #findUserByUserNameIgnoringCaseIncludeSubstrings(String)}, never finds an user whose username merely contains the given one.
+     *
+     * @param userName username to find
+     * @return the user, null if there is none
+     */
+    UserDTO findUserByUserNameIgnoringCase(String userName);
+
     /**
      * Finds users with the given username. Matching exactly this username, neither ignoring case, nor finding substrings.
      *
@@ -52,6 +89,46 @@ public interface UserFacade {
      */
     Collection<UserDTO> findAllUsers();
 
+    /**
+     * Finds a page of all users, ordered by id
+     *
+     * @param page number of the page, starting at 0
+     * @param size number of users on the page, at most {@link com.kodemon.persistence.util.Constants#MAX_PAGE_SIZE}
+     * @return Page of Users
+     */
+    PageDTO<UserDTO> findAllUsers(int page, int size);
+
+    /**
+     * Finds the users following the user of the given cursor, ordered by id
+     *
+     * @param cursor {@link PageDTO#getNextCursor()} of the previous page, null for the first page
+     * @param size   number of users on the page, at most {@link com.kodemon.persistence.util.Constants#MAX_PAGE_SIZE}
+     * @return Page of Users
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    PageDTO<UserDTO> findUsersAfter(String cursor, int size);
+
+    /**
+     * Finds a page of summaries of all users, ordered by id
+     * <p>
+     * The summaries are read straight from the database, without loading the users' Pokemons and badges.
+     *
+     * @param page number of the page, starting at 0
+     * @param size number of users on the page, at most {@link com.kodemon.persistence.util.Constants#MAX_PAGE_SIZE}
+     * @return Page of user summaries
+     */
+    PageDTO<UserSummaryDTO> findUserSummaries(int page, int size);
+
+    /**
+     * Finds summaries of the users following the user of the given cursor, ordered by id
+     *
+     * @param cursor {@link PageDTO#getNextCursor()} of the previous page, null for the first page
+     * @param size   number of users on the page, at most {@link com.kodemon.persistence.util.Constants#MAX_PAGE_SIZE}
+     * @return Page of user summaries
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    PageDTO<UserSummaryDTO> findUserSummariesAfter(String cursor, int size);
+
     /**
      * Finds an user with the given id
      *
@@ -60,6 +137,25 @@ public interface UserFacade {
      */
     UserDTO findOneUser(Long id);
 
+    /**
+     * Takes a snapshot of the user with the given id, at the current version of the user
+     *
+     * @param id id of the user
+     * @return snapshot of the user, null if there is no such user
+     */
+    UserSnapshotDTO takeUserSnapshot(Long id);
+
+    /**
+     * Returns the given snapshot if the user has not changed since it was taken, a new snapshot otherwise
+     * <p>
+     * The user changes with every catch, level-up, badge and reordering of the team. A current snapshot is returned
+     * without touching the database.
+     *
+     * @param snapshot snapshot taken before
+     * @return the same snapshot when still current, a new one otherwise; null if the user does not exist any more
+     */
+    UserSnapshotDTO refreshUserSnapshot(UserSnapshotDTO snapshot);
+
     /**
      * Updates the user with the given id
      *
@@ -90,4 +186,13 @@ public interface UserFacade {
      * @param pokemonIndices list of six indices of pokemons, which will be set as first six
      */
     void chooseActivePokemons(Long id, List<Integer> pokemonIndices);
+
+    /**
+     * Suggest the first six pokemons of trainer which beat the leader of gym by the widest margin
+     *
+     * @param id    of trainer, whose pokemons are picked from
+     * @param gymId of gym to be challenged
+     * @return the suggested team, to be set by {@link #chooseActivePokemons(Long, List)}, null if there is no such trainer or gym
+     */
+    TeamSuggestionDTO suggestTeam(Long id, Long gymId);
 }
@@ -0,0 +1,84 @@
+package com.kodemon.benchmarks;
+
+import com.kodemon.api.dto.FightDTO;
+import com.kodemon.api.dto.UserDTO;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.entity.TrainerFight;
+import com.kodemon.service.implementations.BeanMappingServiceImpl;
+import com.kodemon.service.interfaces.BeanMappingService;
+import com.kodemon.service.util.OrikaMapper;
+import com.kodemon.service.util.ParallelMapping;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the entity to DTO mapping of the largest graphs, users and fights.
+ * <p>
+ * The lists are also mapped in parallel, split whatever their size, on a pool with a thread per available processor.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanMappingBenchmark {
+
+    private ParallelMapping parallelMapping;
+    private BeanMappingService beanMappingService;
+
+    private Trainer trainer;
+    private TrainerFight fight;
+    private List<Trainer> trainers;
+    private List<TrainerFight> fights;
+
+    @Setup
+    public void setup() {
+        BenchmarkData data = new BenchmarkData();
+        parallelMapping = new ParallelMapping(Runtime.getRuntime().availableProcessors(), 2);
+        beanMappingService = new BeanMappingServiceImpl(new OrikaMapper(), parallelMapping);
+        trainers = data.getTrainers();
+        fights = data.getFights();
+        trainer = trainers.get(trainers.size() - 1);
+        fight = fights.get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelMapping.close();
+    }
+
+    @Benchmark
+    public UserDTO mapTrainerToUserDTO() {
+        return beanMappingService.mapTo(trainer, UserDTO.class);
+    }
+
+    @Benchmark
+    public FightDTO mapTrainerFightToFightDTO() {
+        return beanMappingService.mapTo(fight, FightDTO.class);
+    }
+
+    @Benchmark
+    public List<UserDTO> mapTrainerListToUserDTOs() {
+        return beanMappingService.mapListTo(trainers, UserDTO.class);
+    }
+
+    @Benchmark
+    public List<FightDTO> mapTrainerFightListToFightDTOs() {
+        return beanMappingService.mapListTo(fights, FightDTO.class);
+    }
+
+    @Benchmark
+    public List<UserDTO> mapTrainerListToUserDTOsInParallel() {
+        return beanMappingService.mapListToInParallel(trainers, UserDTO.class);
+    }
+
+    @Benchmark
+    public List<FightDTO> mapTrainerFightListToFightDTOsInParallel() {
+        return beanMappingService.mapListToInParallel(fights, FightDTO.class);
+    }
+}
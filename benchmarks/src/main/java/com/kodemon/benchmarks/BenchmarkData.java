@@ -0,0 +1,100 @@
+package com.kodemon.benchmarks;
+
+import com.kodemon.persistence.entity.*;
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.enums.PokemonType;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+
+import static com.kodemon.persistence.util.Constants.MAX_ACTIVE_POKEMON;
+
+/**
+ * Builds in-memory entity graphs of realistic size for the benchmarks.
+ * <p>
+ * The graphs are detached from any persistence context, so the benchmarks measure only the code under test.
+ * A fixed seed is used, so every run works with the same data.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class BenchmarkData {
+
+    public static final int GYM_COUNT = 8;
+    public static final int TRAINER_POKEMON_COUNT = 60;
+    public static final int TRAINER_COUNT = 50;
+    public static final int FIGHT_COUNT = 1000;
+
+    private static final PokemonType[] GYM_TYPES = {
+            PokemonType.ROCK, PokemonType.WATER, PokemonType.ELECTRIC, PokemonType.GRASS,
+            PokemonType.POISON, PokemonType.PSYCHIC, PokemonType.FIRE, PokemonType.GROUND};
+
+    private final Random random = new Random(42);
+    private final List<Gym> gyms = new ArrayList<>();
+    private final List<Trainer> trainers = new ArrayList<>();
+    private final List<TrainerFight> fights = new ArrayList<>();
+
+    public BenchmarkData() {
+        for (int i = 0; i < GYM_COUNT; i++) {
+            Trainer leader = trainer("leader" + i, MAX_ACTIVE_POKEMON, 40 + 5 * i);
+            Gym gym = new Gym(leader);
+            gym.setCity("City " + i);
+            gym.setBadgeName("Badge " + i);
+            gym.setType(GYM_TYPES[i]);
+            gyms.add(gym);
+        }
+        for (int i = 0; i < TRAINER_COUNT; i++) {
+            Trainer trainer = trainer("trainer" + i, TRAINER_POKEMON_COUNT, 30);
+            for (int j = 0; j < i % GYM_COUNT; j++) {
+                trainer.addBadge(new Badge(gyms.get(j)));
+            }
+            trainers.add(trainer);
+        }
+        Calendar calendar = Calendar.getInstance();
+        for (int i = 0; i < FIGHT_COUNT; i++) {
+            TrainerFight fight = new TrainerFight();
+            fight.setChallenger(trainers.get(random.nextInt(TRAINER_COUNT)));
+            fight.setTargetGym(gyms.get(random.nextInt(GYM_COUNT)));
+            calendar.add(Calendar.MINUTE, -7);
+            fight.setFightTime(calendar.getTime());
+            fight.setWasChallengerSuccessful(random.nextBoolean());
+            fights.add(fight);
+        }
+    }
+
+    /**
+     * Creates a trainer with the given number of Pokemon, the first {@link com.kodemon.persistence.util.Constants#MAX_ACTIVE_POKEMON}
+     * of them being active.
+     */
+    private Trainer trainer(String userName, int pokemonCount, int averageLevel) {
+        Trainer trainer = new Trainer();
+        trainer.setUserName(userName);
+        trainer.setFirstName("First " + userName);
+        trainer.setLastName("Last " + userName);
+        trainer.setDateOfBirth(new Calendar.Builder().setDate(1990, random.nextInt(12), 1 + random.nextInt(28)).build().getTime());
+        PokemonName[] names = PokemonName.values();
+        for (int i = 0; i < pokemonCount; i++) {
+            Pokemon pokemon = new Pokemon(names[random.nextInt(names.length)]);
+            pokemon.setLevel(Math.max(1, averageLevel - 5 + random.nextInt(11)));
+            pokemon.setTrainer(trainer);
+            trainer.addPokemon(pokemon);
+            if (i < MAX_ACTIVE_POKEMON) {
+                trainer.addActivePokemon(pokemon);
+            }
+        }
+        return trainer;
+    }
+
+    public List<Gym> getGyms() {
+        return gyms;
+    }
+
+    public List<Trainer> getTrainers() {
+        return trainers;
+    }
+
+    public List<TrainerFight> getFights() {
+        return fights;
+    }
+}
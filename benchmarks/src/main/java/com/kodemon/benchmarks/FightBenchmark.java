@@ -0,0 +1,81 @@
+package com.kodemon.benchmarks;
+
+import com.kodemon.persistence.entity.Gym;
+import com.kodemon.persistence.entity.Pokemon;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.service.implementations.PokemonFightAdvantageServiceImpl;
+import com.kodemon.service.implementations.PokemonFightServiceImpl;
+import com.kodemon.service.implementations.TrainerFightServiceImpl;
+import com.kodemon.service.interfaces.PokemonFightService;
+import com.kodemon.service.interfaces.TrainerFightService;
+import com.kodemon.service.util.Pair;
+import com.kodemon.service.util.TeamSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks of the Pokemon and Trainer fight evaluation.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FightBenchmark {
+
+    private PokemonFightService pokemonFightService;
+    private TrainerFightService trainerFightService;
+
+    private List<Trainer> challengers;
+    private List<Trainer> leaders;
+    private List<TeamSnapshot> challengerTeams;
+    private List<TeamSnapshot> leaderTeams;
+    private Pokemon challengerPokemon;
+    private Pokemon targetPokemon;
+    private int next;
+
+    @Setup
+    public void setup() {
+        BenchmarkData data = new BenchmarkData();
+        pokemonFightService = new PokemonFightServiceImpl(new PokemonFightAdvantageServiceImpl());
+        // the fight evaluation does not touch the database, so no DAOs are needed
+        trainerFightService = new TrainerFightServiceImpl(null, null, pokemonFightService, null, null, null, null, null, null);
+        challengers = data.getTrainers();
+        leaders = data.getGyms().stream().map(Gym::getTrainer).collect(Collectors.toList());
+        challengerTeams = challengers.stream().map(TeamSnapshot::of).collect(Collectors.toList());
+        leaderTeams = leaders.stream().map(TeamSnapshot::of).collect(Collectors.toList());
+        challengerPokemon = challengers.get(0).getActivePokemons().get(0);
+        targetPokemon = leaders.get(0).getActivePokemons().get(0);
+    }
+
+    @Benchmark
+    public Pair<Double, Double> getScorePair() {
+        return pokemonFightService.getScorePair(challengerPokemon, targetPokemon);
+    }
+
+    @Benchmark
+    public double getChallengerAndTargetScore() {
+        return pokemonFightService.getChallengerScore(challengerPokemon, targetPokemon)
+                - pokemonFightService.getTargetScore(challengerPokemon, targetPokemon);
+    }
+
+    @Benchmark
+    public boolean wasFightForBadgeSuccessful() {
+        int i = next++;
+        return trainerFightService.wasFightForBadgeSuccessful(
+                challengers.get(i % challengers.size()),
+                leaders.get(i % leaders.size()));
+    }
+
+    @Benchmark
+    public boolean snapshotBeats() {
+        int i = next++;
+        return challengerTeams.get(i % challengerTeams.size()).beats(leaderTeams.get(i % leaderTeams.size()));
+    }
+}
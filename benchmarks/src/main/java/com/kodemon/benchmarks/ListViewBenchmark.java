@@ -0,0 +1,148 @@
+package com.kodemon.benchmarks;
+
+import com.kodemon.api.dto.*;
+import com.kodemon.api.enums.FightPeriod;
+import com.kodemon.api.facade.FightFacade;
+import com.kodemon.api.facade.GymFacade;
+import com.kodemon.api.facade.UserFacade;
+import com.kodemon.persistence.dao.BadgeDao;
+import com.kodemon.persistence.dao.PokemonDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.dao.TrainerFightDao;
+import com.kodemon.persistence.entity.*;
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.service.config.ServiceConfig;
+import com.kodemon.service.interfaces.GymService;
+import com.kodemon.service.util.PasswordStorage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.kodemon.persistence.util.Constants.DEFAULT_PAGE_SIZE;
+import static com.kodemon.persistence.util.Constants.MAX_ACTIVE_POKEMON;
+
+/**
+ * Benchmarks of the list views, one call of the facade per page, full DTOs against summaries.
+ * <p>
+ * Runs against the in-memory database of the service context, filled with the gyms and a few hundred trainers and fights.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListViewBenchmark {
+
+    private static final int TRAINER_COUNT = 200;
+    private static final int POKEMON_PER_TRAINER = 20;
+    private static final int FIGHT_COUNT = 2_000;
+
+    private AnnotationConfigApplicationContext context;
+    private UserFacade userFacade;
+    private GymFacade gymFacade;
+    private FightFacade fightFacade;
+
+    @Setup
+    public void setup() {
+        context = new AnnotationConfigApplicationContext(ServiceConfig.class);
+        userFacade = context.getBean(UserFacade.class);
+        gymFacade = context.getBean(GymFacade.class);
+        fightFacade = context.getBean(FightFacade.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).execute(status -> {
+            storeData();
+            return null;
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PageDTO<UserDTO> userPage() {
+        return userFacade.findAllUsers(0, DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PageDTO<UserSummaryDTO> userSummaryPage() {
+        return userFacade.findUserSummaries(0, DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Collection<GymDTO> gyms() {
+        return gymFacade.findAll();
+    }
+
+    @Benchmark
+    public Collection<GymSummaryDTO> gymSummaries() {
+        return gymFacade.findAllSummaries();
+    }
+
+    @Benchmark
+    public PageDTO<FightDTO> fightPage() {
+        return fightFacade.listFightsOfPeriod(FightPeriod.ALL, null, DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PageDTO<FightSummaryDTO> fightSummaryPage() {
+        return fightFacade.listFightSummariesOfPeriod(FightPeriod.ALL, null, DEFAULT_PAGE_SIZE);
+    }
+
+    private void storeData() {
+        GymService gymService = context.getBean(GymService.class);
+        TrainerDao trainerDao = context.getBean(TrainerDao.class);
+        PokemonDao pokemonDao = context.getBean(PokemonDao.class);
+        BadgeDao badgeDao = context.getBean(BadgeDao.class);
+        TrainerFightDao trainerFightDao = context.getBean(TrainerFightDao.class);
+        try {
+            gymService.initializeGyms();
+        } catch (PasswordStorage.CannotPerformOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        List<Gym> gyms = gymService.findAll();
+        PokemonName[] names = PokemonName.values();
+        Random random = new Random(42);
+        List<Trainer> trainers = new ArrayList<>();
+        for (int i = 0; i < TRAINER_COUNT; i++) {
+            Trainer trainer = new Trainer();
+            trainer.setUserName("trainer" + i);
+            trainer.setFirstName("First" + i);
+            trainer.setLastName("Last" + i);
+            trainer.setDateOfBirth(new Calendar.Builder().setDate(1990, 0, 1 + i % 28).build().getTime());
+            trainerDao.save(trainer);
+            for (int j = 0; j < POKEMON_PER_TRAINER; j++) {
+                Pokemon pokemon = new Pokemon(names[random.nextInt(names.length)]);
+                pokemon.setLevel(1 + random.nextInt(50));
+                pokemon.setTrainer(trainer);
+                pokemonDao.save(pokemon);
+                trainer.addPokemon(pokemon);
+                if (j < MAX_ACTIVE_POKEMON) {
+                    trainer.addActivePokemon(pokemon);
+                }
+            }
+            for (int j = 0; j < i % gyms.size(); j++) {
+                Badge badge = new Badge(gyms.get(j));
+                badgeDao.save(badge);
+                trainer.addBadge(badge);
+            }
+            trainers.add(trainer);
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < FIGHT_COUNT; i++) {
+            TrainerFight fight = new TrainerFight();
+            fight.setChallenger(trainers.get(random.nextInt(TRAINER_COUNT)));
+            fight.setTargetGym(gyms.get(random.nextInt(gyms.size())));
+            fight.setFightTime(new Date(now - 60_000L * (i + 1)));
+            fight.setWasChallengerSuccessful(random.nextBoolean());
+            trainerFightDao.save(fight);
+        }
+    }
+}
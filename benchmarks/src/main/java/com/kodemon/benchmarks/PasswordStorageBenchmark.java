@@ -0,0 +1,34 @@
+package com.kodemon.benchmarks;
+
+import com.kodemon.service.util.PasswordStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the password verification done on every login.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordStorageBenchmark {
+
+    private static final String PASSWORD = "password123";
+
+    private String hash;
+
+    @Setup
+    public void setup() throws PasswordStorage.CannotPerformOperationException {
+        hash = PasswordStorage.createHash(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verifyPassword() throws PasswordStorage.CannotPerformOperationException, PasswordStorage.InvalidHashException {
+        return PasswordStorage.verifyPassword(PASSWORD, hash);
+    }
+}
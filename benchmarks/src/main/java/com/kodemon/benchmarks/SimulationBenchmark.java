@@ -0,0 +1,79 @@
+package com.kodemon.benchmarks;
+
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.service.util.MatchupSimulator;
+import com.kodemon.service.util.TeamSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the bulk fight simulations.
+ * <p>
+ * A hundred thousand trainers challenge fifty gyms, and the strongest thousand trainers play a tournament, on one, two,
+ * four and eight workers. The fights share nothing mutable, so the time should fall close to linearly with the workers
+ * up to the number of the cores.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulationBenchmark {
+
+    private static final int TRAINERS = 100_000;
+    private static final int GYMS = 50;
+    private static final int TOURNAMENT_SIZE = 1_000;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private MatchupSimulator matchupSimulator;
+    private TeamSnapshot[] challengers;
+    private TeamSnapshot[] leaders;
+    private TeamSnapshot[] seeds;
+
+    @Setup
+    public void setup() {
+        matchupSimulator = new MatchupSimulator(parallelism);
+        SplittableRandom random = new SplittableRandom(42);
+        challengers = new TeamSnapshot[TRAINERS];
+        for (int i = 0; i < TRAINERS; i++) {
+            challengers[i] = team(i, random);
+        }
+        leaders = new TeamSnapshot[GYMS];
+        System.arraycopy(challengers, 0, leaders, 0, GYMS);
+        seeds = new TeamSnapshot[TOURNAMENT_SIZE];
+        System.arraycopy(challengers, 0, seeds, 0, TOURNAMENT_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        matchupSimulator.close();
+    }
+
+    @Benchmark
+    public MatchupSimulator.GymChallenges challengeGyms() {
+        return matchupSimulator.challengeGyms(challengers, leaders);
+    }
+
+    @Benchmark
+    public MatchupSimulator.Tournament tournament() {
+        return matchupSimulator.tournament(seeds);
+    }
+
+    private static TeamSnapshot team(long trainerId, SplittableRandom random) {
+        int size = 1 + random.nextInt(6);
+        int[] species = new int[size];
+        int[] levels = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            species[slot] = random.nextInt(PokemonName.values().length);
+            levels[slot] = 1 + random.nextInt(100);
+        }
+        return new TeamSnapshot(trainerId, "trainer" + trainerId, species, levels);
+    }
+}
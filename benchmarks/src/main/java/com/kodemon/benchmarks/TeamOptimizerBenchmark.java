@@ -0,0 +1,63 @@
+package com.kodemon.benchmarks;
+
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.service.util.TeamOptimizer;
+import com.kodemon.service.util.TeamSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the team suggested against a gym.
+ * <p>
+ * The best team out of 50, 500 and 5000 Pokemons is searched against a leader with a full team, the collections above
+ * the parallel threshold on all the cores.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TeamOptimizerBenchmark {
+
+    @Param({"50", "500", "5000"})
+    private int pokemonCount;
+
+    private TeamOptimizer teamOptimizer;
+    private int[] species;
+    private int[] levels;
+    private TeamSnapshot leader;
+
+    @Setup
+    public void setup() {
+        teamOptimizer = new TeamOptimizer(Runtime.getRuntime().availableProcessors());
+        SplittableRandom random = new SplittableRandom(42);
+        species = new int[pokemonCount];
+        levels = new int[pokemonCount];
+        for (int pokemon = 0; pokemon < pokemonCount; pokemon++) {
+            species[pokemon] = random.nextInt(PokemonName.values().length);
+            levels[pokemon] = 1 + random.nextInt(100);
+        }
+        int[] leaderSpecies = new int[6];
+        int[] leaderLevels = new int[6];
+        for (int slot = 0; slot < 6; slot++) {
+            leaderSpecies[slot] = random.nextInt(PokemonName.values().length);
+            leaderLevels[slot] = 1 + random.nextInt(100);
+        }
+        leader = new TeamSnapshot(1L, "leader", leaderSpecies, leaderLevels);
+    }
+
+    @TearDown
+    public void tearDown() {
+        teamOptimizer.close();
+    }
+
+    @Benchmark
+    public TeamOptimizer.Team suggestTeam() {
+        return teamOptimizer.optimize(species, levels, leader);
+    }
+}
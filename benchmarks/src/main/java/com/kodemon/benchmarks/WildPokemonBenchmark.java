@@ -0,0 +1,90 @@
+package com.kodemon.benchmarks;
+
+import com.kodemon.persistence.entity.Pokemon;
+import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.service.implementations.PokemonServiceImpl;
+import com.kodemon.service.interfaces.PokemonService;
+import com.kodemon.service.util.WildEncounters;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the wild Pokemon generation used by the grass fights.
+ * <p>
+ * The encounters of the grass fights are measured on one, two, four and all the available threads. Each thread draws
+ * from its own random generator, so the total throughput should grow linearly with the cores.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WildPokemonBenchmark {
+
+    private PokemonService pokemonService;
+    private WildEncounters wildEncounters;
+
+    @Setup
+    public void setup() {
+        wildEncounters = WildEncounters.standard();
+        // generating a wild Pokemon does not touch the database
+        pokemonService = new PokemonServiceImpl(null, wildEncounters);
+    }
+
+    @Benchmark
+    public Pokemon generateWildPokemonOfAnyType() {
+        return pokemonService.generateWildPokemon(null, 10, 20);
+    }
+
+    @Benchmark
+    public Pokemon generateWildPokemonOfGivenType() {
+        return pokemonService.generateWildPokemon(PokemonType.WATER, 10, 20);
+    }
+
+    @Benchmark
+    public Pokemon generateSeededWildPokemon(SeededRandom random) {
+        return wildEncounters.encounter(null, 10, 20, random.random);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Pokemon grassEncounterOnOneThread() {
+        return pokemonService.generateWildPokemon(null, 10, 20);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Pokemon grassEncounterOnTwoThreads() {
+        return pokemonService.generateWildPokemon(null, 10, 20);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Pokemon grassEncounterOnFourThreads() {
+        return pokemonService.generateWildPokemon(null, 10, 20);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Pokemon grassEncounterOnAllThreads() {
+        return pokemonService.generateWildPokemon(null, 10, 20);
+    }
+
+    /**
+     * Generator of a reproducible simulation, one per thread
+     */
+    @State(Scope.Thread)
+    public static class SeededRandom {
+        private SplittableRandom random;
+
+        @Setup
+        public void setup() {
+            random = new SplittableRandom(42);
+        }
+    }
+}
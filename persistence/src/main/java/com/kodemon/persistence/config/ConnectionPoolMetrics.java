@@ -0,0 +1,103 @@
+package com.kodemon.persistence.config;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live metrics of the connection pool.
+ * <p>
+ * The occupancy comes from the pool itself, the acquire latency is recorded by the pool through {@link IMetricsTracker}.
+ * Without the pool (embedded DataSource) every metric is zero.
+ *
+ * @author <a href="xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder timeoutCount = new LongAdder();
+
+    private volatile HikariPoolMXBean pool;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireCount.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeoutCount.increment();
+            }
+        };
+    }
+
+    /**
+     * Attaches the started pool, whose occupancy is then reported
+     *
+     * @param pool management interface of the pool
+     */
+    void setPool(HikariPoolMXBean pool) {
+        this.pool = pool;
+    }
+
+    public boolean isPooled() {
+        return pool != null;
+    }
+
+    public int getActiveConnections() {
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    public int getIdleConnections() {
+        return pool == null ? 0 : pool.getIdleConnections();
+    }
+
+    public int getTotalConnections() {
+        return pool == null ? 0 : pool.getTotalConnections();
+    }
+
+    /**
+     * @return number of threads currently waiting for a connection
+     */
+    public int getThreadsAwaitingConnection() {
+        return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+    }
+
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    /**
+     * @return average time it took to get a connection from the pool, in microseconds
+     */
+    public long getAverageAcquireMicros() {
+        long count = acquireCount.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(acquireNanos.sum() / count);
+    }
+
+    /**
+     * @return longest time it took to get a connection from the pool, in microseconds
+     */
+    public long getMaxAcquireMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get());
+    }
+
+    /**
+     * @return number of requests for a connection that timed out
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+}
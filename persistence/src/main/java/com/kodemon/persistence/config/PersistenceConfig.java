@@ -1,9 +1,14 @@
 package com.kodemon.persistence.config;
 
 import com.kodemon.persistence.dao.BadgeDao;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.hibernate.jpa.HibernatePersistenceProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.instrument.classloading.InstrumentationLoadTimeWeaver;
@@ -15,6 +20,7 @@ import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
+import javax.inject.Inject;
 import javax.sql.DataSource;
 
 /**
@@ -22,14 +28,22 @@ import javax.sql.DataSource;
  * <p>
  * <p>We prefer using annotation based configuration (Java config).
  * <p>For the creation of DAOs we chose to use {@link org.springframework.data.jpa.repository.JpaRepository} from Spring Data.
+ * <p>The DataSource is set up by the {@code kodemon.datasource.*} properties from {@code datasource.properties},
+ * which can be overridden by system properties.
  *
  * @author <a href="xseleng@fi.muni.cz">Maros Seleng, 422624</a>
  */
 @Configuration
 @EnableTransactionManagement
 @EnableJpaRepositories(basePackageClasses = BadgeDao.class)
+@PropertySource("classpath:datasource.properties")
 public class PersistenceConfig {
 
+    private static final String DERBY_STATEMENT_CACHE_SIZE = "derby.language.statementCacheSize";
+
+    @Inject
+    private Environment environment;
+
     /**
      * Enables automatic translation of exceptions to DataAccessExceptions.
      */
@@ -69,13 +83,59 @@ public class PersistenceConfig {
 
     /**
      * Creates the {@link DataSource} configured to use the Derby database.
+     * <p>
+     * By default it is an embedded in-memory database without pooling,
+     * with {@code kodemon.datasource.pooled=true} it is a HikariCP pool over the database at {@code kodemon.datasource.url}.
      *
      * @return The dataSource
      */
     @Bean
     public DataSource db() {
-        return new EmbeddedDatabaseBuilder()
-                .setType(EmbeddedDatabaseType.DERBY)
-                .build();
+        if (!environment.getRequiredProperty("kodemon.datasource.pooled", Boolean.class)) {
+            return new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.DERBY)
+                    .build();
+        }
+        // read by Derby when it boots, so it has to be set before the first connection
+        if (System.getProperty(DERBY_STATEMENT_CACHE_SIZE) == null) {
+            System.setProperty(DERBY_STATEMENT_CACHE_SIZE, environment.getRequiredProperty("kodemon.datasource.statementCacheSize"));
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("kodemon");
+        config.setJdbcUrl(environment.getRequiredProperty("kodemon.datasource.url"));
+        config.setUsername(environment.getProperty("kodemon.datasource.username"));
+        config.setPassword(environment.getProperty("kodemon.datasource.password"));
+        config.setMaximumPoolSize(environment.getRequiredProperty("kodemon.datasource.maxPoolSize", Integer.class));
+        config.setMinimumIdle(environment.getRequiredProperty("kodemon.datasource.minIdle", Integer.class));
+        config.setConnectionTimeout(environment.getRequiredProperty("kodemon.datasource.connectionTimeoutMs", Long.class));
+        config.setLeakDetectionThreshold(environment.getRequiredProperty("kodemon.datasource.leakDetectionThresholdMs", Long.class));
+        config.setMetricsTrackerFactory(connectionPoolMetrics());
+
+        HikariDataSource dataSource = new HikariDataSource(config);
+        connectionPoolMetrics().setPool(dataSource.getHikariPoolMXBean());
+        return dataSource;
+    }
+
+    /**
+     * Metrics of the connection pool, used for sizing the pool against the number of request threads
+     *
+     * @return metrics of the pool, all zero without pooling
+     */
+    @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
+    }
+
+    /**
+     * Back-fills the normalized usernames of a database created before they were stored and creates their unique index
+     *
+     * @return the migration, done by the time the context is up
+     */
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public UserNameNormalization userNameNormalization() {
+        return new UserNameNormalization(db(),
+                environment.getRequiredProperty("kodemon.datasource.renameCaseConflicts", Boolean.class));
     }
 }
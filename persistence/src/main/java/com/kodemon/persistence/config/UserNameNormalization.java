@@ -0,0 +1,177 @@
+package com.kodemon.persistence.config;
+
+import com.kodemon.persistence.entity.Trainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Migrates a database created before the normalized usernames were stored, once the schema is updated
+ * <p>
+ * The schema update adds the column with nulls, on which the unique index cannot be created, so the index is not part
+ * of the mapping and is created here instead: the normalized usernames are filled in first and the index is created
+ * next, in one transaction. Once the index exists, nothing is done.
+ * <p>
+ * Usernames differing from each other in case only could not be told apart at login any more. Unless renaming them is
+ * allowed, the migration then fails listing them and changes nothing, so that an operator resolves them. When renaming
+ * is allowed, the oldest Trainer keeps the username and the others get their id appended.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ * @see com.kodemon.persistence.entity.Trainer#normalizeUserName(String)
+ */
+public class UserNameNormalization {
+
+    /**
+     * Name of the unique index of the normalized usernames
+     */
+    public static final String INDEX_NAME = "IDX_TRAINER_USER_NAME_NORMALIZED";
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserNameNormalization.class);
+
+    private final DataSource dataSource;
+    private final boolean renameConflicts;
+
+    /**
+     * @param dataSource      database to migrate
+     * @param renameConflicts whether the usernames differing from an older Trainer's in case only are renamed,
+     *                        otherwise they fail the migration
+     */
+    public UserNameNormalization(DataSource dataSource, boolean renameConflicts) {
+        this.dataSource = dataSource;
+        this.renameConflicts = renameConflicts;
+    }
+
+    /**
+     * Fills in the normalized usernames and creates the unique index, unless the index exists already
+     *
+     * @throws SQLException          if the Trainers cannot be updated or the index cannot be created, nothing is changed
+     *                               then
+     * @throws IllegalStateException if usernames differ in case only and renaming them is not allowed, nothing is
+     *                               changed then
+     */
+    @PostConstruct
+    public void migrate() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (indexExists(connection)) {
+                return;
+            }
+            connection.setAutoCommit(false);
+            try {
+                int updated = normalize(connection);
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(
+                            "create unique index APP." + INDEX_NAME + " on APP.TRAINER (userNameNormalized)");
+                }
+                connection.commit();
+                if (updated > 0) {
+                    LOG.info("Normalized the usernames of {} stored trainers", updated);
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static boolean indexExists(Connection connection) throws SQLException {
+        try (ResultSet indexInfo = connection.getMetaData().getIndexInfo(null, "APP", "TRAINER", true, false)) {
+            while (indexInfo.next()) {
+                if (INDEX_NAME.equals(indexInfo.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills in the normalized usernames in the order of the ids, so the oldest Trainer keeps a username shared in case
+     *
+     * @return number of Trainers updated
+     */
+    private int normalize(Connection connection) throws SQLException {
+        Map<String, List<StoredUserName>> byNormalized = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet trainers = statement.executeQuery(
+                     "select id, userName, userNameNormalized from APP.TRAINER order by id")) {
+            while (trainers.next()) {
+                StoredUserName stored = new StoredUserName(trainers.getLong(1), trainers.getString(2),
+                        trainers.getString(3));
+                byNormalized.computeIfAbsent(Trainer.normalizeUserName(stored.userName), key -> new ArrayList<>())
+                        .add(stored);
+            }
+        }
+        List<List<StoredUserName>> conflicts = byNormalized.values().stream()
+                .filter(sharing -> sharing.size() > 1)
+                .collect(Collectors.toList());
+        if (!conflicts.isEmpty() && !renameConflicts) {
+            throw new IllegalStateException("Usernames differing in case only cannot be told apart at login, rename"
+                    + " them or set kodemon.datasource.renameCaseConflicts=true to append the id to all but the oldest"
+                    + " one: " + conflicts);
+        }
+        int updated = 0;
+        try (PreparedStatement update = connection.prepareStatement(
+                "update APP.TRAINER set userName = ?, userNameNormalized = ? where id = ?")) {
+            for (Map.Entry<String, List<StoredUserName>> entry : byNormalized.entrySet()) {
+                List<StoredUserName> sharing = entry.getValue();
+                StoredUserName oldest = sharing.get(0);
+                if (!entry.getKey().equals(oldest.userNameNormalized)) {
+                    addUpdate(update, oldest.id, oldest.userName, entry.getKey());
+                    updated++;
+                }
+                for (StoredUserName renamed : sharing.subList(1, sharing.size())) {
+                    String userName = renamed.userName + "_" + renamed.id;
+                    while (byNormalized.containsKey(Trainer.normalizeUserName(userName))) {
+                        userName += "_";
+                    }
+                    LOG.warn("Renamed trainer {} to {}, the username differs from an older trainer's in case only",
+                            renamed.userName, userName);
+                    addUpdate(update, renamed.id, userName, Trainer.normalizeUserName(userName));
+                    updated++;
+                }
+            }
+            update.executeBatch();
+        }
+        return updated;
+    }
+
+    private static void addUpdate(PreparedStatement update, long id, String userName, String normalized)
+            throws SQLException {
+        update.setString(1, userName);
+        update.setString(2, normalized);
+        update.setLong(3, id);
+        update.addBatch();
+    }
+
+    /**
+     * A username as stored before the migration
+     */
+    private static final class StoredUserName {
+        private final long id;
+        private final String userName;
+        private final String userNameNormalized;
+
+        StoredUserName(long id, String userName, String userNameNormalized) {
+            this.id = id;
+            this.userName = userName;
+            this.userNameNormalized = userNameNormalized;
+        }
+
+        @Override
+        public String toString() {
+            return id + " " + userName;
+        }
+    }
+}
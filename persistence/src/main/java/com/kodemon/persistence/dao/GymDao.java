@@ -3,9 +3,15 @@ package com.kodemon.persistence.dao;
 import com.kodemon.persistence.entity.Gym;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.GymSummary;
+import com.kodemon.persistence.projection.TermPopularity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 /**
@@ -16,12 +22,19 @@ import java.util.List;
 @Repository
 public interface GymDao extends JpaRepository<Gym, Long> {
 
+    /**
+     * Second-level cache region of the results of all the finders. It is invalidated on every write to the gyms.
+     */
+    String QUERY_CACHE_REGION = "gym-queries";
+
     /**
      * Returns a {@link List} of {@link Gym}s with the given username.
      *
      * @param city City to search for.
      * @return {@link List} of {@link Gym}s in the given city.
      */
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
     List<Gym> findByCity(String city);
 
     /**
@@ -32,6 +45,8 @@ public interface GymDao extends JpaRepository<Gym, Long> {
      * @param city City to search for.
      * @return {@link List} of {@link Gym}s with similar cities to the given one.
      */
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
     List<Gym> findByCityLike(String city);
 
 
@@ -44,6 +59,8 @@ public interface GymDao extends JpaRepository<Gym, Long> {
      * @param string String contained in {@link Gym}'s city.
      * @return {@link List} of {@link Gym}s with cities containing the given string.
      */
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
     List<Gym> findByCityContaining(String string);
 
     /**
@@ -52,8 +69,22 @@ public interface GymDao extends JpaRepository<Gym, Long> {
      * @param badgeName Badge name to search for.
      * @return {@link List} of {@link Gym}s with the given badge name.
      */
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
     List<Gym> findByBadgeName(String badgeName);
 
+    /**
+     * Returns a {@link List} of {@link Gym}s with the given badge name, with the leader's active {@link com.kodemon.persistence.entity.Pokemon}s loaded.
+     *
+     * @param badgeName Badge name to search for.
+     * @return {@link List} of {@link Gym}s with the given badge name.
+     * @see Gym#LEADER_TEAM_GRAPH
+     */
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
+    @EntityGraph(Gym.LEADER_TEAM_GRAPH)
+    List<Gym> findWithLeaderTeamByBadgeName(String badgeName);
+
     /**
      * Returns a {@link List} of {@link Gym}s with similar badge names to the given one.
      * <p/>
@@ -62,6 +93,8 @@ public interface GymDao extends JpaRepository<Gym, Long> {
      * @param badgeName Badge name to search for.
      * @return {@link List} of {@link Gym}s with similar badge names to the given one.
      */
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
     List<Gym> findByBadgeNameLike(String badgeName);
 
 
@@ -74,6 +107,8 @@ public interface GymDao extends JpaRepository<Gym, Long> {
      * @param string String contained in {@link Gym}'s badge name.
      * @return {@link List} of {@link Gym}s with badge name containing the given string.
      */
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
     List<Gym> findByBadgeNameContaining(String string);
 
     /**
@@ -82,6 +117,8 @@ public interface GymDao extends JpaRepository<Gym, Long> {
      * @param type {@link PokemonType} to search for.
      * @return {@link List} of {@link Gym}s of the given type.
      */
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
     List<Gym> findByType(PokemonType type);
 
     /**
@@ -92,5 +129,46 @@ public interface GymDao extends JpaRepository<Gym, Long> {
      * @param trainer {@link Trainer} to search for.
      * @return {@link List} of {@link Gym}s of the given trainer.
      */
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
     List<Gym> findByTrainer(Trainer trainer);
+
+    /**
+     * Returns a {@link List} of all {@link Gym}s.
+     *
+     * @return {@link List} of all {@link Gym}s.
+     */
+    @Override
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
+    List<Gym> findAll();
+
+    /**
+     * Returns the summaries of all {@link Gym}s ordered by id, without loading the gyms or their leaders.
+     *
+     * @return {@link List} of the summaries of all {@link Gym}s.
+     */
+    @Query("select new com.kodemon.persistence.projection.GymSummary(g.id, g.city, g.badgeName, g.type, t.id, t.userName) "
+            + "from Gym g left join g.trainer t order by g.id")
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = QUERY_CACHE_REGION)})
+    List<GymSummary> findSummaries();
+
+    /**
+     * Returns the cities of all {@link Gym}s, each with the number of fights fought in the gym.
+     *
+     * @return {@link List} of {@link TermPopularity}s of the cities, one per gym
+     */
+    @Query("select new com.kodemon.persistence.projection.TermPopularity(g.id, g.city, "
+            + "(select count(f) from TrainerFight f where f.targetGym = g)) from Gym g")
+    List<TermPopularity> findCityPopularities();
+
+    /**
+     * Returns the badge names of all {@link Gym}s, each with the number of badges the gym awarded.
+     *
+     * @return {@link List} of {@link TermPopularity}s of the badge names, one per gym
+     */
+    @Query("select new com.kodemon.persistence.projection.TermPopularity(g.id, g.badgeName, "
+            + "(select count(b) from Badge b where b.gym = g)) from Gym g")
+    List<TermPopularity> findBadgeNamePopularities();
 }
@@ -3,7 +3,9 @@ package com.kodemon.persistence.dao;
 import com.kodemon.persistence.entity.Pokemon;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.projection.TermPopularity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -43,6 +45,16 @@ public interface PokemonDao extends JpaRepository<Pokemon, Long> {
      */
     List<Pokemon> findByNicknameStartingWith(String prefix);
 
+    /**
+     * Returns the distinct nicknames of the {@link Pokemon}s, each with the number of Pokemons having it
+     * and the lowest id of them.
+     *
+     * @return {@link List} of {@link TermPopularity}s of the nicknames
+     */
+    @Query("select new com.kodemon.persistence.projection.TermPopularity(min(p.id), p.nickname, count(p)) "
+            + "from Pokemon p where p.nickname is not null group by p.nickname")
+    List<TermPopularity> findNicknamePopularities();
+
     /**
      * Returns a {@link List} of {@link Pokemon}s with given nickname
      *
@@ -1,9 +1,16 @@
 package com.kodemon.persistence.dao;
 
 import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.projection.TermPopularity;
+import com.kodemon.persistence.projection.TrainerSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -15,6 +22,12 @@ import java.util.List;
 @Repository
 public interface TrainerDao extends JpaRepository<Trainer, Long> {
 
+    /**
+     * Selects the {@link TrainerSummary}s of Trainers aliased as t
+     */
+    String SUMMARY_QUERY = "select new com.kodemon.persistence.projection.TrainerSummary(t.id, t.userName, t.firstName, t.lastName, t.dateOfBirth) "
+            + "from Trainer t";
+
     /**
      * Returns a {@link List} of {@link Trainer}s with the given username.
      *
@@ -23,6 +36,34 @@ public interface TrainerDao extends JpaRepository<Trainer, Long> {
      */
     List<Trainer> findByUserName(String userName);
 
+    /**
+     * Returns the {@link Trainer} with the given username ignoring case, looked up through the unique index of the normalized usernames.
+     *
+     * @param userNameNormalized username to search by, normalized by {@link Trainer#normalizeUserName(String)}
+     * @return the Trainer with the given username, null if there is none
+     */
+    Trainer findByUserNameNormalized(String userNameNormalized);
+
+    /**
+     * Returns a {@link List} of {@link Trainer}s with the given username, with their active {@link com.kodemon.persistence.entity.Pokemon}s loaded.
+     *
+     * @param userName Username to search by
+     * @return List of Trainers with the given userName
+     * @see Trainer#ACTIVE_TEAM_GRAPH
+     */
+    @EntityGraph(Trainer.ACTIVE_TEAM_GRAPH)
+    List<Trainer> findWithActiveTeamByUserName(String userName);
+
+    /**
+     * Returns a {@link List} of {@link Trainer}s with the given ids, with their active {@link com.kodemon.persistence.entity.Pokemon}s loaded.
+     *
+     * @param ids ids of the Trainers
+     * @return List of the Trainers found, in no particular order
+     * @see Trainer#ACTIVE_TEAM_GRAPH
+     */
+    @EntityGraph(Trainer.ACTIVE_TEAM_GRAPH)
+    List<Trainer> findWithActiveTeamByIdIn(Collection<Long> ids);
+
     /**
      * Returns a {@link List} of {@link Trainer}s with username similar to the given one.
      * <p/>
@@ -118,4 +159,70 @@ public interface TrainerDao extends JpaRepository<Trainer, Long> {
      * @return {@link List} of {@link Trainer}s that were born between two given dates
      */
     List<Trainer> findByDateOfBirthBetween(Date from, Date till);
+
+    /**
+     * Returns a {@link List} of all {@link Trainer}s.
+     *
+     * @return {@link List} of all {@link Trainer}s
+     * @see Trainer#SUMMARY_GRAPH
+     */
+    @Override
+    @EntityGraph(Trainer.SUMMARY_GRAPH)
+    List<Trainer> findAll();
+
+    /**
+     * Returns a {@link Slice} of {@link Trainer}s, without counting all of them.
+     *
+     * @param pageable page number, size and sort of the slice
+     * @return {@link Slice} of {@link Trainer}s
+     * @see Trainer#SUMMARY_GRAPH
+     */
+    @EntityGraph(Trainer.SUMMARY_GRAPH)
+    Slice<Trainer> findAllBy(Pageable pageable);
+
+    /**
+     * Returns {@link Trainer}s with id greater than the given one, for seeking through all the Trainers by id.
+     * <p/>
+     * Unlike a page number, the given id does not make the database skip over the preceding rows.
+     *
+     * @param id       id of the last Trainer already returned
+     * @param pageable number and order of the Trainers to return, the page number should be 0
+     * @return {@link List} of {@link Trainer}s following the given id
+     * @see Trainer#SUMMARY_GRAPH
+     */
+    @EntityGraph(Trainer.SUMMARY_GRAPH)
+    List<Trainer> findByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Returns a {@link Slice} of the summaries of {@link Trainer}s, without loading the Trainers.
+     *
+     * @param pageable page number, size and sort of the slice
+     * @return {@link Slice} of {@link TrainerSummary}s
+     */
+    @Query(SUMMARY_QUERY)
+    Slice<TrainerSummary> findSummariesBy(Pageable pageable);
+
+    /**
+     * Returns the summaries of {@link Trainer}s with id greater than the given one, without loading the Trainers.
+     *
+     * @param id       id of the last Trainer already returned
+     * @param pageable number and order of the summaries to return, the page number should be 0
+     * @return {@link List} of {@link TrainerSummary}s following the given id
+     * @see #findByIdGreaterThan(Long, Pageable)
+     */
+    @Query(SUMMARY_QUERY + " where t.id > ?1")
+    List<TrainerSummary> findSummariesByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Returns the usernames of {@link Trainer}s with id greater than the given one, each with the number of fights
+     * the Trainer challenged a gym in.
+     *
+     * @param id       id of the last Trainer already returned
+     * @param pageable number of the usernames to return, the page number should be 0 and the page unsorted,
+     *                 the usernames are ordered by id
+     * @return {@link List} of {@link TermPopularity}s of the usernames following the given id
+     */
+    @Query("select new com.kodemon.persistence.projection.TermPopularity(t.id, t.userName, "
+            + "(select count(f) from TrainerFight f where f.challenger = t)) from Trainer t where t.id > ?1 order by t.id")
+    List<TermPopularity> findUserNamePopularitiesByIdGreaterThan(Long id, Pageable pageable);
 }
@@ -3,7 +3,13 @@ package com.kodemon.persistence.dao;
 import com.kodemon.persistence.entity.Gym;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.entity.TrainerFight;
+import com.kodemon.persistence.projection.FightSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
@@ -11,11 +17,28 @@ import java.util.List;
 
 /**
  * Data Access Object for the TrainerFight entity.
+ * <p>
+ * All the finders load the fights with {@link TrainerFight#HISTORY_GRAPH}, so listing fights does not issue
+ * a separate select for every challenger and gym.
+ * <p>
+ * The challenger and gym finders compare the foreign key columns of the fight. A derived query would restrict the
+ * joined challenger or gym instead, and Derby then scans the whole TRAINER_FIGHT table rather than using its indexes.
  *
  * @author Oliver Roch
  */
 @Repository
-public interface TrainerFightDao extends JpaRepository<TrainerFight, Long> {
+public interface TrainerFightDao extends JpaRepository<TrainerFight, Long>, TrainerFightDaoCustom {
+
+    /**
+     * Order of the fight history, newest first, which the seek by fight time and id relies on
+     */
+    Sort HISTORY_ORDER = new Sort(Sort.Direction.DESC, "fightTime", "id");
+
+    /**
+     * Selects the {@link FightSummary}s of fights aliased as f
+     */
+    String SUMMARY_QUERY = "select new com.kodemon.persistence.projection.FightSummary(f.id, f.fightTime, c.id, c.userName, c.firstName, "
+            + "g.id, g.city, f.wasChallengerSuccessful) from TrainerFight f join f.challenger c join f.targetGym g";
 
     /**
      * Find all fights where challenger is specified trainer
@@ -23,6 +46,8 @@ public interface TrainerFightDao extends JpaRepository<TrainerFight, Long> {
      * @param challenger trainer, whose fights as challenger we want to find
      * @return all fights, where specified trainer was as challenger
      */
+    @EntityGraph(TrainerFight.HISTORY_GRAPH)
+    @Query("select f from TrainerFight f where f.challenger = ?1")
     List<TrainerFight> findByChallenger(Trainer challenger);
 
     /**
@@ -31,6 +56,8 @@ public interface TrainerFightDao extends JpaRepository<TrainerFight, Long> {
      * @param targetGym gym for which the fights were
      * @return list of fights for the specified gym
      */
+    @EntityGraph(TrainerFight.HISTORY_GRAPH)
+    @Query("select f from TrainerFight f where f.targetGym = ?1")
     List<TrainerFight> findByTargetGym(Gym targetGym);
 
     /**
@@ -40,5 +67,115 @@ public interface TrainerFightDao extends JpaRepository<TrainerFight, Long> {
      * @param til  upper bound for the fight time
      * @return list of all fights between specified times
      */
+    @EntityGraph(TrainerFight.HISTORY_GRAPH)
     List<TrainerFight> findByFightTimeBetween(Date from, Date til);
+
+    /**
+     * Find all fights
+     *
+     * @return list of all fights
+     */
+    @Override
+    @EntityGraph(TrainerFight.HISTORY_GRAPH)
+    List<TrainerFight> findAll();
+
+    /**
+     * Returns a {@link Slice} of all fights, without counting all of them
+     *
+     * @param pageable page number, size and sort of the slice
+     * @return slice of all fights
+     */
+    @EntityGraph(TrainerFight.HISTORY_GRAPH)
+    Slice<TrainerFight> findAllBy(Pageable pageable);
+
+    /**
+     * Returns a {@link Slice} of the fights between specified times, without counting all of them
+     *
+     * @param from     bottom bound for the fight time
+     * @param til      upper bound for the fight time
+     * @param pageable page number, size and sort of the slice
+     * @return slice of the fights between specified times
+     */
+    @EntityGraph(TrainerFight.HISTORY_GRAPH)
+    Slice<TrainerFight> findByFightTimeBetween(Date from, Date til, Pageable pageable);
+
+    /**
+     * Find the latest fights since the specified time
+     *
+     * @param from     bottom bound for the fight time
+     * @param pageable number of the fights to return, sorted by {@link #HISTORY_ORDER}
+     * @return list of the latest fights
+     */
+    @EntityGraph(TrainerFight.HISTORY_GRAPH)
+    List<TrainerFight> findByFightTimeGreaterThanEqual(Date from, Pageable pageable);
+
+    /**
+     * Find the latest fights since the specified time that precede the given fight in the history,
+     * for seeking through the history by the fight time and id of the last fight already returned.
+     * <p>
+     * Unlike a page number, the given fight does not make the database skip over the newer fights.
+     *
+     * @param from      bottom bound for the fight time
+     * @param fightTime fight time of the last fight already returned
+     * @param id        id of the last fight already returned
+     * @param pageable  number of the fights to return, sorted by {@link #HISTORY_ORDER}
+     * @return list of the fights following the given one
+     */
+    @EntityGraph(TrainerFight.HISTORY_GRAPH)
+    @Query("select f from TrainerFight f where f.fightTime >= ?1 and f.fightTime <= ?2 and (f.fightTime < ?2 or f.id < ?3)")
+    List<TrainerFight> findByFightTimeGreaterThanEqualBefore(Date from, Date fightTime, Long id, Pageable pageable);
+
+    /**
+     * Find the summaries of the latest fights since the specified time, without loading the fights
+     *
+     * @param from     bottom bound for the fight time
+     * @param pageable number of the summaries to return, sorted by {@link #HISTORY_ORDER}
+     * @return list of the summaries of the latest fights
+     * @see #findByFightTimeGreaterThanEqual(Date, Pageable)
+     */
+    @Query(SUMMARY_QUERY + " where f.fightTime >= ?1")
+    List<FightSummary> findSummariesByFightTimeGreaterThanEqual(Date from, Pageable pageable);
+
+    /**
+     * Find the summaries of the latest fights between the specified times, without loading the fights
+     *
+     * @param from     bottom bound for the fight time
+     * @param til      upper bound for the fight time
+     * @param pageable number of the summaries to return, sorted by {@link #HISTORY_ORDER}
+     * @return list of the summaries of the latest fights between the times
+     */
+    @Query(SUMMARY_QUERY + " where f.fightTime >= ?1 and f.fightTime <= ?2")
+    List<FightSummary> findSummariesByFightTimeBetween(Date from, Date til, Pageable pageable);
+
+    /**
+     * Find the summaries of the latest fights since the specified time that precede the given fight in the history,
+     * without loading the fights
+     *
+     * @param from      bottom bound for the fight time
+     * @param fightTime fight time of the last fight already returned
+     * @param id        id of the last fight already returned
+     * @param pageable  number of the summaries to return, sorted by {@link #HISTORY_ORDER}
+     * @return list of the summaries of the fights following the given one
+     * @see #findByFightTimeGreaterThanEqualBefore(Date, Date, Long, Pageable)
+     */
+    @Query(SUMMARY_QUERY + " where f.fightTime >= ?1 and f.fightTime <= ?2 and (f.fightTime < ?2 or f.id < ?3)")
+    List<FightSummary> findSummariesByFightTimeGreaterThanEqualBefore(Date from, Date fightTime, Long id, Pageable pageable);
+
+    /**
+     * Find the summaries of all fights of the challenger with the given id, newest first
+     *
+     * @param challengerId id of the challenger
+     * @return list of the summaries of the challenger's fights
+     */
+    @Query(SUMMARY_QUERY + " where f.challenger.id = ?1 order by f.fightTime desc, f.id desc")
+    List<FightSummary> findSummariesByChallengerId(Long challengerId);
+
+    /**
+     * Find the summaries of all fights for the gym with the given id, newest first
+     *
+     * @param targetGymId id of the gym
+     * @return list of the summaries of the gym's fights
+     */
+    @Query(SUMMARY_QUERY + " where f.targetGym.id = ?1 order by f.fightTime desc, f.id desc")
+    List<FightSummary> findSummariesByTargetGymId(Long targetGymId);
 }
@@ -0,0 +1,25 @@
+package com.kodemon.persistence.dao;
+
+import com.kodemon.persistence.entity.TrainerFight;
+
+import java.util.stream.Stream;
+
+/**
+ * Finders of the {@link TrainerFightDao}, which Spring Data cannot derive
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ * @see TrainerFightDaoImpl
+ */
+public interface TrainerFightDaoCustom {
+
+    /**
+     * Streams all fights ordered by id, with the challenger, the target gym and its leader fetched in the same query.
+     * <p>
+     * The rows are read from an open cursor as the stream is consumed, {@link com.kodemon.persistence.util.Constants#EXPORT_FETCH_SIZE}
+     * at a time, so the stream has to be consumed in a transaction and closed afterwards.
+     * The fights stay in the persistence context, which the caller should clear as it goes.
+     *
+     * @return stream of all fights
+     */
+    Stream<TrainerFight> streamAll();
+}
@@ -0,0 +1,38 @@
+package com.kodemon.persistence.dao;
+
+import com.kodemon.persistence.entity.TrainerFight;
+import org.hibernate.CacheMode;
+import org.hibernate.query.Query;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.stream.Stream;
+
+import static com.kodemon.persistence.util.Constants.EXPORT_FETCH_SIZE;
+
+/**
+ * Implementation of the {@link TrainerFightDaoCustom} finders, picked up by Spring Data by its name
+ * <p>
+ * Spring Data JPA 1.10 only streams query results for the Hibernate versions it recognizes, which 5.2 is not,
+ * so the stream is taken from the Hibernate query directly.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TrainerFightDaoImpl implements TrainerFightDaoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<TrainerFight> streamAll() {
+        return entityManager
+                .createQuery("select f from TrainerFight f join fetch f.challenger join fetch f.targetGym g join fetch g.trainer order by f.id", TrainerFight.class)
+                .unwrap(Query.class)
+                .setFetchSize(EXPORT_FETCH_SIZE)
+                .setReadOnly(true)
+                // the export reads every fight once, it would only evict the cache entries in use
+                .setCacheMode(CacheMode.IGNORE)
+                .stream();
+    }
+}
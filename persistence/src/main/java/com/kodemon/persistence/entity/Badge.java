@@ -1,8 +1,13 @@
 package com.kodemon.persistence.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 
+import static com.kodemon.persistence.util.Constants.ID_ALLOCATION_SIZE;
+
 /**
  * Entity that represents a badge a trainer can earn from a gym.
  * <p>
@@ -12,11 +17,14 @@ import javax.validation.constraints.NotNull;
  */
 
 @Entity
-@Table(name = "BADGE", schema = "APP")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "BADGE", schema = "APP", indexes = @Index(name = "IDX_BADGE_GYM", columnList = "gym_id"))
 public class Badge {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "badge_seq")
+    @SequenceGenerator(name = "badge_seq", sequenceName = "BADGE_SEQ", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -1,10 +1,14 @@
 package com.kodemon.persistence.entity;
 
 import com.kodemon.persistence.enums.PokemonType;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 
+import static com.kodemon.persistence.util.Constants.ID_ALLOCATION_SIZE;
+
 /**
  * Entity that represents a pokemon gym.
  * <p>
@@ -14,11 +18,25 @@ import javax.validation.constraints.NotNull;
  */
 
 @Entity
-@Table(name = "GYM", schema = "APP")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "GYM", schema = "APP", indexes = {
+        @Index(name = "IDX_GYM_BADGE_NAME", columnList = "badgeName"),
+        @Index(name = "IDX_GYM_CITY", columnList = "city")
+})
+@NamedEntityGraph(name = Gym.LEADER_TEAM_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "trainer", subgraph = "leader"),
+        subgraphs = @NamedSubgraph(name = "leader", attributeNodes = @NamedAttributeNode("activePokemons")))
 public class Gym {
 
+    /**
+     * Fetch plan with the gym leader and his active {@link Pokemon}s, for fights.
+     */
+    public static final String LEADER_TEAM_GRAPH = "Gym.leaderTeam";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "gym_seq")
+    @SequenceGenerator(name = "gym_seq", sequenceName = "GYM_SEQ", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
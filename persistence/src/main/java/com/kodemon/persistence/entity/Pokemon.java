@@ -7,6 +7,7 @@ import javax.persistence.*;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
+import static com.kodemon.persistence.util.Constants.ID_ALLOCATION_SIZE;
 import static com.kodemon.persistence.util.Constants.MIN_POKEMON_LEVEL;
 
 /**
@@ -18,11 +19,15 @@ import static com.kodemon.persistence.util.Constants.MIN_POKEMON_LEVEL;
  */
 
 @Entity
-@Table(name = "POKEMON", schema = "APP")
+@Table(name = "POKEMON", schema = "APP", indexes = {
+        @Index(name = "IDX_POKEMON_TRAINER", columnList = "trainer_id"),
+        @Index(name = "IDX_POKEMON_LEVEL", columnList = "level")
+})
 public class Pokemon {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pokemon_seq")
+    @SequenceGenerator(name = "pokemon_seq", sequenceName = "POKEMON_SEQ", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne // this is the BIDIRECTIONAL OWNING side
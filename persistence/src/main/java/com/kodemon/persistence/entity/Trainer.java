@@ -1,11 +1,15 @@
 package com.kodemon.persistence.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Past;
 import javax.validation.constraints.Size;
 import java.util.*;
 
+import static com.kodemon.persistence.util.Constants.ID_ALLOCATION_SIZE;
 import static com.kodemon.persistence.util.Constants.MIN_USERNAME_LENGTH;
 
 /**
@@ -20,11 +24,29 @@ import static com.kodemon.persistence.util.Constants.MIN_USERNAME_LENGTH;
  * @author <a href="xseleng@fi.muni.cz">Maros Seleng, 422624</a>
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "TRAINER", schema = "APP")
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Trainer.SUMMARY_GRAPH),
+        @NamedEntityGraph(name = Trainer.ACTIVE_TEAM_GRAPH, attributeNodes = @NamedAttributeNode("activePokemons"))
+})
 public class Trainer {
 
+    /**
+     * Fetch plan with the Trainer's columns only, for listing Trainers.
+     * The collections are initialized in batches when accessed.
+     */
+    public static final String SUMMARY_GRAPH = "Trainer.summary";
+
+    /**
+     * Fetch plan with the active {@link Pokemon}s, for fights.
+     */
+    public static final String ACTIVE_TEAM_GRAPH = "Trainer.activeTeam";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trainer_seq")
+    @SequenceGenerator(name = "trainer_seq", sequenceName = "TRAINER_SEQ", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -32,6 +54,13 @@ public class Trainer {
     @Size(min = MIN_USERNAME_LENGTH)
     private String userName;
 
+    /**
+     * The userName in lower case, so that the Trainer is found by the userName ignoring case through a unique index.
+     * Nullable in the schema only, so that the column can be added to a stored table. The existing rows are filled in
+     * and the unique index is created on startup by {@link com.kodemon.persistence.config.UserNameNormalization}.
+     */
+    private String userNameNormalized;
+
     private String pwdHash;
 
     @Column(nullable = false)
@@ -56,18 +85,18 @@ public class Trainer {
     @NotNull
     private Date dateOfBirth;
 
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany(fetch = FetchType.LAZY)
     @NotNull
     private Set<Badge> badges = new HashSet<>();
 
     /**
      * The list of {@link Pokemon} that belong to the Trainer.
      */
-    @OneToMany(fetch = FetchType.EAGER, mappedBy = "trainer")
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "trainer")
     @NotNull
     private List<Pokemon> pokemons = new ArrayList<>();
 
-    @OneToMany(fetch = FetchType.EAGER)
+    @OneToMany(fetch = FetchType.LAZY)
     @NotNull
     private List<Pokemon> activePokemons = new ArrayList<>();
 
@@ -96,6 +125,27 @@ public class Trainer {
 
     public void setUserName(String userName) {
         this.userName = userName;
+        this.userNameNormalized = normalizeUserName(userName);
+    }
+
+    public String getUserNameNormalized() {
+        return userNameNormalized;
+    }
+
+    /**
+     * Returns the form of the userName the Trainers are looked up by when ignoring case.
+     *
+     * @param userName userName to normalize
+     * @return the userName in lower case, null for null
+     */
+    public static String normalizeUserName(String userName) {
+        return userName == null ? null : userName.toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeUserName() {
+        userNameNormalized = normalizeUserName(userName);
     }
 
     public String getPwdHash() {
@@ -183,12 +233,11 @@ public class Trainer {
 
         Trainer trainer = (Trainer) o;
 
+        // the lazy collections are left out as in hashCode, comparing a detached trainer must not load them
         return !(!getUserName().equals(trainer.getUserName()) ||
                 !getFirstName().equals(trainer.getFirstName()) ||
                 !getLastName().equals(trainer.getLastName()) ||
-                !getDateOfBirth().equals(trainer.getDateOfBirth()) ||
-                !getBadges().equals(trainer.getBadges()) ||
-                !getPokemons().equals(trainer.getPokemons()));
+                !getDateOfBirth().equals(trainer.getDateOfBirth()));
     }
 
     @Override
@@ -198,8 +247,7 @@ public class Trainer {
         result = 31 * result + getFirstName().hashCode();
         result = 31 * result + getLastName().hashCode();
         result = 31 * result + getDateOfBirth().hashCode();
-        result = 31 * result + getPokemons().hashCode();
-        result = 31 * result + getBadges().hashCode();
+        // the lazy collections are left out, so hashing does not load them
         return result;
     }
 }
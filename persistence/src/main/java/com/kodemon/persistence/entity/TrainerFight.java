@@ -4,6 +4,8 @@ import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.util.Date;
 
+import static com.kodemon.persistence.util.Constants.ID_ALLOCATION_SIZE;
+
 /**
  * Entity represents result of fight between challenging trainer and gym leader.
  * Used to store fight history in database.
@@ -14,11 +16,26 @@ import java.util.Date;
  */
 
 @Entity
-@Table(name = "TRAINER_FIGHT", schema = "APP")
+@Table(name = "TRAINER_FIGHT", schema = "APP", indexes = {
+        @Index(name = "IDX_TRAINER_FIGHT_CHALLENGER_TIME", columnList = "challenger_id, fightTime"),
+        @Index(name = "IDX_TRAINER_FIGHT_GYM_TIME", columnList = "targetGym_id, fightTime"),
+        // covers all the columns, so Derby scans it for a time range instead of the table;
+        // fight time and id lead it, which are the keys the fight history is paged by
+        @Index(name = "IDX_TRAINER_FIGHT_TIME", columnList = "fightTime, id, challenger_id, targetGym_id, wasChallengerSuccessful")
+})
+@NamedEntityGraph(name = TrainerFight.HISTORY_GRAPH,
+        attributeNodes = {@NamedAttributeNode("challenger"), @NamedAttributeNode(value = "targetGym", subgraph = "gym")},
+        subgraphs = @NamedSubgraph(name = "gym", attributeNodes = @NamedAttributeNode("trainer")))
 public class TrainerFight {
 
+    /**
+     * Fetch plan with the challenger and the target gym joined in, for the fight history.
+     */
+    public static final String HISTORY_GRAPH = "TrainerFight.history";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trainer_fight_seq")
+    @SequenceGenerator(name = "trainer_fight_seq", sequenceName = "TRAINER_FIGHT_SEQ", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -36,6 +53,12 @@ public class TrainerFight {
 
     private boolean wasChallengerSuccessful;
 
+    /**
+     * Sequence number of a fight recorded but not stored yet, null for a stored fight
+     */
+    @Transient
+    private Long pendingSequence;
+
     /**
      * Parameterless constructor for (not only) persistence purposes.
      */
@@ -78,6 +101,14 @@ public class TrainerFight {
         this.fightTime = fightTime;
     }
 
+    public Long getPendingSequence() {
+        return pendingSequence;
+    }
+
+    public void setPendingSequence(Long pendingSequence) {
+        this.pendingSequence = pendingSequence;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
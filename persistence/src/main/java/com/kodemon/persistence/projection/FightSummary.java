@@ -0,0 +1,83 @@
+package com.kodemon.persistence.projection;
+
+import java.util.Date;
+
+/**
+ * Columns of a {@link com.kodemon.persistence.entity.TrainerFight}, its challenger and its gym shown in the lists of fights
+ * <p>
+ * Created by a JPQL constructor expression, so listing fights loads neither the challengers nor the gym leaders.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class FightSummary {
+    private final Long id;
+    private final Date fightTime;
+    private final Long challengerId;
+    private final String challengerUserName;
+    private final String challengerFirstName;
+    private final Long targetGymId;
+    private final String targetGymCity;
+    private final boolean wasChallengerSuccessful;
+    private final Long pendingSequence;
+
+    public FightSummary(Long id, Date fightTime, Long challengerId, String challengerUserName, String challengerFirstName,
+                        Long targetGymId, String targetGymCity, boolean wasChallengerSuccessful) {
+        this(id, fightTime, challengerId, challengerUserName, challengerFirstName, targetGymId, targetGymCity,
+                wasChallengerSuccessful, null);
+    }
+
+    /**
+     * Summary of a fight recorded but not stored yet, which has no id
+     */
+    public FightSummary(Long id, Date fightTime, Long challengerId, String challengerUserName, String challengerFirstName,
+                        Long targetGymId, String targetGymCity, boolean wasChallengerSuccessful, Long pendingSequence) {
+        this.id = id;
+        this.fightTime = fightTime;
+        this.challengerId = challengerId;
+        this.challengerUserName = challengerUserName;
+        this.challengerFirstName = challengerFirstName;
+        this.targetGymId = targetGymId;
+        this.targetGymCity = targetGymCity;
+        this.wasChallengerSuccessful = wasChallengerSuccessful;
+        this.pendingSequence = pendingSequence;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Date getFightTime() {
+        return fightTime;
+    }
+
+    public Long getChallengerId() {
+        return challengerId;
+    }
+
+    public String getChallengerUserName() {
+        return challengerUserName;
+    }
+
+    public String getChallengerFirstName() {
+        return challengerFirstName;
+    }
+
+    public Long getTargetGymId() {
+        return targetGymId;
+    }
+
+    public String getTargetGymCity() {
+        return targetGymCity;
+    }
+
+    public boolean isWasChallengerSuccessful() {
+        return wasChallengerSuccessful;
+    }
+
+    /**
+     * @return sequence number of a fight recorded but not stored yet, null for a stored fight
+     */
+    public Long getPendingSequence() {
+        return pendingSequence;
+    }
+}
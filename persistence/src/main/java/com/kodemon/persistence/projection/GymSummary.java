@@ -0,0 +1,52 @@
+package com.kodemon.persistence.projection;
+
+import com.kodemon.persistence.enums.PokemonType;
+
+/**
+ * Columns of a {@link com.kodemon.persistence.entity.Gym} and its leader shown in the list of gyms
+ * <p>
+ * Created by a JPQL constructor expression, so listing gyms does not load the leaders with their collections.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class GymSummary {
+    private final Long id;
+    private final String city;
+    private final String badgeName;
+    private final PokemonType type;
+    private final Long leaderId;
+    private final String leaderUserName;
+
+    public GymSummary(Long id, String city, String badgeName, PokemonType type, Long leaderId, String leaderUserName) {
+        this.id = id;
+        this.city = city;
+        this.badgeName = badgeName;
+        this.type = type;
+        this.leaderId = leaderId;
+        this.leaderUserName = leaderUserName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getBadgeName() {
+        return badgeName;
+    }
+
+    public PokemonType getType() {
+        return type;
+    }
+
+    public Long getLeaderId() {
+        return leaderId;
+    }
+
+    public String getLeaderUserName() {
+        return leaderUserName;
+    }
+}
@@ -0,0 +1,32 @@
+package com.kodemon.persistence.projection;
+
+/**
+ * A searchable term of an entity, with the number of times it was used
+ * <p>
+ * Created by a JPQL constructor expression, so the terms are counted by the database without loading the entities.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TermPopularity {
+    private final Long id;
+    private final String term;
+    private final Long popularity;
+
+    public TermPopularity(Long id, String term, Long popularity) {
+        this.id = id;
+        this.term = term;
+        this.popularity = popularity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public Long getPopularity() {
+        return popularity;
+    }
+}
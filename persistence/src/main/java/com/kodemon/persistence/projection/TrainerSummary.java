@@ -0,0 +1,47 @@
+package com.kodemon.persistence.projection;
+
+import java.util.Date;
+
+/**
+ * Columns of a {@link com.kodemon.persistence.entity.Trainer} shown in the lists of trainers
+ * <p>
+ * Created by a JPQL constructor expression, so listing trainers neither loads the entities into the persistence context
+ * nor touches their collections.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TrainerSummary {
+    private final Long id;
+    private final String userName;
+    private final String firstName;
+    private final String lastName;
+    private final Date dateOfBirth;
+
+    public TrainerSummary(Long id, String userName, String firstName, String lastName, Date dateOfBirth) {
+        this.id = id;
+        this.userName = userName;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.dateOfBirth = dateOfBirth;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public Date getDateOfBirth() {
+        return dateOfBirth;
+    }
+}
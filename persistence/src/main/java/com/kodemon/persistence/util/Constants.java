@@ -11,4 +11,35 @@ public abstract class Constants {
     public static final int MIN_PASSWORD_LENGTH = 6;
 
     public static final int MAX_ACTIVE_POKEMON = 6;
+
+    /**
+     * Number of ids reserved from a sequence in one round trip, keep in sync with hibernate.jdbc.batch_size
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Number of items on one page of a list, when the client does not ask for another one
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Largest page of a list served at once, bounds the memory used by a single request
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Bounds the page size a client asked for
+     *
+     * @param size requested number of items on a page
+     * @return the size, at least 1 and at most {@link #MAX_PAGE_SIZE}
+     */
+    public static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Number of rows fetched from the database in one round trip while streaming an export,
+     * also the number of exported entities the persistence context holds at most
+     */
+    public static final int EXPORT_FETCH_SIZE = 500;
 }
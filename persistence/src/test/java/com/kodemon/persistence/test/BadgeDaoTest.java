@@ -112,7 +112,7 @@ public class BadgeDaoTest extends AbstractTestNGSpringContextTests {
     void testSaveBadgeWithNullName() {
         badge = new Badge(gym);
         badge.setName(null);
-        badgeDao.save(badge);
+        badgeDao.saveAndFlush(badge);
     }
 
     @Test(expectedExceptions = {NullPointerException.class})
@@ -133,7 +133,7 @@ public class BadgeDaoTest extends AbstractTestNGSpringContextTests {
     void testSaveBadgeWithEverythingNull() {
         badge = new Badge();
         badge.setName(null);
-        badgeDao.save(badge);
+        badgeDao.saveAndFlush(badge);
     }
 
     /**
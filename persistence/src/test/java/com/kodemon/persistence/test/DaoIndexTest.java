@@ -0,0 +1,61 @@
+package com.kodemon.persistence.test;
+
+import com.kodemon.persistence.config.PersistenceConfig;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+/**
+ * Checks that the indexes backing the DAO finders exist in the generated schema
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ * @see DaoLatencyTest
+ */
+@ContextConfiguration(classes = PersistenceConfig.class)
+public class DaoIndexTest extends AbstractTestNGSpringContextTests {
+
+    @Inject
+    private DataSource dataSource;
+
+    @DataProvider
+    public Object[][] indexes() {
+        return new Object[][]{
+                {"TRAINER_FIGHT", "IDX_TRAINER_FIGHT_CHALLENGER_TIME", new String[]{"CHALLENGER_ID", "FIGHTTIME"}},
+                {"TRAINER_FIGHT", "IDX_TRAINER_FIGHT_GYM_TIME", new String[]{"TARGETGYM_ID", "FIGHTTIME"}},
+                {"TRAINER_FIGHT", "IDX_TRAINER_FIGHT_TIME",
+                        new String[]{"FIGHTTIME", "ID", "CHALLENGER_ID", "TARGETGYM_ID", "WASCHALLENGERSUCCESSFUL"}},
+                {"POKEMON", "IDX_POKEMON_TRAINER", new String[]{"TRAINER_ID"}},
+                {"POKEMON", "IDX_POKEMON_LEVEL", new String[]{"LEVEL"}},
+                {"BADGE", "IDX_BADGE_GYM", new String[]{"GYM_ID"}},
+                {"GYM", "IDX_GYM_BADGE_NAME", new String[]{"BADGENAME"}},
+                {"GYM", "IDX_GYM_CITY", new String[]{"CITY"}},
+                {"TRAINER", "IDX_TRAINER_USER_NAME_NORMALIZED", new String[]{"USERNAMENORMALIZED"}},
+        };
+    }
+
+    @Test(dataProvider = "indexes")
+    public void indexExistsTest(String table, String index, String[] columns) throws SQLException {
+        List<String> indexedColumns = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             ResultSet indexInfo = connection.getMetaData().getIndexInfo(null, "APP", table, false, false)) {
+            while (indexInfo.next()) {
+                if (index.equals(indexInfo.getString("INDEX_NAME"))) {
+                    indexedColumns.add(indexInfo.getString("COLUMN_NAME"));
+                }
+            }
+        }
+        assertThat(indexedColumns, contains(columns));
+    }
+}
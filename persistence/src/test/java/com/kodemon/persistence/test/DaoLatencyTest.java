@@ -0,0 +1,226 @@
+package com.kodemon.persistence.test;
+
+import com.kodemon.persistence.config.PersistenceConfig;
+import com.kodemon.persistence.dao.*;
+import com.kodemon.persistence.entity.Badge;
+import com.kodemon.persistence.entity.Gym;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.enums.PokemonType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.*;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Latency of the DAO finders over a large data set, one million fights by default
+ * <p>
+ * Belongs to the {@code performance} group, which is only run with the {@code performance} Maven profile.
+ * The fights and Pokemons are inserted over plain JDBC, with ids above any the sequences hand out in the other tests.
+ * Every finder is called with a few different arguments first to warm up, then its average time is checked against a budget.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ * @see DaoIndexTest
+ */
+@Test(groups = "performance")
+@ContextConfiguration(classes = PersistenceConfig.class)
+public class DaoLatencyTest extends AbstractTestNGSpringContextTests {
+
+    private static final int FIGHT_COUNT = Integer.getInteger("kodemon.performance.fightCount", 1_000_000);
+    private static final int GYM_COUNT = 1_000;
+    private static final int CHALLENGER_COUNT = 1_000;
+    private static final int POKEMON_PER_CHALLENGER = 100;
+    private static final long FIRST_BULK_ID = 1_000_000_000L;
+    private static final int JDBC_BATCH_SIZE = 1_000;
+
+    private static final int WARM_UP_CALLS = 5;
+    private static final int MEASURED_CALLS = 20;
+    private static final long LIST_BUDGET_MILLIS = 200;
+    private static final long LOOKUP_BUDGET_MILLIS = 20;
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Inject
+    private GymDao gymDao;
+
+    @Inject
+    private BadgeDao badgeDao;
+
+    @Inject
+    private PokemonDao pokemonDao;
+
+    @Inject
+    private TrainerFightDao trainerFightDao;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Trainer> challengers = new ArrayList<>();
+    private final List<Gym> gyms = new ArrayList<>();
+    private final long firstFightTime = new Calendar.Builder().setDate(2016, 0, 1).build().getTimeInMillis();
+
+    @BeforeClass(groups = "performance")
+    public void loadData() throws SQLException {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            for (int i = 0; i < GYM_COUNT; i++) {
+                Trainer leader = trainer("latencyLeader" + i);
+                Gym gym = new Gym(leader);
+                gym.setCity("City" + i);
+                gym.setBadgeName("Badge" + i);
+                gym.setType(PokemonType.values()[i % PokemonType.values().length]);
+                gymDao.save(gym);
+                badgeDao.save(new Badge(gym));
+                gyms.add(gym);
+            }
+            for (int i = 0; i < CHALLENGER_COUNT; i++) {
+                challengers.add(trainer("latencyChallenger" + i));
+            }
+            return null;
+        });
+
+        Random random = new Random(42);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            insertBatched(connection, "INSERT INTO APP.POKEMON (ID, TRAINER_ID, NAME, LEVEL) VALUES (?, ?, ?, ?)",
+                    CHALLENGER_COUNT * POKEMON_PER_CHALLENGER, (statement, i) -> {
+                        statement.setLong(1, FIRST_BULK_ID + i);
+                        statement.setLong(2, challengers.get(i % CHALLENGER_COUNT).getId());
+                        statement.setInt(3, random.nextInt(PokemonName.values().length));
+                        statement.setInt(4, 1 + random.nextInt(100));
+                    });
+            insertBatched(connection, "INSERT INTO APP.TRAINER_FIGHT (ID, CHALLENGER_ID, TARGETGYM_ID, FIGHTTIME, WASCHALLENGERSUCCESSFUL) VALUES (?, ?, ?, ?, ?)",
+                    FIGHT_COUNT, (statement, i) -> {
+                        statement.setLong(1, FIRST_BULK_ID + i);
+                        statement.setLong(2, challengers.get(random.nextInt(CHALLENGER_COUNT)).getId());
+                        statement.setLong(3, gyms.get(random.nextInt(GYM_COUNT)).getId());
+                        statement.setTimestamp(4, new Timestamp(firstFightTime + TimeUnit.MINUTES.toMillis(i)));
+                        statement.setBoolean(5, random.nextBoolean());
+                    });
+            for (String table : new String[]{"POKEMON", "TRAINER_FIGHT"}) {
+                try (CallableStatement call = connection.prepareCall("CALL SYSCS_UTIL.SYSCS_UPDATE_STATISTICS('APP', ?, NULL)")) {
+                    call.setString(1, table);
+                    call.execute();
+                }
+            }
+            connection.commit();
+        }
+    }
+
+    @AfterClass(groups = "performance", alwaysRun = true)
+    public void deleteData() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM APP.TRAINER_FIGHT");
+            statement.executeUpdate("DELETE FROM APP.POKEMON");
+        }
+        new TransactionTemplate(transactionManager).execute(status -> {
+            badgeDao.deleteAll();
+            gymDao.deleteAll();
+            trainerDao.deleteAll();
+            return null;
+        });
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    public void findFightsByChallengerTest() {
+        assertWithinBudget(LIST_BUDGET_MILLIS, i -> trainerFightDao.findByChallenger(challengers.get(i)));
+    }
+
+    public void findFightsByTargetGymTest() {
+        assertWithinBudget(LIST_BUDGET_MILLIS, i -> trainerFightDao.findByTargetGym(gyms.get(i)));
+    }
+
+    public void findFightsByFightTimeBetweenTest() {
+        // a fight is stored every minute, so this is about as many fights as a challenger or a gym has
+        long window = TimeUnit.MINUTES.toMillis(FIGHT_COUNT / CHALLENGER_COUNT);
+        assertWithinBudget(LIST_BUDGET_MILLIS, i -> {
+            long from = firstFightTime + i * window;
+            return trainerFightDao.findByFightTimeBetween(new Date(from), new Date(from + window));
+        });
+    }
+
+    public void findPokemonsByTrainerTest() {
+        assertWithinBudget(LOOKUP_BUDGET_MILLIS * 5, i -> pokemonDao.findByTrainer(challengers.get(i)));
+    }
+
+    public void findPokemonsByLevelTest() {
+        assertWithinBudget(LIST_BUDGET_MILLIS, i -> pokemonDao.findByLevel(1 + i));
+    }
+
+    public void findBadgesByGymTest() {
+        assertWithinBudget(LOOKUP_BUDGET_MILLIS, i -> badgeDao.findByGym(gyms.get(i)));
+    }
+
+    public void findGymsByBadgeNameTest() {
+        assertWithinBudget(LOOKUP_BUDGET_MILLIS, i -> gymDao.findByBadgeName("Badge" + i));
+    }
+
+    public void findGymsByCityTest() {
+        assertWithinBudget(LOOKUP_BUDGET_MILLIS, i -> gymDao.findByCity("City" + i));
+    }
+
+    /**
+     * Calls the finder with the arguments 0, 1, 2, ..., the first calls only warm up
+     */
+    private void assertWithinBudget(long budgetMillis, IntFunction<List<?>> finder) {
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            assertThat(finder.apply(i), is(not(empty())));
+        }
+        long start = System.nanoTime();
+        for (int i = WARM_UP_CALLS; i < WARM_UP_CALLS + MEASURED_CALLS; i++) {
+            assertThat(finder.apply(i), is(not(empty())));
+        }
+        long averageMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / MEASURED_CALLS;
+        assertThat(averageMillis, is(lessThanOrEqualTo(budgetMillis)));
+    }
+
+    private Trainer trainer(String userName) {
+        Trainer trainer = new Trainer();
+        trainer.setUserName(userName);
+        trainer.setFirstName("First");
+        trainer.setLastName("Last");
+        trainer.setDateOfBirth(new Calendar.Builder().setDate(1990, 0, 1).build().getTime());
+        trainerDao.save(trainer);
+        return trainer;
+    }
+
+    private static void insertBatched(Connection connection, String sql, int count, RowSetter rowSetter) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                rowSetter.set(statement, i);
+                statement.addBatch();
+                if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+    }
+
+    @FunctionalInterface
+    private interface RowSetter {
+        void set(PreparedStatement statement, int row) throws SQLException;
+    }
+}
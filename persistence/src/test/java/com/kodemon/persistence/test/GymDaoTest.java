@@ -6,6 +6,7 @@ import com.kodemon.persistence.dao.TrainerDao;
 import com.kodemon.persistence.entity.Gym;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.GymSummary;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Example;
 import org.springframework.test.context.ContextConfiguration;
@@ -95,7 +96,7 @@ public class GymDaoTest extends AbstractTestNGSpringContextTests {
         gym = new Gym(trainer);
         gym.setType(PokemonType.GRASS);
         gym.setCity(null);
-        gymDao.save(gym);
+        gymDao.saveAndFlush(gym);
     }
 
     @Test(expectedExceptions = {NullPointerException.class})
@@ -104,7 +105,7 @@ public class GymDaoTest extends AbstractTestNGSpringContextTests {
         gym.setTrainer(null);
         gym.setType(PokemonType.GRASS);
         gym.setCity("some city");
-        gymDao.save(gym);
+        gymDao.saveAndFlush(gym);
     }
 
     @Test(expectedExceptions = {NullPointerException.class})
@@ -113,7 +114,7 @@ public class GymDaoTest extends AbstractTestNGSpringContextTests {
         gym.setTrainer(null);
         gym.setCity(null);
         gym.setType(PokemonType.GRASS);
-        gymDao.save(gym);
+        gymDao.saveAndFlush(gym);
     }
 
     @Test(expectedExceptions = {NullPointerException.class})
@@ -122,7 +123,7 @@ public class GymDaoTest extends AbstractTestNGSpringContextTests {
         gym.setTrainer(trainer);
         gym.setCity("some city");
         gym.setTrainer(null);
-        gymDao.save(gym);
+        gymDao.saveAndFlush(gym);
     }
 
     /**
@@ -210,6 +211,23 @@ public class GymDaoTest extends AbstractTestNGSpringContextTests {
         assertThat(found, is(equalTo(gyms)));
     }
 
+    @Test
+    void testFindSummaries() {
+        List<Gym> gyms = randomGyms(3);
+        gymDao.save(gyms);
+
+        List<GymSummary> summaries = gymDao.findSummaries();
+        assertThat(summaries, hasSize(3));
+        for (int i = 0; i < gyms.size(); i++) {
+            assertThat(summaries.get(i).getId(), is(gyms.get(i).getId()));
+            assertThat(summaries.get(i).getCity(), is(gyms.get(i).getCity()));
+            assertThat(summaries.get(i).getBadgeName(), is(gyms.get(i).getBadgeName()));
+            assertThat(summaries.get(i).getType(), is(gyms.get(i).getType()));
+            assertThat(summaries.get(i).getLeaderId(), is(trainer.getId()));
+            assertThat(summaries.get(i).getLeaderUserName(), is(trainer.getUserName()));
+        }
+    }
+
     @Test
     void testFindByCity() {
         List<Gym> gyms = randomGyms(3);
@@ -102,7 +102,7 @@ public class PokemonDaoTest extends AbstractTestNGSpringContextTests {
 
         trainer.addPokemon(pokemon);
 
-        pokemonDao.save(pokemon);
+        pokemonDao.saveAndFlush(pokemon);
     }
 
     @Test(expectedExceptions = {ConstraintViolationException.class})
@@ -116,7 +116,7 @@ public class PokemonDaoTest extends AbstractTestNGSpringContextTests {
 
         trainer.addPokemon(pokemon);
 
-        pokemonDao.save(pokemon);
+        pokemonDao.saveAndFlush(pokemon);
     }
 
 
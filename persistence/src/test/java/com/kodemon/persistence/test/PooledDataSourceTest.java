@@ -0,0 +1,108 @@
+package com.kodemon.persistence.test;
+
+import com.kodemon.persistence.config.ConnectionPoolMetrics;
+import com.kodemon.persistence.config.PersistenceConfig;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests of the pooled {@link DataSource}
+ * <p>
+ * Runs against its own in-memory database, so nothing is stored in the one of the other tests.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = PersistenceConfig.class)
+@TestPropertySource(properties = {
+        "kodemon.datasource.pooled=true",
+        "kodemon.datasource.url=jdbc:derby:memory:pooledTest;create=true",
+        "kodemon.datasource.maxPoolSize=4",
+        "kodemon.datasource.minIdle=1",
+        "kodemon.datasource.connectionTimeoutMs=2000"
+})
+public class PooledDataSourceTest extends AbstractTestNGSpringContextTests {
+
+    private static final int MAX_POOL_SIZE = 4;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Test
+    public void dataSourceIsConfiguredFromPropertiesTest() {
+        assertThat(dataSource, is(instanceOf(HikariDataSource.class)));
+        HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
+        assertThat(hikariDataSource.getMaximumPoolSize(), is(MAX_POOL_SIZE));
+        assertThat(hikariDataSource.getMinimumIdle(), is(1));
+        assertThat(hikariDataSource.getConnectionTimeout(), is(2000L));
+        assertThat(connectionPoolMetrics.isPooled(), is(true));
+    }
+
+    @Test
+    public void concurrentQueriesSharePoolTest() throws Exception {
+        long acquiredBefore = connectionPoolMetrics.getAcquireCount();
+        ExecutorService executor = Executors.newFixedThreadPool(2 * MAX_POOL_SIZE);
+        try {
+            List<Future<Long>> counts = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                counts.add(executor.submit(() -> trainerDao.count()));
+            }
+            for (Future<Long> count : counts) {
+                assertThat(count.get(), is(0L));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(connectionPoolMetrics.getAcquireCount(), is(greaterThanOrEqualTo(acquiredBefore + 50)));
+        assertThat(connectionPoolMetrics.getTotalConnections(), is(lessThanOrEqualTo(MAX_POOL_SIZE)));
+        assertThat(connectionPoolMetrics.getActiveConnections(), is(0));
+    }
+
+    @Test
+    public void exhaustedPoolTimesOutTest() throws SQLException {
+        long timeoutsBefore = connectionPoolMetrics.getTimeoutCount();
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < MAX_POOL_SIZE; i++) {
+                connections.add(dataSource.getConnection());
+            }
+            assertThat(connectionPoolMetrics.getActiveConnections(), is(MAX_POOL_SIZE));
+            assertThat(connectionPoolMetrics.getIdleConnections(), is(0));
+
+            try {
+                dataSource.getConnection().close();
+                throw new AssertionError("connection acquired from an exhausted pool");
+            } catch (SQLException e) {
+                assertThat(connectionPoolMetrics.getTimeoutCount(), is(timeoutsBefore + 1));
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        assertThat(connectionPoolMetrics.getActiveConnections(), is(0));
+    }
+}
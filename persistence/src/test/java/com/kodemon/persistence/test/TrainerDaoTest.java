@@ -6,8 +6,12 @@ import com.kodemon.persistence.dao.TrainerDao;
 import com.kodemon.persistence.entity.Pokemon;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.projection.TrainerSummary;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestExecutionListeners;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
@@ -17,6 +21,8 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
@@ -41,6 +47,9 @@ public class TrainerDaoTest extends AbstractTestNGSpringContextTests {
     @Inject
     private TrainerDao trainerDao;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private Trainer trainer;
     private Pokemon pokemon;
 
@@ -78,6 +87,18 @@ public class TrainerDaoTest extends AbstractTestNGSpringContextTests {
         assertThat(testTrainer, is(equalTo(trainer)));
     }
 
+    @Test
+    void testEqualsDoesNotLoadCollectionsOfDetachedTrainer() {
+        trainer = randomTrainer(1);
+        trainerDao.saveAndFlush(trainer);
+        entityManager.clear();
+        Trainer detached = trainerDao.findOne(trainer.getId());
+        entityManager.detach(detached);
+
+        assertThat(detached, is(equalTo(trainer)));
+        assertThat(trainer, is(equalTo(detached)));
+    }
+
     @Test
     void testSaveMultipleCorrectInstances() {
         int numberOfTrainers = 5;
@@ -95,7 +116,7 @@ public class TrainerDaoTest extends AbstractTestNGSpringContextTests {
         trainer.setLastName("Ketchum");
         Date dob = new Calendar.Builder().setDate(1987, 4, 1).build().getTime();
         trainer.setDateOfBirth(dob);
-        trainerDao.save(trainer);
+        trainerDao.saveAndFlush(trainer);
     }
 
     @Test(expectedExceptions = {NullPointerException.class})
@@ -105,7 +126,7 @@ public class TrainerDaoTest extends AbstractTestNGSpringContextTests {
         trainer.setLastName(null);
         Date dob = new Calendar.Builder().setDate(1987, 4, 1).build().getTime();
         trainer.setDateOfBirth(dob);
-        trainerDao.save(trainer);
+        trainerDao.saveAndFlush(trainer);
     }
 
     @Test(expectedExceptions = {NullPointerException.class})
@@ -114,7 +135,7 @@ public class TrainerDaoTest extends AbstractTestNGSpringContextTests {
         trainer.setFirstName("Ash");
         trainer.setLastName("Ketchum");
         trainer.setDateOfBirth(null);
-        trainerDao.save(trainer);
+        trainerDao.saveAndFlush(trainer);
     }
 
     @Test(expectedExceptions = {NullPointerException.class})
@@ -124,7 +145,7 @@ public class TrainerDaoTest extends AbstractTestNGSpringContextTests {
         trainer.setLastName(null);
         Date dob = new Calendar.Builder().setDate(1987, 4, 1).build().getTime();
         trainer.setDateOfBirth(dob);
-        trainerDao.save(trainer);
+        trainerDao.saveAndFlush(trainer);
     }
 
     // DELETE TESTS
@@ -357,6 +378,30 @@ public class TrainerDaoTest extends AbstractTestNGSpringContextTests {
         assertThat(found.get(0), is(equalTo(matching)));
     }
 
+    @Test
+    void testFindByUserNameNormalized() {
+        trainer = randomTrainer(1);
+        trainer.setUserName("AshKetchum");
+        Trainer containing = randomTrainer(2);
+        containing.setUserName("AshKetchum2");
+        trainerDao.save(trainer);
+        trainerDao.save(containing);
+
+        assertThat(trainer.getUserNameNormalized(), is("ashketchum"));
+        assertThat(trainerDao.findByUserNameNormalized(Trainer.normalizeUserName("ASHKETCHUM")), is(trainer));
+        assertThat(trainerDao.findByUserNameNormalized(Trainer.normalizeUserName("Ash")), is(nullValue()));
+    }
+
+    @Test(expectedExceptions = {DataAccessException.class})
+    void testSaveUserNameDifferingInCaseOnly() {
+        trainer = randomTrainer(1);
+        trainer.setUserName("AshKetchum");
+        Trainer other = randomTrainer(2);
+        other.setUserName("ashketchum");
+        trainerDao.save(trainer);
+        trainerDao.saveAndFlush(other);
+    }
+
     @Test
     void testFindByUserNameContaining() {
         List<Trainer> trainers = randomTrainers(3);
@@ -423,6 +468,56 @@ public class TrainerDaoTest extends AbstractTestNGSpringContextTests {
         assertThat(found, is(equalTo(trainers)));
     }
 
+    @Test
+    void testFindAllBySlice() {
+        List<Trainer> trainers = randomTrainers(5);
+        trainerDao.save(trainers);
+
+        Slice<Trainer> first = trainerDao.findAllBy(new PageRequest(0, 3, Sort.Direction.ASC, "id"));
+        assertThat(first.getContent(), contains(trainers.get(0), trainers.get(1), trainers.get(2)));
+        assertThat(first.hasNext(), is(true));
+
+        Slice<Trainer> second = trainerDao.findAllBy(first.nextPageable());
+        assertThat(second.getContent(), contains(trainers.get(3), trainers.get(4)));
+        assertThat(second.hasNext(), is(false));
+    }
+
+    @Test
+    void testFindByIdGreaterThan() {
+        List<Trainer> trainers = randomTrainers(5);
+        trainerDao.save(trainers);
+        PageRequest pageOfTwo = new PageRequest(0, 2, Sort.Direction.ASC, "id");
+
+        List<Trainer> first = trainerDao.findByIdGreaterThan(0L, pageOfTwo);
+        assertThat(first, contains(trainers.get(0), trainers.get(1)));
+        List<Trainer> second = trainerDao.findByIdGreaterThan(first.get(1).getId(), pageOfTwo);
+        assertThat(second, contains(trainers.get(2), trainers.get(3)));
+        List<Trainer> third = trainerDao.findByIdGreaterThan(second.get(1).getId(), pageOfTwo);
+        assertThat(third, contains(trainers.get(4)));
+        assertThat(trainerDao.findByIdGreaterThan(third.get(0).getId(), pageOfTwo), is(empty()));
+    }
+
+    @Test
+    void testFindSummaries() {
+        List<Trainer> trainers = randomTrainers(3);
+        trainerDao.save(trainers);
+        PageRequest pageOfTwo = new PageRequest(0, 2, Sort.Direction.ASC, "id");
+
+        Slice<TrainerSummary> first = trainerDao.findSummariesBy(pageOfTwo);
+        assertThat(first.hasNext(), is(true));
+        assertThat(first.getContent(), hasSize(2));
+        TrainerSummary summary = first.getContent().get(0);
+        assertThat(summary.getId(), is(trainers.get(0).getId()));
+        assertThat(summary.getUserName(), is(trainers.get(0).getUserName()));
+        assertThat(summary.getFirstName(), is(trainers.get(0).getFirstName()));
+        assertThat(summary.getLastName(), is(trainers.get(0).getLastName()));
+        assertThat(summary.getDateOfBirth().getTime(), is(trainers.get(0).getDateOfBirth().getTime()));
+
+        List<TrainerSummary> rest = trainerDao.findSummariesByIdGreaterThan(first.getContent().get(1).getId(), pageOfTwo);
+        assertThat(rest, hasSize(1));
+        assertThat(rest.get(0).getId(), is(trainers.get(2).getId()));
+    }
+
     private void preparePokemon() {
         pokemon = new Pokemon();
         pokemon.setName(PokemonName.PIKACHU);
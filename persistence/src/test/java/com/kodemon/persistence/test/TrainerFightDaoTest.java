@@ -8,8 +8,13 @@ import com.kodemon.persistence.entity.Gym;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.entity.TrainerFight;
 import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.FightSummary;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestExecutionListeners;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
@@ -19,11 +24,15 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static com.kodemon.persistence.util.Constants.ID_ALLOCATION_SIZE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
@@ -46,6 +55,9 @@ public class TrainerFightDaoTest extends AbstractTestNGSpringContextTests {
     @Inject
     private GymDao gymDao;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private TrainerFight trainerFight;
     private Trainer trainer;
     private Gym gym;
@@ -86,6 +98,24 @@ public class TrainerFightDaoTest extends AbstractTestNGSpringContextTests {
         trainerFightDao.save(trainerFight);
     }
 
+    @Test
+    void testSaveMultipleInstancesIsBatched() {
+        int numberOfTrainerFights = 200;
+        List<TrainerFight> trainerFights = randomTrainerFights(numberOfTrainerFights);
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        trainerFightDao.save(trainerFights);
+        entityManager.flush();
+
+        assertThat(trainerFightDao.count(), is(equalTo((long) numberOfTrainerFights)));
+        // ids are allocated and rows inserted in chunks of ID_ALLOCATION_SIZE instead of one statement per row
+        long chunks = numberOfTrainerFights / ID_ALLOCATION_SIZE;
+        assertThat(statistics.getPrepareStatementCount(), is(lessThanOrEqualTo(2 * chunks + 2)));
+    }
+
     @Test
     void testSaveCorrectInstance() {
         trainerFight = randomTrainerFight(1);
@@ -112,7 +142,7 @@ public class TrainerFightDaoTest extends AbstractTestNGSpringContextTests {
         trainerFight.setTargetGym(null);
         trainerFight.setChallenger(trainer);
         trainerFight.setWasChallengerSuccessful(true);
-        trainerFightDao.save(trainerFight);
+        trainerFightDao.saveAndFlush(trainerFight);
     }
 
     @Test(expectedExceptions = {NullPointerException.class})
@@ -121,7 +151,7 @@ public class TrainerFightDaoTest extends AbstractTestNGSpringContextTests {
         trainerFight.setTargetGym(gym);
         trainerFight.setChallenger(null);
         trainerFight.setWasChallengerSuccessful(true);
-        trainerFightDao.save(trainerFight);
+        trainerFightDao.saveAndFlush(trainerFight);
     }
 
     @Test(expectedExceptions = {NullPointerException.class})
@@ -130,7 +160,7 @@ public class TrainerFightDaoTest extends AbstractTestNGSpringContextTests {
         trainerFight.setTargetGym(null);
         trainerFight.setChallenger(null);
         trainerFight.setWasChallengerSuccessful(true);
-        trainerFightDao.save(trainerFight);
+        trainerFightDao.saveAndFlush(trainerFight);
     }
 
     @Test(expectedExceptions = {NullPointerException.class})
@@ -140,7 +170,7 @@ public class TrainerFightDaoTest extends AbstractTestNGSpringContextTests {
         trainerFight.setChallenger(trainer);
         trainerFight.setFightTime(null);
         trainerFight.setWasChallengerSuccessful(true);
-        trainerFightDao.save(trainerFight);
+        trainerFightDao.saveAndFlush(trainerFight);
     }
 
 
@@ -327,6 +357,147 @@ public class TrainerFightDaoTest extends AbstractTestNGSpringContextTests {
         assertThat(found, is(equalTo(fights)));
     }
 
+    @Test
+    void testFindAllBySlice() {
+        List<TrainerFight> fights = randomTrainerFights(5);
+        trainerFightDao.save(fights);
+
+        Slice<TrainerFight> first = trainerFightDao.findAllBy(new PageRequest(0, 3, TrainerFightDao.HISTORY_ORDER));
+        assertThat(first.getContent(), hasSize(3));
+        assertThat(first.hasNext(), is(true));
+
+        Slice<TrainerFight> second = trainerFightDao.findAllBy(first.nextPageable());
+        assertThat(second.getContent(), hasSize(2));
+        assertThat(second.hasNext(), is(false));
+        List<TrainerFight> all = new ArrayList<>(first.getContent());
+        all.addAll(second.getContent());
+        assertThat(all, containsInAnyOrder(fights.toArray()));
+    }
+
+    @Test
+    void testFindByFightTimeBetweenSlice() {
+        List<TrainerFight> fights = randomTrainerFights(4);
+        trainerFightDao.save(fights);
+        Date from = fights.get(1).getFightTime();
+        Date til = fights.get(3).getFightTime();
+
+        Slice<TrainerFight> found = trainerFightDao.findByFightTimeBetween(from, til, new PageRequest(0, 2, TrainerFightDao.HISTORY_ORDER));
+        assertThat(found.getContent(), contains(fights.get(3), fights.get(2)));
+        assertThat(found.hasNext(), is(true));
+        assertThat(trainerFightDao.findByFightTimeBetween(from, til, found.nextPageable()).getContent(), contains(fights.get(1)));
+    }
+
+    @Test
+    void testSeekThroughHistory() {
+        // several fights at the same time, so the id decides their order
+        List<TrainerFight> fights = randomTrainerFights(3);
+        fights.addAll(randomTrainerFights(3));
+        trainerFightDao.save(fights);
+        Date from = new Date(0);
+        PageRequest pageOfTwo = new PageRequest(0, 2, TrainerFightDao.HISTORY_ORDER);
+
+        List<TrainerFight> seen = new ArrayList<>();
+        List<TrainerFight> page = trainerFightDao.findByFightTimeGreaterThanEqual(from, pageOfTwo);
+        while (!page.isEmpty()) {
+            assertThat(page.size(), is(lessThanOrEqualTo(2)));
+            seen.addAll(page);
+            TrainerFight last = page.get(page.size() - 1);
+            page = trainerFightDao.findByFightTimeGreaterThanEqualBefore(from, last.getFightTime(), last.getId(), pageOfTwo);
+        }
+
+        assertThat(seen, hasSize(fights.size()));
+        assertThat(seen, containsInAnyOrder(fights.toArray()));
+        for (int i = 1; i < seen.size(); i++) {
+            TrainerFight newer = seen.get(i - 1);
+            TrainerFight older = seen.get(i);
+            assertThat(!older.getFightTime().after(newer.getFightTime()), is(true));
+            if (older.getFightTime().equals(newer.getFightTime())) {
+                assertThat(older.getId(), is(lessThan(newer.getId())));
+            }
+        }
+    }
+
+    @Test
+    void testSeekThroughHistorySince() {
+        List<TrainerFight> fights = randomTrainerFights(4);
+        trainerFightDao.save(fights);
+        Date from = fights.get(2).getFightTime();
+        PageRequest pageOfOne = new PageRequest(0, 1, TrainerFightDao.HISTORY_ORDER);
+
+        List<TrainerFight> first = trainerFightDao.findByFightTimeGreaterThanEqual(from, pageOfOne);
+        assertThat(first, contains(fights.get(3)));
+        List<TrainerFight> second = trainerFightDao.findByFightTimeGreaterThanEqualBefore(from, first.get(0).getFightTime(), first.get(0).getId(), pageOfOne);
+        assertThat(second, contains(fights.get(2)));
+        List<TrainerFight> third = trainerFightDao.findByFightTimeGreaterThanEqualBefore(from, second.get(0).getFightTime(), second.get(0).getId(), pageOfOne);
+        assertThat(third, is(empty()));
+    }
+
+    @Test
+    void testStreamAllClearingAsItGoes() {
+        List<TrainerFight> fights = randomTrainerFights(5);
+        trainerFightDao.save(fights);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> ids = new ArrayList<>();
+        try (Stream<TrainerFight> stream = trainerFightDao.streamAll()) {
+            stream.forEach(fight -> {
+                assertThat(fight.getChallenger().getUserName(), is("ashhhh"));
+                assertThat(fight.getTargetGym().getTrainer().getUserName(), is("ashhhh"));
+                ids.add(fight.getId());
+                // the cursor stays open when the persistence context is cleared
+                entityManager.clear();
+            });
+        }
+
+        List<Long> expected = new ArrayList<>();
+        for (TrainerFight fight : fights) {
+            expected.add(fight.getId());
+        }
+        assertThat(ids, is(equalTo(expected)));
+    }
+
+    @Test
+    void testSeekThroughSummaries() {
+        List<TrainerFight> fights = randomTrainerFights(3);
+        trainerFightDao.save(fights);
+        Date from = fights.get(0).getFightTime();
+        PageRequest pageOfTwo = new PageRequest(0, 2, TrainerFightDao.HISTORY_ORDER);
+
+        List<FightSummary> first = trainerFightDao.findSummariesByFightTimeGreaterThanEqual(from, pageOfTwo);
+        assertThat(first, hasSize(2));
+        FightSummary newest = first.get(0);
+        assertThat(newest.getId(), is(fights.get(2).getId()));
+        assertThat(newest.getFightTime().getTime(), is(fights.get(2).getFightTime().getTime()));
+        assertThat(newest.getChallengerId(), is(trainer.getId()));
+        assertThat(newest.getChallengerUserName(), is(trainer.getUserName()));
+        assertThat(newest.getChallengerFirstName(), is(trainer.getFirstName()));
+        assertThat(newest.getTargetGymId(), is(gym.getId()));
+        assertThat(newest.getTargetGymCity(), is(gym.getCity()));
+        assertThat(newest.isWasChallengerSuccessful(), is(fights.get(2).isWasChallengerSuccessful()));
+
+        FightSummary last = first.get(1);
+        List<FightSummary> second = trainerFightDao.findSummariesByFightTimeGreaterThanEqualBefore(from, last.getFightTime(), last.getId(), pageOfTwo);
+        assertThat(second, hasSize(1));
+        assertThat(second.get(0).getId(), is(fights.get(0).getId()));
+
+        List<FightSummary> through = trainerFightDao.findSummariesByFightTimeBetween(from, last.getFightTime(), pageOfTwo);
+        assertThat(through, hasSize(2));
+        assertThat(through.get(0).getId(), is(fights.get(1).getId()));
+    }
+
+    @Test
+    void testFindSummariesOfChallengerAndGym() {
+        List<TrainerFight> fights = randomTrainerFights(2);
+        trainerFightDao.save(fights);
+
+        List<FightSummary> ofChallenger = trainerFightDao.findSummariesByChallengerId(trainer.getId());
+        assertThat(ofChallenger, hasSize(2));
+        assertThat(ofChallenger.get(0).getId(), is(fights.get(1).getId()));
+        assertThat(trainerFightDao.findSummariesByTargetGymId(gym.getId()), hasSize(2));
+        assertThat(trainerFightDao.findSummariesByChallengerId(trainer.getId() + 1000), is(empty()));
+    }
+
     private void prepareTrainer() {
         trainer = new Trainer();
         trainer.setFirstName("Ash");
@@ -0,0 +1,151 @@
+package com.kodemon.persistence.test;
+
+import com.kodemon.persistence.config.PersistenceConfig;
+import com.kodemon.persistence.config.UserNameNormalization;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests of the migration of a database stored before the normalized usernames
+ * <p>
+ * The Trainers are written with JDBC in committed transactions, as the migration runs on a connection of its own,
+ * and the stored database is emulated by dropping the index and clearing the normalized usernames.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = PersistenceConfig.class)
+public class UserNameNormalizationTest extends AbstractTestNGSpringContextTests {
+
+    private static final long FIRST_ID = 900_001;
+
+    @Inject
+    private DataSource dataSource;
+
+    @AfterMethod
+    public void cleanup() throws SQLException {
+        execute("delete from APP.TRAINER where id >= " + FIRST_ID);
+        new UserNameNormalization(dataSource, false).migrate();
+    }
+
+    @Test
+    public void storedUserNamesAreNormalizedTest() throws SQLException {
+        storeWithoutIndex("MistyWaterflower", "BrockHarrison");
+
+        new UserNameNormalization(dataSource, false).migrate();
+
+        Map<String, String> trainers = trainers();
+        assertThat(trainers, hasEntry("MistyWaterflower", "mistywaterflower"));
+        assertThat(trainers, hasEntry("BrockHarrison", "brockharrison"));
+        assertThat(indexExists(), is(true));
+    }
+
+    @Test
+    public void userNamesDifferingInCaseFailMigrationTest() throws SQLException {
+        storeWithoutIndex("GaryOak", "garyoak", "BrockHarrison");
+
+        IllegalStateException failure = null;
+        try {
+            new UserNameNormalization(dataSource, false).migrate();
+        } catch (IllegalStateException e) {
+            failure = e;
+        }
+
+        assertThat(failure, is(notNullValue()));
+        assertThat(failure.getMessage(), containsString(FIRST_ID + " GaryOak"));
+        assertThat(failure.getMessage(), containsString((FIRST_ID + 1) + " garyoak"));
+        assertThat(failure.getMessage(), not(containsString("BrockHarrison")));
+        Map<String, String> trainers = trainers();
+        assertThat(trainers.keySet(), contains("GaryOak", "garyoak", "BrockHarrison"));
+        assertThat(trainers.values(), everyItem(is(nullValue(String.class))));
+        assertThat(indexExists(), is(false));
+    }
+
+    @Test
+    public void userNamesDifferingInCaseAreRenamedWhenAllowedTest() throws SQLException {
+        storeWithoutIndex("GaryOak", "garyoak", "GARYOAK");
+
+        new UserNameNormalization(dataSource, true).migrate();
+
+        Map<String, String> trainers = trainers();
+        assertThat(trainers.keySet(), contains("GaryOak", "garyoak_" + (FIRST_ID + 1), "GARYOAK_" + (FIRST_ID + 2)));
+        assertThat(trainers.values(), contains("garyoak", "garyoak_" + (FIRST_ID + 1), "garyoak_" + (FIRST_ID + 2)));
+        assertThat(indexExists(), is(true));
+    }
+
+    @Test(expectedExceptions = SQLException.class)
+    public void indexRejectsUserNamesDifferingInCaseTest() throws SQLException {
+        storeWithoutIndex("ErikaCeladon");
+        new UserNameNormalization(dataSource, false).migrate();
+
+        insert(FIRST_ID + 1, "erikaceladon", "erikaceladon");
+    }
+
+    private void storeWithoutIndex(String... userNames) throws SQLException {
+        execute("drop index APP." + UserNameNormalization.INDEX_NAME);
+        for (int i = 0; i < userNames.length; i++) {
+            insert(FIRST_ID + i, userNames[i], null);
+        }
+        assertThat(indexExists(), is(false));
+    }
+
+    private void insert(long id, String userName, String userNameNormalized) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("insert into APP.TRAINER"
+                     + " (id, userName, userNameNormalized, firstName, lastName, dateOfBirth, isAdmin, isBlocked)"
+                     + " values (?, ?, ?, 'Stored', 'Trainer', ?, false, false)")) {
+            insert.setLong(1, id);
+            insert.setString(2, userName);
+            insert.setString(3, userNameNormalized);
+            insert.setDate(4, Date.valueOf("1990-01-01"));
+            insert.executeUpdate();
+        }
+    }
+
+    private Map<String, String> trainers() throws SQLException {
+        Map<String, String> trainers = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select userName, userNameNormalized from APP.TRAINER"
+                     + " where id >= " + FIRST_ID + " order by id")) {
+            while (rows.next()) {
+                trainers.put(rows.getString(1), rows.getString(2));
+            }
+        }
+        return trainers;
+    }
+
+    private boolean indexExists() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet indexInfo = connection.getMetaData().getIndexInfo(null, "APP", "TRAINER", true, false)) {
+            while (indexInfo.next()) {
+                if (UserNameNormalization.INDEX_NAME.equals(indexInfo.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.kodemon.rest.config;
 
+import com.kodemon.rest.resources.FightResource;
+import com.kodemon.rest.resources.SimulationResource;
+import com.kodemon.rest.resources.StatisticsResource;
+import com.kodemon.rest.resources.SuggestResource;
 import com.kodemon.rest.resources.UserResource;
 import org.glassfish.jersey.jackson.JacksonFeature;
 import org.glassfish.jersey.server.ResourceConfig;
@@ -20,6 +24,10 @@ public class JerseyAppConfiguration extends ResourceConfig {
         registerClasses(
                 JacksonFeature.class,
                 UserResource.class,
+                FightResource.class,
+                StatisticsResource.class,
+                SuggestResource.class,
+                SimulationResource.class,
                 ObjectMapperProvider.class);
     }
 }
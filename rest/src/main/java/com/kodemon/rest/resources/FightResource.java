@@ -0,0 +1,151 @@
+package com.kodemon.rest.resources;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.kodemon.api.dto.FightExportDTO;
+import com.kodemon.api.facade.FightFacade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.*;
+import javax.ws.rs.core.*;
+import javax.ws.rs.ext.Providers;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RESTful resource representing the fight history
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Component
+@Singleton
+@Path("fights")
+public class FightResource {
+    private static final Logger LOG = LoggerFactory.getLogger(FightResource.class);
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final String CSV_HEADER = "id,fightTime,challengerId,challengerUserName,targetGymId,targetGymCity,targetGymBadgeName,gymLeaderUserName,wasChallengerSuccessful";
+
+    private FightFacade fightFacade;
+
+    @Inject
+    public FightResource(FightFacade fightFacade) {
+        this.fightFacade = fightFacade;
+    }
+
+    /**
+     * Exports the whole fight history, ordered by id
+     * <p>
+     * The fights are written to the response as they are read from the database, one line per fight,
+     * so the memory used does not depend on the number of fights.
+     *
+     * @param format    ndjson for one JSON object per line, csv for comma separated values with a header line
+     * @param providers providers of the application, the JSON rows are written by its {@link ObjectMapper}
+     * @return 200 with the fights, 400 if the format is unknown
+     */
+    @GET
+    @Path("export")
+    @Produces({NDJSON, CSV})
+    public Response export(@DefaultValue("ndjson") @QueryParam("format") String format, @Context Providers providers) {
+        StreamingOutput output;
+        String mediaType;
+        switch (format) {
+            case "ndjson":
+                ObjectMapper mapper = providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE)
+                        .getContext(FightExportDTO.class);
+                output = ndjson(mapper.writerFor(FightExportDTO.class));
+                mediaType = NDJSON;
+                break;
+            case "csv":
+                output = csv();
+                mediaType = CSV;
+                break;
+            default:
+                LOG.error("Unknown export format {}.", format);
+                throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Invalid field: format; Error: was not ndjson or csv.").build());
+        }
+        return Response.ok(output, mediaType + ";charset=UTF-8")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"fights." + format + "\"")
+                .build();
+    }
+
+    private StreamingOutput ndjson(ObjectWriter writer) {
+        return outputStream -> {
+            Writer out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            export(row -> {
+                out.write(writer.writeValueAsString(row));
+                out.write('\n');
+            });
+            out.flush();
+        };
+    }
+
+    private StreamingOutput csv() {
+        return outputStream -> {
+            Writer out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            out.write(CSV_HEADER);
+            out.write('\n');
+            export(row -> {
+                out.write(String.valueOf(row.getId()));
+                out.write(',');
+                out.write(row.getFightTime().toInstant().toString());
+                out.write(',');
+                out.write(String.valueOf(row.getChallengerId()));
+                out.write(',');
+                out.write(csvValue(row.getChallengerUserName()));
+                out.write(',');
+                out.write(String.valueOf(row.getTargetGymId()));
+                out.write(',');
+                out.write(csvValue(row.getTargetGymCity()));
+                out.write(',');
+                out.write(csvValue(row.getTargetGymBadgeName()));
+                out.write(',');
+                out.write(csvValue(row.getGymLeaderUserName()));
+                out.write(',');
+                out.write(String.valueOf(row.isWasChallengerSuccessful()));
+                out.write('\n');
+            });
+            out.flush();
+        };
+    }
+
+    /**
+     * Passes the exported fights to the row writer, rethrowing its {@link IOException}s
+     */
+    private void export(RowWriter rowWriter) throws IOException {
+        try {
+            long count = fightFacade.exportFights(row -> {
+                try {
+                    rowWriter.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            LOG.debug("Exported {} fights.", count);
+        } catch (UncheckedIOException e) {
+            LOG.error("Export of the fights was interrupted.", e);
+            throw e.getCause();
+        }
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(FightExportDTO row) throws IOException;
+    }
+}
@@ -0,0 +1,142 @@
+package com.kodemon.rest.resources;
+
+import com.kodemon.api.dto.UserAuthDTO;
+import com.kodemon.api.dto.UserDTO;
+import com.kodemon.api.exception.ServiceOverloadedException;
+import com.kodemon.api.facade.SimulationFacade;
+import com.kodemon.api.facade.UserFacade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.*;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * RESTful resource of the administrators running what-if simulations of the fights for badges
+ * <p>
+ * Nothing is stored by the simulations, the fight history and the badges stay as they are. Every request has to carry
+ * the credentials of an administrator in the HTTP Basic {@code Authorization} header, as a simulation loads every team
+ * and runs up to millions of fights.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Component
+@Singleton
+@Path("admin/simulations")
+public class SimulationResource {
+    private static final Logger LOG = LoggerFactory.getLogger(SimulationResource.class);
+
+    private static final int MAX_TOURNAMENT_SIZE = 2_000;
+    private static final String BASIC_SCHEME = "Basic ";
+
+    private SimulationFacade simulationFacade;
+    private UserFacade userFacade;
+
+    @Inject
+    public SimulationResource(SimulationFacade simulationFacade, UserFacade userFacade) {
+        this.simulationFacade = simulationFacade;
+        this.userFacade = userFacade;
+    }
+
+    /**
+     * Simulates the fight of every trainer against every gym
+     *
+     * @param authorization HTTP Basic credentials of an administrator
+     * @return 200 with the number of the winning challengers and the difficulty of every gym,
+     * 401 without valid credentials, 403 if the user is not an administrator
+     */
+    @GET
+    @Path("gyms")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response gyms(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization) {
+        requireAdministrator(authorization);
+        return Response.ok(simulationFacade.simulateGymChallenges()).build();
+    }
+
+    /**
+     * Simulates a tournament among the strongest trainers
+     *
+     * @param authorization HTTP Basic credentials of an administrator
+     * @param top           number of the trainers, at most 2000
+     * @return 200 with the win matrix and the champion, 400 if the number of the trainers is invalid,
+     * 401 without valid credentials, 403 if the user is not an administrator
+     */
+    @GET
+    @Path("tournament")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response tournament(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
+                               @DefaultValue("16") @QueryParam("top") int top) {
+        requireAdministrator(authorization);
+        if (top < 2 || top > MAX_TOURNAMENT_SIZE) {
+            LOG.error("Invalid tournament size {}.", top);
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Invalid field: top; Error: was not between 2 and " + MAX_TOURNAMENT_SIZE + ".").build());
+        }
+        return Response.ok(simulationFacade.simulateTournament(top)).build();
+    }
+
+    /**
+     * Verifies the credentials and lets only an administrator who is not blocked through
+     *
+     * @param authorization value of the Authorization header, may be null
+     * @throws WebApplicationException with 401, 403, or 503 with Retry-After if too many passwords are being verified
+     */
+    private void requireAdministrator(String authorization) {
+        UserAuthDTO auth = basicCredentials(authorization);
+        if (auth == null) {
+            throw unauthorized();
+        }
+        UserDTO user;
+        try {
+            user = userFacade.authenticate(auth).join();
+        } catch (ServiceOverloadedException e) {
+            LOG.warn("Simulation of {} rejected: {}", auth.getUserName(), e.getMessage());
+            throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds())
+                    .entity(e.getMessage())
+                    .build());
+        }
+        if (user == null) {
+            LOG.warn("Simulation with incorrect credentials of {} rejected.", auth.getUserName());
+            throw unauthorized();
+        }
+        if (!user.isAdmin() || user.isBlocked()) {
+            LOG.warn("Simulation of {}, who is not an administrator, rejected.", user.getUserName());
+            throw new WebApplicationException(Response.status(Response.Status.FORBIDDEN).build());
+        }
+    }
+
+    private static UserAuthDTO basicCredentials(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BASIC_SCHEME, 0, BASIC_SCHEME.length())) {
+            return null;
+        }
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(authorization.substring(BASIC_SCHEME.length()).trim()),
+                    StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int colon = credentials.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        UserAuthDTO auth = new UserAuthDTO();
+        auth.setUserName(credentials.substring(0, colon));
+        auth.setPassword(credentials.substring(colon + 1));
+        return auth;
+    }
+
+    private static WebApplicationException unauthorized() {
+        return new WebApplicationException(Response.status(Response.Status.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"kodemon\"")
+                .build());
+    }
+}
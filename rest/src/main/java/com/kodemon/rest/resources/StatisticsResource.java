@@ -0,0 +1,78 @@
+package com.kodemon.rest.resources;
+
+import com.kodemon.api.facade.StatisticsFacade;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * RESTful resource exposing runtime statistics of the application
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Component
+@Singleton
+@Path("statistics")
+public class StatisticsResource {
+
+    private StatisticsFacade statisticsFacade;
+
+    @Inject
+    public StatisticsResource(StatisticsFacade statisticsFacade) {
+        this.statisticsFacade = statisticsFacade;
+    }
+
+    /**
+     * Returns hit and miss statistics of the second-level cache regions
+     *
+     * @return 200 with the statistics of every region
+     */
+    @GET
+    @Path("cache")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response cacheStatistics() {
+        return Response.ok(statisticsFacade.getCacheStatistics()).build();
+    }
+
+    /**
+     * Returns the occupancy and acquire latency of the database connection pool
+     *
+     * @return 200 with the statistics of the pool
+     */
+    @GET
+    @Path("pool")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response connectionPoolStatistics() {
+        return Response.ok(statisticsFacade.getConnectionPoolStatistics()).build();
+    }
+
+    /**
+     * Returns how often the long lists were mapped on the request thread and how often in parallel
+     *
+     * @return 200 with the statistics of the list mapping
+     */
+    @GET
+    @Path("mapping")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response mappingStatistics() {
+        return Response.ok(statisticsFacade.getMappingStatistics()).build();
+    }
+
+    /**
+     * Returns the queue depth, wait time and hashing latency of the password hashing pool
+     *
+     * @return 200 with the statistics of the password hashing
+     */
+    @GET
+    @Path("authentication")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response authenticationStatistics() {
+        return Response.ok(statisticsFacade.getAuthenticationStatistics()).build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.kodemon.rest.resources;
+
+import com.kodemon.api.enums.SuggestionKind;
+import com.kodemon.api.facade.SuggestionFacade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.*;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Locale;
+
+/**
+ * RESTful resource suggesting the usernames, gym cities, badge names and Pokemon nicknames while typing
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Component
+@Singleton
+@Path("suggest")
+public class SuggestResource {
+    private static final Logger LOG = LoggerFactory.getLogger(SuggestResource.class);
+
+    private static final int MAX_LIMIT = 50;
+    private static final int MAX_AGE_SECONDS = 30;
+
+    private SuggestionFacade suggestionFacade;
+
+    @Inject
+    public SuggestResource(SuggestionFacade suggestionFacade) {
+        this.suggestionFacade = suggestionFacade;
+    }
+
+    /**
+     * Returns the most popular terms starting with the typed prefix, ignoring case
+     * <p>
+     * The response may be cached for a short while, a popularity a few seconds old does not matter to a suggestion.
+     *
+     * @param prefix typed prefix of the term
+     * @param kind   trainer, gym, badge or nickname, all the kinds if missing
+     * @param limit  maximal number of the suggestions, at most 50
+     * @return 200 with the suggestions, the most popular first, 400 if the kind or the limit is invalid
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response suggest(@DefaultValue("") @QueryParam("q") String prefix,
+                            @QueryParam("kind") String kind,
+                            @DefaultValue("10") @QueryParam("limit") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            LOG.error("Invalid suggestion limit {}.", limit);
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Invalid field: limit; Error: was not between 1 and " + MAX_LIMIT + ".").build());
+        }
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setMaxAge(MAX_AGE_SECONDS);
+        return Response.ok(suggestionFacade.suggest(prefix, kind(kind), limit)).cacheControl(cacheControl).build();
+    }
+
+    private static SuggestionKind kind(String kind) {
+        if (kind == null || kind.isEmpty()) {
+            return null;
+        }
+        try {
+            return SuggestionKind.valueOf(kind.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            LOG.error("Unknown suggestion kind {}.", kind);
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Invalid field: kind; Error: was not trainer, gym, badge or nickname.").build());
+        }
+    }
+}
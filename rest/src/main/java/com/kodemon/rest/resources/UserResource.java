@@ -1,7 +1,10 @@
 package com.kodemon.rest.resources;
 
+import com.kodemon.api.dto.PageDTO;
 import com.kodemon.api.dto.UserDTO;
 import com.kodemon.api.dto.UserRegisterDTO;
+import com.kodemon.api.dto.UserSummaryDTO;
+import com.kodemon.api.exception.ServiceOverloadedException;
 import com.kodemon.api.facade.UserFacade;
 import com.kodemon.persistence.enums.PokemonName;
 import com.kodemon.persistence.util.Constants;
@@ -14,10 +17,18 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 import java.net.URI;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * RESTful resource representing Users
@@ -59,31 +70,117 @@ public class UserResource {
 
     /**
      * Returns the list of users
+     * <p>
+     * All users are listed a page at a time, ordered by id. A page is either addressed by its number,
+     * or follows the user given by the after cursor. The links to the neighbouring pages are in the Link header.
+     * The pages hold user summaries, without the users' Pokemons and badges; {@link #userWithId(Long)} returns those.
      *
      * @param userName if not empty, returns the list of users with username similar to the given one, otherwise all users
-     * @return 200 when found
+     * @param page     number of the page, starting at 0; when missing, the page following the after cursor is returned
+     * @param after    id of the last user of the previous page, when missing, the first page is returned
+     * @param size     number of users on the page, at most {@link Constants#MAX_PAGE_SIZE}
+     * @param uriInfo  request URI, which the links to the neighbouring pages are built from
+     * @return 200 when found, 400 if the cursor was malformed
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public Response all(@DefaultValue("") @QueryParam("userName") String userName) {
-        if (userName.isEmpty()) {
-            LOG.debug("Listing all users.", userName);
-            return Response.ok(userFacade.findAllUsers()).build();
-        } else {
+    public Response all(@DefaultValue("") @QueryParam("userName") String userName,
+                        @QueryParam("page") Integer page,
+                        @QueryParam("after") String after,
+                        @DefaultValue("" + Constants.DEFAULT_PAGE_SIZE) @QueryParam("size") int size,
+                        @Context UriInfo uriInfo) {
+        if (!userName.isEmpty()) {
             LOG.debug("Listing users with username={}.", userName);
             return Response.ok(userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(userName)).build();
         }
+
+        if (page != null) {
+            LOG.debug("Listing page {} of all users.", page);
+            PageDTO<UserSummaryDTO> users = userFacade.findUserSummaries(page, size);
+            Response.ResponseBuilder response = Response.ok(new GenericEntity<List<UserSummaryDTO>>(users.getContent()) {
+            });
+            if (users.getPage() > 0) {
+                response.link(uriInfo.getRequestUriBuilder().replaceQueryParam("page", users.getPage() - 1).build(), "prev");
+            }
+            if (users.isHasNext()) {
+                response.link(uriInfo.getRequestUriBuilder().replaceQueryParam("page", users.getPage() + 1).build(), "next");
+            }
+            return response.build();
+        }
+
+        LOG.debug("Listing all users after {}.", after);
+        PageDTO<UserSummaryDTO> users;
+        try {
+            users = userFacade.findUserSummariesAfter(after, size);
+        } catch (IllegalArgumentException e) {
+            LOG.error("Error while listing users.", e);
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(composeErrorMessage("after", "was not an id of a user")).build());
+        }
+        Response.ResponseBuilder response = Response.ok(new GenericEntity<List<UserSummaryDTO>>(users.getContent()) {
+        });
+        if (users.isHasNext()) {
+            response.link(uriInfo.getRequestUriBuilder().replaceQueryParam("after", users.getNextCursor()).build(), "next");
+        }
+        return response.build();
     }
 
     /**
      * Creates an user
+     * <p>
+     * The password is hashed off the request thread, the response is sent once the user is stored.
      *
-     * @param dto object containing user details and password
-     * @return 201 if created, 400 if some data was missing, 409 if creation was unsuccessful
+     * @param dto           object containing user details and password
+     * @param asyncResponse response resumed with 201 if created, 400 if some data was missing,
+     *                      409 if creation was unsuccessful, 503 with Retry-After if too many users are being registered
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response createUser(UserRegisterDTO dto) {
+    public void createUser(UserRegisterDTO dto, @Suspended AsyncResponse asyncResponse) {
+        validate(dto);
+        LOG.debug("Registering user with username {}", dto.getUserName());
+        try {
+            userFacade.registerAsync(dto).whenComplete((created, failure) -> {
+                if (failure == null) {
+                    asyncResponse.resume(Response.created(URI.create(USERS_URI_PREFIX + created.getId())).build());
+                } else {
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    LOG.error("Error while registering user.", cause);
+                    asyncResponse.resume(cause instanceof DataAccessException
+                            ? new RestDataAccessException((DataAccessException) cause)
+                            : cause);
+                }
+            });
+        } catch (ServiceOverloadedException e) {
+            LOG.warn("Registration of {} rejected: {}", dto.getUserName(), e.getMessage());
+            asyncResponse.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds())
+                    .entity(e.getMessage())
+                    .build());
+        }
+    }
+
+    /**
+     * Edits the user with the given id
+     *
+     * @param id  id of the user to be edited
+     * @param dto dto containing new data
+     * @return 201 when updated or 409
+     */
+    @PUT
+    @Path("{id}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response editUser(@PathParam("id") Long id, UserDTO dto) {
+        try {
+            UserDTO updated = userFacade.update(id, dto);
+            return Response.created(URI.create(USERS_URI_PREFIX + updated.getId())).build();
+        } catch (DataAccessException e) {
+            LOG.error("Error while updating user.", e);
+            throw new RestDataAccessException(e);
+        }
+    }
+
+    private void validate(UserRegisterDTO dto) {
         String userName = dto.getUserName();
         if (userName == null) {
             badRequest("userName", "was null");
@@ -121,35 +218,6 @@ public class UserResource {
         } else if (System.currentTimeMillis() <= dateOfBirth.getTime()) {
             badRequest("dateOfBirth", "was >= current time");
         }
-
-        try {
-            LOG.debug("Registering user with username {}", userName);
-            UserDTO created = userFacade.register(dto);
-            return Response.created(URI.create(USERS_URI_PREFIX + created.getId())).build();
-        } catch (DataAccessException e) {
-            LOG.error("Error while registering user.", e);
-            throw new RestDataAccessException(e);
-        }
-    }
-
-    /**
-     * Edits the user with the given id
-     *
-     * @param id  id of the user to be edited
-     * @param dto dto containing new data
-     * @return 201 when updated or 409
-     */
-    @PUT
-    @Path("{id}")
-    @Consumes(MediaType.APPLICATION_JSON)
-    public Response editUser(@PathParam("id") Long id, UserDTO dto) {
-        try {
-            UserDTO updated = userFacade.update(id, dto);
-            return Response.created(URI.create(USERS_URI_PREFIX + updated.getId())).build();
-        } catch (DataAccessException e) {
-            LOG.error("Error while updating user.", e);
-            throw new RestDataAccessException(e);
-        }
     }
 
     private void badRequest(String field, String error) {
@@ -0,0 +1,464 @@
+package com.kodemon.sampledata;
+
+import org.hibernate.SessionFactory;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Binary image of the rows of the application schema, for starting up without running the sample data loaders
+ * <p>
+ * The image holds every row of every user table, the entities' ones in {@code APP} as well as the join tables
+ * in the default schema, in an order satisfying the foreign keys, and the next values of the id sequences. It is restored by batched inserts into the freshly created, empty schema,
+ * in a single transaction.
+ * <p>
+ * The image carries a checksum of the schema (tables, columns, sequences) and of the classes of the loaders which
+ * produced the data. An image whose checksum differs from the current one is not restored, so changing an entity
+ * or the sample data falls back to the loaders, which then write a new image.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class DatabaseSnapshot {
+
+    private static final int MAGIC = 0x4B4F4453;
+    private static final int FORMAT_VERSION = 1;
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final List<Class<?>> loaders;
+
+    /**
+     * @param dataSource           database of the application
+     * @param entityManagerFactory factory whose caches are evicted after a restore
+     * @param loaders              classes producing the data, a change in any of them invalidates the image
+     */
+    public DatabaseSnapshot(DataSource dataSource, EntityManagerFactory entityManagerFactory, Class<?>... loaders) {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.loaders = Arrays.asList(loaders);
+    }
+
+    /**
+     * Writes the image of the current data, replacing the file only once the whole image is written
+     *
+     * @param file where to write the image
+     * @throws IOException  if the image cannot be written
+     * @throws SQLException if the data cannot be read, or a column has a type the image cannot hold
+     */
+    public void write(Path file) throws IOException, SQLException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.write(checksum(connection));
+                writeSequences(connection, out);
+                List<String> tables = tablesInInsertOrder(connection);
+                out.writeInt(tables.size());
+                for (String table : tables) {
+                    writeTable(connection, table, out);
+                }
+            } finally {
+                connection.commit();
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Restores the image into the empty schema and evicts the second-level and query caches
+     * <p>
+     * Nothing is restored when there is no image, when it was taken of another schema or other loaders,
+     * or when any of the tables already holds a row.
+     *
+     * @param file image written by {@link #write(Path)}
+     * @return whether the image was restored
+     * @throws IOException  if the image cannot be read or is damaged, nothing is restored then
+     * @throws SQLException if the rows cannot be inserted, nothing is restored then
+     */
+    public boolean restore(Path file) throws IOException, SQLException {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (Connection connection = dataSource.getConnection();
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return false;
+            }
+            byte[] checksum = new byte[32];
+            in.readFully(checksum);
+            if (!Arrays.equals(checksum, checksum(connection)) || !isEmpty(connection)) {
+                return false;
+            }
+            connection.setAutoCommit(false);
+            try {
+                restoreSequences(connection, in);
+                int tableCount = in.readInt();
+                for (int i = 0; i < tableCount; i++) {
+                    restoreTable(connection, in);
+                }
+                connection.commit();
+            } catch (IOException | SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        return true;
+    }
+
+    /**
+     * Orders the tables so that every table comes after the tables its foreign keys reference
+     *
+     * @param connection connection to the database
+     * @return quoted, qualified names of the user tables
+     * @throws SQLException if the tables reference each other in a cycle
+     */
+    List<String> tablesInInsertOrder(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        Map<String, Set<String>> references = new TreeMap<>();
+        for (String[] table : tables(connection)) {
+            Set<String> referenced = new TreeSet<>();
+            try (ResultSet keys = metaData.getImportedKeys(null, table[0], table[1])) {
+                while (keys.next()) {
+                    referenced.add(quote(keys.getString("PKTABLE_SCHEM"), keys.getString("PKTABLE_NAME")));
+                }
+            }
+            String name = quote(table[0], table[1]);
+            referenced.remove(name);
+            references.put(name, referenced);
+        }
+
+        List<String> ordered = new ArrayList<>();
+        while (!references.isEmpty()) {
+            List<String> ready = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> table : references.entrySet()) {
+                if (ordered.containsAll(table.getValue())) {
+                    ready.add(table.getKey());
+                }
+            }
+            if (ready.isEmpty()) {
+                throw new SQLException("Tables " + references.keySet() + " reference each other, cannot order their rows");
+            }
+            ordered.addAll(ready);
+            references.keySet().removeAll(ready);
+        }
+        return ordered;
+    }
+
+    private byte[] checksum(Connection connection) throws IOException, SQLException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String[] table : tables(connection)) {
+            try (ResultSet columns = metaData.getColumns(null, table[0], table[1], "%")) {
+                while (columns.next()) {
+                    update(digest, table[0], table[1], columns.getString("COLUMN_NAME"), columns.getString("TYPE_NAME"),
+                            columns.getString("COLUMN_SIZE"), columns.getString("IS_NULLABLE"));
+                }
+            }
+        }
+        for (String[] sequence : sequences(connection)) {
+            update(digest, sequence);
+        }
+        for (Class<?> type : loaders) {
+            try (InputStream classFile = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+                if (classFile == null) {
+                    throw new IOException("Cannot read the class file of " + type.getName());
+                }
+                byte[] buffer = new byte[4096];
+                for (int read; (read = classFile.read(buffer)) != -1; ) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, String... values) {
+        for (String value : values) {
+            digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
+
+    /**
+     * @return schema and name of each user table, ordered
+     */
+    private static List<String[]> tables(Connection connection) throws SQLException {
+        List<String[]> tables = new ArrayList<>();
+        try (ResultSet resultSet = connection.getMetaData().getTables(null, null, "%", new String[]{"TABLE"})) {
+            while (resultSet.next()) {
+                tables.add(new String[]{resultSet.getString("TABLE_SCHEM"), resultSet.getString("TABLE_NAME")});
+            }
+        }
+        tables.sort(Comparator.comparing((String[] table) -> table[0]).thenComparing(table -> table[1]));
+        return tables;
+    }
+
+    /**
+     * @return schema and name of each sequence, ordered
+     */
+    private static List<String[]> sequences(Connection connection) throws SQLException {
+        List<String[]> sequences = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT sc.SCHEMANAME, s.SEQUENCENAME FROM SYS.SYSSEQUENCES s"
+                     + " JOIN SYS.SYSSCHEMAS sc ON s.SCHEMAID = sc.SCHEMAID ORDER BY sc.SCHEMANAME, s.SEQUENCENAME")) {
+            while (resultSet.next()) {
+                sequences.add(new String[]{resultSet.getString(1), resultSet.getString(2)});
+            }
+        }
+        return sequences;
+    }
+
+    private static long peekAtSequence(Connection connection, String schema, String sequence) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("VALUES SYSCS_UTIL.SYSCS_PEEK_AT_SEQUENCE(?, ?)")) {
+            statement.setString(1, schema);
+            statement.setString(2, sequence);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private static void writeSequences(Connection connection, DataOutputStream out) throws IOException, SQLException {
+        List<String[]> sequences = sequences(connection);
+        out.writeInt(sequences.size());
+        for (String[] sequence : sequences) {
+            out.writeUTF(sequence[0]);
+            out.writeUTF(sequence[1]);
+            out.writeLong(peekAtSequence(connection, sequence[0], sequence[1]));
+        }
+    }
+
+    /**
+     * Draws values from each sequence until it reaches the recorded next value, Derby cannot restart a sequence;
+     * with ids allocated in blocks it takes a draw per block only
+     */
+    private static void restoreSequences(Connection connection, DataInputStream in) throws IOException, SQLException {
+        int sequenceCount = in.readInt();
+        for (int i = 0; i < sequenceCount; i++) {
+            String schema = in.readUTF();
+            String sequence = in.readUTF();
+            long next = in.readLong();
+            try (PreparedStatement draw = connection.prepareStatement("VALUES NEXT VALUE FOR " + quote(schema, sequence))) {
+                while (peekAtSequence(connection, schema, sequence) < next) {
+                    // the value is only drawn when the row is fetched
+                    try (ResultSet drawn = draw.executeQuery()) {
+                        drawn.next();
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isEmpty(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String[] table : tables(connection)) {
+                try (ResultSet row = statement.executeQuery("SELECT 1 FROM " + quote(table[0], table[1]) + " FETCH FIRST ROW ONLY")) {
+                    if (row.next()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void writeTable(Connection connection, String table, DataOutputStream out) throws IOException, SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT * FROM " + table)) {
+            ResultSetMetaData metaData = rows.getMetaData();
+            int columnCount = metaData.getColumnCount();
+            int[] types = new int[columnCount];
+            out.writeUTF(table);
+            out.writeInt(columnCount);
+            for (int column = 1; column <= columnCount; column++) {
+                types[column - 1] = metaData.getColumnType(column);
+                out.writeUTF(metaData.getColumnName(column));
+                out.writeInt(types[column - 1]);
+            }
+            while (rows.next()) {
+                out.writeBoolean(true);
+                for (int column = 1; column <= columnCount; column++) {
+                    writeValue(rows, column, types[column - 1], out);
+                }
+            }
+            out.writeBoolean(false);
+        }
+    }
+
+    private static void restoreTable(Connection connection, DataInputStream in) throws IOException, SQLException {
+        String table = in.readUTF();
+        int columnCount = in.readInt();
+        int[] types = new int[columnCount];
+        StringJoiner columns = new StringJoiner(", ", " (", ")");
+        StringJoiner parameters = new StringJoiner(", ", " VALUES (", ")");
+        for (int column = 0; column < columnCount; column++) {
+            columns.add(quote(in.readUTF()));
+            parameters.add("?");
+            types[column] = in.readInt();
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table + columns + parameters)) {
+            int batched = 0;
+            while (in.readBoolean()) {
+                for (int column = 1; column <= columnCount; column++) {
+                    readValue(in, insert, column, types[column - 1]);
+                }
+                insert.addBatch();
+                if (++batched == INSERT_BATCH_SIZE) {
+                    insert.executeBatch();
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Writes a null flag, then the value; dates and times as their JDBC escape strings, independent of the time zone
+     */
+    private static void writeValue(ResultSet row, int column, int type, DataOutputStream out) throws IOException, SQLException {
+        Object value = row.getObject(column);
+        out.writeBoolean(value == null);
+        if (value == null) {
+            return;
+        }
+        switch (type) {
+            case Types.BIGINT:
+                out.writeLong(row.getLong(column));
+                break;
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                out.writeInt(row.getInt(column));
+                break;
+            case Types.BOOLEAN:
+            case Types.BIT:
+                out.writeBoolean(row.getBoolean(column));
+                break;
+            case Types.DOUBLE:
+            case Types.FLOAT:
+                out.writeDouble(row.getDouble(column));
+                break;
+            case Types.REAL:
+                out.writeFloat(row.getFloat(column));
+                break;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+                out.writeUTF(row.getString(column));
+                break;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                out.writeUTF(row.getBigDecimal(column).toString());
+                break;
+            case Types.DATE:
+                out.writeUTF(row.getDate(column).toString());
+                break;
+            case Types.TIME:
+                out.writeUTF(row.getTime(column).toString());
+                break;
+            case Types.TIMESTAMP:
+                out.writeUTF(row.getTimestamp(column).toString());
+                break;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                byte[] bytes = row.getBytes(column);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                break;
+            default:
+                throw new SQLException("Cannot take an image of column " + row.getMetaData().getColumnName(column)
+                        + " of type " + row.getMetaData().getColumnTypeName(column));
+        }
+    }
+
+    private static void readValue(DataInputStream in, PreparedStatement insert, int column, int type) throws IOException, SQLException {
+        if (in.readBoolean()) {
+            insert.setNull(column, type);
+            return;
+        }
+        switch (type) {
+            case Types.BIGINT:
+                insert.setLong(column, in.readLong());
+                break;
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                insert.setInt(column, in.readInt());
+                break;
+            case Types.BOOLEAN:
+            case Types.BIT:
+                insert.setBoolean(column, in.readBoolean());
+                break;
+            case Types.DOUBLE:
+            case Types.FLOAT:
+                insert.setDouble(column, in.readDouble());
+                break;
+            case Types.REAL:
+                insert.setFloat(column, in.readFloat());
+                break;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+                insert.setString(column, in.readUTF());
+                break;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                insert.setBigDecimal(column, new BigDecimal(in.readUTF()));
+                break;
+            case Types.DATE:
+                insert.setDate(column, java.sql.Date.valueOf(in.readUTF()));
+                break;
+            case Types.TIME:
+                insert.setTime(column, Time.valueOf(in.readUTF()));
+                break;
+            case Types.TIMESTAMP:
+                insert.setTimestamp(column, Timestamp.valueOf(in.readUTF()));
+                break;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                insert.setBytes(column, bytes);
+                break;
+            default:
+                throw new IOException("Damaged image, unknown column type " + type);
+        }
+    }
+
+    private static String quote(String name) {
+        return '"' + name + '"';
+    }
+
+    private static String quote(String schema, String name) {
+        return quote(schema) + '.' + quote(name);
+    }
+}
@@ -1,33 +1,102 @@
 package com.kodemon.sampledata.config;
 
+import com.kodemon.sampledata.DatabaseSnapshot;
 import com.kodemon.sampledata.SampleDataLoadingFacade;
 import com.kodemon.sampledata.SampleDataLoadingFacadeImpl;
 import com.kodemon.service.config.ServiceConfig;
+import com.kodemon.service.implementations.GymServiceImpl;
+import com.kodemon.service.implementations.PokemonServiceImpl;
 import com.kodemon.service.util.PasswordStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Loads the sample data when the context starts
+ * <p>
+ * With {@code kodemon.sampledata.snapshot} (see {@code sampledata.properties}) the data are restored from the image
+ * written by an earlier start, which skips the password hashing and the single-row inserts of the loaders.
+ *
  * @author Oliver Roch
  */
 
 @Configuration
 @Import(ServiceConfig.class)
 @ComponentScan(basePackageClasses = {SampleDataLoadingFacadeImpl.class})
+@PropertySource("classpath:sampledata.properties")
 public class SampleDataConfig {
     final static Logger LOG = LoggerFactory.getLogger(SampleDataConfig.class);
     @Inject
     SampleDataLoadingFacade sampleDataLoadingFacade;
 
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Image of the sample data, invalidated by a change of the schema or of the classes creating the data
+     *
+     * @return the snapshot of the database
+     */
+    @Bean
+    public DatabaseSnapshot databaseSnapshot() {
+        return new DatabaseSnapshot(dataSource, entityManagerFactory,
+                SampleDataLoadingFacadeImpl.class, GymServiceImpl.class, PokemonServiceImpl.class);
+    }
+
     @PostConstruct
     public void dataLoading() throws PasswordStorage.CannotPerformOperationException {
+        long started = System.nanoTime();
+        boolean snapshot = environment.getRequiredProperty("kodemon.sampledata.snapshot", Boolean.class);
+        Path snapshotFile = Paths.get(environment.getRequiredProperty("kodemon.sampledata.snapshotFile"));
+        if (snapshot && restore(snapshotFile)) {
+            LOG.info("sample data restored from {} in {} ms", snapshotFile, elapsedMillis(started));
+            return;
+        }
+
         LOG.debug("loading sample data");
         sampleDataLoadingFacade.loadData();
+        LOG.info("sample data loaded in {} ms", elapsedMillis(started));
+        if (snapshot) {
+            try {
+                databaseSnapshot().write(snapshotFile);
+                LOG.info("sample data image written to {}", snapshotFile);
+            } catch (IOException | SQLException e) {
+                LOG.warn("cannot write the sample data image to " + snapshotFile, e);
+            }
+        }
+    }
+
+    private boolean restore(Path snapshotFile) {
+        try {
+            return databaseSnapshot().restore(snapshotFile);
+        } catch (IOException | SQLException e) {
+            LOG.warn("cannot restore the sample data image " + snapshotFile + ", running the loaders", e);
+            return false;
+        }
+    }
+
+    private static long elapsedMillis(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
     }
 }
@@ -0,0 +1,128 @@
+package com.kodemon.sampledata;
+
+import com.kodemon.persistence.dao.GymDao;
+import com.kodemon.persistence.dao.PokemonDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.dao.TrainerFightDao;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.sampledata.config.SampleDataConfig;
+import org.hibernate.SessionFactory;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = {SampleDataConfig.class})
+public class DatabaseSnapshotTest extends AbstractTestNGSpringContextTests {
+
+    @Inject
+    private DatabaseSnapshot databaseSnapshot;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private GymDao gymDao;
+
+    @Inject
+    private PokemonDao pokemonDao;
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Inject
+    private TrainerFightDao trainerFightDao;
+
+    private Path snapshotFile;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        snapshotFile = Files.createTempFile("kodemon", ".snapshot");
+        databaseSnapshot.write(snapshotFile);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Test
+    public void restoreTest() throws Exception {
+        String ashPwdHash = trainerDao.findByUserName("Ash123").get(0).getPwdHash();
+        deleteAllRows();
+        assertThat(trainerDao.findAll().size(), is(0));
+
+        assertThat(databaseSnapshot.restore(snapshotFile), is(true));
+
+        assertThat(gymDao.findAll().size(), is(8));
+        assertThat(trainerDao.findAll().size(), is(10));
+        assertThat(pokemonDao.findAll().size(), is(46));
+        assertThat(trainerFightDao.findAll().size(), is(3));
+        assertThat(trainerDao.findByUserName("Ash123").get(0).getPwdHash(), is(ashPwdHash));
+
+        // the sequences continue after the restored ids
+        Trainer trainer = new Trainer();
+        trainer.setUserName("Restored");
+        trainer.setFirstName("Brock");
+        trainer.setLastName("Harrison");
+        trainer.setDateOfBirth(new Calendar.Builder().setDate(1990, 1, 1).build().getTime());
+        trainer = trainerDao.save(trainer);
+        assertThat(trainerDao.findAll().size(), is(11));
+        trainerDao.delete(trainer);
+    }
+
+    @Test
+    public void restoreIntoFilledDatabaseTest() throws Exception {
+        assertThat(databaseSnapshot.restore(snapshotFile), is(false));
+        assertThat(trainerDao.findAll().size(), is(10));
+    }
+
+    @Test
+    public void restoreOtherLoadersTest() throws Exception {
+        DatabaseSnapshot otherLoaders = new DatabaseSnapshot(dataSource, entityManagerFactory, SampleDataLoadingFacadeImpl.class);
+        deleteAllRows();
+        try {
+            assertThat(otherLoaders.restore(snapshotFile), is(false));
+            assertThat(trainerDao.findAll().size(), is(0));
+        } finally {
+            databaseSnapshot.restore(snapshotFile);
+        }
+        assertThat(trainerDao.findAll().size(), is(10));
+    }
+
+    @Test
+    public void restoreMissingImageTest() throws Exception {
+        Files.delete(snapshotFile);
+        assertThat(databaseSnapshot.restore(snapshotFile), is(false));
+    }
+
+    private void deleteAllRows() throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            List<String> tables = databaseSnapshot.tablesInInsertOrder(connection);
+            for (int i = tables.size() - 1; i >= 0; i--) {
+                statement.executeUpdate("DELETE FROM " + tables.get(i));
+            }
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
@@ -1,20 +1,194 @@
 package com.kodemon.service.config;
 
 import com.kodemon.persistence.config.PersistenceConfig;
+import com.kodemon.persistence.dao.GymDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.dao.TrainerFightDao;
 import com.kodemon.service.facade.FightFacadeImpl;
 import com.kodemon.service.implementations.BadgeServiceImpl;
+import com.kodemon.service.util.AuthenticationExecutor;
+import com.kodemon.service.util.FightWriteBehind;
+import com.kodemon.service.util.GymSnapshotCache;
+import com.kodemon.service.util.GymSnapshotInvalidation;
+import com.kodemon.service.util.MatchupSimulator;
 import com.kodemon.service.util.OrikaMapper;
+import com.kodemon.service.util.ParallelMapping;
+import com.kodemon.service.util.SuggestionIndex;
+import com.kodemon.service.util.SuggestionIndexing;
+import com.kodemon.service.util.TeamOptimizer;
+import com.kodemon.service.util.TeamSnapshotCache;
+import com.kodemon.service.util.TrainerVersionTracking;
+import com.kodemon.service.util.TrainerVersions;
+import com.kodemon.service.util.UserNameIndex;
+import com.kodemon.service.util.UserNameIndexing;
+import com.kodemon.service.util.WildEncounters;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
 
 /**
  * Spring configuration for the service module
+ * <p>
+ * The mapping is set up by the {@code kodemon.mapping.*} properties from {@code mapping.properties},
+ * the password hashing by the {@code kodemon.authentication.*} ones from {@code authentication.properties};
+ * all of them can be overridden by system properties.
  *
  * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
  */
 @Configuration
 @Import(PersistenceConfig.class)
 @ComponentScan(basePackageClasses = {BadgeServiceImpl.class, FightFacadeImpl.class, OrikaMapper.class})
+@PropertySource({"classpath:mapping.properties", "classpath:authentication.properties", "classpath:simulation.properties",
+        "classpath:fight.properties"})
 public class ServiceConfig {
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Pool mapping the long lists in chunks, its threads are stopped with the context
+     *
+     * @return the parallel mapping
+     */
+    @Bean
+    public ParallelMapping parallelMapping() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int parallelism = environment.getRequiredProperty("kodemon.mapping.parallelism", Integer.class);
+        // the chunks could only take turns on a single processor, and each of them maps the shared objects again
+        int threshold = processors > 1
+                ? environment.getRequiredProperty("kodemon.mapping.parallelThreshold", Integer.class)
+                : Integer.MAX_VALUE;
+        return new ParallelMapping(parallelism > 0 ? parallelism : Math.max(1, processors - 1), threshold);
+    }
+
+    /**
+     * Pool hashing and verifying the passwords, its threads are stopped with the context
+     *
+     * @return the authentication executor
+     */
+    @Bean
+    public AuthenticationExecutor authenticationExecutor() {
+        return new AuthenticationExecutor(
+                environment.getRequiredProperty("kodemon.authentication.threads", Integer.class),
+                environment.getRequiredProperty("kodemon.authentication.queueCapacity", Integer.class));
+    }
+
+    /**
+     * Gyms looked up by their id, invalidated by every write to the gyms and their leaders
+     *
+     * @return the gym cache
+     */
+    @Bean
+    public GymSnapshotCache gymSnapshotCache() {
+        GymSnapshotCache cache = new GymSnapshotCache();
+        GymSnapshotInvalidation.register(entityManagerFactory, cache);
+        return cache;
+    }
+
+    /**
+     * Versions of the trainers, advanced by every write to a trainer or the trainer's Pokemons
+     *
+     * @return the trainer versions
+     */
+    @Bean
+    public TrainerVersions trainerVersions() {
+        TrainerVersions versions = new TrainerVersions();
+        TrainerVersionTracking.register(entityManagerFactory, versions);
+        return versions;
+    }
+
+    /**
+     * Active teams the fights for badges are evaluated with, current for as long as the versions of their trainers
+     *
+     * @return the team cache
+     */
+    @Bean
+    public TeamSnapshotCache teamSnapshotCache() {
+        return new TeamSnapshotCache(trainerVersions(),
+                environment.getRequiredProperty("kodemon.fight.teamSnapshotCapacity", Integer.class));
+    }
+
+    /**
+     * Queue storing the results of the fights in batches, the queued fights are stored when the context is closed
+     * <p>
+     * The DAOs and the transaction manager are parameters, so that they are closed after it.
+     *
+     * @return the fight writer
+     */
+    @Bean
+    public FightWriteBehind fightWriteBehind(TrainerDao trainerDao, GymDao gymDao, TrainerFightDao trainerFightDao,
+                                             PlatformTransactionManager transactionManager) {
+        return new FightWriteBehind(trainerDao, gymDao, trainerFightDao, transactionManager,
+                environment.getRequiredProperty("kodemon.fight.writeBehind", Boolean.class),
+                environment.getRequiredProperty("kodemon.fight.writeBehind.queueCapacity", Integer.class),
+                environment.getRequiredProperty("kodemon.fight.writeBehind.batchSize", Integer.class),
+                environment.getRequiredProperty("kodemon.fight.writeBehind.flushIntervalMillis", Long.class),
+                environment.getRequiredProperty("kodemon.fight.writeBehind.offerTimeoutMillis", Long.class));
+    }
+
+    /**
+     * Trigram index of the usernames, kept current by the writes to the trainers and rebuilt once the context is up
+     *
+     * @return the username index
+     */
+    @Bean
+    public UserNameIndex userNameIndex() {
+        UserNameIndex index = new UserNameIndex();
+        UserNameIndexing.register(entityManagerFactory, index);
+        return index;
+    }
+
+    /**
+     * Terms suggested while typing, kept current by the writes to the indexed entities and rebuilt once the context is up
+     *
+     * @return the suggestion index
+     */
+    @Bean
+    public SuggestionIndex suggestionIndex() {
+        SuggestionIndex index = new SuggestionIndex();
+        SuggestionIndexing.register(entityManagerFactory, index);
+        return index;
+    }
+
+    /**
+     * Spawn tables of the wild Pokemons, built once
+     *
+     * @return the standard encounters
+     */
+    @Bean
+    public WildEncounters wildEncounters() {
+        return WildEncounters.standard();
+    }
+
+    /**
+     * Fork-join pool of the bulk fight simulations, its threads are stopped with the context
+     *
+     * @return the matchup simulator
+     */
+    @Bean
+    public MatchupSimulator matchupSimulator() {
+        int parallelism = environment.getRequiredProperty("kodemon.simulation.parallelism", Integer.class);
+        return new MatchupSimulator(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Fork-join pool searching the best teams against the gyms, its threads are stopped with the context
+     *
+     * @return the team optimizer
+     */
+    @Bean
+    public TeamOptimizer teamOptimizer() {
+        int parallelism = environment.getRequiredProperty("kodemon.simulation.parallelism", Integer.class);
+        return new TeamOptimizer(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
 }
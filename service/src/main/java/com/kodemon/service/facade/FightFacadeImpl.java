@@ -1,18 +1,25 @@
 package com.kodemon.service.facade;
 
 import com.kodemon.api.dto.FightDTO;
+import com.kodemon.api.dto.FightExportDTO;
+import com.kodemon.api.dto.FightSummaryDTO;
 import com.kodemon.api.dto.GymDTO;
+import com.kodemon.api.dto.PageDTO;
 import com.kodemon.api.dto.PokemonDTO;
 import com.kodemon.api.dto.UserDTO;
+import com.kodemon.api.enums.FightPeriod;
 import com.kodemon.api.enums.WildPokemonFightMode;
 import com.kodemon.api.facade.FightFacade;
 import com.kodemon.persistence.entity.Gym;
 import com.kodemon.persistence.entity.Pokemon;
 import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.entity.TrainerFight;
+import com.kodemon.persistence.projection.FightSummary;
 import com.kodemon.service.interfaces.*;
-import com.kodemon.service.util.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +27,10 @@ import javax.inject.Inject;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.kodemon.persistence.util.Constants.pageSize;
 
 /**
  * @author Oliver Roch
@@ -30,6 +41,8 @@ import java.util.Date;
 public class FightFacadeImpl implements FightFacade {
 
     private static final Logger LOG = LoggerFactory.getLogger(FightFacadeImpl.class);
+    private static final String CURSOR_SEPARATOR = "_";
+    private static final String PENDING_CURSOR_PREFIX = "p";
 
     private BeanMappingService beanMappingService;
     private TrainerFightService trainerFightService;
@@ -73,9 +86,10 @@ public class FightFacadeImpl implements FightFacade {
             return false;
         Pokemon trainersPokemon = pokemonService.findById(trainersPokemons.iterator().next().getId());
 
-        Pair<Double, Double> fightScore = pokemonFightService.getScorePair(trainersPokemon, wildPokemon);
+        double trainersPokemonScore = pokemonFightService.getChallengerScore(trainersPokemon, wildPokemon);
+        double wildPokemonScore = pokemonFightService.getTargetScore(trainersPokemon, wildPokemon);
 
-        if (fightScore.getX() > fightScore.getY()) {
+        if (trainersPokemonScore > wildPokemonScore) {
             if (mode == WildPokemonFightMode.TRAIN) {
                 pokemonService.levelPokemonUp(trainersPokemon);
                 return true;
@@ -96,27 +110,77 @@ public class FightFacadeImpl implements FightFacade {
 
     @Override
     public Collection<FightDTO> listThisMonthsFights() {
-        int currentMonth = Calendar.getInstance().get(Calendar.MONTH);
-        int currentYear = Calendar.getInstance().get(Calendar.YEAR);
-        Date from = new Calendar.Builder().setDate(currentYear, currentMonth, 1).build().getTime();
-        return listFightsBetween(from, timeService.currentDate());
+        return listFightsBetween(periodStart(FightPeriod.MONTH), timeService.currentDate());
     }
 
     @Override
     public Collection<FightDTO> listThisYearsFights() {
-        int currentYear = Calendar.getInstance().get(Calendar.YEAR);
-        Date from = new Calendar.Builder().setDate(currentYear, 1, 1).build().getTime();
-        return listFightsBetween(from, timeService.currentDate());
+        return listFightsBetween(periodStart(FightPeriod.YEAR), timeService.currentDate());
     }
 
     @Override
     public Collection<FightDTO> listFightsBetween(Date from, Date to) {
-        return beanMappingService.mapListTo(trainerFightService.findByFightTimeBetween(from, to), FightDTO.class);
+        return beanMappingService.mapListToInParallel(trainerFightService.findByFightTimeBetween(from, to), FightDTO.class);
     }
 
     @Override
     public Collection<FightDTO> listAllFights() {
-        return beanMappingService.mapListTo(trainerFightService.findAll(), FightDTO.class);
+        return beanMappingService.mapListToInParallel(trainerFightService.findAll(), FightDTO.class);
+    }
+
+    @Override
+    public PageDTO<FightDTO> listAllFights(int page, int size) {
+        return toPage(trainerFightService.findAll(new PageRequest(Math.max(page, 0), pageSize(size))));
+    }
+
+    @Override
+    public PageDTO<FightDTO> listFightsBetween(Date from, Date to, int page, int size) {
+        return toPage(trainerFightService.findByFightTimeBetween(from, to, new PageRequest(Math.max(page, 0), pageSize(size))));
+    }
+
+    @Override
+    public PageDTO<FightDTO> listFightsOfPeriod(FightPeriod period, String cursor, int size) {
+        FightCursor before = parseCursor(cursor);
+        int pageSize = pageSize(size);
+        // one fight more than asked for tells whether there is a next page
+        List<TrainerFight> trainerFights = trainerFightService.findLatestSince(periodStart(period),
+                before == null ? null : before.fightTime, before == null ? null : before.id,
+                before == null ? null : before.sequence, pageSize + 1);
+        boolean hasNext = trainerFights.size() > pageSize;
+        if (hasNext) {
+            trainerFights = trainerFights.subList(0, pageSize);
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            TrainerFight last = trainerFights.get(pageSize - 1);
+            nextCursor = cursorOf(last.getFightTime(), last.getId(), last.getPendingSequence());
+        }
+        return new PageDTO<>(beanMappingService.mapListTo(trainerFights, FightDTO.class), 0, pageSize, hasNext, nextCursor);
+    }
+
+    @Override
+    public PageDTO<FightSummaryDTO> listFightSummariesOfPeriod(FightPeriod period, String cursor, int size) {
+        FightCursor before = parseCursor(cursor);
+        int pageSize = pageSize(size);
+        List<FightSummary> summaries = trainerFightService.findSummariesSince(periodStart(period),
+                before == null ? null : before.fightTime, before == null ? null : before.id,
+                before == null ? null : before.sequence, pageSize + 1);
+        boolean hasNext = summaries.size() > pageSize;
+        if (hasNext) {
+            summaries = summaries.subList(0, pageSize);
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            FightSummary last = summaries.get(pageSize - 1);
+            nextCursor = cursorOf(last.getFightTime(), last.getId(), last.getPendingSequence());
+        }
+        return new PageDTO<>(beanMappingService.mapListTo(summaries, FightSummaryDTO.class), 0, pageSize, hasNext, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportFights(Consumer<FightExportDTO> consumer) {
+        return trainerFightService.forEachFight(fight -> consumer.accept(toExportRow(fight)));
     }
 
     @Override
@@ -130,8 +194,104 @@ public class FightFacadeImpl implements FightFacade {
         return beanMappingService.mapListTo(trainerFightService.findByTargetGymsBadgeName(gym.getBadgeName()), FightDTO.class);
     }
 
+    @Override
+    public Collection<FightSummaryDTO> listFightSummariesOfTrainer(UserDTO user) {
+        return beanMappingService.mapListTo(trainerFightService.findSummariesByChallengerId(user.getId()), FightSummaryDTO.class);
+    }
+
+    @Override
+    public Collection<FightSummaryDTO> listFightSummariesOfGym(GymDTO gym) {
+        return beanMappingService.mapListTo(trainerFightService.findSummariesByTargetGymId(gym.getId()), FightSummaryDTO.class);
+    }
+
     @Override
     public FightDTO findFightById(Long id) {
         return beanMappingService.mapTo(trainerFightService.findById(id), FightDTO.class);
     }
+
+    /**
+     * Returns the start of the given period, which ends now
+     */
+    private Date periodStart(FightPeriod period) {
+        Date now = timeService.currentDate();
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(timeService.startOfTheDay(now));
+        switch (period) {
+            case TODAY:
+                return calendar.getTime();
+            case MONTH:
+                calendar.set(Calendar.DAY_OF_MONTH, 1);
+                return calendar.getTime();
+            case YEAR:
+                calendar.set(Calendar.DAY_OF_YEAR, 1);
+                return calendar.getTime();
+            default:
+                return new Date(0);
+        }
+    }
+
+    /**
+     * Maps the fight by hand, a generic mapper would walk the whole challenger and gym graphs
+     */
+    private static FightExportDTO toExportRow(TrainerFight fight) {
+        FightExportDTO row = new FightExportDTO();
+        row.setId(fight.getId());
+        row.setFightTime(fight.getFightTime());
+        row.setChallengerId(fight.getChallenger().getId());
+        row.setChallengerUserName(fight.getChallenger().getUserName());
+        row.setTargetGymId(fight.getTargetGym().getId());
+        row.setTargetGymCity(fight.getTargetGym().getCity());
+        row.setTargetGymBadgeName(fight.getTargetGym().getBadgeName());
+        row.setGymLeaderUserName(fight.getTargetGym().getTrainer().getUserName());
+        row.setWasChallengerSuccessful(fight.isWasChallengerSuccessful());
+        return row;
+    }
+
+    /**
+     * Returns the fight the cursor points to, null for no cursor
+     */
+    private static FightCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String[] parts = cursor.split(CURSOR_SEPARATOR);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Malformed fight cursor: " + cursor);
+        }
+        try {
+            Date fightTime = new Date(Long.parseLong(parts[0]));
+            if (parts[1].startsWith(PENDING_CURSOR_PREFIX)) {
+                return new FightCursor(fightTime, null, Long.parseLong(parts[1].substring(PENDING_CURSOR_PREFIX.length())));
+            }
+            return new FightCursor(fightTime, Long.parseLong(parts[1]), null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed fight cursor: " + cursor, e);
+        }
+    }
+
+    private static String cursorOf(Date fightTime, Long id, Long pendingSequence) {
+        // a fight not stored yet has no id, it is pointed to by the sequence number it was queued with
+        return fightTime.getTime() + CURSOR_SEPARATOR + (id == null ? PENDING_CURSOR_PREFIX + pendingSequence : id);
+    }
+
+    private PageDTO<FightDTO> toPage(Slice<TrainerFight> slice) {
+        return new PageDTO<>(beanMappingService.mapListTo(slice.getContent(), FightDTO.class),
+                slice.getNumber(), slice.getSize(), slice.hasNext(), null);
+    }
+
+    /**
+     * Last fight of a history page, either a stored fight with its id or a queued fight with its sequence number
+     */
+    private static class FightCursor {
+
+        private final Date fightTime;
+        private final Long id;
+        private final Long sequence;
+
+        FightCursor(Date fightTime, Long id, Long sequence) {
+            this.fightTime = fightTime;
+            this.id = id;
+            this.sequence = sequence;
+        }
+    }
 }
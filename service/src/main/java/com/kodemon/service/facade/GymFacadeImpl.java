@@ -1,10 +1,11 @@
 package com.kodemon.service.facade;
 
 import com.kodemon.api.dto.GymDTO;
+import com.kodemon.api.dto.GymSummaryDTO;
 import com.kodemon.api.facade.GymFacade;
-import com.kodemon.persistence.entity.Gym;
 import com.kodemon.service.interfaces.BeanMappingService;
 import com.kodemon.service.interfaces.GymService;
+import com.kodemon.service.util.GymSnapshotCache;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,13 +24,16 @@ public class GymFacadeImpl implements GymFacade {
 
     private BeanMappingService beanMappingService;
     private GymService gymService;
+    private GymSnapshotCache gymSnapshotCache;
 
     @Inject
     public GymFacadeImpl(
             BeanMappingService beanMappingService,
-            GymService gymService) {
+            GymService gymService,
+            GymSnapshotCache gymSnapshotCache) {
         this.beanMappingService = beanMappingService;
         this.gymService = gymService;
+        this.gymSnapshotCache = gymSnapshotCache;
     }
 
     @Override
@@ -37,17 +41,17 @@ public class GymFacadeImpl implements GymFacade {
         return beanMappingService.mapListTo(gymService.findAll(), GymDTO.class);
     }
 
-    // Veeeery ugly workaround for #205.
-    // When only delegating method to the layer below, leader of the returned gym had (number_of_fights * 5) pokemons.
-    // Now it should be correct
+    @Override
+    public Collection<GymSummaryDTO> findAllSummaries() {
+        return beanMappingService.mapListTo(gymService.findSummaries(), GymSummaryDTO.class);
+    }
+
+    /**
+     * Served from the {@link GymSnapshotCache}, the caller gets its own copy of the cached gym
+     */
     @Override
     public GymDTO findGymById(Long id) {
-        Collection<Gym> all = gymService.findAll();
-        for (Gym g : all) {
-            if (g.getId().equals(id)) {
-                return beanMappingService.mapTo(g, GymDTO.class);
-            }
-        }
-        return null;
+        GymDTO snapshot = gymSnapshotCache.get(id, key -> beanMappingService.mapTo(gymService.findById(key), GymDTO.class));
+        return beanMappingService.mapTo(snapshot, GymDTO.class);
     }
 }
\ No newline at end of file
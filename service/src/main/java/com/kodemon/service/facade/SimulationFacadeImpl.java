@@ -0,0 +1,150 @@
+package com.kodemon.service.facade;
+
+import com.kodemon.api.dto.GymDifficultyDTO;
+import com.kodemon.api.dto.GymSimulationDTO;
+import com.kodemon.api.dto.TournamentEntryDTO;
+import com.kodemon.api.dto.TournamentSimulationDTO;
+import com.kodemon.api.facade.SimulationFacade;
+import com.kodemon.persistence.projection.GymSummary;
+import com.kodemon.service.interfaces.SimulationService;
+import com.kodemon.service.util.MatchupSimulator;
+import com.kodemon.service.util.TeamSnapshot;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Simulation Facade Implementation
+ * <p>
+ * The simulations open their own short read-only transactions to load the teams, the fights themselves run outside
+ * of any transaction. A simulation asked for while the same one is running is not run again, the caller gets the result
+ * of the running one, so repeated requests cost one simulation at a time however many arrive.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Service
+public class SimulationFacadeImpl implements SimulationFacade {
+
+    private static final String GYM_CHALLENGES = "gyms";
+
+    private SimulationService simulationService;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> running = new ConcurrentHashMap<>();
+
+    @Inject
+    public SimulationFacadeImpl(SimulationService simulationService) {
+        this.simulationService = simulationService;
+    }
+
+    @Override
+    public GymSimulationDTO simulateGymChallenges() {
+        return singleFlight(GYM_CHALLENGES, this::runGymChallenges);
+    }
+
+    @Override
+    public TournamentSimulationDTO simulateTournament(int size) {
+        return singleFlight(size, () -> runTournament(size));
+    }
+
+    private GymSimulationDTO runGymChallenges() {
+        long start = System.nanoTime();
+        List<GymSummary> gyms = simulationService.findGyms();
+        MatchupSimulator.GymChallenges challenges = simulationService.simulateGymChallenges(gyms);
+
+        List<GymDifficultyDTO> difficulties = new ArrayList<>(gyms.size());
+        for (int i = 0; i < gyms.size(); i++) {
+            GymSummary gym = gyms.get(i);
+            GymDifficultyDTO difficulty = new GymDifficultyDTO();
+            difficulty.setGymId(gym.getId());
+            difficulty.setCity(gym.getCity());
+            difficulty.setBadgeName(gym.getBadgeName());
+            difficulty.setLeaderUserName(gym.getLeaderUserName());
+            difficulty.setChallengerCount(challenges.getChallengerCount(i));
+            difficulty.setWinCount(challenges.getWinCount(i));
+            difficulty.setDifficulty(challenges.getChallengerCount(i) == 0 ? 0
+                    : 1 - (double) challenges.getWinCount(i) / challenges.getChallengerCount(i));
+            difficulties.add(difficulty);
+        }
+        List<Long> trainersByGymsBeaten = new ArrayList<>();
+        for (long count : challenges.getTrainersByGymsBeaten()) {
+            trainersByGymsBeaten.add(count);
+        }
+
+        GymSimulationDTO simulation = new GymSimulationDTO();
+        simulation.setGyms(difficulties);
+        simulation.setTrainersByGymsBeaten(trainersByGymsBeaten);
+        simulation.setMatchupCount(challenges.getMatchupCount());
+        simulation.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return simulation;
+    }
+
+    private TournamentSimulationDTO runTournament(int size) {
+        long start = System.nanoTime();
+        MatchupSimulator.Tournament tournament = simulationService.simulateTournament(size);
+        List<TeamSnapshot> seeds = tournament.getSeeds();
+
+        List<TournamentEntryDTO> entries = new ArrayList<>(seeds.size());
+        boolean[][] winMatrix = new boolean[seeds.size()][seeds.size()];
+        for (int seed = 0; seed < seeds.size(); seed++) {
+            TeamSnapshot team = seeds.get(seed);
+            TournamentEntryDTO entry = new TournamentEntryDTO();
+            entry.setSeed(seed);
+            entry.setUserId(team.getTrainerId());
+            entry.setUserName(team.getUserName());
+            entry.setLevelSum(team.getLevelSum());
+            entry.setWinCount(tournament.getWinCount(seed));
+            entries.add(entry);
+            for (int defender = 0; defender < seeds.size(); defender++) {
+                winMatrix[seed][defender] = tournament.isWin(seed, defender);
+            }
+        }
+
+        TournamentSimulationDTO simulation = new TournamentSimulationDTO();
+        simulation.setEntries(entries);
+        simulation.setWinMatrix(winMatrix);
+        simulation.setChampion(tournament.getChampion() < 0 ? null : entries.get(tournament.getChampion()));
+        simulation.setMatchupCount(tournament.getMatchupCount());
+        simulation.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return simulation;
+    }
+
+    /**
+     * Runs the simulation, unless the same one is running already, then waits for its result
+     *
+     * @param key        identifies the simulation and its parameters
+     * @param simulation runs the simulation
+     * @return result of the simulation run by this or another caller
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T singleFlight(Object key, Supplier<T> simulation) {
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> other = running.putIfAbsent(key, own);
+        if (other != null) {
+            try {
+                return (T) other.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        try {
+            T result = simulation.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(key, own);
+        }
+    }
+}
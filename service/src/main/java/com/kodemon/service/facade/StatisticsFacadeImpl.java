@@ -0,0 +1,137 @@
+package com.kodemon.service.facade;
+
+import com.kodemon.api.dto.AuthenticationStatisticsDTO;
+import com.kodemon.api.dto.CacheRegionStatisticsDTO;
+import com.kodemon.api.dto.ConnectionPoolStatisticsDTO;
+import com.kodemon.api.dto.MappingStatisticsDTO;
+import com.kodemon.api.dto.UserSnapshotStatisticsDTO;
+import com.kodemon.api.facade.StatisticsFacade;
+import com.kodemon.persistence.config.ConnectionPoolMetrics;
+import com.kodemon.service.interfaces.CacheStatisticsService;
+import com.kodemon.service.util.AuthenticationExecutor;
+import com.kodemon.service.util.GymSnapshotCache;
+import com.kodemon.service.util.ParallelMapping;
+import com.kodemon.service.util.TeamSnapshotCache;
+import com.kodemon.service.util.TrainerVersions;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Statistics Facade Implementation
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Service
+public class StatisticsFacadeImpl implements StatisticsFacade {
+
+    private CacheStatisticsService cacheStatisticsService;
+    private ConnectionPoolMetrics connectionPoolMetrics;
+    private ParallelMapping parallelMapping;
+    private AuthenticationExecutor authenticationExecutor;
+    private GymSnapshotCache gymSnapshotCache;
+    private TrainerVersions trainerVersions;
+    private TeamSnapshotCache teamSnapshotCache;
+
+    @Inject
+    public StatisticsFacadeImpl(CacheStatisticsService cacheStatisticsService, ConnectionPoolMetrics connectionPoolMetrics,
+                                ParallelMapping parallelMapping, AuthenticationExecutor authenticationExecutor,
+                                GymSnapshotCache gymSnapshotCache, TrainerVersions trainerVersions,
+                                TeamSnapshotCache teamSnapshotCache) {
+        this.cacheStatisticsService = cacheStatisticsService;
+        this.connectionPoolMetrics = connectionPoolMetrics;
+        this.parallelMapping = parallelMapping;
+        this.authenticationExecutor = authenticationExecutor;
+        this.gymSnapshotCache = gymSnapshotCache;
+        this.trainerVersions = trainerVersions;
+        this.teamSnapshotCache = teamSnapshotCache;
+    }
+
+    @Override
+    public Collection<CacheRegionStatisticsDTO> getCacheStatistics() {
+        List<CacheRegionStatisticsDTO> result = new ArrayList<>();
+        for (String regionName : cacheStatisticsService.getRegionNames()) {
+            SecondLevelCacheStatistics regionStatistics = cacheStatisticsService.getRegionStatistics(regionName);
+            if (regionStatistics == null) {
+                continue;
+            }
+            CacheRegionStatisticsDTO dto = new CacheRegionStatisticsDTO();
+            dto.setRegionName(regionName);
+            dto.setHitCount(regionStatistics.getHitCount());
+            dto.setMissCount(regionStatistics.getMissCount());
+            dto.setPutCount(regionStatistics.getPutCount());
+            dto.setElementCountInMemory(regionStatistics.getElementCountInMemory());
+            result.add(dto);
+        }
+        CacheRegionStatisticsDTO gymSnapshots = new CacheRegionStatisticsDTO();
+        gymSnapshots.setRegionName(GymSnapshotCache.REGION_NAME);
+        gymSnapshots.setHitCount(gymSnapshotCache.getHitCount());
+        gymSnapshots.setMissCount(gymSnapshotCache.getMissCount());
+        gymSnapshots.setPutCount(gymSnapshotCache.getPutCount());
+        gymSnapshots.setElementCountInMemory(gymSnapshotCache.size());
+        result.add(gymSnapshots);
+        CacheRegionStatisticsDTO teamSnapshots = new CacheRegionStatisticsDTO();
+        teamSnapshots.setRegionName(TeamSnapshotCache.REGION_NAME);
+        teamSnapshots.setHitCount(teamSnapshotCache.getHitCount());
+        teamSnapshots.setMissCount(teamSnapshotCache.getMissCount());
+        teamSnapshots.setPutCount(teamSnapshotCache.getPutCount());
+        teamSnapshots.setElementCountInMemory(teamSnapshotCache.size());
+        result.add(teamSnapshots);
+        return result;
+    }
+
+    @Override
+    public ConnectionPoolStatisticsDTO getConnectionPoolStatistics() {
+        ConnectionPoolStatisticsDTO dto = new ConnectionPoolStatisticsDTO();
+        dto.setPooled(connectionPoolMetrics.isPooled());
+        dto.setActiveConnections(connectionPoolMetrics.getActiveConnections());
+        dto.setIdleConnections(connectionPoolMetrics.getIdleConnections());
+        dto.setTotalConnections(connectionPoolMetrics.getTotalConnections());
+        dto.setThreadsAwaitingConnection(connectionPoolMetrics.getThreadsAwaitingConnection());
+        dto.setAcquireCount(connectionPoolMetrics.getAcquireCount());
+        dto.setAverageAcquireMicros(connectionPoolMetrics.getAverageAcquireMicros());
+        dto.setMaxAcquireMicros(connectionPoolMetrics.getMaxAcquireMicros());
+        dto.setTimeoutCount(connectionPoolMetrics.getTimeoutCount());
+        return dto;
+    }
+
+    @Override
+    public MappingStatisticsDTO getMappingStatistics() {
+        MappingStatisticsDTO dto = new MappingStatisticsDTO();
+        dto.setParallelism(parallelMapping.getParallelism());
+        dto.setParallelThreshold(parallelMapping.getThreshold());
+        dto.setSequentialCount(parallelMapping.getSequentialCount());
+        dto.setParallelCount(parallelMapping.getParallelCount());
+        dto.setChunkCount(parallelMapping.getChunkCount());
+        return dto;
+    }
+
+    @Override
+    public AuthenticationStatisticsDTO getAuthenticationStatistics() {
+        AuthenticationStatisticsDTO dto = new AuthenticationStatisticsDTO();
+        dto.setThreads(authenticationExecutor.getThreads());
+        dto.setQueueCapacity(authenticationExecutor.getQueueCapacity());
+        dto.setQueueDepth(authenticationExecutor.getQueueDepth());
+        dto.setActiveCount(authenticationExecutor.getActiveCount());
+        dto.setCompletedCount(authenticationExecutor.getCompletedCount());
+        dto.setRejectedCount(authenticationExecutor.getRejectedCount());
+        dto.setAverageWaitMicros(authenticationExecutor.getAverageWaitMicros());
+        dto.setMaxWaitMicros(authenticationExecutor.getMaxWaitMicros());
+        dto.setAverageHashMicros(authenticationExecutor.getAverageHashMicros());
+        dto.setMaxHashMicros(authenticationExecutor.getMaxHashMicros());
+        return dto;
+    }
+
+    @Override
+    public UserSnapshotStatisticsDTO getUserSnapshotStatistics() {
+        UserSnapshotStatisticsDTO dto = new UserSnapshotStatisticsDTO();
+        dto.setHitCount(trainerVersions.getSnapshotHitCount());
+        dto.setReloadCount(trainerVersions.getSnapshotReloadCount());
+        dto.setTrackedUsers(trainerVersions.size());
+        return dto;
+    }
+}
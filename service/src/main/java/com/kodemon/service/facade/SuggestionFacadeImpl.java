@@ -0,0 +1,36 @@
+package com.kodemon.service.facade;
+
+import com.kodemon.api.dto.SuggestionDTO;
+import com.kodemon.api.enums.SuggestionKind;
+import com.kodemon.api.facade.SuggestionFacade;
+import com.kodemon.service.interfaces.BeanMappingService;
+import com.kodemon.service.interfaces.SuggestionService;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * Suggestion Facade Implementation
+ * <p>
+ * The suggestions come from memory, no transaction is started for them.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Service
+public class SuggestionFacadeImpl implements SuggestionFacade {
+
+    private BeanMappingService beanMappingService;
+    private SuggestionService suggestionService;
+
+    @Inject
+    public SuggestionFacadeImpl(BeanMappingService beanMappingService, SuggestionService suggestionService) {
+        this.beanMappingService = beanMappingService;
+        this.suggestionService = suggestionService;
+    }
+
+    @Override
+    public List<SuggestionDTO> suggest(String prefix, SuggestionKind kind, int limit) {
+        return beanMappingService.mapListTo(suggestionService.suggest(prefix, kind, limit), SuggestionDTO.class);
+    }
+}
@@ -1,21 +1,44 @@
 package com.kodemon.service.facade;
 
+import com.kodemon.api.dto.PageDTO;
+import com.kodemon.api.dto.PokemonDTO;
+import com.kodemon.api.dto.TeamSuggestionDTO;
 import com.kodemon.api.dto.UserAuthDTO;
 import com.kodemon.api.dto.UserDTO;
 import com.kodemon.api.dto.UserRegisterDTO;
+import com.kodemon.api.dto.UserSnapshotDTO;
+import com.kodemon.api.dto.UserSummaryDTO;
 import com.kodemon.api.facade.UserFacade;
+import com.kodemon.persistence.entity.Gym;
+import com.kodemon.persistence.entity.Pokemon;
 import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.projection.TrainerSummary;
+import com.kodemon.service.interfaces.AuthenticationService;
 import com.kodemon.service.interfaces.BeanMappingService;
+import com.kodemon.service.interfaces.GymService;
+import com.kodemon.service.interfaces.TrainerSearchService;
 import com.kodemon.service.interfaces.TrainerService;
 import com.kodemon.service.util.PasswordStorage;
+import com.kodemon.service.util.TeamOptimizer;
+import com.kodemon.service.util.TeamSnapshot;
+import com.kodemon.service.util.TrainerVersions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.inject.Inject;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static com.kodemon.persistence.util.Constants.pageSize;
 
 /**
  * User Facade Implementation
@@ -32,13 +55,34 @@ public class UserFacadeImpl implements UserFacade {
 
     private BeanMappingService beanMappingService;
     private TrainerService trainerService;
+    private AuthenticationService authenticationService;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private TrainerVersions trainerVersions;
+    private TrainerSearchService trainerSearchService;
+    private GymService gymService;
+    private TeamOptimizer teamOptimizer;
 
     @Inject
     public UserFacadeImpl(
             BeanMappingService beanMappingService,
-            TrainerService trainerService) {
+            TrainerService trainerService,
+            AuthenticationService authenticationService,
+            PlatformTransactionManager transactionManager,
+            TrainerVersions trainerVersions,
+            TrainerSearchService trainerSearchService,
+            GymService gymService,
+            TeamOptimizer teamOptimizer) {
         this.beanMappingService = beanMappingService;
         this.trainerService = trainerService;
+        this.authenticationService = authenticationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.trainerVersions = trainerVersions;
+        this.trainerSearchService = trainerSearchService;
+        this.gymService = gymService;
+        this.teamOptimizer = teamOptimizer;
     }
 
     @Override
@@ -59,15 +103,48 @@ public class UserFacadeImpl implements UserFacade {
         }
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<UserDTO> registerAsync(UserRegisterDTO user) {
+        LOG.debug("Registering user with userName {}.", user.getUserName());
+        // the hashing thread stores the user in a transaction of its own, this one has returned by then
+        return authenticationService.createHash(user.getPassword()).thenApply(pwdHash -> transactionTemplate.execute(status ->
+                beanMappingService.mapTo(trainerService.registerWithHash(
+                        user.getUserName(),
+                        user.getFirstName(),
+                        user.getLastName(),
+                        user.getDateOfBirth(),
+                        user.getPokemon(),
+                        pwdHash), UserDTO.class)));
+    }
+
     @Override
     public boolean login(UserAuthDTO auth) {
         LOG.debug("Logging in user with userName {}", auth.getUserName());
         return trainerService.login(auth.getUserName(), auth.getPassword());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CompletableFuture<UserDTO> authenticate(UserAuthDTO auth) {
+        LOG.debug("Authenticating user with userName {}", auth.getUserName());
+        Trainer trainer = trainerService.findByUserNameIgnoreCase(auth.getUserName());
+        if (trainer == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        UserDTO user = beanMappingService.mapTo(trainer, UserDTO.class);
+        return authenticationService.verifyPassword(auth.getPassword(), trainer.getPwdHash())
+                .thenApply(matches -> matches ? user : null);
+    }
+
     @Override
     public Collection<UserDTO> findUserByUserNameIgnoringCaseIncludeSubstrings(String userName) {
-        return beanMappingService.mapListTo(trainerService.findByUserNameIgnoreCaseContaining(userName), UserDTO.class);
+        return beanMappingService.mapListTo(trainerSearchService.findByUserNameIgnoreCaseContaining(userName), UserDTO.class);
+    }
+
+    @Override
+    public UserDTO findUserByUserNameIgnoringCase(String userName) {
+        return beanMappingService.mapTo(trainerService.findByUserNameIgnoreCase(userName), UserDTO.class);
     }
 
     @Override
@@ -77,7 +154,48 @@ public class UserFacadeImpl implements UserFacade {
 
     @Override
     public Collection<UserDTO> findAllUsers() {
-        return beanMappingService.mapListTo(trainerService.findAll(), UserDTO.class);
+        return beanMappingService.mapListToInParallel(trainerService.findAll(), UserDTO.class);
+    }
+
+    @Override
+    public PageDTO<UserDTO> findAllUsers(int page, int size) {
+        Slice<Trainer> trainers = trainerService.findAll(new PageRequest(Math.max(page, 0), pageSize(size)));
+        return new PageDTO<>(beanMappingService.mapListTo(trainers.getContent(), UserDTO.class),
+                trainers.getNumber(), trainers.getSize(), trainers.hasNext(), null);
+    }
+
+    @Override
+    public PageDTO<UserDTO> findUsersAfter(String cursor, int size) {
+        Long afterId = parseCursor(cursor);
+        int pageSize = pageSize(size);
+        // one user more than asked for tells whether there is a next page
+        List<Trainer> trainers = trainerService.findAfterId(afterId, pageSize + 1);
+        boolean hasNext = trainers.size() > pageSize;
+        if (hasNext) {
+            trainers = trainers.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? String.valueOf(trainers.get(pageSize - 1).getId()) : null;
+        return new PageDTO<>(beanMappingService.mapListTo(trainers, UserDTO.class), 0, pageSize, hasNext, nextCursor);
+    }
+
+    @Override
+    public PageDTO<UserSummaryDTO> findUserSummaries(int page, int size) {
+        Slice<TrainerSummary> summaries = trainerService.findSummaries(new PageRequest(Math.max(page, 0), pageSize(size)));
+        return new PageDTO<>(beanMappingService.mapListTo(summaries.getContent(), UserSummaryDTO.class),
+                summaries.getNumber(), summaries.getSize(), summaries.hasNext(), null);
+    }
+
+    @Override
+    public PageDTO<UserSummaryDTO> findUserSummariesAfter(String cursor, int size) {
+        Long afterId = parseCursor(cursor);
+        int pageSize = pageSize(size);
+        List<TrainerSummary> summaries = trainerService.findSummariesAfterId(afterId, pageSize + 1);
+        boolean hasNext = summaries.size() > pageSize;
+        if (hasNext) {
+            summaries = summaries.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? String.valueOf(summaries.get(pageSize - 1).getId()) : null;
+        return new PageDTO<>(beanMappingService.mapListTo(summaries, UserSummaryDTO.class), 0, pageSize, hasNext, nextCursor);
     }
 
     @Override
@@ -85,6 +203,27 @@ public class UserFacadeImpl implements UserFacade {
         return beanMappingService.mapTo(trainerService.findById(id), UserDTO.class);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public UserSnapshotDTO takeUserSnapshot(Long id) {
+        trainerVersions.snapshotReloaded();
+        // the version is read first, a write committed while the user is being loaded makes the snapshot stale at once
+        long version = trainerVersions.getVersion(id);
+        UserDTO user = beanMappingService.mapTo(trainerService.findById(id), UserDTO.class);
+        return user == null ? null : new UserSnapshotDTO(id, version, user);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public UserSnapshotDTO refreshUserSnapshot(UserSnapshotDTO snapshot) {
+        // a current snapshot does not need a transaction, nor a connection
+        if (trainerVersions.getVersion(snapshot.getUserId()) == snapshot.getVersion()) {
+            trainerVersions.snapshotHit();
+            return snapshot;
+        }
+        return readOnlyTransactionTemplate.execute(status -> takeUserSnapshot(snapshot.getUserId()));
+    }
+
     @Override
     public UserDTO update(Long id, UserDTO userDTO) {
         Trainer toUpdate = beanMappingService.mapTo(userDTO, Trainer.class);
@@ -105,4 +244,42 @@ public class UserFacadeImpl implements UserFacade {
     public void chooseActivePokemons(Long id, List<Integer> pokemonIndices) {
         trainerService.setFirstSixPokemons(id, pokemonIndices);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TeamSuggestionDTO suggestTeam(Long id, Long gymId) {
+        Trainer trainer = trainerService.findById(id);
+        Gym gym = gymService.findById(gymId);
+        if (trainer == null || gym == null) {
+            return null;
+        }
+        List<Pokemon> pokemons = trainer.getPokemons();
+        int[] species = new int[pokemons.size()];
+        int[] levels = new int[pokemons.size()];
+        for (int i = 0; i < pokemons.size(); i++) {
+            species[i] = pokemons.get(i).getName().ordinal();
+            levels[i] = pokemons.get(i).getLevel();
+        }
+        TeamOptimizer.Team team = teamOptimizer.optimize(species, levels, TeamSnapshot.of(gym.getTrainer()));
+
+        List<Pokemon> picked = team.getIndices().stream().map(pokemons::get).collect(Collectors.toList());
+        TeamSuggestionDTO suggestion = new TeamSuggestionDTO();
+        suggestion.setGymId(gymId);
+        suggestion.setPokemonIndices(team.getIndices());
+        suggestion.setPokemons(beanMappingService.mapListTo(picked, PokemonDTO.class));
+        suggestion.setMargin(team.getMargin());
+        suggestion.setWinning(team.isWinning());
+        return suggestion;
+    }
+
+    private static Long parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed user cursor: " + cursor, e);
+        }
+    }
 }
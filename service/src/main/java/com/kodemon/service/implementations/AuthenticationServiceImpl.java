@@ -0,0 +1,46 @@
+package com.kodemon.service.implementations;
+
+import com.kodemon.service.interfaces.AuthenticationService;
+import com.kodemon.service.util.AuthenticationExecutor;
+import com.kodemon.service.util.PasswordStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implementation of the {@link AuthenticationService}, hashing with {@link PasswordStorage} on the {@link AuthenticationExecutor}
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Service
+public class AuthenticationServiceImpl implements AuthenticationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AuthenticationServiceImpl.class);
+
+    private AuthenticationExecutor authenticationExecutor;
+
+    @Inject
+    public AuthenticationServiceImpl(AuthenticationExecutor authenticationExecutor) {
+        this.authenticationExecutor = authenticationExecutor;
+    }
+
+    @Override
+    public CompletableFuture<String> createHash(String password) {
+        return authenticationExecutor.submit(() -> PasswordStorage.createHash(password));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> verifyPassword(String password, String hash) {
+        return authenticationExecutor.submit(() -> {
+            try {
+                return PasswordStorage.verifyPassword(password, hash);
+            } catch (PasswordStorage.CannotPerformOperationException | PasswordStorage.InvalidHashException e) {
+                LOG.error("Error while verifying the password.", e);
+                return false;
+            }
+        });
+    }
+}
@@ -1,7 +1,9 @@
 package com.kodemon.service.implementations;
 
 import com.kodemon.service.interfaces.BeanMappingService;
+import com.kodemon.service.util.EntityGraphInitializer;
 import com.kodemon.service.util.OrikaMapper;
+import com.kodemon.service.util.ParallelMapping;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
@@ -17,10 +19,12 @@ import java.util.List;
 public class BeanMappingServiceImpl implements BeanMappingService {
 
     private OrikaMapper mapper;
+    private ParallelMapping parallelMapping;
 
     @Inject
-    public BeanMappingServiceImpl(OrikaMapper mapper) {
+    public BeanMappingServiceImpl(OrikaMapper mapper, ParallelMapping parallelMapping) {
         this.mapper = mapper;
+        this.parallelMapping = parallelMapping;
     }
 
     @Override
@@ -28,7 +32,15 @@ public class BeanMappingServiceImpl implements BeanMappingService {
         if (mapToClass == null) {
             return Collections.emptyList();
         }
-        return mapper.mapAsList(source, mapToClass);
+        return mapper.mapAsListTo(source, mapToClass);
+    }
+
+    @Override
+    public <T> List<T> mapListToInParallel(List<?> source, Class<T> mapToClass) {
+        if (mapToClass == null) {
+            return Collections.emptyList();
+        }
+        return parallelMapping.map(source, EntityGraphInitializer::initialize, chunk -> mapper.mapAsListTo(chunk, mapToClass));
     }
 
     @Override
@@ -36,6 +48,6 @@ public class BeanMappingServiceImpl implements BeanMappingService {
         if (source == null || targetClass == null) {
             return null;
         }
-        return mapper.map(source, targetClass);
+        return mapper.mapTo(source, targetClass);
     }
 }
@@ -0,0 +1,40 @@
+package com.kodemon.service.implementations;
+
+import com.kodemon.service.interfaces.CacheStatisticsService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the second-level cache statistics gathered by Hibernate
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Service
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+    private Statistics statistics;
+
+    @Inject
+    public CacheStatisticsServiceImpl(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public List<String> getRegionNames() {
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        return Arrays.asList(regionNames);
+    }
+
+    @Override
+    public SecondLevelCacheStatistics getRegionStatistics(String regionName) {
+        return statistics.getSecondLevelCacheStatistics(regionName);
+    }
+}
@@ -13,6 +13,7 @@ import com.kodemon.persistence.entity.Pokemon;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.enums.PokemonName;
 import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.GymSummary;
 import com.kodemon.service.interfaces.GymService;
 import com.kodemon.service.util.PasswordStorage;
 import org.slf4j.Logger;
@@ -507,6 +508,11 @@ public class GymServiceImpl implements GymService {
         return gymDao.findByBadgeName(badgeName);
     }
 
+    @Override
+    public List<Gym> findWithLeaderTeamByBadgeName(String badgeName) {
+        return gymDao.findWithLeaderTeamByBadgeName(badgeName);
+    }
+
     @Override
     public List<Gym> findByBadgeNameLike(String badgeName) {
         return gymDao.findByBadgeNameLike(badgeName);
@@ -531,4 +537,9 @@ public class GymServiceImpl implements GymService {
     public List<Gym> findAll() {
         return gymDao.findAll();
     }
+
+    @Override
+    public List<GymSummary> findSummaries() {
+        return gymDao.findSummaries();
+    }
 }
@@ -26,11 +26,17 @@ public class PokemonFightServiceImpl implements PokemonFightService {
 
     @Override
     public Pair<Double, Double> getScorePair(Pokemon challenger, Pokemon target) {
-        double advantageOfChallenger = pokemonFightAdvantageService.computePokemonFightAdvantage(challenger.getName(), target.getName());
+        return new Pair<>(getChallengerScore(challenger, target), getTargetScore(challenger, target));
+    }
 
-        Double challengerScore = challenger.getLevel() * advantageOfChallenger;
-        Double targetScore = (double) target.getLevel();
+    @Override
+    public double getChallengerScore(Pokemon challenger, Pokemon target) {
+        double advantageOfChallenger = pokemonFightAdvantageService.computePokemonFightAdvantage(challenger.getName(), target.getName());
+        return challenger.getLevel() * advantageOfChallenger;
+    }
 
-        return new Pair<>(challengerScore, targetScore);
+    @Override
+    public double getTargetScore(Pokemon challenger, Pokemon target) {
+        return target.getLevel();
     }
 }
@@ -6,14 +6,12 @@ import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.enums.PokemonName;
 import com.kodemon.persistence.enums.PokemonType;
 import com.kodemon.service.interfaces.PokemonService;
+import com.kodemon.service.util.WildEncounters;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 
 /**
  * Pokemon Service implementation
@@ -25,35 +23,21 @@ import java.util.Random;
 @Service
 public class PokemonServiceImpl implements PokemonService {
 
-    private static final Random RANDOM = new Random();
-
     private PokemonDao pokemonDao;
+    private WildEncounters wildEncounters;
 
     @Inject
-    public PokemonServiceImpl(PokemonDao pokemonDao) {
+    public PokemonServiceImpl(PokemonDao pokemonDao, WildEncounters wildEncounters) {
         this.pokemonDao = pokemonDao;
+        this.wildEncounters = wildEncounters;
     }
 
+    /**
+     * The Pokemon is drawn from the spawn tables of the {@link WildEncounters}
+     */
     @Override
     public Pokemon generateWildPokemon(@Nullable PokemonType type, int minLevel, int maxLevel) {
-        Pokemon pokemon;
-        if (type == null) {
-            int i = RANDOM.nextInt(PokemonName.values().length);
-            pokemon = new Pokemon(PokemonName.values()[i]);
-        } else {
-            List<PokemonName> pokemons = Arrays.asList(PokemonName.values());
-            List<PokemonName> pokemonsOfWantedType = new ArrayList<>();
-            for (int i = 0; i < pokemons.size(); i++) {
-                PokemonName p = pokemons.get(i);
-                if (Arrays.asList(pokemons.get(i).getTypes()).indexOf(type) != -1)
-                    pokemonsOfWantedType.add(p);
-            }
-            int i = RANDOM.nextInt(pokemonsOfWantedType.size());
-            pokemon = new Pokemon(pokemonsOfWantedType.get(i));
-        }
-        Random rand = new Random();
-        pokemon.setLevel(Math.max(1, minLevel + rand.nextInt(maxLevel - minLevel + 1)));
-        return pokemon;
+        return wildEncounters.encounter(type, minLevel, maxLevel);
     }
 
     @Override
@@ -0,0 +1,134 @@
+package com.kodemon.service.implementations;
+
+import com.kodemon.persistence.dao.GymDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.projection.GymSummary;
+import com.kodemon.persistence.projection.TrainerSummary;
+import com.kodemon.service.interfaces.SimulationService;
+import com.kodemon.service.util.MatchupSimulator;
+import com.kodemon.service.util.TeamSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the {@link SimulationService}
+ * <p>
+ * The teams of all the trainers are loaded once per simulation, a page of trainers per read-only transaction, and kept
+ * as {@link TeamSnapshot}s only; the fights are then evaluated by the {@link MatchupSimulator} on its own pool.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Service
+public class SimulationServiceImpl implements SimulationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SimulationServiceImpl.class);
+    private static final int LOAD_PAGE_SIZE = 1_000;
+
+    /**
+     * Strongest first, the lower id first among the equally strong
+     */
+    private static final Comparator<TeamSnapshot> STRONGEST_FIRST = Comparator
+            .comparingInt(TeamSnapshot::getLevelSum).reversed()
+            .thenComparing(TeamSnapshot::getTrainerId);
+
+    private TrainerDao trainerDao;
+    private GymDao gymDao;
+    private MatchupSimulator matchupSimulator;
+    private TransactionTemplate transactionTemplate;
+
+    @Inject
+    public SimulationServiceImpl(TrainerDao trainerDao, GymDao gymDao, MatchupSimulator matchupSimulator,
+                                 PlatformTransactionManager transactionManager) {
+        this.trainerDao = trainerDao;
+        this.gymDao = gymDao;
+        this.matchupSimulator = matchupSimulator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public List<GymSummary> findGyms() {
+        return transactionTemplate.execute(status -> gymDao.findSummaries());
+    }
+
+    @Override
+    public MatchupSimulator.GymChallenges simulateGymChallenges(List<GymSummary> gyms) {
+        List<Long> leaderIds = gyms.stream().map(GymSummary::getLeaderId).filter(Objects::nonNull).collect(Collectors.toList());
+        Map<Long, TeamSnapshot> leaderTeams = transactionTemplate.execute(status -> snapshots(leaderIds));
+        TeamSnapshot[] leaders = new TeamSnapshot[gyms.size()];
+        for (int gym = 0; gym < leaders.length; gym++) {
+            leaders[gym] = leaderTeams.get(gyms.get(gym).getLeaderId());
+        }
+        TeamSnapshot[] challengers = loadTeams();
+
+        long start = System.nanoTime();
+        MatchupSimulator.GymChallenges challenges = matchupSimulator.challengeGyms(challengers, leaders);
+        LOG.info("Simulated {} gym challenges of {} trainers on {} threads in {} ms", challenges.getMatchupCount(),
+                challengers.length, matchupSimulator.getParallelism(), (System.nanoTime() - start) / 1_000_000);
+        return challenges;
+    }
+
+    @Override
+    public MatchupSimulator.Tournament simulateTournament(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Tournament size must not be negative, was " + size);
+        }
+        TeamSnapshot[] teams = loadTeams();
+        Arrays.sort(teams, STRONGEST_FIRST);
+        TeamSnapshot[] seeds = Arrays.copyOf(teams, Math.min(size, teams.length));
+
+        long start = System.nanoTime();
+        MatchupSimulator.Tournament tournament = matchupSimulator.tournament(seeds);
+        LOG.info("Simulated a tournament of {} trainers, {} matchups, on {} threads in {} ms", seeds.length,
+                tournament.getMatchupCount(), matchupSimulator.getParallelism(), (System.nanoTime() - start) / 1_000_000);
+        return tournament;
+    }
+
+    /**
+     * Loads the teams of all the trainers ordered by id
+     */
+    private TeamSnapshot[] loadTeams() {
+        long start = System.nanoTime();
+        PageRequest page = new PageRequest(0, LOAD_PAGE_SIZE, new Sort(Sort.Direction.ASC, "id"));
+        List<TeamSnapshot> teams = new ArrayList<>();
+        long lastId = Long.MIN_VALUE;
+        List<TrainerSummary> summaries;
+        do {
+            long afterId = lastId;
+            summaries = transactionTemplate.execute(status -> {
+                List<TrainerSummary> pageOfSummaries = trainerDao.findSummariesByIdGreaterThan(afterId, page);
+                List<Long> ids = pageOfSummaries.stream().map(TrainerSummary::getId).collect(Collectors.toList());
+                Map<Long, TeamSnapshot> snapshots = snapshots(ids);
+                ids.forEach(id -> teams.add(snapshots.get(id)));
+                return pageOfSummaries;
+            });
+            if (!summaries.isEmpty()) {
+                lastId = summaries.get(summaries.size() - 1).getId();
+            }
+        } while (summaries.size() == LOAD_PAGE_SIZE);
+        LOG.debug("Loaded the teams of {} trainers in {} ms", teams.size(), (System.nanoTime() - start) / 1_000_000);
+        return teams.toArray(new TeamSnapshot[teams.size()]);
+    }
+
+    private Map<Long, TeamSnapshot> snapshots(Collection<Long> ids) {
+        Map<Long, TeamSnapshot> snapshots = new HashMap<>();
+        if (ids.isEmpty()) {
+            return snapshots;
+        }
+        // the fetch of the active Pokemons repeats a trainer once per Pokemon
+        for (Trainer trainer : trainerDao.findWithActiveTeamByIdIn(ids)) {
+            snapshots.computeIfAbsent(trainer.getId(), id -> TeamSnapshot.of(trainer));
+        }
+        return snapshots;
+    }
+}
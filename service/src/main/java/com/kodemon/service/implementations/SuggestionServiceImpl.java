@@ -0,0 +1,105 @@
+package com.kodemon.service.implementations;
+
+import com.kodemon.api.enums.SuggestionKind;
+import com.kodemon.persistence.dao.GymDao;
+import com.kodemon.persistence.dao.PokemonDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.projection.TermPopularity;
+import com.kodemon.service.interfaces.SuggestionService;
+import com.kodemon.service.util.SuggestionIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * Implementation of the {@link SuggestionService}
+ * <p>
+ * The index is rebuilt from the terms counted by the database, the trainers in pages by their id.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Service
+public class SuggestionServiceImpl implements SuggestionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SuggestionServiceImpl.class);
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+
+    private TrainerDao trainerDao;
+    private GymDao gymDao;
+    private PokemonDao pokemonDao;
+    private SuggestionIndex suggestionIndex;
+    private TransactionTemplate transactionTemplate;
+
+    @Inject
+    public SuggestionServiceImpl(TrainerDao trainerDao, GymDao gymDao, PokemonDao pokemonDao,
+                                 SuggestionIndex suggestionIndex, PlatformTransactionManager transactionManager) {
+        this.trainerDao = trainerDao;
+        this.gymDao = gymDao;
+        this.pokemonDao = pokemonDao;
+        this.suggestionIndex = suggestionIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public List<SuggestionIndex.Suggestion> suggest(String prefix, SuggestionKind kind, int limit) {
+        return suggestionIndex.suggest(prefix, kind, limit);
+    }
+
+    @Override
+    public void rebuildIndex() {
+        long start = System.nanoTime();
+        suggestionIndex.clear();
+        PageRequest page = new PageRequest(0, REBUILD_PAGE_SIZE);
+        long lastId = Long.MIN_VALUE;
+        List<TermPopularity> userNames;
+        do {
+            long afterId = lastId;
+            userNames = transactionTemplate.execute(status -> trainerDao.findUserNamePopularitiesByIdGreaterThan(afterId, page));
+            for (TermPopularity userName : userNames) {
+                suggestionIndex.add(SuggestionKind.TRAINER, userName.getTerm(), 1, userName.getPopularity());
+                lastId = userName.getId();
+            }
+        } while (userNames.size() == REBUILD_PAGE_SIZE);
+        transactionTemplate.execute(status -> {
+            for (TermPopularity city : gymDao.findCityPopularities()) {
+                suggestionIndex.add(SuggestionKind.GYM, city.getTerm(), 1, city.getPopularity());
+            }
+            for (TermPopularity badgeName : gymDao.findBadgeNamePopularities()) {
+                suggestionIndex.add(SuggestionKind.BADGE, badgeName.getTerm(), 1, badgeName.getPopularity());
+            }
+            // every Pokemon with the nickname counts once, both as a reference and to the popularity
+            for (TermPopularity nickname : pokemonDao.findNicknamePopularities()) {
+                suggestionIndex.add(SuggestionKind.NICKNAME, nickname.getTerm(), nickname.getPopularity(),
+                        nickname.getPopularity());
+            }
+            return null;
+        });
+        suggestionIndex.markReady();
+        LOG.info("Indexed {} usernames, {} cities, {} badge names and {} nicknames for the suggestions in {} ms",
+                suggestionIndex.size(SuggestionKind.TRAINER), suggestionIndex.size(SuggestionKind.GYM),
+                suggestionIndex.size(SuggestionKind.BADGE), suggestionIndex.size(SuggestionKind.NICKNAME),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rebuilds the index once the context is up, with the sample data loaded
+     *
+     * @param event the refresh of this or of a child context
+     */
+    @EventListener
+    public void rebuildIndexOnStartup(ContextRefreshedEvent event) {
+        // the refreshes of the web contexts are published to this one as well
+        if (!suggestionIndex.isReady()) {
+            rebuildIndex();
+        }
+    }
+}
@@ -4,17 +4,34 @@ import com.kodemon.persistence.dao.GymDao;
 import com.kodemon.persistence.dao.TrainerDao;
 import com.kodemon.persistence.dao.TrainerFightDao;
 import com.kodemon.persistence.entity.*;
+import com.kodemon.persistence.projection.FightSummary;
 import com.kodemon.service.interfaces.*;
-import com.kodemon.service.util.Pair;
+import com.kodemon.service.util.FightWriteBehind;
+import com.kodemon.service.util.TeamSnapshot;
+import com.kodemon.service.util.TeamSnapshotCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
+import static com.kodemon.persistence.util.Constants.EXPORT_FETCH_SIZE;
 import static com.kodemon.persistence.util.Constants.MAX_ACTIVE_POKEMON;
 
 /**
@@ -35,11 +52,13 @@ public class TrainerFightServiceImpl implements TrainerFightService {
     private BadgeService badgeService;
     private TrainerService trainerService;
     private TimeService timeService;
-    private GymService gymService;
     private GymDao gymDao;
+    private TeamSnapshotCache teamSnapshotCache;
+    private FightWriteBehind fightWriteBehind;
+    private EntityManager entityManager;
 
     @Inject
-    public TrainerFightServiceImpl(TrainerDao trainerDao, TrainerFightDao trainerFightDao, PokemonFightService pokemonFightService, GymDao gymDao, BadgeService badgeService, TrainerService trainerService, TimeService timeService, GymService gymService) {
+    public TrainerFightServiceImpl(TrainerDao trainerDao, TrainerFightDao trainerFightDao, PokemonFightService pokemonFightService, GymDao gymDao, BadgeService badgeService, TrainerService trainerService, TimeService timeService, TeamSnapshotCache teamSnapshotCache, FightWriteBehind fightWriteBehind) {
         this.trainerDao = trainerDao;
         this.trainerFightDao = trainerFightDao;
         this.pokemonFightService = pokemonFightService;
@@ -47,7 +66,16 @@ public class TrainerFightServiceImpl implements TrainerFightService {
         this.badgeService = badgeService;
         this.trainerService = trainerService;
         this.timeService = timeService;
-        this.gymService = gymService;
+        this.teamSnapshotCache = teamSnapshotCache;
+        this.fightWriteBehind = fightWriteBehind;
+    }
+
+    /**
+     * Sets the persistence context the fights are cleared from while they are passed to {@link #forEachFight(Consumer)}
+     */
+    @PersistenceContext
+    public void setEntityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -55,22 +83,22 @@ public class TrainerFightServiceImpl implements TrainerFightService {
         double challengerScore = 0;
         double defenderScore = 0;
 
+        List<Pokemon> challengerPokemons = challenger.getActivePokemons();
+        List<Pokemon> defenderPokemons = defender.getActivePokemons();
+
         for (int i = 0; i < MAX_ACTIVE_POKEMON; i++) {
-            Pair<Double, Double> scorePair;
-            if (challenger.getActivePokemons().size() > i && defender.getActivePokemons().size() > i) {
-                Pokemon currentChallengerPokemon = challenger.getActivePokemons().get(i);
-                Pokemon currentDefenderPokemon = defender.getActivePokemons().get(i);
-                scorePair = pokemonFightService.getScorePair(currentChallengerPokemon, currentDefenderPokemon);
-            } else if (challenger.getActivePokemons().size() <= i && defender.getActivePokemons().size() > i) {
-                scorePair = new Pair<>(0.0, (double) defender.getActivePokemons().get(i).getLevel());
-            } else if (challenger.getActivePokemons().size() > i && defender.getActivePokemons().size() <= i) {
-                scorePair = new Pair<>((double) challenger.getActivePokemons().get(i).getLevel(), 0.0);
-            } else {
-                scorePair = new Pair<>(0.0, 0.0);
+            boolean challengerHasPokemon = challengerPokemons.size() > i;
+            boolean defenderHasPokemon = defenderPokemons.size() > i;
+            if (challengerHasPokemon && defenderHasPokemon) {
+                Pokemon currentChallengerPokemon = challengerPokemons.get(i);
+                Pokemon currentDefenderPokemon = defenderPokemons.get(i);
+                challengerScore += pokemonFightService.getChallengerScore(currentChallengerPokemon, currentDefenderPokemon);
+                defenderScore += pokemonFightService.getTargetScore(currentChallengerPokemon, currentDefenderPokemon);
+            } else if (defenderHasPokemon) {
+                defenderScore += defenderPokemons.get(i).getLevel();
+            } else if (challengerHasPokemon) {
+                challengerScore += challengerPokemons.get(i).getLevel();
             }
-
-            challengerScore += scorePair.getX();
-            defenderScore += scorePair.getY();
         }
 
         return challengerScore > defenderScore;
@@ -83,8 +111,10 @@ public class TrainerFightServiceImpl implements TrainerFightService {
 
     @Override
     public List<TrainerFight> findByChallenger(String username) {
-        Collection<Trainer> challenger = trainerDao.findByUserName(username);
-        return trainerFightDao.findByChallenger(challenger.iterator().next());
+        Collection<Trainer> challengers = trainerDao.findByUserName(username);
+        Trainer challenger = challengers.iterator().next();
+        return fightWriteBehind.readWithPending(() -> trainerFightDao.findByChallenger(challenger),
+                fight -> fight.getChallengerId().equals(challenger.getId()));
     }
 
     @Override
@@ -93,17 +123,99 @@ public class TrainerFightServiceImpl implements TrainerFightService {
         if (gyms.isEmpty()) {
             return null;
         }
-        return trainerFightDao.findByTargetGym(gyms.iterator().next());
+        Gym gym = gyms.iterator().next();
+        return fightWriteBehind.readWithPending(() -> trainerFightDao.findByTargetGym(gym),
+                fight -> fight.getTargetGymId().equals(gym.getId()));
     }
 
     @Override
     public List<TrainerFight> findByFightTimeBetween(Date from, Date til) {
-        return trainerFightDao.findByFightTimeBetween(from, til);
+        return fightWriteBehind.readWithPending(() -> trainerFightDao.findByFightTimeBetween(from, til),
+                fight -> isBetween(fight, from, til));
     }
 
     @Override
     public List<TrainerFight> findAll() {
-        return trainerFightDao.findAll();
+        return fightWriteBehind.readWithPending(trainerFightDao::findAll, fight -> true);
+    }
+
+    @Override
+    public Slice<TrainerFight> findAll(Pageable pageable) {
+        return sliceWithPending(pageable, fight -> true, trainerFightDao::findAllBy);
+    }
+
+    @Override
+    public Slice<TrainerFight> findByFightTimeBetween(Date from, Date til, Pageable pageable) {
+        return sliceWithPending(pageable, fight -> isBetween(fight, from, til),
+                page -> trainerFightDao.findByFightTimeBetween(from, til, page));
+    }
+
+    @Override
+    public List<TrainerFight> findLatestSince(Date from, Date beforeTime, Long beforeId, Long beforeSequence, int limit) {
+        return fightWriteBehind.readMergingPending(fight -> isSinceAndBefore(fight, from, beforeTime, beforeId, beforeSequence),
+                pending -> {
+                    Long storedBeforeId = storedBeforeId(beforeId, beforeSequence);
+                    List<TrainerFight> stored;
+                    if (beforeTime == null) {
+                        stored = trainerFightDao.findByFightTimeGreaterThanEqual(from, historyPage(0, limit));
+                    } else if (storedBeforeId == null) {
+                        stored = trainerFightDao.findByFightTimeBetween(from, beforeTime, historyPage(0, limit)).getContent();
+                    } else {
+                        stored = trainerFightDao.findByFightTimeGreaterThanEqualBefore(from, beforeTime, storedBeforeId,
+                                historyPage(0, limit));
+                    }
+                    return mergeHistory(stored, fightWriteBehind.toTrainerFights(first(pending, limit)),
+                            TrainerFight::getFightTime, limit);
+                });
+    }
+
+    @Override
+    public List<FightSummary> findSummariesSince(Date from, Date beforeTime, Long beforeId, Long beforeSequence, int limit) {
+        return fightWriteBehind.readMergingPending(fight -> isSinceAndBefore(fight, from, beforeTime, beforeId, beforeSequence),
+                pending -> {
+                    Long storedBeforeId = storedBeforeId(beforeId, beforeSequence);
+                    List<FightSummary> stored;
+                    if (beforeTime == null) {
+                        stored = trainerFightDao.findSummariesByFightTimeGreaterThanEqual(from, historyPage(0, limit));
+                    } else if (storedBeforeId == null) {
+                        stored = trainerFightDao.findSummariesByFightTimeBetween(from, beforeTime, historyPage(0, limit));
+                    } else {
+                        stored = trainerFightDao.findSummariesByFightTimeGreaterThanEqualBefore(from, beforeTime,
+                                storedBeforeId, historyPage(0, limit));
+                    }
+                    return mergeHistory(stored, toSummaries(first(pending, limit)), FightSummary::getFightTime, limit);
+                });
+    }
+
+    @Override
+    public List<FightSummary> findSummariesByChallengerId(Long challengerId) {
+        return fightWriteBehind.readMergingPending(fight -> fight.getChallengerId().equals(challengerId),
+                pending -> mergeHistory(trainerFightDao.findSummariesByChallengerId(challengerId), toSummaries(pending),
+                        FightSummary::getFightTime, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public List<FightSummary> findSummariesByTargetGymId(Long targetGymId) {
+        return fightWriteBehind.readMergingPending(fight -> fight.getTargetGymId().equals(targetGymId),
+                pending -> mergeHistory(trainerFightDao.findSummariesByTargetGymId(targetGymId), toSummaries(pending),
+                        FightSummary::getFightTime, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public long forEachFight(Consumer<TrainerFight> action) {
+        long count = 0;
+        try (Stream<TrainerFight> fights = trainerFightDao.streamAll()) {
+            Iterator<TrainerFight> iterator = fights.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++count % EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        entityManager.clear();
+        LOG.debug("Passed {} fights to the action.", count);
+        return count;
     }
 
     @Override
@@ -113,31 +225,185 @@ public class TrainerFightServiceImpl implements TrainerFightService {
 
     @Override
     public boolean fightForBadge(Trainer trainer, Gym gym) {
-        boolean wasChallengerSuccessful = false;
-        Collection<Trainer> trainers = trainerService.findByUserName(trainer.getUserName());
-        if (trainers.isEmpty())
+        Long challengerId = trainer.getId();
+        Function<Long, TeamSnapshot> challengerLoader = this::loadTeam;
+        if (challengerId == null) {
+            Collection<Trainer> trainers = trainerService.findWithActiveTeamByUserName(trainer.getUserName());
+            if (trainers.isEmpty())
+                return false;
+            Trainer found = trainers.iterator().next();
+            challengerId = found.getId();
+            challengerLoader = id -> TeamSnapshot.of(found);
+        }
+        Gym targetGym = findGym(gym);
+        if (targetGym == null)
             return false;
-        trainer = trainers.iterator().next();
-        Collection<Gym> gyms = gymService.findByBadgeName(gym.getBadgeName());
-        if (gyms.isEmpty())
+        TeamSnapshot challengerTeam = teamSnapshotCache.getChallengerTeam(challengerId, challengerLoader);
+        if (challengerTeam == null)
             return false;
-        gym = gyms.iterator().next();
-        if (this.wasFightForBadgeSuccessful(trainer, gym.getTrainer())) {
-            Badge badge = badgeService.createBadgeOfGym(gym);
+        TeamSnapshot leaderTeam = teamSnapshotCache.getLeaderTeam(targetGym.getTrainer().getId(), this::loadTeam);
+
+        // the teams are compared as snapshots, the challenger is only needed as an entity to store the result; it is
+        // loaded, mostly from the second-level cache, so the listeners of the fight see the username and not a proxy
+        boolean wasChallengerSuccessful = challengerTeam.beats(leaderTeam);
+        Trainer challenger = trainerDao.findOne(challengerId);
+        if (wasChallengerSuccessful) {
+            Badge badge = badgeService.createBadgeOfGym(targetGym);
             badgeService.save(badge);
-            trainerService.addBadge(badge, trainer);
-            wasChallengerSuccessful = true;
+            trainerService.addBadge(badge, challenger);
         }
 
         TrainerFight fight = new TrainerFight();
-        fight.setTargetGym(gym);
-        fight.setChallenger(trainer);
+        fight.setTargetGym(targetGym);
+        fight.setChallenger(challenger);
         fight.setWasChallengerSuccessful(wasChallengerSuccessful);
         Date fightTime = timeService.currentDate();
         fight.setFightTime(fightTime);
         String successString = wasChallengerSuccessful ? "Success" : "Failed";
-        LOG.debug("Storing the result (" + successString + ") of the fight between User {} and Gym {}. Fight time: {}.", trainer.getId(), gym.getId(), fightTime);
-        this.save(fight);
+        LOG.debug("Storing the result (" + successString + ") of the fight between User {} and Gym {}. Fight time: {}.", challengerId, targetGym.getId(), fightTime);
+        fightWriteBehind.record(fight);
         return wasChallengerSuccessful;
     }
+
+    private Gym findGym(Gym gym) {
+        if (gym.getId() != null) {
+            return gymDao.findOne(gym.getId());
+        }
+        Collection<Gym> gyms = gymDao.findByBadgeName(gym.getBadgeName());
+        return gyms.isEmpty() ? null : gyms.iterator().next();
+    }
+
+    private TeamSnapshot loadTeam(Long trainerId) {
+        List<Trainer> trainers = trainerDao.findWithActiveTeamByIdIn(Collections.singleton(trainerId));
+        return trainers.isEmpty() ? null : TeamSnapshot.of(trainers.get(0));
+    }
+
+    /**
+     * Reads a slice of the history with the queued fights in front of the stored ones, as they are the latest fights
+     *
+     * @param pageable page number and size of the slice
+     * @param matching picks the queued fights the read is after
+     * @param stored   reads a slice of the stored fights, sorted by {@link TrainerFightDao#HISTORY_ORDER}
+     * @return the slice
+     */
+    private Slice<TrainerFight> sliceWithPending(Pageable pageable, Predicate<FightWriteBehind.PendingFight> matching,
+                                                 Function<Pageable, Slice<TrainerFight>> stored) {
+        int size = pageable.getPageSize();
+        Pageable page = historyPage(pageable.getPageNumber(), size);
+        return fightWriteBehind.readMergingPending(matching, pending -> {
+            if (pending.isEmpty()) {
+                return stored.apply(page);
+            }
+            int offset = page.getOffset();
+            List<FightWriteBehind.PendingFight> onPage = pending.subList(Math.min(offset, pending.size()),
+                    Math.min(offset + size, pending.size()));
+            // a single stored fight tells whether there is any after a page full of the queued ones
+            Slice<TrainerFight> storedSlice = stored.apply(new HistoryOffset(Math.max(offset - pending.size(), 0),
+                    Math.max(size - onPage.size(), 1)));
+            List<TrainerFight> fights = new ArrayList<>(fightWriteBehind.toTrainerFights(onPage));
+            boolean hasNext = offset + size < pending.size();
+            if (onPage.size() < size) {
+                fights.addAll(storedSlice.getContent());
+                hasNext |= storedSlice.hasNext();
+            } else {
+                hasNext |= storedSlice.hasContent();
+            }
+            return new SliceImpl<>(fights, page, hasNext);
+        });
+    }
+
+    /**
+     * Merges the queued fights, newest first, into the stored ones; a queued fight precedes the stored ones of the
+     * same fight time, as its id will be greater
+     */
+    private static <T> List<T> mergeHistory(List<T> stored, List<T> pending, Function<T, Date> fightTime, int limit) {
+        if (pending.isEmpty()) {
+            return stored;
+        }
+        List<T> merged = new ArrayList<>(Math.min(stored.size() + pending.size(), limit));
+        int s = 0;
+        int p = 0;
+        while (merged.size() < limit && (s < stored.size() || p < pending.size())) {
+            if (p < pending.size() && (s == stored.size()
+                    || !fightTime.apply(pending.get(p)).before(fightTime.apply(stored.get(s))))) {
+                merged.add(pending.get(p++));
+            } else {
+                merged.add(stored.get(s++));
+            }
+        }
+        return merged;
+    }
+
+    private List<FightSummary> toSummaries(List<FightWriteBehind.PendingFight> pending) {
+        List<FightSummary> summaries = new ArrayList<>(pending.size());
+        for (TrainerFight fight : fightWriteBehind.toTrainerFights(pending)) {
+            Trainer challenger = fight.getChallenger();
+            Gym gym = fight.getTargetGym();
+            summaries.add(new FightSummary(null, fight.getFightTime(), challenger.getId(), challenger.getUserName(),
+                    challenger.getFirstName(), gym.getId(), gym.getCity(), fight.isWasChallengerSuccessful(),
+                    fight.getPendingSequence()));
+        }
+        return summaries;
+    }
+
+    private static <T> List<T> first(List<T> list, int limit) {
+        return list.size() > limit ? list.subList(0, limit) : list;
+    }
+
+    private static boolean isBetween(FightWriteBehind.PendingFight fight, Date from, Date til) {
+        return !fight.getFightTime().before(from) && !fight.getFightTime().after(til);
+    }
+
+    /**
+     * A queued fight precedes the stored ones of the same fight time, so it follows a stored fight only if it is older,
+     * and a queued fight only if it is older or was queued before it
+     */
+    private static boolean isSinceAndBefore(FightWriteBehind.PendingFight fight, Date from, Date beforeTime, Long beforeId,
+                                            Long beforeSequence) {
+        Date fightTime = fight.getFightTime();
+        if (fightTime.before(from)) {
+            return false;
+        }
+        if (beforeTime == null || fightTime.before(beforeTime)) {
+            return true;
+        }
+        return beforeId == null && beforeSequence != null && fightTime.equals(beforeTime)
+                && fight.getSequence() < beforeSequence;
+    }
+
+    /**
+     * Returns the id the stored fights following the given one have to be below, null if every stored fight of its
+     * time follows it
+     * <p>
+     * A queued fight precedes all the stored fights of its time, unless it has been stored meanwhile: the fights queued
+     * after it are stored after it, so the fights already returned have greater ids than the one it got, and the
+     * history goes on below that id.
+     */
+    private Long storedBeforeId(Long beforeId, Long beforeSequence) {
+        if (beforeId != null || beforeSequence == null) {
+            return beforeId;
+        }
+        return fightWriteBehind.storedIdOf(beforeSequence);
+    }
+
+    private static Pageable historyPage(int page, int size) {
+        return new PageRequest(page, size, TrainerFightDao.HISTORY_ORDER);
+    }
+
+    /**
+     * Page of the history starting at any offset, not only at a multiple of the size
+     */
+    private static final class HistoryOffset extends PageRequest {
+        private final int offset;
+
+        HistoryOffset(int offset, int size) {
+            super(0, size, TrainerFightDao.HISTORY_ORDER);
+            this.offset = offset;
+        }
+
+        @Override
+        public int getOffset() {
+            return offset;
+        }
+    }
 }
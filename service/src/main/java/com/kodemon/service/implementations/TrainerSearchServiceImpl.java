@@ -0,0 +1,119 @@
+package com.kodemon.service.implementations;
+
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.projection.TrainerSummary;
+import com.kodemon.service.interfaces.TrainerSearchService;
+import com.kodemon.service.util.UserNameIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the {@link TrainerSearchService}
+ * <p>
+ * The candidates found in the index are loaded by their ids in batches, and the ones whose username does not contain
+ * the string after all are dropped.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Service
+public class TrainerSearchServiceImpl implements TrainerSearchService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TrainerSearchServiceImpl.class);
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+
+    private TrainerDao trainerDao;
+    private UserNameIndex userNameIndex;
+    private TransactionTemplate transactionTemplate;
+
+    @Inject
+    public TrainerSearchServiceImpl(TrainerDao trainerDao, UserNameIndex userNameIndex,
+                                    PlatformTransactionManager transactionManager) {
+        this.trainerDao = trainerDao;
+        this.userNameIndex = userNameIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public List<Trainer> findByUserNameContaining(String string) {
+        if (!userNameIndex.isReady()) {
+            return trainerDao.findByUserNameContaining(string);
+        }
+        return load(userNameIndex.candidates(string), trainer -> trainer.getUserName().contains(string));
+    }
+
+    @Override
+    public List<Trainer> findByUserNameIgnoreCaseContaining(String string) {
+        if (!userNameIndex.isReady()) {
+            return trainerDao.findByUserNameIgnoreCaseContaining(string);
+        }
+        String normalized = Trainer.normalizeUserName(string);
+        return load(userNameIndex.candidates(string),
+                trainer -> Trainer.normalizeUserName(trainer.getUserName()).contains(normalized));
+    }
+
+    @Override
+    public void rebuildIndex() {
+        long start = System.nanoTime();
+        PageRequest page = new PageRequest(0, REBUILD_PAGE_SIZE, new Sort(Sort.Direction.ASC, "id"));
+        long lastId = Long.MIN_VALUE;
+        int count = 0;
+        List<TrainerSummary> summaries;
+        do {
+            long afterId = lastId;
+            summaries = transactionTemplate.execute(status -> trainerDao.findSummariesByIdGreaterThan(afterId, page));
+            for (TrainerSummary summary : summaries) {
+                userNameIndex.add(summary.getId(), summary.getUserName());
+                lastId = summary.getId();
+            }
+            count += summaries.size();
+        } while (summaries.size() == REBUILD_PAGE_SIZE);
+        userNameIndex.markReady();
+        LOG.info("Indexed the usernames of {} trainers in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rebuilds the index once the context is up, with the sample data loaded
+     *
+     * @param event the refresh of this or of a child context
+     */
+    @EventListener
+    public void rebuildIndexOnStartup(ContextRefreshedEvent event) {
+        // the refreshes of the web contexts are published to this one as well
+        if (!userNameIndex.isReady()) {
+            rebuildIndex();
+        }
+    }
+
+    private List<Trainer> load(long[] candidates, Predicate<Trainer> matches) {
+        List<Trainer> found = new ArrayList<>();
+        for (int from = 0; from < candidates.length; from += LOAD_BATCH_SIZE) {
+            List<Long> ids = new ArrayList<>(LOAD_BATCH_SIZE);
+            for (int i = from; i < Math.min(from + LOAD_BATCH_SIZE, candidates.length); i++) {
+                ids.add(candidates[i]);
+            }
+            for (Trainer trainer : trainerDao.findAll(ids)) {
+                if (matches.test(trainer)) {
+                    found.add(trainer);
+                }
+            }
+        }
+        found.sort(Comparator.comparing(Trainer::getId));
+        return found;
+    }
+}
@@ -5,11 +5,16 @@ import com.kodemon.persistence.entity.Badge;
 import com.kodemon.persistence.entity.Pokemon;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.projection.TrainerSummary;
 import com.kodemon.service.interfaces.PokemonService;
 import com.kodemon.service.interfaces.TrainerService;
 import com.kodemon.service.util.PasswordStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
@@ -28,6 +33,7 @@ import static com.kodemon.persistence.util.Constants.INITIAL_POKEMON_LEVEL;
 public class TrainerServiceImpl implements TrainerService {
 
     private static final Logger LOG = LoggerFactory.getLogger(TrainerServiceImpl.class);
+    private static final Sort ID_ORDER = new Sort(Sort.Direction.ASC, "id");
     private TrainerDao trainerDao;
     private PokemonService pokemonService;
 
@@ -45,6 +51,17 @@ public class TrainerServiceImpl implements TrainerService {
             Date dayOfBirth,
             PokemonName pokemon,
             String password) throws PasswordStorage.CannotPerformOperationException {
+        return registerWithHash(userName, firstName, lastName, dayOfBirth, pokemon, PasswordStorage.createHash(password));
+    }
+
+    @Override
+    public Trainer registerWithHash(
+            String userName,
+            String firstName,
+            String lastName,
+            Date dayOfBirth,
+            PokemonName pokemon,
+            String pwdHash) {
         if (!PokemonName.getInitialPokemon().contains(pokemon)) {
             LOG.error("Invalid initial Pokemon! Was: {}. Expected one of: {}.", pokemon, PokemonName.getInitialPokemon());
             throw new IllegalArgumentException(
@@ -58,7 +75,7 @@ public class TrainerServiceImpl implements TrainerService {
         trainer.setLastName(lastName);
         trainer.setFirstName(firstName);
         trainer.setUserName(userName);
-        trainer.setPwdHash(PasswordStorage.createHash(password));
+        trainer.setPwdHash(pwdHash);
         Trainer saved = trainerDao.save(trainer);
 
         Pokemon initial = pokemonService.createPokemonWithName(pokemon);
@@ -181,6 +198,16 @@ public class TrainerServiceImpl implements TrainerService {
         return trainerDao.findByUserName(userName);
     }
 
+    @Override
+    public Trainer findByUserNameIgnoreCase(String userName) {
+        return trainerDao.findByUserNameNormalized(Trainer.normalizeUserName(userName));
+    }
+
+    @Override
+    public List<Trainer> findWithActiveTeamByUserName(String userName) {
+        return trainerDao.findWithActiveTeamByUserName(userName);
+    }
+
     @Override
     public List<Trainer> findByUserNameLike(String userName) {
         return trainerDao.findByUserNameLike(userName);
@@ -235,4 +262,24 @@ public class TrainerServiceImpl implements TrainerService {
     public List<Trainer> findAll() {
         return trainerDao.findAll();
     }
+
+    @Override
+    public Slice<Trainer> findAll(Pageable pageable) {
+        return trainerDao.findAllBy(new PageRequest(pageable.getPageNumber(), pageable.getPageSize(), ID_ORDER));
+    }
+
+    @Override
+    public List<Trainer> findAfterId(Long id, int limit) {
+        return trainerDao.findByIdGreaterThan(id == null ? 0L : id, new PageRequest(0, limit, ID_ORDER));
+    }
+
+    @Override
+    public Slice<TrainerSummary> findSummaries(Pageable pageable) {
+        return trainerDao.findSummariesBy(new PageRequest(pageable.getPageNumber(), pageable.getPageSize(), ID_ORDER));
+    }
+
+    @Override
+    public List<TrainerSummary> findSummariesAfterId(Long id, int limit) {
+        return trainerDao.findSummariesByIdGreaterThan(id == null ? 0L : id, new PageRequest(0, limit, ID_ORDER));
+    }
 }
@@ -0,0 +1,34 @@
+package com.kodemon.service.interfaces;
+
+import com.kodemon.api.exception.ServiceOverloadedException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service hashing and verifying passwords off the request threads
+ * <p>
+ * The work runs on a bounded pool, the returned futures complete on its threads.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public interface AuthenticationService {
+
+    /**
+     * Hashes the password to be stored
+     *
+     * @param password password in plain text
+     * @return future completed with the hash, or exceptionally if the password could not be hashed
+     * @throws ServiceOverloadedException if too many passwords are being hashed or verified already
+     */
+    CompletableFuture<String> createHash(String password);
+
+    /**
+     * Checks the password against its stored hash
+     *
+     * @param password password in plain text
+     * @param hash     stored hash of the correct password
+     * @return future completed with {@code true} iff the password matches, {@code false} also when the hash is malformed
+     * @throws ServiceOverloadedException if too many passwords are being hashed or verified already
+     */
+    CompletableFuture<Boolean> verifyPassword(String password, String hash);
+}
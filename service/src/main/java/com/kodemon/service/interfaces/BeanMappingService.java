@@ -9,5 +9,18 @@ public interface BeanMappingService {
 
     <T> List<T> mapListTo(List<?> source, Class<T> mapToClass);
 
+    /**
+     * Maps the list like {@link #mapListTo(List, Class)}, in chunks on several threads if it is long enough
+     * <p>
+     * The lazy associations of source entities are loaded on the calling thread first, so the source may come from
+     * a transaction that is still open, as well as be detached after it.
+     *
+     * @param source     objects to map
+     * @param mapToClass class to map to
+     * @param <T>        type to map to
+     * @return the mapped objects, in the order of the source
+     */
+    <T> List<T> mapListToInParallel(List<?> source, Class<T> mapToClass);
+
     <T> T mapTo(Object source, Class<T> mapToClass);
 }
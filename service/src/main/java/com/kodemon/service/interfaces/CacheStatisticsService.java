@@ -0,0 +1,27 @@
+package com.kodemon.service.interfaces;
+
+import org.hibernate.stat.SecondLevelCacheStatistics;
+
+import java.util.List;
+
+/**
+ * Service providing the statistics of the second-level cache
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public interface CacheStatisticsService {
+    /**
+     * Returns names of all the second-level cache regions
+     *
+     * @return {@link List} of region names
+     */
+    List<String> getRegionNames();
+
+    /**
+     * Returns statistics of the given second-level cache region
+     *
+     * @param regionName name of the region
+     * @return statistics of the region, null if there is no such region
+     */
+    SecondLevelCacheStatistics getRegionStatistics(String regionName);
+}
@@ -3,6 +3,7 @@ package com.kodemon.service.interfaces;
 import com.kodemon.persistence.entity.Gym;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.GymSummary;
 import com.kodemon.service.util.PasswordStorage;
 
 import java.util.List;
@@ -81,6 +82,16 @@ public interface GymService {
      */
     List<Gym> findByBadgeName(String badgeName);
 
+    /**
+     * Returns a {@link List} of {@link Gym}s with the given badge name, with the leader's active Pokemons already loaded.
+     * <p>
+     * To be used when the Gym is about to be challenged.
+     *
+     * @param badgeName Badge name to search for.
+     * @return {@link List} of {@link Gym}s with the given badge name.
+     */
+    List<Gym> findWithLeaderTeamByBadgeName(String badgeName);
+
     /**
      * Returns a {@link List} of {@link Gym}s with similar badge names to the given one.
      * <p/>
@@ -127,4 +138,11 @@ public interface GymService {
      * @return {@link List} of {@link Gym}s in the database.
      */
     List<Gym> findAll();
+
+    /**
+     * Returns a {@link List} of summaries of all {@link Gym}s in database, ordered by id.
+     *
+     * @return {@link List} of {@link GymSummary}s of the Gyms in the database.
+     */
+    List<GymSummary> findSummaries();
 }
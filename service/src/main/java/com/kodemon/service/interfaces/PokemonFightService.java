@@ -20,4 +20,26 @@ public interface PokemonFightService {
      * @return {@link Pair} of fight scores
      */
     Pair<Double, Double> getScorePair(Pokemon challenger, Pokemon target);
+
+    /**
+     * Returns the fight score of the challenger Pokemon, the same as {@link Pair#getX()} of {@link #getScorePair(Pokemon, Pokemon)}
+     * <p/>
+     * Unlike {@link #getScorePair(Pokemon, Pokemon)} does not allocate anything, so it is preferred in fight evaluation loops
+     *
+     * @param challenger challenger Pokemon
+     * @param target     target Pokemon
+     * @return fight score of the challenger Pokemon
+     */
+    double getChallengerScore(Pokemon challenger, Pokemon target);
+
+    /**
+     * Returns the fight score of the target Pokemon, the same as {@link Pair#getY()} of {@link #getScorePair(Pokemon, Pokemon)}
+     * <p/>
+     * Unlike {@link #getScorePair(Pokemon, Pokemon)} does not allocate anything, so it is preferred in fight evaluation loops
+     *
+     * @param challenger challenger Pokemon
+     * @param target     target Pokemon
+     * @return fight score of the target Pokemon
+     */
+    double getTargetScore(Pokemon challenger, Pokemon target);
 }
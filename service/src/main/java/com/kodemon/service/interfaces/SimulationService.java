@@ -0,0 +1,40 @@
+package com.kodemon.service.interfaces;
+
+import com.kodemon.persistence.projection.GymSummary;
+import com.kodemon.service.util.MatchupSimulator;
+
+import java.util.List;
+
+/**
+ * Service simulating fights for badges in bulk, for what-if analyses
+ * <p>
+ * The fights are scored by the rules of {@link TrainerFightService#wasFightForBadgeSuccessful}, but neither the fights
+ * nor the badges are stored.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public interface SimulationService {
+
+    /**
+     * Lists the gyms the {@link #simulateGymChallenges()} are indexed by.
+     *
+     * @return summaries of all the gyms ordered by id
+     */
+    List<GymSummary> findGyms();
+
+    /**
+     * Fights every trainer against the leader of every gym, but the own gym of the trainer.
+     *
+     * @param gyms the gyms to challenge, as listed by {@link #findGyms()}
+     * @return numbers of the challengers and wins per gym, in the order of the given gyms
+     */
+    MatchupSimulator.GymChallenges simulateGymChallenges(List<GymSummary> gyms);
+
+    /**
+     * Fights the strongest trainers against each other and plays out a bracket among them.
+     *
+     * @param size number of the trainers, the ones whose active Pokemons have the highest sum of levels
+     * @return the results of the tournament, seeded by the sum of levels
+     */
+    MatchupSimulator.Tournament simulateTournament(int size);
+}
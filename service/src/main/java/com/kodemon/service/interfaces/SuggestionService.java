@@ -0,0 +1,30 @@
+package com.kodemon.service.interfaces;
+
+import com.kodemon.api.enums.SuggestionKind;
+import com.kodemon.service.util.SuggestionIndex;
+
+import java.util.List;
+
+/**
+ * Service suggesting the usernames, gym cities, badge names and Pokemon nicknames starting with a typed prefix,
+ * from the in-memory {@link SuggestionIndex} rather than a LIKE query per keystroke
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public interface SuggestionService {
+
+    /**
+     * Returns the most popular terms starting with the given prefix, ignoring case.
+     *
+     * @param prefix typed prefix of the term
+     * @param kind   kind of the terms, null for all the kinds
+     * @param limit  maximal number of the suggestions
+     * @return {@link List} of {@link SuggestionIndex.Suggestion}s, the most popular first, empty until the index is built
+     */
+    List<SuggestionIndex.Suggestion> suggest(String prefix, SuggestionKind kind, int limit);
+
+    /**
+     * Rebuilds the index from all the stored trainers, gyms, badges, Pokemons and fights.
+     */
+    void rebuildIndex();
+}
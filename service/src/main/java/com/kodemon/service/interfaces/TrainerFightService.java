@@ -3,9 +3,14 @@ package com.kodemon.service.interfaces;
 import com.kodemon.persistence.entity.Gym;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.entity.TrainerFight;
+import com.kodemon.persistence.projection.FightSummary;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service handling fights between {@link Trainer}s
@@ -67,6 +72,87 @@ public interface TrainerFightService {
      */
     List<TrainerFight> findAll();
 
+    /**
+     * Returns a {@link Slice} of all {@link TrainerFight}s, newest first
+     * <p/>
+     * The fights not stored yet are the latest ones, they come first.
+     *
+     * @param pageable page number and size of the slice
+     * @return {@link Slice} of {@link TrainerFight}s
+     */
+    Slice<TrainerFight> findAll(Pageable pageable);
+
+    /**
+     * Returns a {@link Slice} of the fights between specified times, newest first
+     * <p/>
+     * The fights not stored yet are the latest ones, they come first.
+     *
+     * @param from     bottom bound for the fight time
+     * @param til      upper bound for the fight time
+     * @param pageable page number and size of the slice
+     * @return {@link Slice} of the fights between specified times
+     */
+    Slice<TrainerFight> findByFightTimeBetween(Date from, Date til, Pageable pageable);
+
+    /**
+     * Find at most limit latest fights since the specified time, which precede the given fight in the history
+     * <p/>
+     * The fight is given by its fight time and id, so the history is seeked through instead of skipped over. The fights
+     * not stored yet are included, they precede the stored fights of the same time; they have no id and are given by
+     * their {@link TrainerFight#getPendingSequence() sequence number} instead. If such a fight has been stored since,
+     * the history goes on after the id it got.
+     *
+     * @param from           bottom bound for the fight time
+     * @param beforeTime     fight time of the last fight already returned, null for the latest fights
+     * @param beforeId       id of the last fight already returned, null for the latest fights or a fight not stored
+     * @param beforeSequence sequence number of the last fight already returned if it was not stored, null otherwise
+     * @param limit          maximal number of fights to return
+     * @return list of the fights, newest first
+     */
+    List<TrainerFight> findLatestSince(Date from, Date beforeTime, Long beforeId, Long beforeSequence, int limit);
+
+    /**
+     * Find summaries of at most limit latest fights since the specified time, which precede the given fight in the history
+     *
+     * @param from           bottom bound for the fight time
+     * @param beforeTime     fight time of the last fight already returned, null for the latest fights
+     * @param beforeId       id of the last fight already returned, null for the latest fights or a fight not stored
+     * @param beforeSequence sequence number of the last fight already returned if it was not stored, null otherwise
+     * @param limit          maximal number of fights to return
+     * @return list of the fight summaries, newest first
+     * @see #findLatestSince(Date, Date, Long, Long, int)
+     */
+    List<FightSummary> findSummariesSince(Date from, Date beforeTime, Long beforeId, Long beforeSequence, int limit);
+
+    /**
+     * Find summaries of all fights of the challenger with the given id
+     *
+     * @param challengerId id of the challenger
+     * @return list of the fight summaries, newest first
+     */
+    List<FightSummary> findSummariesByChallengerId(Long challengerId);
+
+    /**
+     * Find summaries of all fights hosted in the gym with the given id
+     *
+     * @param targetGymId id of the gym
+     * @return list of the fight summaries, newest first
+     */
+    List<FightSummary> findSummariesByTargetGymId(Long targetGymId);
+
+    /**
+     * Passes all {@link TrainerFight}s, ordered by id, to the given action as they are read from the database
+     * <p/>
+     * The persistence context is cleared every {@link com.kodemon.persistence.util.Constants#EXPORT_FETCH_SIZE} fights
+     * and at the end, so the memory used does not grow with the number of fights. The action must not keep the fights,
+     * nor navigate anything beyond the challenger and the target gym with its leader.
+     * Must be called in a read-only transaction, which has nothing else in the persistence context.
+     *
+     * @param action action receiving the fights
+     * @return number of the fights passed to the action
+     */
+    long forEachFight(Consumer<TrainerFight> action);
+
     /**
      * Saves trainer played fight into database
      *
@@ -76,9 +162,14 @@ public interface TrainerFightService {
 
     /**
      * Represents an attempt to conquer the {@link com.kodemon.persistence.entity.Gym}
+     * <p>
+     * The trainer is looked up by the id, or by the username without one, the gym by the id, or by the badge name
+     * without one. The active teams are compared as cached {@link com.kodemon.service.util.TeamSnapshot}s, with the same
+     * result as {@link #wasFightForBadgeSuccessful(Trainer, Trainer)}.
      *
      * @param trainer trainer that wants to conquer the gym
      * @param gym     gym to be challenged
+     * @return true if the trainer won the badge, false if the trainer lost or the trainer or the gym does not exist
      */
     public boolean fightForBadge(Trainer trainer, Gym gym);
 }
@@ -0,0 +1,35 @@
+package com.kodemon.service.interfaces;
+
+import com.kodemon.persistence.entity.Trainer;
+
+import java.util.List;
+
+/**
+ * Service searching the {@link Trainer}s by a part of their username, through the in-memory
+ * {@link com.kodemon.service.util.UserNameIndex} rather than a scan of the whole table
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public interface TrainerSearchService {
+
+    /**
+     * Returns the {@link Trainer}s with username containing the given string.
+     *
+     * @param string String that should be contained in {@link Trainer}'s username
+     * @return {@link List} of {@link Trainer}s with userNames which contain the given string, ordered by id
+     */
+    List<Trainer> findByUserNameContaining(String string);
+
+    /**
+     * Returns the {@link Trainer}s with username containing the given string, ignoring case.
+     *
+     * @param string String that should be contained in {@link Trainer}'s username
+     * @return {@link List} of {@link Trainer}s with userNames which contain the given string, ordered by id
+     */
+    List<Trainer> findByUserNameIgnoreCaseContaining(String string);
+
+    /**
+     * Rebuilds the index from all the stored {@link Trainer}s, the search goes to the database until then.
+     */
+    void rebuildIndex();
+}
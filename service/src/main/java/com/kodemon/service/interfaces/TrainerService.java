@@ -3,9 +3,13 @@ package com.kodemon.service.interfaces;
 import com.kodemon.persistence.entity.Badge;
 import com.kodemon.persistence.entity.Pokemon;
 import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.projection.TrainerSummary;
 import com.kodemon.persistence.enums.PokemonName;
 import com.kodemon.service.util.PasswordStorage;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
 import java.util.Date;
 import java.util.List;
 
@@ -29,6 +33,20 @@ public interface TrainerService {
      */
     Trainer register(String userName, String firstName, String lastName, Date dayOfBirth, PokemonName pokemon, String password) throws PasswordStorage.CannotPerformOperationException;
 
+    /**
+     * Creates new user in the database, like {@link #register(String, String, String, Date, PokemonName, String)}
+     * with the password already hashed
+     *
+     * @param userName   userName of the user
+     * @param firstName  first name of the user
+     * @param lastName   last name of the user
+     * @param dayOfBirth day of birth of the user
+     * @param pokemon    initial Pokemon of the user
+     * @param pwdHash    hash of user's password, made by {@link PasswordStorage#createHash(String)}
+     * @return the stored trainer
+     */
+    Trainer registerWithHash(String userName, String firstName, String lastName, Date dayOfBirth, PokemonName pokemon, String pwdHash);
+
     /**
      * Authenticates the user with given credentials
      *
@@ -121,6 +139,27 @@ public interface TrainerService {
      */
     List<Trainer> findByUserName(String userName);
 
+    /**
+     * Returns the {@link Trainer} with the given username, ignoring case.
+     * <p/>
+     * Unlike {@link #findByUserNameIgnoreCaseContaining(String)}, this is an index lookup, and never returns a Trainer
+     * whose username merely contains the given one.
+     *
+     * @param userName Username to search by
+     * @return the Trainer with the given userName, null if there is none
+     */
+    Trainer findByUserNameIgnoreCase(String userName);
+
+    /**
+     * Returns a {@link List} of {@link Trainer}s with the given username, with their active Pokemons already loaded.
+     * <p>
+     * To be used when the Trainer is about to fight.
+     *
+     * @param userName Username to search by
+     * @return List of Trainers with the given userName
+     */
+    List<Trainer> findWithActiveTeamByUserName(String userName);
+
     /**
      * Returns a {@link List} of {@link Trainer}s with username similar to the given one.
      * <p/>
@@ -223,4 +262,38 @@ public interface TrainerService {
      * @return {@link List} of {@link Trainer}s in the database
      */
     List<Trainer> findAll();
+
+    /**
+     * Returns a {@link Slice} of the {@link Trainer}s stored in database, ordered by id
+     *
+     * @param pageable page number and size of the slice
+     * @return {@link Slice} of {@link Trainer}s
+     */
+    Slice<Trainer> findAll(Pageable pageable);
+
+    /**
+     * Returns at most limit {@link Trainer}s with id greater than the given one, ordered by id
+     *
+     * @param id    id of the last Trainer already returned, null for the first Trainers
+     * @param limit maximal number of Trainers to return
+     * @return {@link List} of {@link Trainer}s following the given id
+     */
+    List<Trainer> findAfterId(Long id, int limit);
+
+    /**
+     * Returns a {@link Slice} of the summaries of {@link Trainer}s stored in database, ordered by id
+     *
+     * @param pageable page number and size of the slice
+     * @return {@link Slice} of {@link TrainerSummary}s
+     */
+    Slice<TrainerSummary> findSummaries(Pageable pageable);
+
+    /**
+     * Returns summaries of at most limit {@link Trainer}s with id greater than the given one, ordered by id
+     *
+     * @param id    id of the last Trainer already returned, null for the first Trainers
+     * @param limit maximal number of Trainers to return
+     * @return {@link List} of {@link TrainerSummary}s following the given id
+     */
+    List<TrainerSummary> findSummariesAfterId(Long id, int limit);
 }
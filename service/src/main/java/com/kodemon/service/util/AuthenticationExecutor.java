@@ -0,0 +1,181 @@
+package com.kodemon.service.util;
+
+import com.kodemon.api.exception.ServiceOverloadedException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the password hashing on a small pool of its own, with a bounded queue
+ * <p>
+ * A PBKDF2 hash takes tens of milliseconds of CPU. Run on the request threads, a burst of logins would keep them all busy
+ * and every other page waiting; here the bursts wait in the queue instead, and once it is full, more of them are rejected
+ * right away with {@link ServiceOverloadedException}.
+ * <p>
+ * Records the time the tasks waited in the queue and the time they ran, for the runtime statistics.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class AuthenticationExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    private final LongAdder startedCount = new LongAdder();
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Long::max, 0);
+
+    /**
+     * @param threads       number of the threads hashing, at least 1
+     * @param queueCapacity number of tasks waiting for a thread at most, at least 1; further ones are rejected
+     */
+    public AuthenticationExecutor(int threads, int queueCapacity) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1, was " + threads);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1, was " + queueCapacity);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "kodemon-authentication-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queues the task for one of the pool threads
+     *
+     * @param task hashing work
+     * @return future completed with the result of the task, or exceptionally with whatever it threw
+     * @throws ServiceOverloadedException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long submitted = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                record(started - submitted, waitNanos, maxWaitNanos);
+                startedCount.increment();
+                T value = null;
+                Throwable failure = null;
+                try {
+                    value = task.call();
+                } catch (Throwable e) {
+                    // an Error as well, the caller would wait for the result until it times out otherwise
+                    failure = e;
+                }
+                // counted before the caller is woken up, so the statistics include the task it waited for
+                record(System.nanoTime() - started, hashNanos, maxHashNanos);
+                completedCount.increment();
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(value);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw new ServiceOverloadedException("Too many authentications in progress, " + getQueueDepth() + " waiting",
+                    getRetryAfterSeconds());
+        }
+        return result;
+    }
+
+    /**
+     * Estimates when the tasks queued now will be done, from the average time of a task
+     *
+     * @return number of seconds, at least 1
+     */
+    public long getRetryAfterSeconds() {
+        long pendingTasks = getQueueDepth() + executor.getActiveCount();
+        long pendingNanos = pendingTasks * averageNanos(hashNanos, completedCount) / executor.getMaximumPoolSize();
+        long nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+        return Math.max(1, (pendingNanos + nanosPerSecond - 1) / nanosPerSecond);
+    }
+
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return number of tasks waiting for a thread now
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return number of tasks running now
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    /**
+     * @return number of tasks rejected for the full queue
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * @return average time a task waited in the queue, in microseconds
+     */
+    public long getAverageWaitMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(averageNanos(waitNanos, startedCount));
+    }
+
+    public long getMaxWaitMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get());
+    }
+
+    /**
+     * @return average time a task ran, in microseconds
+     */
+    public long getAverageHashMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(averageNanos(hashNanos, completedCount));
+    }
+
+    public long getMaxHashMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxHashNanos.get());
+    }
+
+    /**
+     * Stops the pool threads, the tasks already queued still run
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static long averageNanos(LongAdder totalNanos, LongAdder count) {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    private static void record(long nanos, LongAdder total, LongAccumulator max) {
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+}
@@ -0,0 +1,105 @@
+package com.kodemon.service.util;
+
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+
+import javax.persistence.Entity;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Loads every lazy association reachable from the given entities
+ * <p>
+ * A Hibernate session may only be used by one thread at a time, so entities handed over to other threads must not load
+ * anything lazily there. Initializing the graph on the thread owning the session, in the same batches the lazy loading
+ * would use, leaves the other threads only reading plain, already loaded objects; the entities stay safe to read even
+ * after the session is closed. An association that cannot be loaded any more throws the usual
+ * {@link org.hibernate.LazyInitializationException}, on the calling thread.
+ * <p>
+ * Objects other than entities and collections are not walked, so DTOs and projections pass through untouched.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public final class EntityGraphInitializer {
+
+    private static final ClassValue<Boolean> IS_ENTITY = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            // Entity is not inherited by the proxy subclasses
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                if (c.isAnnotationPresent(Entity.class)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    };
+
+    private static final ClassValue<List<Field>> ASSOCIATIONS = new ClassValue<List<Field>>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> associations = new ArrayList<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())
+                            && (Collection.class.isAssignableFrom(field.getType()) || IS_ENTITY.get(field.getType()))) {
+                        field.setAccessible(true);
+                        associations.add(field);
+                    }
+                }
+            }
+            return associations;
+        }
+    };
+
+    private EntityGraphInitializer() {
+    }
+
+    /**
+     * Initializes the given objects and everything reachable from them through the associations of entities
+     *
+     * @param roots entities, collections of them or any other objects, which are skipped; may contain nulls
+     */
+    public static void initialize(Collection<?> roots) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pushAll(pending, roots);
+        while (!pending.isEmpty()) {
+            Object current = pending.pop();
+            if (!visited.add(current)) {
+                continue;
+            }
+            if (current instanceof Collection) {
+                Hibernate.initialize(current);
+                pushAll(pending, (Collection<?>) current);
+            } else if (IS_ENTITY.get(current.getClass())) {
+                if (current instanceof HibernateProxy) {
+                    current = ((HibernateProxy) current).getHibernateLazyInitializer().getImplementation();
+                }
+                for (Field association : ASSOCIATIONS.get(current.getClass())) {
+                    Object value = readField(association, current);
+                    if (value != null) {
+                        pending.push(value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void pushAll(Deque<Object> pending, Collection<?> objects) {
+        for (Object object : objects) {
+            if (object != null) {
+                pending.push(object);
+            }
+        }
+    }
+
+    private static Object readField(Field field, Object owner) {
+        try {
+            return field.get(owner);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read " + field, e);
+        }
+    }
+}
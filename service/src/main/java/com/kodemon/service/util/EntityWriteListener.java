@@ -0,0 +1,139 @@
+package com.kodemon.service.util;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener told about every entity and every collection Hibernate writes, for the caches kept next to the second-level one
+ * <p>
+ * A written collection is reported as a write of its owner.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+abstract class EntityWriteListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    /**
+     * Appends the listener to the session factory
+     *
+     * @param entityManagerFactory factory whose writes are listened to
+     */
+    void appendTo(EntityManagerFactory entityManagerFactory) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    /**
+     * Called when the entity, or one of its collections, was flushed
+     *
+     * @param entity the written entity, null for a collection without an owner
+     */
+    abstract void written(Object entity);
+
+    /**
+     * Runs the change once the current transaction commits, right away outside of a transaction
+     * <p>
+     * The changes of a rolled back transaction are dropped.
+     *
+     * @param change change of the state kept next to the database
+     */
+    void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        changesInTransaction().onCommit.add(change);
+    }
+
+    /**
+     * Runs the change once the current transaction completes, whether it commits or rolls back, right away outside
+     * of a transaction
+     *
+     * @param change change of the state kept next to the database
+     */
+    void afterCompletion(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        changesInTransaction().onCompletion.add(change);
+    }
+
+    private Changes changesInTransaction() {
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Changes changesInTransaction = new Changes();
+            TransactionSynchronizationManager.bindResource(this, changesInTransaction);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(EntityWriteListener.this);
+                    if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                        changesInTransaction.onCommit.forEach(Runnable::run);
+                    }
+                    changesInTransaction.onCompletion.forEach(Runnable::run);
+                }
+            });
+            changes = changesInTransaction;
+        }
+        return changes;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        written(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        written(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        written(event.getEntity());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        written(event.getAffectedOwnerOrNull());
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        written(event.getAffectedOwnerOrNull());
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        written(event.getAffectedOwnerOrNull());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * The changes waiting for the current transaction
+     */
+    private static final class Changes {
+        private final List<Runnable> onCommit = new ArrayList<>();
+        private final List<Runnable> onCompletion = new ArrayList<>();
+    }
+}
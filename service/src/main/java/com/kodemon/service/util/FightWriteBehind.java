@@ -0,0 +1,525 @@
+package com.kodemon.service.util;
+
+import com.kodemon.persistence.dao.GymDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.dao.TrainerFightDao;
+import com.kodemon.persistence.entity.Gym;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.entity.TrainerFight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Stores the results of the fights for badges behind the requests, in batches
+ * <p>
+ * A fight is queued once the transaction of the fight commits, so the request does not wait for the insert. A single
+ * writer thread takes the queued fights off in batches of {@code batchSize}, as soon as that many are queued or the
+ * oldest of them has waited {@code flushIntervalMillis}, and inserts each batch in a transaction of its own, as one
+ * JDBC batch. When the queue is full, the request waits up to {@code offerTimeoutMillis} for the writer; if the writer
+ * has not caught up by then, the request stores the fight itself, so that no fight is lost. The queued fights are
+ * written when the context is closed.
+ * <p>
+ * The fight history merges the queued fights into the stored ones with {@link #readMergingPending(Predicate, Function)}.
+ * A batch is taken off the queue and committed under the write lock, so a read that does not overlap with a batch sees
+ * every fight either queued or stored, and never both. Every queued fight gets a sequence number in the order of the
+ * queue, which orders the queued fights of the same time and is the position of a queued fight in the history for
+ * the next page. The writer stores the fights in the order of the queue, so their ids follow the sequence numbers, and
+ * it remembers the ids the last {@link #REMEMBERED_IDS} fights got, so that a page following a fight written meanwhile
+ * goes on right after it.
+ * <p>
+ * In the synchronous mode, for the tests that need a fight stored by its request, every fight is stored right away in
+ * the transaction of the fight, and no thread is started.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class FightWriteBehind implements AutoCloseable {
+
+    /**
+     * Number of the written fights whose ids are kept by their sequence numbers
+     */
+    public static final int REMEMBERED_IDS = 10_000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(FightWriteBehind.class);
+
+    private final TrainerDao trainerDao;
+    private final GymDao gymDao;
+    private final TrainerFightDao trainerFightDao;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+
+    private final boolean writeBehind;
+    private final BlockingQueue<PendingFight> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMillis;
+    private final StampedLock lock = new StampedLock();
+    private final Thread writer;
+    private volatile boolean closed;
+    private final ReentrantLock sequenceLock = new ReentrantLock();
+    private long lastSequence;
+    private final Map<Long, Long> writtenIds = Collections.synchronizedMap(new LinkedHashMap<Long, Long>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > REMEMBERED_IDS;
+        }
+    });
+
+    private final LongAdder queuedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder overflowCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * Creates the synchronous mode, storing every fight right away
+     *
+     * @param trainerFightDao DAO the fights are stored with
+     * @return the synchronous writer
+     */
+    public static FightWriteBehind synchronous(TrainerFightDao trainerFightDao) {
+        return new FightWriteBehind(null, null, trainerFightDao, null, false, 1, 1, 0, 0);
+    }
+
+    /**
+     * @param trainerDao          DAO the challengers are referenced with
+     * @param gymDao              DAO the gyms are referenced with
+     * @param trainerFightDao     DAO the fights are stored with
+     * @param transactionManager  manager of the transactions the batches are written in
+     * @param writeBehind         whether the fights are queued, false for the synchronous mode
+     * @param queueCapacity       number of the fights queued at most, at least 1
+     * @param batchSize           number of the fights written in one batch at most, at least 1
+     * @param flushIntervalMillis time the oldest queued fight waits for a full batch at most
+     * @param offerTimeoutMillis  time a fight waits for a place in the full queue, before it is stored by the request
+     */
+    public FightWriteBehind(TrainerDao trainerDao, GymDao gymDao, TrainerFightDao trainerFightDao,
+                            PlatformTransactionManager transactionManager, boolean writeBehind, int queueCapacity,
+                            int batchSize, long flushIntervalMillis, long offerTimeoutMillis) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1, was " + queueCapacity);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1, was " + batchSize);
+        }
+        this.trainerDao = trainerDao;
+        this.gymDao = gymDao;
+        this.trainerFightDao = trainerFightDao;
+        this.writeBehind = writeBehind;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        if (writeBehind) {
+            transactionTemplate = new TransactionTemplate(transactionManager);
+            newTransactionTemplate = new TransactionTemplate(transactionManager);
+            newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            writer = new Thread(this::writeQueued, "kodemon-fight-writer");
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            transactionTemplate = null;
+            newTransactionTemplate = null;
+            writer = null;
+        }
+    }
+
+    /**
+     * Records the result of a fight, to be stored once the current transaction commits
+     * <p>
+     * The fight is not stored at all if the transaction rolls back.
+     *
+     * @param fight the fight, with the challenger and the target gym stored
+     */
+    public void record(TrainerFight fight) {
+        if (!writeBehind) {
+            trainerFightDao.save(fight);
+            return;
+        }
+        PendingFight pending = new PendingFight(fight.getChallenger().getId(), fight.getTargetGym().getId(),
+                fight.getFightTime(), fight.isWasChallengerSuccessful());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(pending);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                enqueue(pending);
+            }
+        });
+    }
+
+    /**
+     * Reads the stored fights and adds the matching ones not stored yet, none of them twice
+     *
+     * @param storedFights reads the fights from the database
+     * @param matching     picks the queued fights the read is after
+     * @return the stored fights followed by the queued ones, which have no id yet
+     */
+    public List<TrainerFight> readWithPending(Supplier<List<TrainerFight>> storedFights, Predicate<PendingFight> matching) {
+        return readMergingPending(matching, pending -> {
+            List<TrainerFight> stored = storedFights.get();
+            if (pending.isEmpty()) {
+                return stored;
+            }
+            List<TrainerFight> fights = new ArrayList<>(stored);
+            fights.addAll(toTrainerFights(pending));
+            return fights;
+        });
+    }
+
+    /**
+     * Reads the stored fights together with the matching ones not stored yet, none of them twice
+     * <p>
+     * The read may be repeated, if a batch is committed while it runs.
+     *
+     * @param matching picks the queued fights the read is after
+     * @param read     reads the fights from the database and merges the given queued ones in
+     * @param <T>      result of the read
+     * @return result of the read
+     */
+    public <T> T readMergingPending(Predicate<PendingFight> matching, Function<List<PendingFight>, T> read) {
+        if (!writeBehind) {
+            return read.apply(Collections.emptyList());
+        }
+        long stamp = lock.tryOptimisticRead();
+        T result = read.apply(pending(matching));
+        if (!lock.validate(stamp)) {
+            // a batch was committed meanwhile, the fights of it may have been read from both
+            stamp = lock.readLock();
+            try {
+                result = read.apply(pending(matching));
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Turns the queued fights into fights without an id but with their sequence numbers, with their challengers and gyms
+     * found by the ids
+     *
+     * @param pending the queued fights
+     * @return the fights in the same order, but the ones whose challenger or gym was deleted meanwhile
+     */
+    public List<TrainerFight> toTrainerFights(List<PendingFight> pending) {
+        List<TrainerFight> fights = new ArrayList<>(pending.size());
+        for (PendingFight fight : pending) {
+            Trainer challenger = trainerDao.findOne(fight.getChallengerId());
+            Gym gym = gymDao.findOne(fight.getTargetGymId());
+            if (challenger != null && gym != null) {
+                TrainerFight trainerFight = fight.toTrainerFight(challenger, gym);
+                trainerFight.setPendingSequence(fight.getSequence());
+                fights.add(trainerFight);
+            }
+        }
+        return fights;
+    }
+
+    /**
+     * Returns the id a queued fight got when it was written
+     *
+     * @param sequence sequence number of the queued fight
+     * @return the id, null if the fight is still queued, was dropped or was written before the last
+     * {@link #REMEMBERED_IDS} fights
+     */
+    public Long storedIdOf(long sequence) {
+        return writtenIds.get(sequence);
+    }
+
+    /**
+     * Stores all the fights queued so far on the calling thread
+     */
+    public void flush() {
+        while (!queue.isEmpty()) {
+            writeBatch();
+        }
+    }
+
+    /**
+     * Stores the queued fights and stops the writer, called when the context is closed
+     */
+    @Override
+    public void close() {
+        if (!writeBehind || closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // whatever the writer did not get to
+        flush();
+        LOG.info("Fight writer stopped, {} fights written in {} batches.", getWrittenCount(), getBatchCount());
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * @return number of the fights waiting in the queue
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getQueuedCount() {
+        return queuedCount.sum();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * @return number of the fights stored by the requests, as the queue was full or the writer stopped
+     */
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+
+    /**
+     * @return number of the fights which could not be stored, their challenger or gym was deleted meanwhile
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    private void enqueue(PendingFight fight) {
+        boolean queued = false;
+        if (!closed) {
+            // the sequence numbers follow the order of the queue, the fights waiting for the lock share one timeout
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+            try {
+                if (sequenceLock.tryLock(offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    try {
+                        fight.sequence = ++lastSequence;
+                        queued = queue.offer(fight, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    } finally {
+                        sequenceLock.unlock();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queued) {
+            // the transaction of the fight has completed, its resources are still bound to the thread
+            overflowCount.increment();
+            int written = newTransactionTemplate.execute(status -> write(Collections.singletonList(fight))).size();
+            failedCount.add(1 - written);
+            return;
+        }
+        queuedCount.increment();
+        int depth = queue.size();
+        if (depth == 1 || depth >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * @return the matching queued fights, newest first like the fight history
+     */
+    private List<PendingFight> pending(Predicate<PendingFight> matching) {
+        List<PendingFight> pending = new ArrayList<>();
+        for (PendingFight fight : queue.toArray(new PendingFight[0])) {
+            if (matching.test(fight)) {
+                pending.add(fight);
+            }
+        }
+        // the later one of the same time is the newer one
+        pending.sort(Comparator.comparing((PendingFight fight) -> fight.fightTime)
+                .thenComparingLong(fight -> fight.sequence).reversed());
+        return pending;
+    }
+
+    private void writeQueued() {
+        while (awaitBatch()) {
+            try {
+                writeBatch();
+            } catch (RuntimeException e) {
+                LOG.error("Writing a batch of fights failed.", e);
+            }
+        }
+    }
+
+    /**
+     * Waits until a batch is full, or the oldest queued fight has waited long enough
+     *
+     * @return false once the writer is closed and nothing is queued
+     */
+    private boolean awaitBatch() {
+        while (true) {
+            PendingFight oldest = queue.peek();
+            if (oldest == null) {
+                if (closed) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            long wait = oldest.queued + flushIntervalNanos - System.nanoTime();
+            if (closed || wait <= 0 || queue.size() >= batchSize) {
+                return true;
+            }
+            LockSupport.parkNanos(this, wait);
+        }
+    }
+
+    private void writeBatch() {
+        long stamp = lock.writeLock();
+        try {
+            List<PendingFight> batch = new ArrayList<>(batchSize);
+            queue.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                Map<Long, Long> written = transactionTemplate.execute(status -> write(batch));
+                // counted once committed
+                writtenIds.putAll(written);
+                writtenCount.add(written.size());
+                failedCount.add(batch.size() - written.size());
+                batchCount.increment();
+            } catch (RuntimeException e) {
+                LOG.warn("Writing a batch of {} fights failed, writing them one by one.", batch.size(), e);
+                for (PendingFight fight : batch) {
+                    try {
+                        Map<Long, Long> written = transactionTemplate.execute(
+                                status -> write(Collections.singletonList(fight)));
+                        writtenIds.putAll(written);
+                        writtenCount.add(written.size());
+                        failedCount.add(1 - written.size());
+                    } catch (RuntimeException single) {
+                        failedCount.increment();
+                        LOG.error("Dropping the fight of User {} against Gym {} at {}.", fight.getChallengerId(),
+                                fight.getTargetGymId(), fight.getFightTime(), single);
+                    }
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Stores the fights, with their challengers and gyms loaded in one query each: the listeners of the inserts, such
+     * as the suggestion index, read the username and the city, which an uninitialized reference would not give them
+     *
+     * @return ids of the fights stored by their sequence numbers, the ones whose challenger or gym was deleted meanwhile
+     * are dropped
+     */
+    private Map<Long, Long> write(List<PendingFight> fights) {
+        Map<Long, Trainer> challengers = new HashMap<>();
+        Map<Long, Gym> gyms = new HashMap<>();
+        Set<Long> challengerIds = new HashSet<>();
+        Set<Long> gymIds = new HashSet<>();
+        for (PendingFight fight : fights) {
+            challengerIds.add(fight.getChallengerId());
+            gymIds.add(fight.getTargetGymId());
+        }
+        trainerDao.findAll(challengerIds).forEach(challenger -> challengers.put(challenger.getId(), challenger));
+        gymDao.findAll(gymIds).forEach(gym -> gyms.put(gym.getId(), gym));
+
+        Map<PendingFight, TrainerFight> entities = new LinkedHashMap<>();
+        for (PendingFight fight : fights) {
+            Trainer challenger = challengers.get(fight.getChallengerId());
+            Gym gym = gyms.get(fight.getTargetGymId());
+            if (challenger == null || gym == null) {
+                LOG.error("Dropping the fight of User {} against Gym {} at {}, one of them was deleted.",
+                        fight.getChallengerId(), fight.getTargetGymId(), fight.getFightTime());
+                continue;
+            }
+            entities.put(fight, fight.toTrainerFight(challenger, gym));
+        }
+        trainerFightDao.save(entities.values());
+        Map<Long, Long> ids = new LinkedHashMap<>();
+        entities.forEach((fight, entity) -> ids.put(fight.sequence, entity.getId()));
+        return ids;
+    }
+
+    /**
+     * Result of a fight waiting in the queue, with the ids of the challenger and the gym instead of the entities
+     */
+    public static final class PendingFight {
+        private final Long challengerId;
+        private final Long targetGymId;
+        private final Date fightTime;
+        private final boolean wasChallengerSuccessful;
+        private final long queued = System.nanoTime();
+        private long sequence;
+
+        PendingFight(Long challengerId, Long targetGymId, Date fightTime, boolean wasChallengerSuccessful) {
+            this.challengerId = challengerId;
+            this.targetGymId = targetGymId;
+            this.fightTime = new Date(fightTime.getTime());
+            this.wasChallengerSuccessful = wasChallengerSuccessful;
+        }
+
+        public Long getChallengerId() {
+            return challengerId;
+        }
+
+        public Long getTargetGymId() {
+            return targetGymId;
+        }
+
+        public Date getFightTime() {
+            return new Date(fightTime.getTime());
+        }
+
+        public boolean isWasChallengerSuccessful() {
+            return wasChallengerSuccessful;
+        }
+
+        /**
+         * @return number of the fight in the order of the queue, set once it is queued
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        TrainerFight toTrainerFight(Trainer challenger, Gym gym) {
+            TrainerFight fight = new TrainerFight();
+            fight.setChallenger(challenger);
+            fight.setTargetGym(gym);
+            fight.setFightTime(new Date(fightTime.getTime()));
+            fight.setWasChallengerSuccessful(wasChallengerSuccessful);
+            return fight;
+        }
+    }
+}
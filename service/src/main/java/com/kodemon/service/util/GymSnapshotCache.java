@@ -0,0 +1,127 @@
+package com.kodemon.service.util;
+
+import com.kodemon.api.dto.GymDTO;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-mostly cache of mapped gyms, keyed by their id
+ * <p>
+ * The gym detail, the gym fight and the list of the gym's fights all look the gym up by its id, together with its leader's
+ * Pokemons and badges. The cached {@link GymDTO}s are snapshots: they are never modified and never handed out,
+ * the facade returns copies of them. A snapshot is dropped on every write to its gym or to anything it contains,
+ * its leader's row, Pokemons and badges, which are told apart by the id of the leader, see
+ * {@link GymSnapshotInvalidation}.
+ * <p>
+ * A snapshot loaded while any snapshot was being invalidated is not kept, as it may have been read before the write.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class GymSnapshotCache {
+
+    /**
+     * Name the cache is reported under among the second-level cache regions
+     */
+    public static final String REGION_NAME = "gym-snapshots";
+
+    private final ConcurrentMap<Long, GymDTO> snapshots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> gymIdsByLeaderId = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    /**
+     * Returns the snapshot of the gym, loading it on a miss
+     *
+     * @param id     id of the gym
+     * @param loader maps the gym with the given id, returns null if there is none
+     * @return the snapshot, not to be modified; null if there is no such gym
+     */
+    public GymDTO get(Long id, Function<Long, GymDTO> loader) {
+        GymDTO snapshot = snapshots.get(id);
+        if (snapshot != null) {
+            hitCount.increment();
+            return snapshot;
+        }
+        missCount.increment();
+        long loadedGeneration = generation.get();
+        snapshot = loader.apply(id);
+        if (snapshot != null) {
+            Long leaderId = snapshot.getTrainer() != null ? snapshot.getTrainer().getId() : null;
+            if (leaderId != null) {
+                gymIdsByLeaderId.put(leaderId, id);
+            }
+            snapshots.put(id, snapshot);
+            putCount.increment();
+            if (generation.get() != loadedGeneration) {
+                snapshots.remove(id, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drops the snapshot of the gym
+     *
+     * @param gymId id of the written gym
+     */
+    public void invalidateGym(Long gymId) {
+        generation.incrementAndGet();
+        if (snapshots.remove(gymId) != null) {
+            invalidationCount.increment();
+        }
+    }
+
+    /**
+     * Drops the snapshot of the gym led by the trainer, if the trainer leads a cached gym
+     *
+     * @param trainerId id of the written trainer
+     */
+    public void invalidateLeader(Long trainerId) {
+        generation.incrementAndGet();
+        Long gymId = gymIdsByLeaderId.remove(trainerId);
+        if (gymId != null) {
+            invalidateGym(gymId);
+        }
+    }
+
+    /**
+     * Drops all the snapshots
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshots.clear();
+        gymIdsByLeaderId.clear();
+        invalidationCount.increment();
+    }
+
+    /**
+     * @return number of gyms cached now
+     */
+    public int size() {
+        return snapshots.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getPutCount() {
+        return putCount.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.sum();
+    }
+}
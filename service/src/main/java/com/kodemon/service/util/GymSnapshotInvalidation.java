@@ -0,0 +1,70 @@
+package com.kodemon.service.util;
+
+import com.kodemon.persistence.entity.Badge;
+import com.kodemon.persistence.entity.Gym;
+import com.kodemon.persistence.entity.Pokemon;
+import com.kodemon.persistence.entity.Trainer;
+import org.hibernate.event.spi.PostInsertEvent;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Invalidates the snapshots of the {@link GymSnapshotCache} whose gym, or anything they contain, Hibernate writes
+ * <p>
+ * Besides the gym itself, that is its leader, the leader's Pokemons and badges, and their collections: a leader training
+ * a Pokemon or reordering the team changes the snapshot as well. The writes of the other trainers, catching and
+ * training their Pokemons or winning badges, leave the cache alone. The snapshot is invalidated when the write is
+ * flushed and once more when its transaction completes, so that a snapshot read by another thread in between, before
+ * the write was committed, does not stay in the cache.
+ * <p>
+ * A new badge is in no leader's collection yet, adding it to one is reported as a write of the collection's owner.
+ * A badge renamed or deleted in place may be in any leader's snapshot, so it invalidates the whole cache.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class GymSnapshotInvalidation extends EntityWriteListener {
+
+    private final GymSnapshotCache cache;
+
+    private GymSnapshotInvalidation(GymSnapshotCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Registers the invalidation of the cache with the session factory
+     *
+     * @param entityManagerFactory factory whose writes invalidate the cache
+     * @param cache                cache to invalidate
+     */
+    public static void register(EntityManagerFactory entityManagerFactory, GymSnapshotCache cache) {
+        new GymSnapshotInvalidation(cache).appendTo(entityManagerFactory);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!(event.getEntity() instanceof Badge)) {
+            super.onPostInsert(event);
+        }
+    }
+
+    @Override
+    void written(Object entity) {
+        Runnable invalidation;
+        if (entity instanceof Gym) {
+            Long gymId = ((Gym) entity).getId();
+            invalidation = () -> cache.invalidateGym(gymId);
+        } else if (entity instanceof Trainer) {
+            Long trainerId = ((Trainer) entity).getId();
+            invalidation = () -> cache.invalidateLeader(trainerId);
+        } else if (entity instanceof Pokemon && ((Pokemon) entity).getTrainer() != null) {
+            Long trainerId = ((Pokemon) entity).getTrainer().getId();
+            invalidation = () -> cache.invalidateLeader(trainerId);
+        } else if (entity instanceof Badge) {
+            invalidation = cache::invalidate;
+        } else {
+            return;
+        }
+        invalidation.run();
+        afterCompletion(invalidation);
+    }
+}
@@ -0,0 +1,300 @@
+package com.kodemon.service.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Evaluates fights between {@link TeamSnapshot}s in bulk on its own fork-join pool, without storing anything
+ * <p>
+ * The challengers are split into ranges until a range is small enough to be evaluated by one worker; each range counts
+ * its own wins, and the counts are added up as the ranges are joined. The fights share no mutable state, so the
+ * throughput grows with the number of workers.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class MatchupSimulator implements AutoCloseable {
+
+    private static final int CHALLENGERS_PER_TASK = 1024;
+    private static final int ROWS_PER_TASK = 8;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism number of the worker threads
+     */
+    public MatchupSimulator(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism, MatchupSimulator::newWorker, null, false);
+    }
+
+    /**
+     * Fights every challenger against the leader of every gym, but the own gym of the challenger
+     *
+     * @param challengers teams of the challengers
+     * @param leaders     teams of the gym leaders, one per gym
+     * @return numbers of the challengers and wins per gym, in the order of the leaders
+     */
+    public GymChallenges challengeGyms(TeamSnapshot[] challengers, TeamSnapshot[] leaders) {
+        return pool.invoke(new GymChallengeTask(challengers, leaders, 0, challengers.length));
+    }
+
+    /**
+     * Fights every team against every other one, in both roles, and plays out a single-elimination bracket
+     * <p>
+     * The teams are seeded in the given order. In every bracket match the lower seed challenges the higher one,
+     * the first seed meets the last one in the first round, and a seed without an opponent advances.
+     *
+     * @param seeds teams of the tournament, the strongest first
+     * @return the results of the tournament
+     */
+    public Tournament tournament(TeamSnapshot[] seeds) {
+        boolean[][] wins = new boolean[seeds.length][seeds.length];
+        pool.invoke(new RoundRobinTask(seeds, wins, 0, seeds.length));
+        int[] winCounts = new int[seeds.length];
+        for (int challenger = 0; challenger < seeds.length; challenger++) {
+            for (int defender = 0; defender < seeds.length; defender++) {
+                if (wins[challenger][defender]) {
+                    winCounts[challenger]++;
+                }
+            }
+        }
+        return new Tournament(seeds, wins, winCounts, bracketChampion(wins, seeds.length));
+    }
+
+    /**
+     * @return number of the worker threads
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stops the worker threads, called when the context is closed
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("kodemon-simulation-" + worker.getPoolIndex());
+        worker.setDaemon(true);
+        return worker;
+    }
+
+    private static int bracketChampion(boolean[][] wins, int size) {
+        if (size == 0) {
+            return -1;
+        }
+        List<Integer> remaining = new ArrayList<>();
+        for (int seed = 0; seed < size; seed++) {
+            remaining.add(seed);
+        }
+        int bracketSize = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        while (remaining.size() > 1) {
+            List<Integer> advancing = new ArrayList<>();
+            int slots = remaining.size() == size ? bracketSize : remaining.size();
+            for (int high = 0; high < slots / 2; high++) {
+                int low = slots - 1 - high;
+                int higherSeed = remaining.get(high);
+                if (low >= remaining.size()) {
+                    advancing.add(higherSeed);
+                    continue;
+                }
+                int lowerSeed = remaining.get(low);
+                advancing.add(wins[lowerSeed][higherSeed] ? lowerSeed : higherSeed);
+            }
+            advancing.sort(Integer::compare);
+            remaining = advancing;
+        }
+        return remaining.get(0);
+    }
+
+    /**
+     * Results of the gym challenges, indexed as the leaders were given
+     */
+    public static final class GymChallenges {
+        private final long[] challengerCounts;
+        private final long[] winCounts;
+        private final long[] trainersByGymsBeaten;
+        private final long matchupCount;
+
+        GymChallenges(long[] challengerCounts, long[] winCounts, long[] trainersByGymsBeaten, long matchupCount) {
+            this.challengerCounts = challengerCounts;
+            this.winCounts = winCounts;
+            this.trainersByGymsBeaten = trainersByGymsBeaten;
+            this.matchupCount = matchupCount;
+        }
+
+        GymChallenges add(GymChallenges other) {
+            long[] challengers = challengerCounts.clone();
+            long[] wins = winCounts.clone();
+            long[] histogram = trainersByGymsBeaten.clone();
+            for (int gym = 0; gym < challengers.length; gym++) {
+                challengers[gym] += other.challengerCounts[gym];
+                wins[gym] += other.winCounts[gym];
+            }
+            for (int beaten = 0; beaten < histogram.length; beaten++) {
+                histogram[beaten] += other.trainersByGymsBeaten[beaten];
+            }
+            return new GymChallenges(challengers, wins, histogram, matchupCount + other.matchupCount);
+        }
+
+        /**
+         * @param gym index of the gym
+         * @return number of the trainers who challenged the gym
+         */
+        public long getChallengerCount(int gym) {
+            return challengerCounts[gym];
+        }
+
+        /**
+         * @param gym index of the gym
+         * @return number of the challengers who won the badge of the gym
+         */
+        public long getWinCount(int gym) {
+            return winCounts[gym];
+        }
+
+        /**
+         * @return at index k the number of the trainers who won exactly k badges
+         */
+        public long[] getTrainersByGymsBeaten() {
+            return trainersByGymsBeaten.clone();
+        }
+
+        public long getMatchupCount() {
+            return matchupCount;
+        }
+    }
+
+    /**
+     * Results of a tournament, indexed by the seeds
+     */
+    public static final class Tournament {
+        private final TeamSnapshot[] seeds;
+        private final boolean[][] wins;
+        private final int[] winCounts;
+        private final int champion;
+
+        Tournament(TeamSnapshot[] seeds, boolean[][] wins, int[] winCounts, int champion) {
+            this.seeds = seeds;
+            this.wins = wins;
+            this.winCounts = winCounts;
+            this.champion = champion;
+        }
+
+        public List<TeamSnapshot> getSeeds() {
+            return Arrays.asList(seeds);
+        }
+
+        /**
+         * @param challenger seed of the challenger
+         * @param defender   seed of the defender
+         * @return whether the challenger beats the defender
+         */
+        public boolean isWin(int challenger, int defender) {
+            return wins[challenger][defender];
+        }
+
+        /**
+         * @param seed seed of the team
+         * @return number of the other teams the team beats as the challenger
+         */
+        public int getWinCount(int seed) {
+            return winCounts[seed];
+        }
+
+        /**
+         * @return seed of the bracket winner, -1 for a tournament without teams
+         */
+        public int getChampion() {
+            return champion;
+        }
+
+        public long getMatchupCount() {
+            return (long) seeds.length * (seeds.length - 1);
+        }
+    }
+
+    private static final class GymChallengeTask extends RecursiveTask<GymChallenges> {
+        private final TeamSnapshot[] challengers;
+        private final TeamSnapshot[] leaders;
+        private final int from;
+        private final int to;
+
+        GymChallengeTask(TeamSnapshot[] challengers, TeamSnapshot[] leaders, int from, int to) {
+            this.challengers = challengers;
+            this.leaders = leaders;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GymChallenges compute() {
+            if (to - from > CHALLENGERS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                GymChallengeTask left = new GymChallengeTask(challengers, leaders, from, middle);
+                left.fork();
+                GymChallenges right = new GymChallengeTask(challengers, leaders, middle, to).compute();
+                return left.join().add(right);
+            }
+            long[] challengerCounts = new long[leaders.length];
+            long[] winCounts = new long[leaders.length];
+            long[] histogram = new long[leaders.length + 1];
+            long matchups = 0;
+            for (int i = from; i < to; i++) {
+                TeamSnapshot challenger = challengers[i];
+                int beaten = 0;
+                for (int gym = 0; gym < leaders.length; gym++) {
+                    TeamSnapshot leader = leaders[gym];
+                    if (leader == null || leader.getTrainerId().equals(challenger.getTrainerId())) {
+                        continue;
+                    }
+                    challengerCounts[gym]++;
+                    matchups++;
+                    if (challenger.beats(leader)) {
+                        winCounts[gym]++;
+                        beaten++;
+                    }
+                }
+                histogram[beaten]++;
+            }
+            return new GymChallenges(challengerCounts, winCounts, histogram, matchups);
+        }
+    }
+
+    private static final class RoundRobinTask extends RecursiveAction {
+        private final TeamSnapshot[] seeds;
+        private final boolean[][] wins;
+        private final int from;
+        private final int to;
+
+        RoundRobinTask(TeamSnapshot[] seeds, boolean[][] wins, int from, int to) {
+            this.seeds = seeds;
+            this.wins = wins;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RoundRobinTask(seeds, wins, from, middle), new RoundRobinTask(seeds, wins, middle, to));
+                return;
+            }
+            // every task fills its own rows of the matrix
+            for (int challenger = from; challenger < to; challenger++) {
+                for (int defender = 0; defender < seeds.length; defender++) {
+                    wins[challenger][defender] = challenger != defender && seeds[challenger].beats(seeds[defender]);
+                }
+            }
+        }
+    }
+}
@@ -2,23 +2,236 @@ package com.kodemon.service.util;
 
 import com.kodemon.api.dto.*;
 import com.kodemon.persistence.entity.*;
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.FightSummary;
+import com.kodemon.persistence.projection.GymSummary;
+import com.kodemon.persistence.projection.TrainerSummary;
+import ma.glasnost.orika.BoundMapperFacade;
 import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.MappingContextFactory;
 import ma.glasnost.orika.impl.ConfigurableMapper;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.util.*;
+
 /**
  * Custom-configured Orika mapper bean
+ * <p>
+ * Every registered pair of classes gets a dedicated {@link BoundMapperFacade}, so the mapping strategy is not resolved
+ * again on every call. The entity graphs loop ({@code Pokemon.trainer} and {@code Trainer.pokemons}), so their mappers
+ * track the already mapped objects; the flat summaries are registered as acyclic and skip that.
+ * The mappers are generated on the first mapping of each pair, {@link #warmUp()} does that at the context startup.
  *
  * @author <a href="mailto:xseleng@gi.muni.cz">Maros Seleng, 422624</a>
  */
 @Component
 public class OrikaMapper extends ConfigurableMapper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrikaMapper.class);
+
+    private static final List<MappedPair> MAPPED_PAIRS = Arrays.asList(
+            MappedPair.entity(Trainer.class, UserDTO.class),
+            MappedPair.entity(Pokemon.class, PokemonDTO.class),
+            MappedPair.entity(Badge.class, BadgeDTO.class),
+            MappedPair.entity(Gym.class, GymDTO.class),
+            MappedPair.entity(TrainerFight.class, FightDTO.class),
+            MappedPair.projection(TrainerSummary.class, UserSummaryDTO.class),
+            MappedPair.projection(GymSummary.class, GymSummaryDTO.class),
+            MappedPair.projection(FightSummary.class, FightSummaryDTO.class));
+
+    private final MappingContextFactory contextFactory = new MappingContext.Factory();
+    private final Map<Class<?>, DedicatedMapper> dedicatedMappers = new HashMap<>();
+
+    public OrikaMapper() {
+        // initialized here, the super constructor would run before the fields above are set
+        super(false);
+        init();
+        for (MappedPair pair : MAPPED_PAIRS) {
+            BoundMapperFacade<Object, Object> facade = dedicatedMapperFor(pair.a, pair.b, pair.containsCycles);
+            dedicatedMappers.put(pair.b, new DedicatedMapper(pair.a, facade, false, pair.containsCycles));
+            if (!pair.oneWay) {
+                dedicatedMappers.put(pair.a, new DedicatedMapper(pair.b, facade, true, pair.containsCycles));
+            }
+        }
+    }
+
+    @Override
+    protected void configureFactoryBuilder(DefaultMapperFactory.Builder factoryBuilder) {
+        factoryBuilder.mappingContextFactory(contextFactory);
+    }
+
     @Override
     protected void configure(MapperFactory factory) {
-        factory.classMap(Trainer.class, UserDTO.class).byDefault().register();
-        factory.classMap(Pokemon.class, PokemonDTO.class).byDefault().register();
-        factory.classMap(Badge.class, BadgeDTO.class).byDefault().register();
-        factory.classMap(Gym.class, GymDTO.class).byDefault().register();
-        factory.classMap(TrainerFight.class, FightDTO.class).byDefault().register();
+        for (MappedPair pair : MAPPED_PAIRS) {
+            factory.classMap(pair.a, pair.b).byDefault().register();
+        }
+    }
+
+    /**
+     * Maps the source to a new instance of the destination class, with the dedicated mapper if the pair is registered
+     *
+     * @param source           object to map, not null
+     * @param destinationClass class to map to
+     * @return the mapped object
+     */
+    public <D> D mapTo(Object source, Class<D> destinationClass) {
+        DedicatedMapper mapper = dedicatedMappers.get(destinationClass);
+        if (mapper == null || !mapper.sourceClass.isInstance(source)) {
+            return map(source, destinationClass);
+        }
+        return destinationClass.cast(mapper.map(source));
+    }
+
+    /**
+     * Maps the sources to new instances of the destination class, with the dedicated mapper if the pair is registered
+     * <p>
+     * An object referenced from several sources, e.g. the challenger of several fights, is mapped only once.
+     *
+     * @param sources          objects to map
+     * @param destinationClass class to map to
+     * @return the mapped objects, in the order of the sources
+     */
+    public <D> List<D> mapAsListTo(Iterable<?> sources, Class<D> destinationClass) {
+        DedicatedMapper mapper = dedicatedMappers.get(destinationClass);
+        if (mapper == null) {
+            return mapAsList(sources, destinationClass);
+        }
+        List<D> destinations = sources instanceof Collection ? new ArrayList<>(((Collection<?>) sources).size()) : new ArrayList<>();
+        if (!mapper.containsCycles) {
+            for (Object source : sources) {
+                destinations.add(source == null ? null : mapTo(source, destinationClass));
+            }
+            return destinations;
+        }
+        MappingContext context = contextFactory.getContext();
+        try {
+            for (Object source : sources) {
+                if (source == null) {
+                    destinations.add(null);
+                } else if (mapper.sourceClass.isInstance(source)) {
+                    destinations.add(destinationClass.cast(mapper.map(source, context)));
+                } else {
+                    destinations.add(map(source, destinationClass, context));
+                }
+            }
+        } finally {
+            contextFactory.release(context);
+        }
+        return destinations;
+    }
+
+    /**
+     * Generates the mappers of all registered pairs, in each of their directions, by mapping a small graph touching all of them
+     */
+    @PostConstruct
+    public void warmUp() {
+        long start = System.nanoTime();
+        Trainer leader = trainer("leader");
+        Gym gym = new Gym(leader);
+        gym.setCity("City");
+        gym.setBadgeName("Badge");
+        gym.setType(PokemonType.ROCK);
+        Trainer challenger = trainer("challenger");
+        challenger.addBadge(new Badge(gym));
+        TrainerFight fight = new TrainerFight();
+        fight.setChallenger(challenger);
+        fight.setTargetGym(gym);
+        fight.setFightTime(new Date());
+
+        Map<Class<?>, Object> samples = new HashMap<>();
+        samples.put(Trainer.class, challenger);
+        samples.put(Pokemon.class, challenger.getPokemons().get(0));
+        samples.put(Badge.class, challenger.getBadges().iterator().next());
+        samples.put(Gym.class, gym);
+        samples.put(TrainerFight.class, fight);
+        samples.put(TrainerSummary.class, new TrainerSummary(1L, "challenger", "First", "Last", new Date(0)));
+        samples.put(GymSummary.class, new GymSummary(1L, "City", "Badge", PokemonType.ROCK, 1L, "leader"));
+        samples.put(FightSummary.class, new FightSummary(1L, new Date(), 1L, "challenger", "First", 1L, "City", true));
+        for (MappedPair pair : MAPPED_PAIRS) {
+            Object sample = samples.get(pair.a);
+            Object mapped = mapTo(sample, pair.b);
+            mapAsListTo(Collections.singletonList(sample), pair.b);
+            if (!pair.oneWay) {
+                mapTo(mapped, pair.a);
+                mapAsListTo(Collections.singletonList(mapped), pair.a);
+            }
+        }
+        LOG.debug("Generated the mappers of {} class pairs in {} ms.", MAPPED_PAIRS.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static Trainer trainer(String userName) {
+        Trainer trainer = new Trainer();
+        trainer.setUserName(userName);
+        trainer.setFirstName("First");
+        trainer.setLastName("Last");
+        trainer.setDateOfBirth(new Date(0));
+        Pokemon pokemon = new Pokemon(PokemonName.PIKACHU);
+        pokemon.setTrainer(trainer);
+        trainer.addPokemon(pokemon);
+        trainer.addActivePokemon(pokemon);
+        return trainer;
+    }
+
+    /**
+     * Pair of classes with a class map, a and b like in {@link MapperFactory#classMap(Class, Class)}
+     */
+    private static final class MappedPair {
+        private final Class<Object> a;
+        private final Class<Object> b;
+        private final boolean containsCycles;
+        private final boolean oneWay;
+
+        @SuppressWarnings("unchecked")
+        private MappedPair(Class<?> a, Class<?> b, boolean containsCycles, boolean oneWay) {
+            this.a = (Class<Object>) a;
+            this.b = (Class<Object>) b;
+            this.containsCycles = containsCycles;
+            this.oneWay = oneWay;
+        }
+
+        /**
+         * Entity and its DTO, mapped both ways, their graphs may loop
+         */
+        private static MappedPair entity(Class<?> entityClass, Class<?> dtoClass) {
+            return new MappedPair(entityClass, dtoClass, true, false);
+        }
+
+        /**
+         * Immutable projection and its DTO, mapped only to the DTO, neither of them references other mapped classes
+         */
+        private static MappedPair projection(Class<?> projectionClass, Class<?> dtoClass) {
+            return new MappedPair(projectionClass, dtoClass, false, true);
+        }
+    }
+
+    /**
+     * Bound mapper from the source class to the class it is registered under, in one direction of the pair
+     */
+    private static final class DedicatedMapper {
+        private final Class<?> sourceClass;
+        private final BoundMapperFacade<Object, Object> facade;
+        private final boolean reverse;
+        private final boolean containsCycles;
+
+        private DedicatedMapper(Class<?> sourceClass, BoundMapperFacade<Object, Object> facade, boolean reverse, boolean containsCycles) {
+            this.sourceClass = sourceClass;
+            this.facade = facade;
+            this.reverse = reverse;
+            this.containsCycles = containsCycles;
+        }
+
+        private Object map(Object source) {
+            return reverse ? facade.mapReverse(source) : facade.map(source);
+        }
+
+        private Object map(Object source, MappingContext context) {
+            return reverse ? facade.mapReverse(source, context) : facade.map(source, context);
+        }
     }
 }
@@ -0,0 +1,134 @@
+package com.kodemon.service.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Maps large lists in chunks on a dedicated, bounded {@link ForkJoinPool}
+ * <p>
+ * Lists shorter than the threshold are mapped on the calling thread, the handoff to the pool would cost more than it saves.
+ * Longer lists are split into a chunk per pool thread and one more, which the calling thread maps itself before it joins
+ * the rest in order, so the result keeps the order of the sources. The chunks are kept this few as every chunk maps
+ * the objects referenced from several sources, like the challenger of many fights, once again.
+ * The common pool is never used, so the mapping neither competes with parallel streams nor is starved by them.
+ * <p>
+ * Counts how many lists took each path, for the runtime statistics.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class ParallelMapping implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    private final LongAdder sequentialCount = new LongAdder();
+    private final LongAdder parallelCount = new LongAdder();
+    private final LongAdder chunkCount = new LongAdder();
+
+    /**
+     * @param parallelism number of the pool threads, at least 1
+     * @param threshold   smallest list that is split, at least 2
+     */
+    public ParallelMapping(int parallelism, int threshold) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was " + parallelism);
+        }
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be at least 2, was " + threshold);
+        }
+        this.pool = new ForkJoinPool(parallelism, ParallelMapping::newWorker, null, false);
+        this.threshold = threshold;
+    }
+
+    /**
+     * Maps the sources, in chunks on the pool if there are at least as many as the threshold
+     *
+     * @param sources     objects to map
+     * @param beforeSplit called on the calling thread with all the sources, only when they are split
+     * @param chunkMapper maps a chunk of the sources to a list of the same size and order
+     * @return the mapped objects, in the order of the sources
+     */
+    public <S, D> List<D> map(List<S> sources, Consumer<? super List<S>> beforeSplit, Function<? super List<S>, List<D>> chunkMapper) {
+        int size = sources.size();
+        if (size < threshold) {
+            sequentialCount.increment();
+            return chunkMapper.apply(sources);
+        }
+        parallelCount.increment();
+        beforeSplit.accept(sources);
+
+        int chunkSize = Math.max(1, ceilDiv(size, pool.getParallelism() + 1));
+        List<ForkJoinTask<List<D>>> tasks = new ArrayList<>();
+        for (int from = chunkSize; from < size; from += chunkSize) {
+            List<S> chunk = sources.subList(from, Math.min(from + chunkSize, size));
+            tasks.add(pool.submit(() -> chunkMapper.apply(chunk)));
+        }
+        chunkCount.add(tasks.size() + 1);
+
+        List<D> destinations = new ArrayList<>(size);
+        try {
+            destinations.addAll(chunkMapper.apply(sources.subList(0, chunkSize)));
+            for (ForkJoinTask<List<D>> task : tasks) {
+                destinations.addAll(task.join());
+            }
+        } catch (RuntimeException | Error e) {
+            tasks.forEach(task -> task.cancel(false));
+            throw e;
+        }
+        return destinations;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return number of lists mapped on the calling thread, for being shorter than the threshold
+     */
+    public long getSequentialCount() {
+        return sequentialCount.sum();
+    }
+
+    /**
+     * @return number of lists split into chunks
+     */
+    public long getParallelCount() {
+        return parallelCount.sum();
+    }
+
+    /**
+     * @return number of chunks the split lists were mapped in, including those mapped by the calling thread
+     */
+    public long getChunkCount() {
+        return chunkCount.sum();
+    }
+
+    /**
+     * Stops the pool threads, the chunks already submitted are still mapped
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static int ceilDiv(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("kodemon-mapping-" + worker.getPoolIndex());
+        worker.setDaemon(true);
+        return worker;
+    }
+}
@@ -0,0 +1,71 @@
+package com.kodemon.service.util;
+
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.enums.PokemonType;
+
+/**
+ * Immutable table of fight advantage coefficients for every pair of {@link PokemonName}s.
+ * <p>
+ * The table is computed once when the class is initialized and is indexed by {@link PokemonName#ordinal()}.
+ * For each type of the challenger that is stronger than a type of the target there is +0.2 to the coefficient,
+ * for each type of the target that is stronger than a type of the challenger there is -0.2 to the coefficient.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public abstract class PokemonAdvantageTable {
+
+    private static final PokemonName[] NAMES = PokemonName.values();
+    private static final double[] ADVANTAGES = computeAdvantages();
+
+    /**
+     * Returns the advantage coefficient of the challenger against the target.
+     *
+     * @param challenger challenger PokemonName
+     * @param target     target PokemonName
+     * @return coefficient to multiply challenger's level by
+     */
+    public static double advantage(PokemonName challenger, PokemonName target) {
+        return advantage(challenger.ordinal(), target.ordinal());
+    }
+
+    /**
+     * Returns the advantage coefficient of the challenger against the target.
+     *
+     * @param challengerOrdinal {@link PokemonName#ordinal()} of the challenger
+     * @param targetOrdinal     {@link PokemonName#ordinal()} of the target
+     * @return coefficient to multiply challenger's level by
+     */
+    public static double advantage(int challengerOrdinal, int targetOrdinal) {
+        return ADVANTAGES[challengerOrdinal * NAMES.length + targetOrdinal];
+    }
+
+    private static double[] computeAdvantages() {
+        int typeCount = PokemonType.values().length;
+        boolean[][] isWeaker = new boolean[typeCount][typeCount];
+        for (PokemonType type : PokemonType.values()) {
+            for (PokemonType weaker : type.weakerTypes()) {
+                isWeaker[type.ordinal()][weaker.ordinal()] = true;
+            }
+        }
+
+        double[] advantages = new double[NAMES.length * NAMES.length];
+        for (PokemonName challenger : NAMES) {
+            for (PokemonName target : NAMES) {
+                // the order of additions must stay the same to get bit-identical coefficients
+                double advantageCoefficient = 1;
+                for (PokemonType challengerType : challenger.getTypes()) {
+                    for (PokemonType targetType : target.getTypes()) {
+                        if (isWeaker[challengerType.ordinal()][targetType.ordinal()]) {
+                            advantageCoefficient += 0.2;
+                        }
+                        if (isWeaker[targetType.ordinal()][challengerType.ordinal()]) {
+                            advantageCoefficient -= 0.2;
+                        }
+                    }
+                }
+                advantages[challenger.ordinal() * NAMES.length + target.ordinal()] = advantageCoefficient;
+            }
+        }
+        return advantages;
+    }
+}
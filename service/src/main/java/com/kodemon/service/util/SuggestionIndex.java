@@ -0,0 +1,407 @@
+package com.kodemon.service.util;
+
+import com.kodemon.api.enums.SuggestionKind;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory index of the terms suggested while typing, so that a keystroke does not cost a query with a LIKE
+ * <p>
+ * The terms of every {@link SuggestionKind} are kept sorted by their lower case, so the terms starting with a prefix
+ * are one range of the map. A term shared by several entities, as a city of two gyms or a common nickname, is counted
+ * once per entity and dropped once the last of them is gone.
+ * <p>
+ * The short prefixes, up to {@link #TOP_PREFIX_LENGTH} characters, cover the most terms, so each of them keeps its
+ * {@link #TOP_SIZE} most popular terms in order, updated by every change of a term; a suggestion for them copies the
+ * head of the list and costs the same however many terms there are. A term dropping out of a full list may leave a
+ * better one outside of it, the list is then taken again from the range by the next suggestion for the prefix.
+ * The ranges of the longer prefixes are narrow, their most popular terms are picked with a bounded heap.
+ * <p>
+ * The index is kept current by {@link SuggestionIndexing} and rebuilt when the application starts; until then it is
+ * not {@link #isReady() ready} and suggests nothing.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class SuggestionIndex {
+
+    /**
+     * Length of the longest prefix whose most popular terms are kept
+     */
+    public static final int TOP_PREFIX_LENGTH = 3;
+
+    /**
+     * Number of the most popular terms kept per prefix, the largest limit served without scanning the range
+     */
+    public static final int TOP_SIZE = 50;
+
+    private static final Comparator<Suggestion> MOST_POPULAR_FIRST = Comparator
+            .comparingLong(Suggestion::getPopularity).reversed()
+            .thenComparing(suggestion -> normalize(suggestion.getTerm()));
+
+    private final Map<SuggestionKind, ConcurrentNavigableMap<String, Term>> terms = new EnumMap<>(SuggestionKind.class);
+    private final Map<SuggestionKind, ConcurrentMap<String, TopTerms>> tops = new EnumMap<>(SuggestionKind.class);
+    private volatile boolean ready;
+
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder scannedCount = new LongAdder();
+
+    public SuggestionIndex() {
+        for (SuggestionKind kind : SuggestionKind.values()) {
+            terms.put(kind, new ConcurrentSkipListMap<>());
+            tops.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Adds one more entity using the term
+     *
+     * @param kind       kind of the term
+     * @param term       the term, nothing is added for null
+     * @param popularity popularity the entity adds to the term
+     */
+    public void add(SuggestionKind kind, String term, long popularity) {
+        add(kind, term, 1, popularity);
+    }
+
+    /**
+     * Adds the given number of entities using the term, as counted by the rebuild
+     *
+     * @param kind       kind of the term
+     * @param term       the term, nothing is added for null
+     * @param references number of the entities using the term
+     * @param popularity popularity the entities add to the term
+     */
+    public void add(SuggestionKind kind, String term, long references, long popularity) {
+        if (term == null || references <= 0) {
+            return;
+        }
+        Term added = terms.get(kind).compute(normalize(term), (key, existing) -> {
+            Term updated = existing != null ? existing : new Term(key, term);
+            updated.references += references;
+            updated.popularity += popularity;
+            return updated;
+        });
+        changed(kind, added, popularity < 0);
+    }
+
+    /**
+     * Removes one entity using the term, the term is dropped with the last of them
+     *
+     * @param kind       kind of the term
+     * @param term       the term the entity was added with
+     * @param popularity popularity the entity added to the term
+     */
+    public void remove(SuggestionKind kind, String term, long popularity) {
+        if (term == null) {
+            return;
+        }
+        Term[] removed = new Term[1];
+        Term kept = terms.get(kind).computeIfPresent(normalize(term), (key, existing) -> {
+            if (--existing.references <= 0) {
+                removed[0] = existing;
+                return null;
+            }
+            existing.popularity -= popularity;
+            return existing;
+        });
+        if (kept != null) {
+            changed(kind, kept, popularity > 0);
+        } else if (removed[0] != null) {
+            removed(kind, removed[0]);
+        }
+    }
+
+    /**
+     * Moves one entity from the old term to the new one
+     * <p>
+     * The popularity goes with the entity if it was the only one using the old term, otherwise it stays with the old
+     * term, as the share of the entity is not known.
+     *
+     * @param kind    kind of the term
+     * @param oldTerm the term the entity was added with
+     * @param newTerm the term the entity uses now
+     */
+    public void rename(SuggestionKind kind, String oldTerm, String newTerm) {
+        long[] moved = new long[1];
+        if (oldTerm != null) {
+            Term[] removed = new Term[1];
+            terms.get(kind).computeIfPresent(normalize(oldTerm), (key, existing) -> {
+                if (--existing.references <= 0) {
+                    moved[0] = existing.popularity;
+                    removed[0] = existing;
+                    return null;
+                }
+                return existing;
+            });
+            if (removed[0] != null) {
+                removed(kind, removed[0]);
+            }
+        }
+        add(kind, newTerm, moved[0]);
+    }
+
+    /**
+     * Changes the popularity of a term, a term not in the index is left out
+     *
+     * @param kind  kind of the term
+     * @param term  the term
+     * @param delta change of the popularity
+     */
+    public void addPopularity(SuggestionKind kind, String term, long delta) {
+        if (term == null) {
+            return;
+        }
+        Term changed = terms.get(kind).computeIfPresent(normalize(term), (key, existing) -> {
+            existing.popularity += delta;
+            return existing;
+        });
+        if (changed != null) {
+            changed(kind, changed, delta < 0);
+        }
+    }
+
+    /**
+     * Returns the most popular terms starting with the given prefix, ignoring case
+     *
+     * @param prefix prefix of the terms, nothing is suggested for an empty one
+     * @param kind   kind of the terms, null for all the kinds
+     * @param limit  maximal number of the suggestions
+     * @return {@link List} of the {@link Suggestion}s, the most popular first, empty until the index is ready
+     */
+    public List<Suggestion> suggest(String prefix, SuggestionKind kind, int limit) {
+        if (!ready || prefix == null || prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String normalized = normalize(prefix);
+        boolean kept = normalized.length() <= TOP_PREFIX_LENGTH && limit <= TOP_SIZE;
+        List<Suggestion> suggestions = new ArrayList<>();
+        long scanned = 0;
+        for (SuggestionKind suggestedKind : kind != null ? EnumSet.of(kind) : EnumSet.allOf(SuggestionKind.class)) {
+            if (kept) {
+                TopTerms top = tops.get(suggestedKind).get(normalized);
+                if (top != null) {
+                    scanned += top.copyTo(suggestions, suggestedKind, limit);
+                }
+            } else {
+                List<Ranked> best = new ArrayList<>();
+                scanned += scan(suggestedKind, normalized, limit, best);
+                for (Ranked term : best) {
+                    suggestions.add(new Suggestion(suggestedKind, term.term, term.popularity));
+                }
+            }
+        }
+        queryCount.increment();
+        scannedCount.add(scanned);
+        suggestions.sort(MOST_POPULAR_FIRST);
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    /**
+     * Removes all the terms, before the index is rebuilt
+     */
+    public void clear() {
+        ready = false;
+        terms.values().forEach(Map::clear);
+        tops.values().forEach(Map::clear);
+    }
+
+    /**
+     * Marks the index as complete, once it is rebuilt from the database
+     */
+    public void markReady() {
+        ready = true;
+    }
+
+    /**
+     * @return whether the index contains the terms of all the stored entities
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @param kind kind of the terms
+     * @return number of distinct terms of the kind
+     */
+    public int size(SuggestionKind kind) {
+        return terms.get(kind).size();
+    }
+
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    public long getScannedCount() {
+        return scannedCount.sum();
+    }
+
+    /**
+     * Picks the most popular terms of the range of the prefix with a bounded heap
+     *
+     * @return number of the terms in the range
+     */
+    private long scan(SuggestionKind kind, String normalized, int limit, Collection<Ranked> ranked) {
+        PriorityQueue<Ranked> best = new PriorityQueue<>(limit + 1, Ranked.ORDER.reversed());
+        long scanned = 0;
+        for (Map.Entry<String, Term> entry : terms.get(kind).tailMap(normalized).entrySet()) {
+            if (!entry.getKey().startsWith(normalized)) {
+                break;
+            }
+            scanned++;
+            best.add(new Ranked(entry.getValue()));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        ranked.addAll(best);
+        return scanned;
+    }
+
+    /**
+     * Puts the term, whose popularity changed or which was added, in order in the lists of its short prefixes
+     *
+     * @param decreased whether the popularity of the term went down
+     */
+    private void changed(SuggestionKind kind, Term term, boolean decreased) {
+        ConcurrentMap<String, TopTerms> kindTops = tops.get(kind);
+        for (int length = 1; length <= Math.min(TOP_PREFIX_LENGTH, term.key.length()); length++) {
+            kindTops.computeIfAbsent(term.key.substring(0, length), TopTerms::new).changed(term, decreased);
+        }
+    }
+
+    private void removed(SuggestionKind kind, Term term) {
+        ConcurrentMap<String, TopTerms> kindTops = tops.get(kind);
+        for (int length = 1; length <= Math.min(TOP_PREFIX_LENGTH, term.key.length()); length++) {
+            TopTerms top = kindTops.get(term.key.substring(0, length));
+            if (top != null) {
+                top.removed(term);
+            }
+        }
+    }
+
+    private static String normalize(String term) {
+        return term.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A suggested term with its popularity at the time of the query
+     */
+    public static final class Suggestion {
+        private final SuggestionKind kind;
+        private final String term;
+        private final long popularity;
+
+        public Suggestion(SuggestionKind kind, String term, long popularity) {
+            this.kind = kind;
+            this.term = term;
+            this.popularity = popularity;
+        }
+
+        public SuggestionKind getKind() {
+            return kind;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public long getPopularity() {
+            return popularity;
+        }
+    }
+
+    /**
+     * A term as first added, changed only inside the compute of its key
+     */
+    private static final class Term {
+        private final String key;
+        private final String term;
+        private volatile long references;
+        private volatile long popularity;
+
+        Term(String key, String term) {
+            this.key = key;
+            this.term = term;
+        }
+    }
+
+    /**
+     * A term with its popularity at the time it was ranked
+     */
+    private static final class Ranked {
+        private static final Comparator<Ranked> ORDER = Comparator
+                .comparingLong((Ranked ranked) -> ranked.popularity).reversed()
+                .thenComparing(ranked -> ranked.key);
+
+        private final String key;
+        private final String term;
+        private final long popularity;
+
+        Ranked(Term term) {
+            this.key = term.key;
+            this.term = term.term;
+            this.popularity = term.popularity;
+        }
+    }
+
+    /**
+     * The most popular terms starting with one short prefix, the most popular first
+     * <p>
+     * While the list is not full, it holds every term of the prefix. Once a term of a full list goes down or is
+     * removed, a term outside of the list may beat it, so the list is marked stale and taken again from the range.
+     */
+    private final class TopTerms {
+        private final String prefix;
+        private final List<Ranked> ranked = new ArrayList<>();
+        private boolean stale;
+
+        TopTerms(String prefix) {
+            this.prefix = prefix;
+        }
+
+        synchronized void changed(Term term, boolean decreased) {
+            boolean full = ranked.size() >= TOP_SIZE;
+            boolean listed = ranked.removeIf(listedTerm -> listedTerm.key.equals(term.key));
+            if (listed && decreased && full) {
+                stale = true;
+            }
+            Ranked changed = new Ranked(term);
+            int position = Collections.binarySearch(ranked, changed, Ranked.ORDER);
+            ranked.add(position < 0 ? -position - 1 : position, changed);
+            if (ranked.size() > TOP_SIZE) {
+                ranked.remove(TOP_SIZE);
+            }
+        }
+
+        synchronized void removed(Term term) {
+            boolean full = ranked.size() >= TOP_SIZE;
+            if (ranked.removeIf(listedTerm -> listedTerm.key.equals(term.key)) && full) {
+                stale = true;
+            }
+        }
+
+        /**
+         * Adds the head of the list to the suggestions, taking the list again from the range first if it is stale
+         *
+         * @return number of the terms scanned to take the list again
+         */
+        synchronized long copyTo(List<Suggestion> suggestions, SuggestionKind kind, int limit) {
+            long scanned = 0;
+            if (stale) {
+                ranked.clear();
+                scanned = scan(kind, prefix, TOP_SIZE, ranked);
+                ranked.sort(Ranked.ORDER);
+                stale = false;
+            }
+            for (Ranked term : ranked.subList(0, Math.min(limit, ranked.size()))) {
+                suggestions.add(new Suggestion(kind, term.term, term.popularity));
+            }
+            return scanned;
+        }
+    }
+}
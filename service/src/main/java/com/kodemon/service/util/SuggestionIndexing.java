@@ -0,0 +1,169 @@
+package com.kodemon.service.util;
+
+import com.kodemon.api.enums.SuggestionKind;
+import com.kodemon.persistence.entity.*;
+import org.hibernate.Hibernate;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+
+/**
+ * Keeps the {@link SuggestionIndex} current with the trainers, gyms, badges, Pokemons and fights Hibernate writes
+ * <p>
+ * A trainer is as popular as the number of fights the trainer challenged a gym in, the city of a gym as the number of
+ * fights fought in the gym, a badge name as the number of badges awarded and a nickname as the number of Pokemons
+ * having it. The changes are applied to the index once their transaction commits, and only once the index is ready:
+ * the writes committed before are read by its rebuild.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class SuggestionIndexing extends EntityWriteListener {
+
+    private final SuggestionIndex index;
+
+    private SuggestionIndexing(SuggestionIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Registers the indexing of the suggested terms with the session factory
+     *
+     * @param entityManagerFactory factory whose writes are indexed
+     * @param index                index to keep current
+     */
+    public static void register(EntityManagerFactory entityManagerFactory, SuggestionIndex index) {
+        new SuggestionIndexing(index).appendTo(entityManagerFactory);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Trainer) {
+            String userName = ((Trainer) entity).getUserName();
+            whenReady(() -> index.add(SuggestionKind.TRAINER, userName, 0));
+        } else if (entity instanceof Gym) {
+            Gym gym = (Gym) entity;
+            String city = gym.getCity();
+            String badgeName = gym.getBadgeName();
+            whenReady(() -> {
+                index.add(SuggestionKind.GYM, city, 0);
+                index.add(SuggestionKind.BADGE, badgeName, 0);
+            });
+        } else if (entity instanceof Badge) {
+            String name = ((Badge) entity).getName();
+            whenReady(() -> index.addPopularity(SuggestionKind.BADGE, name, 1));
+        } else if (entity instanceof Pokemon) {
+            String nickname = ((Pokemon) entity).getNickname();
+            whenReady(() -> index.add(SuggestionKind.NICKNAME, nickname, 1));
+        } else if (entity instanceof TrainerFight) {
+            fought((TrainerFight) entity, 1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        EntityPersister persister = event.getPersister();
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // the previous terms are not known, adding the current ones again would count the entity twice
+            return;
+        }
+        if (entity instanceof Trainer) {
+            renamed(SuggestionKind.TRAINER, value(persister, oldState, "userName"), ((Trainer) entity).getUserName());
+        } else if (entity instanceof Gym) {
+            Gym gym = (Gym) entity;
+            renamed(SuggestionKind.GYM, value(persister, oldState, "city"), gym.getCity());
+            renamed(SuggestionKind.BADGE, value(persister, oldState, "badgeName"), gym.getBadgeName());
+        } else if (entity instanceof Badge) {
+            String oldName = value(persister, oldState, "name");
+            String name = ((Badge) entity).getName();
+            if (!Objects.equals(oldName, name)) {
+                whenReady(() -> {
+                    index.addPopularity(SuggestionKind.BADGE, oldName, -1);
+                    index.addPopularity(SuggestionKind.BADGE, name, 1);
+                });
+            }
+        } else if (entity instanceof Pokemon) {
+            String oldNickname = value(persister, oldState, "nickname");
+            String nickname = ((Pokemon) entity).getNickname();
+            if (!Objects.equals(oldNickname, nickname)) {
+                whenReady(() -> {
+                    index.remove(SuggestionKind.NICKNAME, oldNickname, 1);
+                    index.add(SuggestionKind.NICKNAME, nickname, 1);
+                });
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        EntityPersister persister = event.getPersister();
+        Object[] state = event.getDeletedState();
+        if (entity instanceof Trainer) {
+            String userName = valueOr(persister, state, "userName", ((Trainer) entity).getUserName());
+            whenReady(() -> index.remove(SuggestionKind.TRAINER, userName, 0));
+        } else if (entity instanceof Gym) {
+            Gym gym = (Gym) entity;
+            String city = valueOr(persister, state, "city", gym.getCity());
+            String badgeName = valueOr(persister, state, "badgeName", gym.getBadgeName());
+            whenReady(() -> {
+                index.remove(SuggestionKind.GYM, city, 0);
+                index.remove(SuggestionKind.BADGE, badgeName, 0);
+            });
+        } else if (entity instanceof Badge) {
+            String name = valueOr(persister, state, "name", ((Badge) entity).getName());
+            whenReady(() -> index.addPopularity(SuggestionKind.BADGE, name, -1));
+        } else if (entity instanceof Pokemon) {
+            String nickname = valueOr(persister, state, "nickname", ((Pokemon) entity).getNickname());
+            whenReady(() -> index.remove(SuggestionKind.NICKNAME, nickname, 1));
+        } else if (entity instanceof TrainerFight) {
+            fought((TrainerFight) entity, -1);
+        }
+    }
+
+    @Override
+    void written(Object entity) {
+        // the collections do not hold any suggested term
+    }
+
+    private void fought(TrainerFight fight, long delta) {
+        Trainer challenger = fight.getChallenger();
+        Gym gym = fight.getTargetGym();
+        // an uninitialized proxy is not loaded just to count the fight
+        String userName = challenger != null && Hibernate.isInitialized(challenger) ? challenger.getUserName() : null;
+        String city = gym != null && Hibernate.isInitialized(gym) ? gym.getCity() : null;
+        whenReady(() -> {
+            index.addPopularity(SuggestionKind.TRAINER, userName, delta);
+            index.addPopularity(SuggestionKind.GYM, city, delta);
+        });
+    }
+
+    private void renamed(SuggestionKind kind, String oldTerm, String term) {
+        if (!Objects.equals(oldTerm, term)) {
+            whenReady(() -> index.rename(kind, oldTerm, term));
+        }
+    }
+
+    private void whenReady(Runnable change) {
+        afterCommit(() -> {
+            if (index.isReady()) {
+                change.run();
+            }
+        });
+    }
+
+    private static String valueOr(EntityPersister persister, Object[] state, String property, String current) {
+        String value = value(persister, state, property);
+        return value != null ? value : current;
+    }
+
+    private static String value(EntityPersister persister, Object[] state, String property) {
+        return state == null ? null : (String) state[persister.getEntityMetamodel().getPropertyIndex(property)];
+    }
+}
@@ -0,0 +1,278 @@
+package com.kodemon.service.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.kodemon.persistence.util.Constants.MAX_ACTIVE_POKEMON;
+
+/**
+ * Picks the active team, up to {@link com.kodemon.persistence.util.Constants#MAX_ACTIVE_POKEMON} Pokemons in order, that
+ * beats a gym leader by the widest margin
+ * <p>
+ * By the rules of {@link TeamSnapshot#margin(TeamSnapshot)} the leader's score is the sum of the levels of the leader's
+ * team whatever the challenger picks, and every slot of the challenger adds on its own: the level times the advantage
+ * against the leader's Pokemon in the same slot, or just the level past the leader's team. So only the best
+ * {@code MAX_ACTIVE_POKEMON} Pokemons of every slot can ever be picked for it: a worse one is replaced by one of them
+ * that no other slot uses. The ordered selections of these candidates are searched depth first, slot by slot, and a
+ * branch is pruned as soon as the best candidate of every remaining slot would not make up for the best selection
+ * found so far.
+ * <p>
+ * With many Pokemons the branches of the first slot are searched in parallel on its own fork-join pool, sharing the
+ * best margin found so far.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TeamOptimizer implements AutoCloseable {
+
+    /**
+     * Number of the Pokemons from which the first slot is searched in parallel, fewer are searched on the calling thread
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    /**
+     * Factor widening the upper bound of a branch by far more than the rounding error of six additions
+     */
+    private static final double BOUND_SLACK = 1 + 1e-9;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism number of the worker threads
+     */
+    public TeamOptimizer(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism, TeamOptimizer::newWorker, null, false);
+    }
+
+    /**
+     * Finds the ordered selection of the Pokemons with the widest margin against the defender
+     *
+     * @param species  {@link com.kodemon.persistence.enums.PokemonName#ordinal()}s of all the Pokemons of the challenger
+     * @param levels   levels of the Pokemons, in the same order
+     * @param defender team of the gym leader
+     * @return the best team, as positions in the given arrays
+     */
+    public Team optimize(int[] species, int[] levels, TeamSnapshot defender) {
+        if (species.length != levels.length) {
+            throw new IllegalArgumentException("Every Pokemon needs a level");
+        }
+        if (species.length == 0) {
+            return new Team(new int[0], new TeamSnapshot(null, null, species, levels).margin(defender));
+        }
+        Search search = new Search(species, levels, defender);
+        List<Branch> branches = new ArrayList<>();
+        for (int rank = 0; rank < search.candidates[0].length; rank++) {
+            branches.add(new Branch(search, search.candidates[0][rank]));
+        }
+        if (species.length > PARALLEL_THRESHOLD) {
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    ForkJoinTask.invokeAll(branches);
+                    return null;
+                }
+            });
+        } else {
+            branches.forEach(Branch::compute);
+        }
+
+        // the first of the best branches wins a tie, whichever finished first
+        int[] best = new int[0];
+        double bestScore = -1;
+        for (Branch branch : branches) {
+            int[] selection = branch.getRawResult();
+            if (selection != null && branch.bestScore > bestScore) {
+                best = selection;
+                bestScore = branch.bestScore;
+            }
+        }
+        int[] bestSpecies = new int[best.length];
+        int[] bestLevels = new int[best.length];
+        for (int slot = 0; slot < best.length; slot++) {
+            bestSpecies[slot] = species[best[slot]];
+            bestLevels[slot] = levels[best[slot]];
+        }
+        // scored again by the fight rules, so that the margin is exactly the one of the fight
+        double margin = new TeamSnapshot(null, null, bestSpecies, bestLevels).margin(defender);
+        return new Team(best, margin);
+    }
+
+    /**
+     * @return number of the worker threads
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stops the worker threads, called when the context is closed
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("kodemon-team-optimizer-" + worker.getPoolIndex());
+        worker.setDaemon(true);
+        return worker;
+    }
+
+    /**
+     * The best team found, as positions in the Pokemons of the challenger
+     */
+    public static final class Team {
+        private final int[] indices;
+        private final double margin;
+
+        Team(int[] indices, double margin) {
+            this.indices = indices;
+            this.margin = margin;
+        }
+
+        /**
+         * @return positions of the picked Pokemons in the order of the slots
+         */
+        public List<Integer> getIndices() {
+            List<Integer> list = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                list.add(index);
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        /**
+         * @return the challenger's score minus the defender's
+         */
+        public double getMargin() {
+            return margin;
+        }
+
+        /**
+         * @return whether the team wins the badge
+         */
+        public boolean isWinning() {
+            return margin > 0;
+        }
+    }
+
+    /**
+     * Values and candidates of every slot, shared by the branches of one search
+     */
+    private static final class Search {
+        private final int slots;
+        private final double[][] values;
+        private final int[][] candidates;
+        private final double[] bestRemaining;
+        /**
+         * Bits of the best score found by any branch; the scores are not negative, so their bits are ordered as they are
+         */
+        private final AtomicLong bestScoreBits = new AtomicLong(Double.doubleToLongBits(0));
+
+        Search(int[] species, int[] levels, TeamSnapshot defender) {
+            slots = Math.min(species.length, MAX_ACTIVE_POKEMON);
+            values = new double[slots][species.length];
+            candidates = new int[slots][];
+            for (int slot = 0; slot < slots; slot++) {
+                for (int pokemon = 0; pokemon < species.length; pokemon++) {
+                    values[slot][pokemon] = slot < defender.size()
+                            ? levels[pokemon] * PokemonAdvantageTable.advantage(species[pokemon], defender.getSpecies(slot))
+                            : levels[pokemon];
+                }
+                candidates[slot] = best(values[slot], slots);
+            }
+            bestRemaining = new double[slots + 1];
+            for (int slot = slots - 1; slot >= 0; slot--) {
+                bestRemaining[slot] = bestRemaining[slot + 1] + values[slot][candidates[slot][0]];
+            }
+        }
+
+        /**
+         * Returns the positions of the highest values, the highest first and the lower position first among equal ones
+         */
+        private static int[] best(double[] values, int count) {
+            int[] best = new int[count];
+            int size = 0;
+            for (int pokemon = 0; pokemon < values.length; pokemon++) {
+                if (size == count && values[best[count - 1]] >= values[pokemon]) {
+                    continue;
+                }
+                int at = size < count ? size++ : count - 1;
+                while (at > 0 && values[best[at - 1]] < values[pokemon]) {
+                    best[at] = best[at - 1];
+                    at--;
+                }
+                best[at] = pokemon;
+            }
+            return best;
+        }
+
+        double bestScore() {
+            return Double.longBitsToDouble(bestScoreBits.get());
+        }
+
+        void offer(double score) {
+            long bits = Double.doubleToLongBits(score);
+            bestScoreBits.accumulateAndGet(bits, Math::max);
+        }
+    }
+
+    /**
+     * The selections starting with one candidate of the first slot
+     */
+    private static final class Branch extends RecursiveTask<int[]> {
+        private final Search search;
+        private final int[] selection;
+        private int[] best;
+        private double bestScore = -1;
+
+        Branch(Search search, int first) {
+            this.search = search;
+            this.selection = new int[search.slots];
+            this.selection[0] = first;
+        }
+
+        @Override
+        protected int[] compute() {
+            search(1, search.values[0][selection[0]]);
+            setRawResult(best);
+            return best;
+        }
+
+        private void search(int slot, double score) {
+            if (slot == search.slots) {
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = selection.clone();
+                    search.offer(score);
+                }
+                return;
+            }
+            // the bound is summed in another order than the score, the slack keeps the rounding from pruning a tie
+            if ((score + search.bestRemaining[slot]) * BOUND_SLACK < search.bestScore()) {
+                return;
+            }
+            for (int pokemon : search.candidates[slot]) {
+                if (!isPicked(pokemon, slot)) {
+                    selection[slot] = pokemon;
+                    search(slot + 1, score + search.values[slot][pokemon]);
+                }
+            }
+        }
+
+        private boolean isPicked(int pokemon, int slots) {
+            for (int slot = 0; slot < slots; slot++) {
+                if (selection[slot] == pokemon) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
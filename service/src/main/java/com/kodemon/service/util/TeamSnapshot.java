@@ -0,0 +1,156 @@
+package com.kodemon.service.util;
+
+import com.kodemon.persistence.entity.Pokemon;
+import com.kodemon.persistence.entity.Trainer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.kodemon.persistence.util.Constants.MAX_ACTIVE_POKEMON;
+
+/**
+ * Immutable copy of a trainer's active team, the species and levels of the Pokemons in primitive arrays
+ * <p>
+ * A fight between two snapshots is scored by the same rules as
+ * {@link com.kodemon.service.interfaces.TrainerFightService#wasFightForBadgeSuccessful(Trainer, Trainer)}, in the same
+ * order of additions, so that the result is the same to the last bit, without touching an entity.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public final class TeamSnapshot {
+
+    private final Long trainerId;
+    private final String userName;
+    private final int[] species;
+    private final int[] levels;
+
+    /**
+     * @param trainerId id of the trainer
+     * @param userName  username of the trainer
+     * @param species   {@link com.kodemon.persistence.enums.PokemonName#ordinal()}s of the active Pokemons, in order
+     * @param levels    levels of the active Pokemons, in the same order
+     */
+    public TeamSnapshot(Long trainerId, String userName, int[] species, int[] levels) {
+        if (species.length != levels.length || species.length > MAX_ACTIVE_POKEMON) {
+            throw new IllegalArgumentException("A team has up to " + MAX_ACTIVE_POKEMON + " Pokemons, each with a level");
+        }
+        this.trainerId = trainerId;
+        this.userName = userName;
+        this.species = species.clone();
+        this.levels = levels.clone();
+    }
+
+    /**
+     * Takes the snapshot of the trainer's active team, the first {@link com.kodemon.persistence.util.Constants#MAX_ACTIVE_POKEMON}
+     * active Pokemons are the ones that fight
+     *
+     * @param trainer trainer with the active Pokemons loaded
+     * @return the snapshot
+     */
+    public static TeamSnapshot of(Trainer trainer) {
+        List<Pokemon> active = trainer.getActivePokemons();
+        int size = Math.min(active.size(), MAX_ACTIVE_POKEMON);
+        int[] species = new int[size];
+        int[] levels = new int[size];
+        for (int i = 0; i < size; i++) {
+            species[i] = active.get(i).getName().ordinal();
+            levels[i] = active.get(i).getLevel();
+        }
+        return new TeamSnapshot(trainer.getId(), trainer.getUserName(), species, levels);
+    }
+
+    /**
+     * Returns whether this team, as the challenger, wins the badge from the defender
+     *
+     * @param defender team of the gym leader
+     * @return true if the challenger's score is greater than the defender's
+     */
+    public boolean beats(TeamSnapshot defender) {
+        return margin(defender) > 0;
+    }
+
+    /**
+     * Returns how much the score of this team, as the challenger, exceeds the score of the defender
+     *
+     * @param defender team of the gym leader
+     * @return the challenger's score minus the defender's, positive if the challenger wins
+     */
+    public double margin(TeamSnapshot defender) {
+        double challengerScore = 0;
+        double defenderScore = 0;
+        for (int i = 0; i < MAX_ACTIVE_POKEMON; i++) {
+            boolean challengerHasPokemon = species.length > i;
+            boolean defenderHasPokemon = defender.species.length > i;
+            if (challengerHasPokemon && defenderHasPokemon) {
+                challengerScore += levels[i] * PokemonAdvantageTable.advantage(species[i], defender.species[i]);
+                defenderScore += defender.levels[i];
+            } else if (defenderHasPokemon) {
+                defenderScore += defender.levels[i];
+            } else if (challengerHasPokemon) {
+                challengerScore += levels[i];
+            }
+        }
+        return challengerScore - defenderScore;
+    }
+
+    public Long getTrainerId() {
+        return trainerId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    /**
+     * @return number of the Pokemons in the team
+     */
+    public int size() {
+        return species.length;
+    }
+
+    /**
+     * @param slot position in the team
+     * @return {@link com.kodemon.persistence.enums.PokemonName#ordinal()} of the Pokemon in the slot
+     */
+    public int getSpecies(int slot) {
+        return species[slot];
+    }
+
+    /**
+     * @param slot position in the team
+     * @return level of the Pokemon in the slot
+     */
+    public int getLevel(int slot) {
+        return levels[slot];
+    }
+
+    /**
+     * @return sum of the levels of the team, the strength the tournaments are seeded by
+     */
+    public int getLevelSum() {
+        int sum = 0;
+        for (int level : levels) {
+            sum += level;
+        }
+        return sum;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TeamSnapshot that = (TeamSnapshot) o;
+
+        if (trainerId != null ? !trainerId.equals(that.trainerId) : that.trainerId != null) return false;
+        return Arrays.equals(species, that.species) && Arrays.equals(levels, that.levels);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = trainerId != null ? trainerId.hashCode() : 0;
+        result = 31 * result + Arrays.hashCode(species);
+        result = 31 * result + Arrays.hashCode(levels);
+        return result;
+    }
+}
@@ -0,0 +1,155 @@
+package com.kodemon.service.util;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache of the {@link TeamSnapshot}s the fights for badges are evaluated with, keyed by the id of the trainer
+ * <p>
+ * Every snapshot is stamped with the {@link TrainerVersions version} of its trainer read before it was loaded, and it
+ * is served only while the version stays the same: adding, training or catching a Pokemon, reordering the active team
+ * and winning a badge all advance it. A snapshot loaded while the trainer was being written is stamped with the version
+ * from before the write, so it is loaded again on the next fight.
+ * <p>
+ * The gym leaders are met by every challenger, so their teams are kept apart and never evicted. The challengers' teams
+ * are kept up to the given number of trainers, past which an arbitrary one is dropped for every new one.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TeamSnapshotCache {
+
+    /**
+     * Name the cache is reported under among the second-level cache regions
+     */
+    public static final String REGION_NAME = "team-snapshots";
+
+    private final TrainerVersions versions;
+    private final int capacity;
+
+    private final ConcurrentMap<Long, Entry> challengers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Entry> leaders = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param versions versions of the trainers the snapshots are stamped with
+     * @param capacity number of the challengers whose teams are kept
+     */
+    public TeamSnapshotCache(TrainerVersions versions, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The cache has to keep at least one team, not " + capacity);
+        }
+        this.versions = versions;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the current team of a challenger, loading it on a miss
+     *
+     * @param trainerId id of the challenger
+     * @param loader    takes the snapshot of the trainer with the given id, returns null if there is none
+     * @return the snapshot; null if there is no such trainer
+     */
+    public TeamSnapshot getChallengerTeam(Long trainerId, Function<Long, TeamSnapshot> loader) {
+        TeamSnapshot team = get(challengers, trainerId, loader);
+        if (challengers.size() > capacity) {
+            evictOtherThan(trainerId);
+        }
+        return team;
+    }
+
+    /**
+     * Returns the current team of a gym leader, loading it on a miss; the leaders' teams are never evicted
+     *
+     * @param trainerId id of the gym leader
+     * @param loader    takes the snapshot of the trainer with the given id, returns null if there is none
+     * @return the snapshot; null if there is no such trainer
+     */
+    public TeamSnapshot getLeaderTeam(Long trainerId, Function<Long, TeamSnapshot> loader) {
+        return get(leaders, trainerId, loader);
+    }
+
+    /**
+     * Drops all the snapshots
+     */
+    public void clear() {
+        challengers.clear();
+        leaders.clear();
+    }
+
+    /**
+     * @return number of the teams cached now, the leaders' included
+     */
+    public int size() {
+        return challengers.size() + leaders.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getPutCount() {
+        return putCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private TeamSnapshot get(ConcurrentMap<Long, Entry> entries, Long trainerId, Function<Long, TeamSnapshot> loader) {
+        long version = versions.getVersion(trainerId);
+        Entry entry = entries.get(trainerId);
+        if (entry != null && entry.version == version) {
+            hitCount.increment();
+            return entry.team;
+        }
+        missCount.increment();
+        TeamSnapshot team = loader.apply(trainerId);
+        if (team == null) {
+            entries.remove(trainerId);
+            return null;
+        }
+        // a newer snapshot put by another thread meanwhile is not replaced by an older one
+        entries.merge(trainerId, new Entry(version, team),
+                (existing, loaded) -> existing.version > loaded.version ? existing : loaded);
+        putCount.increment();
+        return team;
+    }
+
+    private void evictOtherThan(Long trainerId) {
+        Iterator<Long> ids = challengers.keySet().iterator();
+        while (challengers.size() > capacity && ids.hasNext()) {
+            if (!ids.next().equals(trainerId)) {
+                ids.remove();
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * A snapshot with the version of the trainer it was taken at
+     */
+    private static final class Entry {
+        private final long version;
+        private final TeamSnapshot team;
+
+        Entry(long version, TeamSnapshot team) {
+            this.version = version;
+            this.team = team;
+        }
+    }
+}
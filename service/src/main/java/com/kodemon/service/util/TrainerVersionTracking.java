@@ -0,0 +1,55 @@
+package com.kodemon.service.util;
+
+import com.kodemon.persistence.entity.Pokemon;
+import com.kodemon.persistence.entity.Trainer;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Advances the {@link TrainerVersions} of the trainers Hibernate writes
+ * <p>
+ * A trainer is written with the trainer's own row, the badges and the active Pokemons collections, and with any Pokemon
+ * the trainer owns: catching, training or releasing a Pokemon changes the trainer as well. The version is advanced when
+ * the write is flushed and once more when its transaction completes, so that a snapshot taken by another thread
+ * in between, before the write was committed, is not taken for current.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TrainerVersionTracking extends EntityWriteListener {
+
+    private final TrainerVersions versions;
+
+    private TrainerVersionTracking(TrainerVersions versions) {
+        this.versions = versions;
+    }
+
+    /**
+     * Registers the tracking of the versions with the session factory
+     *
+     * @param entityManagerFactory factory whose writes advance the versions
+     * @param versions             versions to advance
+     */
+    public static void register(EntityManagerFactory entityManagerFactory, TrainerVersions versions) {
+        new TrainerVersionTracking(versions).appendTo(entityManagerFactory);
+    }
+
+    @Override
+    void written(Object entity) {
+        Long trainerId = trainerIdOf(entity);
+        if (trainerId == null) {
+            return;
+        }
+        versions.advance(trainerId);
+        afterCompletion(() -> versions.advance(trainerId));
+    }
+
+    private static Long trainerIdOf(Object entity) {
+        if (entity instanceof Trainer) {
+            return ((Trainer) entity).getId();
+        }
+        if (entity instanceof Pokemon && ((Pokemon) entity).getTrainer() != null) {
+            return ((Pokemon) entity).getTrainer().getId();
+        }
+        return null;
+    }
+}
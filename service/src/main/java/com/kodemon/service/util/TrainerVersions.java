@@ -0,0 +1,108 @@
+package com.kodemon.service.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Version of every trainer, advanced whenever the trainer, the trainer's Pokemons or badges are written
+ * <p>
+ * A snapshot of a trainer taken at some version is current for as long as the version stays the same, so the web
+ * session keeps the logged in trainer without looking the trainer up on every request. The versions are kept
+ * in memory: a trainer nobody has written since the start has the version 0, and writes done by another application
+ * sharing the database are not seen. The versions are advanced by {@link TrainerVersionTracking}.
+ * <p>
+ * The versions are kept in a fixed number of stripes indexed by the hash of the id, so the memory does not grow with
+ * the trainers written. Trainers sharing a stripe share the version: a write to one of them makes the snapshots of the
+ * others be taken again, which costs a reload but never serves a stale snapshot.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TrainerVersions {
+
+    /**
+     * Number of stripes used by default
+     */
+    public static final int DEFAULT_STRIPES = 4096;
+
+    private final AtomicLongArray versions;
+    private final int mask;
+
+    private final LongAdder snapshotHitCount = new LongAdder();
+    private final LongAdder snapshotReloadCount = new LongAdder();
+
+    public TrainerVersions() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripes number of the versions kept, a power of two
+     */
+    public TrainerVersions(int stripes) {
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("The number of stripes has to be a power of two, not " + stripes);
+        }
+        this.versions = new AtomicLongArray(stripes);
+        this.mask = stripes - 1;
+    }
+
+    /**
+     * @param trainerId id of the trainer
+     * @return current version of the trainer
+     */
+    public long getVersion(Long trainerId) {
+        return versions.get(stripe(trainerId));
+    }
+
+    /**
+     * Advances the version of the trainer, the snapshots taken before are not current any more
+     *
+     * @param trainerId id of the written trainer
+     */
+    public void advance(Long trainerId) {
+        versions.incrementAndGet(stripe(trainerId));
+    }
+
+    /**
+     * Counts a snapshot found to be still current
+     */
+    public void snapshotHit() {
+        snapshotHitCount.increment();
+    }
+
+    /**
+     * Counts a snapshot taken anew, because there was none or the trainer has changed since
+     */
+    public void snapshotReloaded() {
+        snapshotReloadCount.increment();
+    }
+
+    /**
+     * @return number of stripes written since the start, at most {@link #getStripes()}
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < versions.length(); i++) {
+            if (versions.get(i) != 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public int getStripes() {
+        return versions.length();
+    }
+
+    public long getSnapshotHitCount() {
+        return snapshotHitCount.sum();
+    }
+
+    public long getSnapshotReloadCount() {
+        return snapshotReloadCount.sum();
+    }
+
+    private int stripe(Long trainerId) {
+        int hash = trainerId.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
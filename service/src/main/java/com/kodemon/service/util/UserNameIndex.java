@@ -0,0 +1,240 @@
+package com.kodemon.service.util;
+
+import com.kodemon.persistence.entity.Trainer;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index of the trainers' usernames, for the substring search no B-tree index of the database can serve
+ * <p>
+ * Every username is split into its overlapping three-character grams, in the lower case of
+ * {@link Trainer#normalizeUserName(String)}, and every gram keeps the sorted ids of the trainers whose username contains it.
+ * A substring of at least three characters is looked up by intersecting the ids of its grams, a shorter one by joining
+ * the ids of all the grams containing it.
+ * <p>
+ * The ids returned are candidates only: the grams of a substring may all be found in a username without being adjacent,
+ * and a username changed outside of Hibernate leaves its old grams behind. The trainers have to be checked against
+ * the substring once loaded. The index is kept current by {@link UserNameIndexing} and rebuilt when the application
+ * starts; until then it is not {@link #isReady() ready} and the search goes to the database.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class UserNameIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final long[] NO_IDS = new long[0];
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder candidateCount = new LongAdder();
+
+    /**
+     * Adds the username of the trainer, adding it again does nothing
+     *
+     * @param id       id of the trainer
+     * @param userName username of the trainer
+     */
+    public void add(Long id, String userName) {
+        long[] grams = grams(Trainer.normalizeUserName(userName));
+        lock.writeLock().lock();
+        try {
+            for (long gram : grams) {
+                postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the username of the trainer
+     *
+     * @param id       id of the trainer
+     * @param userName the username the trainer was added with
+     */
+    public void remove(Long id, String userName) {
+        long[] grams = grams(Trainer.normalizeUserName(userName));
+        lock.writeLock().lock();
+        try {
+            for (long gram : grams) {
+                Postings ids = postings.get(gram);
+                if (ids != null && ids.remove(id) && ids.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the trainers whose username may contain the given string, ignoring case
+     *
+     * @param string string the username should contain
+     * @return ids of the candidates in ascending order, a superset of the matching trainers
+     */
+    public long[] candidates(String string) {
+        String normalized = Trainer.normalizeUserName(string);
+        long[] candidates;
+        lock.readLock().lock();
+        try {
+            candidates = normalized.length() >= GRAM_LENGTH ? intersection(normalized) : union(normalized);
+        } finally {
+            lock.readLock().unlock();
+        }
+        queryCount.increment();
+        candidateCount.add(candidates.length);
+        return candidates;
+    }
+
+    /**
+     * Marks the index as complete, once it is rebuilt from the database
+     */
+    public void markReady() {
+        ready = true;
+    }
+
+    /**
+     * @return whether the index contains all the stored trainers
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return number of distinct grams indexed
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    public long getCandidateCount() {
+        return candidateCount.sum();
+    }
+
+    private long[] intersection(String normalized) {
+        long[] grams = grams(normalized);
+        List<Postings> lists = new ArrayList<>(grams.length);
+        for (long gram : grams) {
+            Postings ids = postings.get(gram);
+            if (ids == null) {
+                return NO_IDS;
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.size));
+        Postings smallest = lists.get(0);
+        long[] result = new long[smallest.size];
+        int size = 0;
+        next:
+        for (int i = 0; i < smallest.size; i++) {
+            long id = smallest.ids[i];
+            for (int list = 1; list < lists.size(); list++) {
+                if (!lists.get(list).contains(id)) {
+                    continue next;
+                }
+            }
+            result[size++] = id;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private long[] union(String normalized) {
+        long[] result = NO_IDS;
+        int size = 0;
+        for (Map.Entry<Long, Postings> entry : postings.entrySet()) {
+            if (!gramString(entry.getKey()).contains(normalized)) {
+                continue;
+            }
+            Postings ids = entry.getValue();
+            if (size + ids.size > result.length) {
+                result = Arrays.copyOf(result, Math.max(size + ids.size, result.length * 2));
+            }
+            System.arraycopy(ids.ids, 0, result, size, ids.size);
+            size += ids.size;
+        }
+        Arrays.sort(result, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || result[distinct - 1] != result[i]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    private static long[] grams(String normalized) {
+        if (normalized == null || normalized.length() < GRAM_LENGTH) {
+            return NO_IDS;
+        }
+        long[] grams = new long[normalized.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) normalized.charAt(i) << 32) | ((long) normalized.charAt(i + 1) << 16) | normalized.charAt(i + 2);
+        }
+        return grams;
+    }
+
+    private static String gramString(long gram) {
+        return new String(new char[]{(char) (gram >>> 32), (char) (gram >>> 16), (char) gram});
+    }
+
+    /**
+     * Sorted ids of the trainers containing one gram; the ids mostly come in ascending order, so adding is an append
+     */
+    private static final class Postings {
+        private long[] ids = new long[2];
+        private int size;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            int insertAt = -at - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.kodemon.service.util;
+
+import com.kodemon.persistence.entity.Trainer;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+
+/**
+ * Keeps the {@link UserNameIndex} current with the trainers Hibernate inserts, renames and deletes
+ * <p>
+ * The changes are applied to the index once their transaction commits, so that a rolled back rename does not leave
+ * the new username in the index and the old one out of it. A rename Hibernate does not know the previous username of,
+ * as with an update of a detached trainer, only adds the new grams; the old ones are left as false candidates.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class UserNameIndexing extends EntityWriteListener {
+
+    private static final String USER_NAME = "userName";
+
+    private final UserNameIndex index;
+
+    private UserNameIndexing(UserNameIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Registers the indexing of the usernames with the session factory
+     *
+     * @param entityManagerFactory factory whose writes are indexed
+     * @param index                index to keep current
+     */
+    public static void register(EntityManagerFactory entityManagerFactory, UserNameIndex index) {
+        new UserNameIndexing(index).appendTo(entityManagerFactory);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Trainer) {
+            Trainer trainer = (Trainer) event.getEntity();
+            afterCommit(() -> index.add(trainer.getId(), trainer.getUserName()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Trainer)) {
+            return;
+        }
+        Trainer trainer = (Trainer) event.getEntity();
+        String userName = trainer.getUserName();
+        String oldUserName = userName(event.getPersister(), event.getOldState());
+        if (Objects.equals(oldUserName, userName)) {
+            return;
+        }
+        Long id = trainer.getId();
+        afterCommit(() -> {
+            if (oldUserName != null) {
+                index.remove(id, oldUserName);
+            }
+            index.add(id, userName);
+        });
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Trainer) {
+            Trainer trainer = (Trainer) event.getEntity();
+            String deletedUserName = userName(event.getPersister(), event.getDeletedState());
+            String userName = deletedUserName != null ? deletedUserName : trainer.getUserName();
+            Long id = trainer.getId();
+            afterCommit(() -> index.remove(id, userName));
+        }
+    }
+
+    @Override
+    void written(Object entity) {
+        // the collections of the trainers do not change the usernames
+    }
+
+    private static String userName(EntityPersister persister, Object[] state) {
+        return state == null ? null : (String) state[persister.getEntityMetamodel().getPropertyIndex(USER_NAME)];
+    }
+}
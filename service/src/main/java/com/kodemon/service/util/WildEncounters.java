@@ -0,0 +1,192 @@
+package com.kodemon.service.util;
+
+import com.kodemon.persistence.entity.Pokemon;
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.enums.PokemonType;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Encounter engine generating the wild Pokemons met in the grass
+ * <p>
+ * The spawn tables are built once, one for all the species and one per {@link PokemonType}, each an immutable array of
+ * the species with the running sum of their {@link Rarity} weights, so an encounter is a single random draw and a binary
+ * search. The rarer species also come at higher levels: the level is the highest of as many uniform draws as the rarity
+ * says.
+ * <p>
+ * The draws come from the {@link ThreadLocalRandom} of the calling thread, so the request threads do not contend for
+ * a shared generator. A simulation that has to be reproducible passes its own seeded {@link SplittableRandom}.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public final class WildEncounters {
+
+    /**
+     * How often a species is met, relative to the others, and how its level is drawn
+     */
+    public enum Rarity {
+        COMMON(100, 1),
+        UNCOMMON(40, 1),
+        RARE(10, 2),
+        LEGENDARY(1, 3);
+
+        private final int weight;
+        private final int levelDraws;
+
+        Rarity(int weight, int levelDraws) {
+            this.weight = weight;
+            this.levelDraws = levelDraws;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getLevelDraws() {
+            return levelDraws;
+        }
+    }
+
+    private static final IntUnaryOperator THREAD_LOCAL_RANDOM = bound -> ThreadLocalRandom.current().nextInt(bound);
+
+    private final SpawnTable allSpecies;
+    private final Map<PokemonType, SpawnTable> speciesByType = new EnumMap<>(PokemonType.class);
+
+    private WildEncounters(Map<PokemonName, Rarity> rarities) {
+        allSpecies = new SpawnTable(Arrays.asList(PokemonName.values()), rarities);
+        for (PokemonType type : PokemonType.values()) {
+            List<PokemonName> species = new ArrayList<>();
+            for (PokemonName name : PokemonName.values()) {
+                if (Arrays.asList(name.getTypes()).contains(type)) {
+                    species.add(name);
+                }
+            }
+            if (!species.isEmpty()) {
+                speciesByType.put(type, new SpawnTable(species, rarities));
+            }
+        }
+    }
+
+    /**
+     * Returns the encounters of the game, with the legendary birds and Mews barely ever met
+     *
+     * @return the standard encounters
+     */
+    public static WildEncounters standard() {
+        Map<PokemonName, Rarity> rarities = new EnumMap<>(PokemonName.class);
+        for (PokemonName name : new PokemonName[]{PokemonName.ARTICUNO, PokemonName.ZAPDOS, PokemonName.MOLTRES,
+                PokemonName.MEWTWO, PokemonName.MEW}) {
+            rarities.put(name, Rarity.LEGENDARY);
+        }
+        for (PokemonName name : new PokemonName[]{PokemonName.VENUSAUR, PokemonName.CHARIZARD, PokemonName.BLASTOISE,
+                PokemonName.ALAKAZAM, PokemonName.MACHAMP, PokemonName.GOLEM, PokemonName.GENGAR, PokemonName.GYARADOS,
+                PokemonName.LAPRAS, PokemonName.DITTO, PokemonName.PORYGON, PokemonName.KABUTOPS, PokemonName.OMASTAR,
+                PokemonName.AERODACTYL, PokemonName.SNORLAX, PokemonName.DRAGONAIR, PokemonName.DRAGONITE}) {
+            rarities.put(name, Rarity.RARE);
+        }
+        for (PokemonName name : new PokemonName[]{PokemonName.IVYSAUR, PokemonName.CHARMELEON, PokemonName.WARTORTLE,
+                PokemonName.PIKACHU, PokemonName.RAICHU, PokemonName.KADABRA, PokemonName.MACHOKE, PokemonName.GRAVELER,
+                PokemonName.HAUNTER, PokemonName.CHANSEY, PokemonName.KANGASKHAN, PokemonName.SCYTHER, PokemonName.JYNX,
+                PokemonName.ELECTABUZZ, PokemonName.MAGMAR, PokemonName.PINSIR, PokemonName.TAUROS, PokemonName.EEVEE,
+                PokemonName.DRATINI}) {
+            rarities.put(name, Rarity.UNCOMMON);
+        }
+        return new WildEncounters(rarities);
+    }
+
+    /**
+     * Returns the encounters with the given rarities
+     *
+     * @param rarities rarities of the species, the species left out are {@link Rarity#COMMON}
+     * @return the encounters
+     */
+    public static WildEncounters withRarities(Map<PokemonName, Rarity> rarities) {
+        return new WildEncounters(rarities);
+    }
+
+    /**
+     * Generates a wild Pokemon from the {@link ThreadLocalRandom} of the calling thread
+     *
+     * @param type     type of the Pokemon, any type if null
+     * @param minLevel minimum level of the Pokemon, a level below 1 is raised to 1
+     * @param maxLevel maximum level of the Pokemon
+     * @return the generated Pokemon, without a trainer
+     */
+    public Pokemon encounter(@Nullable PokemonType type, int minLevel, int maxLevel) {
+        return encounter(type, minLevel, maxLevel, THREAD_LOCAL_RANDOM);
+    }
+
+    /**
+     * Generates a wild Pokemon from the given generator, the same seed gives the same Pokemons
+     *
+     * @param type     type of the Pokemon, any type if null
+     * @param minLevel minimum level of the Pokemon, a level below 1 is raised to 1
+     * @param maxLevel maximum level of the Pokemon
+     * @param random   generator of the draws, confined to the calling thread
+     * @return the generated Pokemon, without a trainer
+     */
+    public Pokemon encounter(@Nullable PokemonType type, int minLevel, int maxLevel, SplittableRandom random) {
+        return encounter(type, minLevel, maxLevel, random::nextInt);
+    }
+
+    /**
+     * @param type type of the species, any type if null
+     * @return the species which may be met, in the order of {@link PokemonName}
+     */
+    public List<PokemonName> getSpecies(@Nullable PokemonType type) {
+        SpawnTable table = table(type);
+        return table == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(table.species));
+    }
+
+    private Pokemon encounter(@Nullable PokemonType type, int minLevel, int maxLevel, IntUnaryOperator nextInt) {
+        if (maxLevel < minLevel) {
+            throw new IllegalArgumentException("Maximum level " + maxLevel + " is below the minimum level " + minLevel);
+        }
+        SpawnTable table = table(type);
+        if (table == null) {
+            throw new IllegalArgumentException("There is no Pokemon of type " + type);
+        }
+        int at = table.draw(nextInt);
+        int level = minLevel;
+        for (int draw = 0; draw < table.levelDraws[at]; draw++) {
+            level = Math.max(level, minLevel + nextInt.applyAsInt(maxLevel - minLevel + 1));
+        }
+        Pokemon pokemon = new Pokemon(table.species[at]);
+        pokemon.setLevel(Math.max(1, level));
+        return pokemon;
+    }
+
+    private SpawnTable table(@Nullable PokemonType type) {
+        return type == null ? allSpecies : speciesByType.get(type);
+    }
+
+    /**
+     * Species of one spawn table with the running sums of their weights
+     */
+    private static final class SpawnTable {
+        private final PokemonName[] species;
+        private final int[] weightSums;
+        private final int[] levelDraws;
+
+        SpawnTable(List<PokemonName> species, Map<PokemonName, Rarity> rarities) {
+            this.species = species.toArray(new PokemonName[species.size()]);
+            this.weightSums = new int[species.size()];
+            this.levelDraws = new int[species.size()];
+            int sum = 0;
+            for (int i = 0; i < this.species.length; i++) {
+                Rarity rarity = rarities.getOrDefault(this.species[i], Rarity.COMMON);
+                sum += rarity.getWeight();
+                weightSums[i] = sum;
+                levelDraws[i] = rarity.getLevelDraws();
+            }
+        }
+
+        int draw(IntUnaryOperator nextInt) {
+            int at = Arrays.binarySearch(weightSums, nextInt.applyAsInt(weightSums[weightSums.length - 1]) + 1);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.kodemon.service.test;
+
+import com.kodemon.api.exception.ServiceOverloadedException;
+import com.kodemon.service.util.AuthenticationExecutor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class AuthenticationExecutorTest {
+
+    private AuthenticationExecutor authenticationExecutor;
+
+    @BeforeMethod
+    public void setUp() {
+        authenticationExecutor = new AuthenticationExecutor(1, 1);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        authenticationExecutor.close();
+    }
+
+    @Test
+    public void submitTest() {
+        CompletableFuture<String> result = authenticationExecutor.submit(() -> Thread.currentThread().getName());
+
+        assertThat(result.join(), startsWith("kodemon-authentication-"));
+        assertThat(authenticationExecutor.getCompletedCount(), is(1L));
+        assertThat(authenticationExecutor.getRejectedCount(), is(0L));
+    }
+
+    @Test
+    public void submitFailingTaskTest() {
+        CompletableFuture<String> result = authenticationExecutor.submit(() -> {
+            throw new IllegalStateException("Cannot hash");
+        });
+
+        try {
+            result.join();
+        } catch (CompletionException e) {
+            assertThat(e.getCause(), is(instanceOf(IllegalStateException.class)));
+        }
+        assertThat(result.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    public void submitTaskThrowingErrorTest() {
+        CompletableFuture<String> result = authenticationExecutor.submit(() -> {
+            throw new AssertionError("Cannot hash");
+        });
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(AssertionError.class)));
+        } catch (InterruptedException | TimeoutException e) {
+            throw new IllegalStateException("The future was not completed", e);
+        }
+        assertThat(result.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    public void rejectWhenQueueIsFullTest() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> first = authenticationExecutor.submit(() -> {
+            running.countDown();
+            release.await();
+            return true;
+        });
+        running.await();
+        CompletableFuture<Boolean> queued = authenticationExecutor.submit(() -> true);
+        assertThat(authenticationExecutor.getQueueDepth(), is(1));
+
+        try {
+            authenticationExecutor.submit(() -> true);
+            throw new AssertionError("The third task should have been rejected");
+        } catch (ServiceOverloadedException e) {
+            assertThat(e.getRetryAfterSeconds(), is(greaterThanOrEqualTo(1L)));
+        }
+        assertThat(authenticationExecutor.getRejectedCount(), is(1L));
+
+        release.countDown();
+        assertThat(first.join(), is(true));
+        assertThat(queued.join(), is(true));
+        assertThat(authenticationExecutor.getCompletedCount(), is(2L));
+        assertThat(authenticationExecutor.getMaxWaitMicros(), is(greaterThan(0L)));
+    }
+}
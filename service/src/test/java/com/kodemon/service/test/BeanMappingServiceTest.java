@@ -4,6 +4,9 @@ import com.kodemon.api.dto.*;
 import com.kodemon.persistence.entity.*;
 import com.kodemon.persistence.enums.PokemonName;
 import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.FightSummary;
+import com.kodemon.persistence.projection.GymSummary;
+import com.kodemon.persistence.projection.TrainerSummary;
 import com.kodemon.service.config.ServiceConfig;
 import com.kodemon.service.interfaces.BeanMappingService;
 import org.springframework.test.context.ContextConfiguration;
@@ -13,12 +16,15 @@ import org.testng.annotations.Test;
 
 import javax.inject.Inject;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 /**
  * @author <a href="xseleng@fi.muni.cz">Maros Seleng, 422624</a>
@@ -130,6 +136,56 @@ public class BeanMappingServiceTest extends AbstractTestNGSpringContextTests {
         assertThat(users, is(equalTo(iterated)));
     }
 
+    @Test
+    void testMapCyclicGraph() {
+        UserDTO got = service.mapTo(challenger, UserDTO.class);
+
+        assertThat(got.getPokemons().get(0).getTrainer(), is(sameInstance(got)));
+    }
+
+    @Test
+    void testMapCollectionSharesReferencedObjects() {
+        TrainerFight rematch = new TrainerFight();
+        rematch.setChallenger(challenger);
+        rematch.setTargetGym(gym);
+        rematch.setFightTime(new Date());
+
+        List<FightDTO> fights = service.mapListTo(Arrays.asList(trainerFight, rematch), FightDTO.class);
+
+        assertThat(fights.get(0), is(equalTo(fightDTO)));
+        assertThat(fights.get(1).getChallenger(), is(sameInstance(fights.get(0).getChallenger())));
+        assertThat(fights.get(1).getTargetGym(), is(sameInstance(fights.get(0).getTargetGym())));
+    }
+
+    @Test
+    void testMapSummaries() {
+        Date born = new Calendar.Builder().setDate(1990, 0, 1).build().getTime();
+        UserSummaryDTO user = service.mapTo(new TrainerSummary(3L, "Tommy", "Tom", "Lee", born), UserSummaryDTO.class);
+        assertThat(user.getId(), is(3L));
+        assertThat(user.getUserName(), is("Tommy"));
+        assertThat(user.getFirstName(), is("Tom"));
+        assertThat(user.getLastName(), is("Lee"));
+        assertThat(user.getDateOfBirth(), is(born));
+
+        List<GymSummaryDTO> gyms = service.mapListTo(Arrays.asList(
+                new GymSummary(1L, "Sydney", "Bug Badge", PokemonType.BUG, 10L, "Tommy")), GymSummaryDTO.class);
+        assertThat(gyms.get(0).getCity(), is("Sydney"));
+        assertThat(gyms.get(0).getBadgeName(), is("Bug Badge"));
+        assertThat(gyms.get(0).getType(), is(PokemonType.BUG));
+        assertThat(gyms.get(0).getLeaderId(), is(10L));
+        assertThat(gyms.get(0).getLeaderUserName(), is("Tommy"));
+
+        FightSummaryDTO fight = service.mapTo(new FightSummary(7L, born, 3L, "Tommy", "Tom", 1L, "Sydney", true), FightSummaryDTO.class);
+        assertThat(fight.getId(), is(7L));
+        assertThat(fight.getFightTime(), is(born));
+        assertThat(fight.getChallengerId(), is(3L));
+        assertThat(fight.getChallengerUserName(), is("Tommy"));
+        assertThat(fight.getChallengerFirstName(), is("Tom"));
+        assertThat(fight.getTargetGymId(), is(1L));
+        assertThat(fight.getTargetGymCity(), is("Sydney"));
+        assertThat(fight.isWasChallengerSuccessful(), is(true));
+    }
+
     private void preparePokemons() {
         challengerPokemon = new Pokemon(PokemonName.ABRA);
         challengerPokemon.setLevel(12);
@@ -0,0 +1,373 @@
+package com.kodemon.service.test;
+
+import com.kodemon.api.enums.SuggestionKind;
+import com.kodemon.persistence.dao.GymDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.dao.TrainerFightDao;
+import com.kodemon.persistence.entity.Gym;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.entity.TrainerFight;
+import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.FightSummary;
+import com.kodemon.service.config.ServiceConfig;
+import com.kodemon.service.implementations.TrainerFightServiceImpl;
+import com.kodemon.service.interfaces.TrainerFightService;
+import com.kodemon.service.util.FightWriteBehind;
+import com.kodemon.service.util.SuggestionIndex;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests of the fights stored behind the requests
+ * <p>
+ * Every test runs its own writer, so the queue of the context one is left to the other tests. The data are committed,
+ * as the writer stores the fights in transactions of its own.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = ServiceConfig.class)
+public class FightWriteBehindTest extends AbstractTestNGSpringContextTests {
+
+    private static final long LONG_INTERVAL = 60_000;
+    private static final long WAIT_MILLIS = 10_000;
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Inject
+    private GymDao gymDao;
+
+    @Inject
+    private TrainerFightDao trainerFightDao;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private SuggestionIndex suggestionIndex;
+
+    private TransactionTemplate transactionTemplate;
+    private Trainer challenger;
+    private Gym gym;
+
+    @BeforeClass
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> {
+            challenger = trainer("writeBehindChallenger");
+            gym = new Gym(trainer("writeBehindLeader"));
+            gym.setCity("Write City");
+            gym.setBadgeName("Write Badge");
+            gym.setType(PokemonType.ROCK);
+            gymDao.save(gym);
+            return null;
+        });
+    }
+
+    @AfterMethod
+    public void deleteFights() {
+        transactionTemplate.execute(status -> {
+            trainerFightDao.delete(trainerFightDao.findByChallenger(challenger));
+            return null;
+        });
+    }
+
+    @AfterClass
+    public void cleanup() {
+        transactionTemplate.execute(status -> {
+            gymDao.delete(gym.getId());
+            trainerDao.delete(gym.getTrainer().getId());
+            trainerDao.delete(challenger.getId());
+            return null;
+        });
+    }
+
+    @Test
+    public void queuedFightsAreReadUntilFlushedTest() {
+        try (FightWriteBehind writer = writer(10, 100, LONG_INTERVAL)) {
+            writer.record(fight(1_000));
+            writer.record(fight(2_000));
+
+            assertThat(stored(), is(0));
+            List<TrainerFight> read = readWithPending(writer);
+            assertThat(read, hasSize(2));
+            assertThat(read, everyItem(hasProperty("id", nullValue())));
+
+            writer.flush();
+
+            assertThat(stored(), is(2));
+            read = readWithPending(writer);
+            assertThat(read, hasSize(2));
+            assertThat(read, everyItem(hasProperty("id", notNullValue())));
+            assertThat(writer.getBatchCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void fullBatchIsWrittenTest() {
+        try (FightWriteBehind writer = writer(10, 3, LONG_INTERVAL)) {
+            for (int i = 0; i < 3; i++) {
+                writer.record(fight(i));
+            }
+
+            await(() -> writer.getWrittenCount() == 3);
+            assertThat(stored(), is(3));
+            assertThat(writer.getBatchCount(), is(1L));
+        }
+    }
+
+    @Test
+    public void partialBatchIsWrittenAfterIntervalTest() {
+        try (FightWriteBehind writer = writer(10, 100, 20)) {
+            writer.record(fight(0));
+
+            await(() -> writer.getWrittenCount() == 1);
+            assertThat(stored(), is(1));
+        }
+    }
+
+    @Test
+    public void fightOfRolledBackTransactionIsDroppedTest() {
+        try (FightWriteBehind writer = writer(10, 100, LONG_INTERVAL)) {
+            transactionTemplate.execute(status -> {
+                writer.record(fight(0));
+                status.setRollbackOnly();
+                return null;
+            });
+            transactionTemplate.execute(status -> {
+                writer.record(fight(1));
+                return null;
+            });
+
+            assertThat(writer.getQueuedCount(), is(1L));
+            assertThat(writer.getQueueDepth(), is(1));
+        }
+    }
+
+    @Test
+    public void fullQueueStoresFightInRequestTest() {
+        try (FightWriteBehind writer = writer(1, 100, LONG_INTERVAL)) {
+            writer.record(fight(0));
+            writer.record(fight(1));
+
+            assertThat(writer.getOverflowCount(), is(1L));
+            assertThat(writer.getQueueDepth(), is(1));
+            assertThat(stored(), is(1));
+            assertThat(readWithPending(writer), hasSize(2));
+        }
+    }
+
+    @Test
+    public void closeStoresQueuedFightsTest() {
+        FightWriteBehind writer = writer(10, 100, LONG_INTERVAL);
+        writer.record(fight(0));
+        writer.record(fight(1));
+
+        writer.close();
+
+        assertThat(stored(), is(2));
+        assertThat(writer.getQueueDepth(), is(0));
+        writer.record(fight(2));
+        assertThat(stored(), is(3));
+    }
+
+    @Test
+    public void queuedFightsAreInHistorySlicesTest() {
+        try (FightWriteBehind writer = writer(10, 100, LONG_INTERVAL)) {
+            TrainerFightService service = service(writer);
+            writer.record(fight(1_000));
+            writer.record(fight(2_000));
+            writer.flush();
+            writer.record(fight(3_000));
+            writer.record(fight(4_000));
+
+            Slice<TrainerFight> first = service.findByFightTimeBetween(new Date(0), new Date(10_000), new PageRequest(0, 3));
+            assertThat(fightTimes(first.getContent()), contains(4_000L, 3_000L, 2_000L));
+            assertThat(first.getContent().get(0).getId(), is(nullValue()));
+            assertThat(first.getContent().get(2).getId(), is(notNullValue()));
+            assertThat(first.hasNext(), is(true));
+
+            Slice<TrainerFight> second = service.findByFightTimeBetween(new Date(0), new Date(10_000), new PageRequest(1, 3));
+            assertThat(fightTimes(second.getContent()), contains(1_000L));
+            assertThat(second.hasNext(), is(false));
+
+            Slice<TrainerFight> queuedOnly = service.findByFightTimeBetween(new Date(0), new Date(10_000), new PageRequest(0, 2));
+            assertThat(fightTimes(queuedOnly.getContent()), contains(4_000L, 3_000L));
+            assertThat(queuedOnly.hasNext(), is(true));
+        }
+    }
+
+    @Test
+    public void queuedFightsAreInHistoryCursorsTest() {
+        try (FightWriteBehind writer = writer(10, 100, LONG_INTERVAL)) {
+            TrainerFightService service = service(writer);
+            writer.record(fight(1_000));
+            writer.record(fight(3_000));
+            writer.flush();
+            writer.record(fight(2_000));
+            writer.record(fight(4_000));
+
+            List<TrainerFight> latest = service.findLatestSince(new Date(0), null, null, null, 3);
+            assertThat(fightTimes(latest), contains(4_000L, 3_000L, 2_000L));
+            // the cursor of a queued fight is its sequence number
+            TrainerFight last = latest.get(2);
+            assertThat(last.getId(), is(nullValue()));
+            List<TrainerFight> following = service.findLatestSince(new Date(0), last.getFightTime(), null,
+                    last.getPendingSequence(), 3);
+            assertThat(fightTimes(following), contains(1_000L));
+
+            List<FightSummary> summaries = service.findSummariesSince(new Date(0), null, null, null, 10);
+            assertThat(summaries.stream().map(summary -> summary.getFightTime().getTime()).collect(Collectors.toList()),
+                    contains(4_000L, 3_000L, 2_000L, 1_000L));
+            assertThat(summaries.get(0).getChallengerUserName(), is("writeBehindChallenger"));
+            assertThat(summaries.get(0).getTargetGymCity(), is("Write City"));
+            assertThat(service.findSummariesByChallengerId(challenger.getId()), hasSize(4));
+            assertThat(service.findSummariesByTargetGymId(gym.getId()), hasSize(4));
+        }
+    }
+
+    @Test
+    public void queuedFightsOfSameTimeSplitByCursorTest() {
+        try (FightWriteBehind writer = writer(10, 100, LONG_INTERVAL)) {
+            TrainerFightService service = service(writer);
+            writer.record(fight(1_000));
+            writer.flush();
+            writer.record(fight(2_000));
+            writer.record(fight(2_000));
+            writer.record(fight(3_000));
+
+            List<TrainerFight> latest = service.findLatestSince(new Date(0), null, null, null, 2);
+            assertThat(fightTimes(latest), contains(3_000L, 2_000L));
+            TrainerFight last = latest.get(1);
+            List<TrainerFight> following = service.findLatestSince(new Date(0), last.getFightTime(), null,
+                    last.getPendingSequence(), 2);
+            assertThat(fightTimes(following), contains(2_000L, 1_000L));
+            assertThat(following.get(0).getPendingSequence(), is(lessThan(last.getPendingSequence())));
+
+            List<FightSummary> summaries = service.findSummariesSince(new Date(0), null, null, null, 2);
+            FightSummary lastSummary = summaries.get(1);
+            assertThat(lastSummary.getPendingSequence(), is(last.getPendingSequence()));
+            List<FightSummary> followingSummaries = service.findSummariesSince(new Date(0), lastSummary.getFightTime(),
+                    null, lastSummary.getPendingSequence(), 2);
+            assertThat(followingSummaries.stream().map(summary -> summary.getFightTime().getTime())
+                    .collect(Collectors.toList()), contains(2_000L, 1_000L));
+
+            // the fight of the cursor is stored between the pages, the history goes on below the id it got
+            writer.flush();
+            following = service.findLatestSince(new Date(0), last.getFightTime(), null, last.getPendingSequence(), 2);
+            assertThat(fightTimes(following), contains(2_000L, 1_000L));
+            assertThat(following.get(0).getId(), is(lessThan(writer.storedIdOf(last.getPendingSequence()))));
+            followingSummaries = service.findSummariesSince(new Date(0), lastSummary.getFightTime(), null,
+                    lastSummary.getPendingSequence(), 2);
+            assertThat(followingSummaries.get(0).getId(), is(following.get(0).getId()));
+            assertThat(followingSummaries.get(1).getFightTime().getTime(), is(1_000L));
+        }
+    }
+
+    @Test
+    public void writtenFightAddsPopularityTest() {
+        assertThat(suggestionIndex.isReady(), is(true));
+        long trainerPopularity = popularity(SuggestionKind.TRAINER, "writeBehindChallenger");
+        long gymPopularity = popularity(SuggestionKind.GYM, "Write City");
+
+        try (FightWriteBehind writer = writer(10, 100, LONG_INTERVAL)) {
+            transactionTemplate.execute(status -> {
+                writer.record(fight(0));
+                writer.record(fight(1));
+                return null;
+            });
+            writer.flush();
+        }
+
+        assertThat(popularity(SuggestionKind.TRAINER, "writeBehindChallenger"), is(trainerPopularity + 2));
+        assertThat(popularity(SuggestionKind.GYM, "Write City"), is(gymPopularity + 2));
+    }
+
+    @Test
+    public void synchronousModeStoresRightAwayTest() {
+        FightWriteBehind writer = FightWriteBehind.synchronous(trainerFightDao);
+        transactionTemplate.execute(status -> {
+            writer.record(fight(0));
+            return null;
+        });
+
+        assertThat(stored(), is(1));
+        assertThat(writer.isWriteBehind(), is(false));
+    }
+
+    private FightWriteBehind writer(int queueCapacity, int batchSize, long flushIntervalMillis) {
+        return new FightWriteBehind(trainerDao, gymDao, trainerFightDao, transactionManager, true, queueCapacity,
+                batchSize, flushIntervalMillis, 10);
+    }
+
+    private TrainerFight fight(long time) {
+        TrainerFight fight = new TrainerFight();
+        fight.setChallenger(challenger);
+        fight.setTargetGym(gym);
+        fight.setFightTime(new Date(time));
+        fight.setWasChallengerSuccessful(time % 2 == 0);
+        return fight;
+    }
+
+    private TrainerFightService service(FightWriteBehind writer) {
+        return new TrainerFightServiceImpl(trainerDao, trainerFightDao, null, gymDao, null, null, null, null, writer);
+    }
+
+    private static List<Long> fightTimes(List<TrainerFight> fights) {
+        return fights.stream().map(fight -> fight.getFightTime().getTime()).collect(Collectors.toList());
+    }
+
+    private long popularity(SuggestionKind kind, String term) {
+        return suggestionIndex.suggest(term, kind, 1).get(0).getPopularity();
+    }
+
+    private int stored() {
+        return transactionTemplate.execute(status -> trainerFightDao.findByChallenger(challenger).size());
+    }
+
+    private List<TrainerFight> readWithPending(FightWriteBehind writer) {
+        return transactionTemplate.execute(status -> writer.readWithPending(
+                () -> trainerFightDao.findByChallenger(challenger),
+                fight -> fight.getChallengerId().equals(challenger.getId())));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertThat("Timed out", System.currentTimeMillis(), is(lessThan(deadline)));
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Trainer trainer(String userName) {
+        Trainer trainer = new Trainer();
+        trainer.setUserName(userName);
+        trainer.setFirstName("Write");
+        trainer.setLastName("Behind");
+        trainer.setDateOfBirth(new Calendar.Builder().setDate(1985, 1, 1).build().getTime());
+        return trainerDao.save(trainer);
+    }
+}
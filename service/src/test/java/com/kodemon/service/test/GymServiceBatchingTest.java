@@ -0,0 +1,81 @@
+package com.kodemon.service.test;
+
+import com.kodemon.persistence.dao.GymDao;
+import com.kodemon.persistence.dao.PokemonDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.service.config.ServiceConfig;
+import com.kodemon.service.implementations.GymServiceImpl;
+import com.kodemon.service.interfaces.GymService;
+import com.kodemon.service.util.PasswordStorage;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Checks that the gym initialization is written to the database in JDBC batches
+ * <p>
+ * Uses its own {@link GymServiceImpl}, as the context one gets its DAOs replaced by mocks in {@link GymServiceTest}
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = ServiceConfig.class)
+public class GymServiceBatchingTest extends AbstractTestNGSpringContextTests {
+
+    /**
+     * Before the batching, the initialization took one statement per inserted or updated row, over 200 of them
+     */
+    private static final long MAX_INITIALIZE_GYMS_STATEMENTS = 30;
+
+    @Inject
+    private GymDao gymDao;
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Inject
+    private PokemonDao pokemonDao;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void initializeGymsIsBatchedTest() {
+        GymService gymService = new GymServiceImpl(gymDao, trainerDao, pokemonDao);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long statements = new TransactionTemplate(transactionManager).execute(status -> {
+            statistics.setStatisticsEnabled(true);
+            statistics.clear();
+            try {
+                gymService.initializeGyms();
+            } catch (PasswordStorage.CannotPerformOperationException e) {
+                throw new IllegalStateException(e);
+            }
+            entityManager.flush();
+            // the gyms are not needed by any other test
+            status.setRollbackOnly();
+            return statistics.getPrepareStatementCount();
+        });
+
+        assertThat(statements, is(lessThanOrEqualTo(MAX_INITIALIZE_GYMS_STATEMENTS)));
+    }
+}
@@ -0,0 +1,244 @@
+package com.kodemon.service.test;
+
+import com.kodemon.api.dto.CacheRegionStatisticsDTO;
+import com.kodemon.persistence.config.ConnectionPoolMetrics;
+import com.kodemon.persistence.dao.GymDao;
+import com.kodemon.persistence.dao.PokemonDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.entity.Gym;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.service.config.ServiceConfig;
+import com.kodemon.service.facade.StatisticsFacadeImpl;
+import com.kodemon.service.implementations.CacheStatisticsServiceImpl;
+import com.kodemon.service.implementations.GymServiceImpl;
+import com.kodemon.service.interfaces.GymService;
+import com.kodemon.api.dto.GymDTO;
+import com.kodemon.api.dto.UserDTO;
+import com.kodemon.service.util.AuthenticationExecutor;
+import com.kodemon.service.util.GymSnapshotCache;
+import com.kodemon.service.util.ParallelMapping;
+import com.kodemon.service.util.TeamSnapshotCache;
+import com.kodemon.service.util.TrainerVersions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests of the second-level and query cache of the gyms
+ * <p>
+ * Uses its own {@link GymServiceImpl}, as the context one gets its DAOs replaced by mocks in {@link GymServiceTest}.
+ * The data are committed, as the query cache is bypassed for tables written in the current transaction.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = ServiceConfig.class)
+public class GymServiceCacheTest extends AbstractTestNGSpringContextTests {
+
+    private static final String BADGE_NAME = "Cache Badge";
+    private static final String NEW_BADGE_NAME = "Fresh Badge";
+
+    @Inject
+    private GymDao gymDao;
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Inject
+    private PokemonDao pokemonDao;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private ParallelMapping parallelMapping;
+
+    @Inject
+    private AuthenticationExecutor authenticationExecutor;
+
+    @Inject
+    private GymSnapshotCache gymSnapshotCache;
+
+    @Inject
+    private TrainerVersions trainerVersions;
+
+    private GymService gymService;
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeClass
+    public void setup() {
+        gymService = new GymServiceImpl(gymDao, trainerDao, pokemonDao);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> {
+            gymService.save(gym("cacheLeader", "Cache City", BADGE_NAME));
+            return null;
+        });
+    }
+
+    @AfterClass
+    public void cleanup() {
+        transactionTemplate.execute(status -> {
+            for (String badgeName : new String[]{BADGE_NAME, NEW_BADGE_NAME}) {
+                for (Gym gym : gymService.findByBadgeName(badgeName)) {
+                    gymService.delete(gym);
+                    trainerDao.delete(gym.getTrainer());
+                }
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void findByBadgeNameIsServedFromCacheTest() {
+        transactionTemplate.execute(status -> gymService.findByBadgeName(BADGE_NAME));
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<Gym> found = transactionTemplate.execute(status -> gymService.findByBadgeName(BADGE_NAME));
+
+        assertThat(found, hasSize(1));
+        assertThat(found.get(0).getTrainer().getUserName(), is("cacheLeader"));
+        assertThat(statistics.getPrepareStatementCount(), is(0L));
+        assertThat(statistics.getSecondLevelCacheStatistics(GymDao.QUERY_CACHE_REGION).getHitCount(), is(1L));
+        assertThat(statistics.getSecondLevelCacheStatistics(Gym.class.getName()).getHitCount(), is(1L));
+        assertThat(statistics.getSecondLevelCacheStatistics(Trainer.class.getName()).getHitCount(), is(1L));
+    }
+
+    @Test
+    public void saveAndDeleteInvalidateCachedQueriesTest() {
+        List<Gym> before = transactionTemplate.execute(status -> gymService.findAll());
+        assertThat(gymBadgeNames(before), not(hasItem(NEW_BADGE_NAME)));
+
+        transactionTemplate.execute(status -> {
+            gymService.save(gym("freshLeader", "Fresh City", NEW_BADGE_NAME));
+            return null;
+        });
+        List<Gym> afterSave = transactionTemplate.execute(status -> gymService.findAll());
+        assertThat(afterSave, hasSize(before.size() + 1));
+        assertThat(gymBadgeNames(afterSave), hasItem(NEW_BADGE_NAME));
+
+        transactionTemplate.execute(status -> {
+            Gym fresh = gymService.findByBadgeName(NEW_BADGE_NAME).get(0);
+            gymService.delete(fresh);
+            trainerDao.delete(fresh.getTrainer());
+            return null;
+        });
+        List<Gym> afterDelete = transactionTemplate.execute(status -> gymService.findAll());
+        assertThat(afterDelete, hasSize(before.size()));
+        assertThat(gymService.findByBadgeName(NEW_BADGE_NAME), is(empty()));
+    }
+
+    @Test
+    public void cacheStatisticsContainGymRegionsTest() {
+        transactionTemplate.execute(status -> gymService.findByBadgeName(BADGE_NAME));
+
+        Collection<CacheRegionStatisticsDTO> regions = new StatisticsFacadeImpl(new CacheStatisticsServiceImpl(entityManagerFactory),
+                new ConnectionPoolMetrics(), parallelMapping, authenticationExecutor, gymSnapshotCache,
+                trainerVersions, new TeamSnapshotCache(trainerVersions, 1))
+                .getCacheStatistics();
+
+        assertThat(regions, hasItem(hasProperty("regionName", is(Gym.class.getName()))));
+        assertThat(regions, hasItem(hasProperty("regionName", is(GymDao.QUERY_CACHE_REGION))));
+        assertThat(regions, hasItem(hasProperty("regionName", is(GymSnapshotCache.REGION_NAME))));
+        assertThat(regions, hasItem(hasProperty("regionName", is(TeamSnapshotCache.REGION_NAME))));
+    }
+
+    @Test
+    public void saveInvalidatesGymSnapshotsTest() {
+        Gym gym = transactionTemplate.execute(status -> gymService.findByBadgeName(BADGE_NAME).get(0));
+        gymSnapshotCache.get(gym.getId(), id -> new GymDTO());
+        assertThat(gymSnapshotCache.size(), is(greaterThan(0)));
+
+        transactionTemplate.execute(status -> {
+            Gym stored = gymService.findById(gym.getId());
+            stored.setCity("Renamed City");
+            gymService.save(stored);
+            return null;
+        });
+
+        assertThat(gymSnapshotCache.size(), is(0));
+    }
+
+    @Test
+    public void leaderChangeInvalidatesGymSnapshotsTest() {
+        Gym gym = transactionTemplate.execute(status -> gymService.findByBadgeName(BADGE_NAME).get(0));
+        gymSnapshotCache.get(gym.getId(), id -> snapshot(gym));
+
+        transactionTemplate.execute(status -> {
+            Trainer leader = trainerDao.findOne(gym.getTrainer().getId());
+            leader.setBlocked(true);
+            return null;
+        });
+
+        assertThat(gymSnapshotCache.size(), is(0));
+    }
+
+    @Test
+    public void otherTrainerChangeKeepsGymSnapshotsTest() {
+        Gym gym = transactionTemplate.execute(status -> gymService.findByBadgeName(BADGE_NAME).get(0));
+        gymSnapshotCache.invalidate();
+        GymDTO snapshot = gymSnapshotCache.get(gym.getId(), id -> snapshot(gym));
+
+        transactionTemplate.execute(status -> {
+            Trainer other = gym("otherCacheTrainer", "Other City", "Other Badge").getTrainer();
+            other.setBlocked(true);
+            return null;
+        });
+        GymDTO afterWrite = gymSnapshotCache.get(gym.getId(), id -> snapshot(gym));
+        transactionTemplate.execute(status -> {
+            trainerDao.delete(trainerDao.findByUserName("otherCacheTrainer"));
+            return null;
+        });
+
+        assertThat(afterWrite, is(sameInstance(snapshot)));
+    }
+
+    private static GymDTO snapshot(Gym gym) {
+        UserDTO leader = new UserDTO();
+        leader.setId(gym.getTrainer().getId());
+        GymDTO snapshot = new GymDTO();
+        snapshot.setId(gym.getId());
+        snapshot.setTrainer(leader);
+        return snapshot;
+    }
+
+    private Gym gym(String leaderUserName, String city, String badgeName) {
+        Trainer leader = new Trainer();
+        leader.setUserName(leaderUserName);
+        leader.setFirstName("Leader");
+        leader.setLastName(city);
+        leader.setDateOfBirth(new Calendar.Builder().setDate(1980, 1, 1).build().getTime());
+        trainerDao.save(leader);
+
+        Gym gym = new Gym(leader);
+        gym.setCity(city);
+        gym.setBadgeName(badgeName);
+        gym.setType(PokemonType.ICE);
+        return gym;
+    }
+
+    private static List<String> gymBadgeNames(List<Gym> gyms) {
+        return gyms.stream().map(Gym::getBadgeName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,103 @@
+package com.kodemon.service.test;
+
+import com.kodemon.api.dto.GymDTO;
+import com.kodemon.api.dto.UserDTO;
+import com.kodemon.service.util.GymSnapshotCache;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class GymSnapshotCacheTest {
+
+    private GymSnapshotCache gymSnapshotCache;
+    private AtomicInteger loadCount;
+
+    @BeforeMethod
+    public void setUp() {
+        gymSnapshotCache = new GymSnapshotCache();
+        loadCount = new AtomicInteger();
+    }
+
+    @Test
+    public void getLoadsOnlyOnMissTest() {
+        GymDTO first = gymSnapshotCache.get(1L, this::load);
+        GymDTO second = gymSnapshotCache.get(1L, this::load);
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(loadCount.get(), is(1));
+        assertThat(gymSnapshotCache.getMissCount(), is(1L));
+        assertThat(gymSnapshotCache.getHitCount(), is(1L));
+        assertThat(gymSnapshotCache.getPutCount(), is(1L));
+    }
+
+    @Test
+    public void getMissingGymIsNotCachedTest() {
+        assertThat(gymSnapshotCache.get(1L, id -> null), is(nullValue()));
+        assertThat(gymSnapshotCache.size(), is(0));
+    }
+
+    @Test
+    public void invalidateDropsSnapshotsTest() {
+        gymSnapshotCache.get(1L, this::load);
+        gymSnapshotCache.get(2L, this::load);
+
+        gymSnapshotCache.invalidate();
+
+        assertThat(gymSnapshotCache.size(), is(0));
+        gymSnapshotCache.get(1L, this::load);
+        assertThat(loadCount.get(), is(3));
+    }
+
+    @Test
+    public void invalidateDropsOnlyWrittenGymTest() {
+        gymSnapshotCache.get(1L, this::load);
+        gymSnapshotCache.get(2L, this::load);
+
+        gymSnapshotCache.invalidateGym(1L);
+
+        assertThat(gymSnapshotCache.size(), is(1));
+        gymSnapshotCache.get(2L, this::load);
+        assertThat(loadCount.get(), is(2));
+    }
+
+    @Test
+    public void invalidateLeaderDropsLedGymTest() {
+        gymSnapshotCache.get(1L, this::load);
+        gymSnapshotCache.get(2L, this::load);
+
+        gymSnapshotCache.invalidateLeader(101L);
+        gymSnapshotCache.invalidateLeader(999L);
+
+        assertThat(gymSnapshotCache.size(), is(1));
+        gymSnapshotCache.get(1L, this::load);
+        assertThat(loadCount.get(), is(3));
+    }
+
+    @Test
+    public void snapshotLoadedDuringInvalidationIsNotKeptTest() {
+        GymDTO loaded = gymSnapshotCache.get(1L, id -> {
+            gymSnapshotCache.invalidate();
+            return load(id);
+        });
+
+        assertThat(loaded, is(notNullValue()));
+        assertThat(gymSnapshotCache.size(), is(0));
+    }
+
+    private GymDTO load(Long id) {
+        loadCount.incrementAndGet();
+        UserDTO leader = new UserDTO();
+        leader.setId(100 + id);
+        GymDTO gym = new GymDTO();
+        gym.setId(id);
+        gym.setTrainer(leader);
+        return gym;
+    }
+}
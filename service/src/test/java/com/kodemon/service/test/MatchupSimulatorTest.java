@@ -0,0 +1,155 @@
+package com.kodemon.service.test;
+
+import com.kodemon.persistence.entity.Pokemon;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.service.implementations.PokemonFightAdvantageServiceImpl;
+import com.kodemon.service.implementations.PokemonFightServiceImpl;
+import com.kodemon.service.implementations.TrainerFightServiceImpl;
+import com.kodemon.service.util.MatchupSimulator;
+import com.kodemon.service.util.TeamSnapshot;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class MatchupSimulatorTest {
+
+    private static final PokemonName[] NAMES = PokemonName.values();
+
+    private final MatchupSimulator matchupSimulator = new MatchupSimulator(2);
+
+    @AfterClass
+    public void closeSimulator() {
+        matchupSimulator.close();
+    }
+
+    @Test
+    public void snapshotScoresLikeTrainerFightServiceTest() {
+        TrainerFightServiceImpl trainerFightService = new TrainerFightServiceImpl(null, null,
+                new PokemonFightServiceImpl(new PokemonFightAdvantageServiceImpl()), null, null, null, null, null, null);
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 5_000; i++) {
+            Trainer challenger = randomTrainer(random);
+            Trainer defender = randomTrainer(random);
+            assertThat(TeamSnapshot.of(challenger).beats(TeamSnapshot.of(defender)),
+                    is(trainerFightService.wasFightForBadgeSuccessful(challenger, defender)));
+        }
+    }
+
+    @Test
+    public void challengeGymsTest() {
+        SplittableRandom random = new SplittableRandom(9);
+        TeamSnapshot[] challengers = new TeamSnapshot[5_000];
+        for (int i = 0; i < challengers.length; i++) {
+            challengers[i] = randomTeam((long) i, random);
+        }
+        // the leader of the first gym challenges the other gyms too, the third gym has no leader
+        TeamSnapshot[] leaders = {challengers[0], randomTeam(-1L, random), null, randomTeam(-2L, random)};
+
+        MatchupSimulator.GymChallenges challenges = matchupSimulator.challengeGyms(challengers, leaders);
+
+        long[] histogram = new long[leaders.length + 1];
+        long matchups = 0;
+        for (TeamSnapshot challenger : challengers) {
+            int beaten = 0;
+            for (int gym = 0; gym < leaders.length; gym++) {
+                if (leaders[gym] != null && leaders[gym] != challenger) {
+                    matchups++;
+                    beaten += challenger.beats(leaders[gym]) ? 1 : 0;
+                }
+            }
+            histogram[beaten]++;
+        }
+        assertThat(challenges.getChallengerCount(0), is((long) challengers.length - 1));
+        assertThat(challenges.getChallengerCount(1), is((long) challengers.length));
+        assertThat(challenges.getChallengerCount(2), is(0L));
+        assertThat(challenges.getMatchupCount(), is(matchups));
+        assertThat(challenges.getTrainersByGymsBeaten(), is(histogram));
+        for (int gym : new int[]{0, 1, 3}) {
+            long wins = 0;
+            for (TeamSnapshot challenger : challengers) {
+                wins += challenger != leaders[gym] && challenger.beats(leaders[gym]) ? 1 : 0;
+            }
+            assertThat(challenges.getWinCount(gym), is(wins));
+        }
+    }
+
+    @Test
+    public void tournamentTest() {
+        TeamSnapshot strong = team(1L, PokemonName.MEWTWO, 50);
+        TeamSnapshot medium = team(2L, PokemonName.PIDGEY, 30);
+        TeamSnapshot weak = team(3L, PokemonName.RATTATA, 10);
+
+        MatchupSimulator.Tournament tournament = matchupSimulator.tournament(new TeamSnapshot[]{strong, medium, weak});
+
+        assertThat(tournament.isWin(0, 1), is(true));
+        assertThat(tournament.isWin(1, 0), is(false));
+        assertThat(tournament.isWin(2, 2), is(false));
+        assertThat(tournament.getWinCount(0), is(2));
+        assertThat(tournament.getWinCount(1), is(1));
+        assertThat(tournament.getWinCount(2), is(0));
+        assertThat(tournament.getMatchupCount(), is(6L));
+        assertThat(tournament.getChampion(), is(0));
+        assertThat(tournament.getSeeds(), contains(strong, medium, weak));
+    }
+
+    @Test
+    public void upsetInBracketTest() {
+        // the rock type of the fourth seed beats the first seed, who is stronger by the levels
+        TeamSnapshot first = team(1L, PokemonName.CHARIZARD, 40);
+        TeamSnapshot second = team(2L, PokemonName.BLASTOISE, 30);
+        TeamSnapshot third = team(3L, PokemonName.PIDGEY, 5);
+        TeamSnapshot fourth = team(4L, PokemonName.GEODUDE, 35);
+
+        MatchupSimulator.Tournament tournament = matchupSimulator.tournament(new TeamSnapshot[]{first, second, third, fourth});
+
+        assertThat(tournament.isWin(3, 0), is(true));
+        assertThat(tournament.isWin(2, 1), is(false));
+        int semifinalist = 3;
+        int otherSemifinalist = 1;
+        int champion = tournament.isWin(otherSemifinalist, semifinalist) ? otherSemifinalist : semifinalist;
+        assertThat(tournament.getChampion(), is(champion));
+    }
+
+    @Test
+    public void emptyTournamentTest() {
+        MatchupSimulator.Tournament tournament = matchupSimulator.tournament(new TeamSnapshot[0]);
+        assertThat(tournament.getChampion(), is(-1));
+        assertThat(tournament.getMatchupCount(), is(0L));
+        assertThat(matchupSimulator.tournament(new TeamSnapshot[]{team(1L, PokemonName.MEW, 5)}).getChampion(), is(0));
+    }
+
+    private static TeamSnapshot team(Long trainerId, PokemonName name, int level) {
+        return new TeamSnapshot(trainerId, "trainer" + trainerId, new int[]{name.ordinal()}, new int[]{level});
+    }
+
+    private static TeamSnapshot randomTeam(Long trainerId, SplittableRandom random) {
+        int size = random.nextInt(7);
+        int[] species = new int[size];
+        int[] levels = new int[size];
+        for (int i = 0; i < size; i++) {
+            species[i] = random.nextInt(NAMES.length);
+            levels[i] = 1 + random.nextInt(100);
+        }
+        return new TeamSnapshot(trainerId, "trainer" + trainerId, species, levels);
+    }
+
+    private static Trainer randomTrainer(SplittableRandom random) {
+        Trainer trainer = new Trainer();
+        int size = random.nextInt(7);
+        for (int i = 0; i < size; i++) {
+            Pokemon pokemon = new Pokemon(NAMES[random.nextInt(NAMES.length)]);
+            pokemon.setLevel(1 + random.nextInt(100));
+            trainer.addPokemon(pokemon);
+            trainer.addActivePokemon(pokemon);
+        }
+        return trainer;
+    }
+}
@@ -0,0 +1,102 @@
+package com.kodemon.service.test;
+
+import com.kodemon.service.util.ParallelMapping;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class ParallelMappingTest {
+
+    private static final int THRESHOLD = 100;
+
+    private ParallelMapping parallelMapping;
+
+    @BeforeMethod
+    public void setUp() {
+        parallelMapping = new ParallelMapping(4, THRESHOLD);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        parallelMapping.close();
+    }
+
+    @Test
+    public void mapKeepsOrderTest() {
+        List<Integer> sources = IntStream.range(0, 1_000).boxed().collect(Collectors.toList());
+        Set<String> threadNames = Collections.synchronizedSet(new HashSet<>());
+
+        List<String> mapped = parallelMapping.map(sources, all -> {
+        }, chunk -> {
+            threadNames.add(Thread.currentThread().getName());
+            return chunk.stream().map(String::valueOf).collect(Collectors.toList());
+        });
+
+        assertThat(mapped, is(sources.stream().map(String::valueOf).collect(Collectors.toList())));
+        assertThat(threadNames, hasItem(Thread.currentThread().getName()));
+        assertThat(threadNames, hasItem(startsWith("kodemon-mapping-")));
+        assertThat(parallelMapping.getParallelCount(), is(1L));
+        assertThat(parallelMapping.getSequentialCount(), is(0L));
+        assertThat(parallelMapping.getChunkCount(), is(5L));
+    }
+
+    @Test
+    public void mapBelowThresholdOnCallingThreadTest() {
+        List<Integer> sources = IntStream.range(0, THRESHOLD - 1).boxed().collect(Collectors.toList());
+        List<String> threadNames = new ArrayList<>();
+
+        List<Integer> mapped = parallelMapping.map(sources, all -> {
+            throw new AssertionError("Not split, nothing to prepare");
+        }, chunk -> {
+            threadNames.add(Thread.currentThread().getName());
+            return chunk;
+        });
+
+        assertThat(mapped, is(sources));
+        assertThat(threadNames, contains(Thread.currentThread().getName()));
+        assertThat(parallelMapping.getSequentialCount(), is(1L));
+        assertThat(parallelMapping.getParallelCount(), is(0L));
+        assertThat(parallelMapping.getChunkCount(), is(0L));
+    }
+
+    @Test
+    public void mapPreparesAllSourcesBeforeSplitTest() {
+        List<Integer> sources = IntStream.range(0, THRESHOLD).boxed().collect(Collectors.toList());
+        List<List<Integer>> prepared = new ArrayList<>();
+
+        parallelMapping.map(sources, prepared::add, chunk -> {
+            assertThat(prepared, hasSize(1));
+            return chunk;
+        });
+
+        assertThat(prepared, contains(sources));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void mapRethrowsExceptionOfChunkTest() {
+        List<Integer> sources = IntStream.range(0, 1_000).boxed().collect(Collectors.toList());
+
+        parallelMapping.map(sources, all -> {
+        }, chunk -> {
+            if (chunk.contains(999)) {
+                throw new IllegalStateException("Cannot map the last chunk");
+            }
+            return chunk;
+        });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void constructWithoutThreadsTest() {
+        new ParallelMapping(0, THRESHOLD);
+    }
+}
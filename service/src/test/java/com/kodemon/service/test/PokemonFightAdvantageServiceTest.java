@@ -1,6 +1,7 @@
 package com.kodemon.service.test;
 
 import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.enums.PokemonType;
 import com.kodemon.service.config.ServiceConfig;
 import com.kodemon.service.interfaces.PokemonFightAdvantageService;
 import org.springframework.test.context.ContextConfiguration;
@@ -10,6 +11,9 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * @author Oliver Roch
@@ -39,4 +43,37 @@ public class PokemonFightAdvantageServiceTest extends AbstractTestNGSpringContex
     public void computePokemonFightAdvantageWithNullNameTest() {
         double pokemonFightAdvantage = pokemonFightAdvantageService.computePokemonFightAdvantage(null, target);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void computePokemonFightAdvantageMatchesTypeComputationForAllPairsTest() {
+        for (PokemonName challenger : PokemonName.values()) {
+            for (PokemonName target : PokemonName.values()) {
+                Assert.assertEquals(
+                        pokemonFightAdvantageService.computePokemonFightAdvantage(challenger, target),
+                        computeAdvantageFromTypes(challenger, target),
+                        0.0,
+                        challenger + " vs " + target);
+            }
+        }
+    }
+
+    /**
+     * The original set based computation of the advantage coefficient.
+     */
+    private static double computeAdvantageFromTypes(PokemonName challenger, PokemonName target) {
+        double advantageCoefficient = 1;
+        for (PokemonType challengerType : challenger.getTypes()) {
+            Set<PokemonType> weakerTypes = new HashSet<>(Arrays.asList(challengerType.weakerTypes()));
+            for (PokemonType targetType : target.getTypes()) {
+                Set<PokemonType> strongerTypes = new HashSet<>(Arrays.asList(targetType.weakerTypes()));
+                if (weakerTypes.contains(targetType)) {
+                    advantageCoefficient += 0.2;
+                }
+                if (strongerTypes.contains(challengerType)) {
+                    advantageCoefficient -= 0.2;
+                }
+            }
+        }
+        return advantageCoefficient;
+    }
+}
@@ -64,6 +64,28 @@ public class PokemonFightServiceTest extends AbstractTestNGSpringContextTests {
         Assert.assertEquals(6.0, score.getY());
     }
 
+    @Test
+    public void getChallengerAndTargetScoreTest() {
+        when(pokemonFightAdvantageService.computePokemonFightAdvantage(PokemonName.ARTICUNO, PokemonName.CHARIZARD)).thenReturn(1.5);
+
+        Assert.assertEquals(15.0, pokemonFightService.getChallengerScore(challenger, target));
+        Assert.assertEquals(6.0, pokemonFightService.getTargetScore(challenger, target));
+    }
+
+    @Test
+    public void getScorePairMatchesChallengerAndTargetScoreTest() {
+        when(pokemonFightAdvantageService.computePokemonFightAdvantage(PokemonName.ARTICUNO, PokemonName.CHARIZARD)).thenReturn(0.75);
+        Pair<Double, Double> score = pokemonFightService.getScorePair(challenger, target);
+
+        Assert.assertEquals(pokemonFightService.getChallengerScore(challenger, target), score.getX());
+        Assert.assertEquals(pokemonFightService.getTargetScore(challenger, target), score.getY());
+    }
+
+    @Test(expectedExceptions = {NullPointerException.class})
+    public void getChallengerScoreWithNullPokemonTest() {
+        pokemonFightService.getChallengerScore(null, target);
+    }
+
     @Test(expectedExceptions = {NullPointerException.class})
     public void getScorePairWithNullPokemonTest() {
         when(pokemonFightAdvantageService.computePokemonFightAdvantage(PokemonName.ARTICUNO, PokemonName.CHARIZARD)).thenReturn(1.0);
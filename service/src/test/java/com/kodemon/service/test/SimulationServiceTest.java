@@ -0,0 +1,134 @@
+package com.kodemon.service.test;
+
+import com.kodemon.persistence.dao.GymDao;
+import com.kodemon.persistence.dao.PokemonDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.entity.Gym;
+import com.kodemon.persistence.entity.Pokemon;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.GymSummary;
+import com.kodemon.service.config.ServiceConfig;
+import com.kodemon.service.implementations.SimulationServiceImpl;
+import com.kodemon.service.interfaces.SimulationService;
+import com.kodemon.service.util.MatchupSimulator;
+import com.kodemon.service.util.TeamSnapshot;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.Calendar;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests of the simulations over the teams loaded from the database
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = ServiceConfig.class)
+public class SimulationServiceTest extends AbstractTransactionalTestNGSpringContextTests {
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Inject
+    private GymDao gymDao;
+
+    @Inject
+    private PokemonDao pokemonDao;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    private MatchupSimulator matchupSimulator;
+    private SimulationService simulationService;
+    private Trainer champion;
+    private Trainer leader;
+    private Gym gym;
+
+    @BeforeClass
+    public void setupSimulator() {
+        matchupSimulator = new MatchupSimulator(2);
+        simulationService = new SimulationServiceImpl(trainerDao, gymDao, matchupSimulator, transactionManager);
+    }
+
+    @AfterClass
+    public void closeSimulator() {
+        matchupSimulator.close();
+    }
+
+    @BeforeMethod
+    public void setup() {
+        champion = trainer("SimulationChampion", PokemonName.GEODUDE, 1_000, 1_000);
+        leader = trainer("SimulationLeader", PokemonName.CHARIZARD, 900, 900);
+        gym = new Gym(leader);
+        gym.setCity("Simulation City");
+        gym.setBadgeName("Simulation Badge");
+        gym.setType(PokemonType.FIRE);
+        gymDao.save(gym);
+    }
+
+    @Test
+    public void simulateGymChallengesTest() {
+        List<GymSummary> gyms = simulationService.findGyms();
+        int index = gyms.stream().map(GymSummary::getId).collect(Collectors.toList()).indexOf(gym.getId());
+
+        MatchupSimulator.GymChallenges challenges = simulationService.simulateGymChallenges(gyms);
+
+        // everybody but the leader challenges the gym, the champion's Geodudes beat the Charizards
+        assertThat(index, is(greaterThanOrEqualTo(0)));
+        assertThat(challenges.getChallengerCount(index), is(trainerDao.count() - 1));
+        assertThat(challenges.getWinCount(index), is(greaterThanOrEqualTo(1L)));
+        long trainers = 0;
+        for (long count : challenges.getTrainersByGymsBeaten()) {
+            trainers += count;
+        }
+        assertThat(trainers, is(trainerDao.count()));
+    }
+
+    @Test
+    public void simulateTournamentTest() {
+        MatchupSimulator.Tournament tournament = simulationService.simulateTournament(2);
+
+        List<TeamSnapshot> seeds = tournament.getSeeds();
+        assertThat(seeds, hasSize(2));
+        assertThat(seeds.get(0).getTrainerId(), is(champion.getId()));
+        assertThat(seeds.get(0).size(), is(2));
+        assertThat(seeds.get(1).getTrainerId(), is(leader.getId()));
+        assertThat(tournament.isWin(0, 1), is(true));
+        assertThat(tournament.getChampion(), is(0));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void simulateTournamentOfNegativeSizeTest() {
+        simulationService.simulateTournament(-1);
+    }
+
+    private Trainer trainer(String userName, PokemonName name, int... levels) {
+        Trainer trainer = new Trainer();
+        trainer.setUserName(userName);
+        trainer.setFirstName("Simulation");
+        trainer.setLastName(userName);
+        trainer.setDateOfBirth(new Calendar.Builder().setDate(1990, 1, 1).build().getTime());
+        trainerDao.save(trainer);
+        for (int level : levels) {
+            Pokemon pokemon = new Pokemon(name);
+            pokemon.setLevel(level);
+            pokemon.setTrainer(trainer);
+            pokemonDao.save(pokemon);
+            trainer.addPokemon(pokemon);
+            trainer.addActivePokemon(pokemon);
+        }
+        return trainer;
+    }
+}
@@ -0,0 +1,138 @@
+package com.kodemon.service.test;
+
+import com.kodemon.api.enums.SuggestionKind;
+import com.kodemon.service.util.SuggestionIndex;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class SuggestionIndexTest {
+
+    private SuggestionIndex suggestionIndex;
+
+    @BeforeMethod
+    public void setUp() {
+        suggestionIndex = new SuggestionIndex();
+        suggestionIndex.add(SuggestionKind.TRAINER, "Ash123", 5);
+        suggestionIndex.add(SuggestionKind.TRAINER, "ash.ketchum", 9);
+        suggestionIndex.add(SuggestionKind.TRAINER, "Brocky123", 20);
+        suggestionIndex.add(SuggestionKind.TRAINER, "Asterix", 0);
+        suggestionIndex.add(SuggestionKind.GYM, "Ashford", 7);
+        suggestionIndex.add(SuggestionKind.NICKNAME, "Sparky", 1);
+        suggestionIndex.add(SuggestionKind.NICKNAME, "sparky", 1);
+        suggestionIndex.markReady();
+    }
+
+    @Test
+    public void suggestMostPopularFirstTest() {
+        assertThat(terms(suggestionIndex.suggest("AS", SuggestionKind.TRAINER, 10)),
+                contains("ash.ketchum", "Ash123", "Asterix"));
+        assertThat(terms(suggestionIndex.suggest("ash", SuggestionKind.TRAINER, 1)), contains("ash.ketchum"));
+        assertThat(suggestionIndex.suggest("misty", SuggestionKind.TRAINER, 10), is(empty()));
+        assertThat(suggestionIndex.suggest("", SuggestionKind.TRAINER, 10), is(empty()));
+    }
+
+    @Test
+    public void suggestAllKindsTest() {
+        List<SuggestionIndex.Suggestion> suggestions = suggestionIndex.suggest("ash", null, 2);
+
+        assertThat(terms(suggestions), contains("ash.ketchum", "Ashford"));
+        assertThat(suggestions.get(1).getKind(), is(SuggestionKind.GYM));
+    }
+
+    @Test
+    public void sharedTermTest() {
+        List<SuggestionIndex.Suggestion> suggestions = suggestionIndex.suggest("spa", SuggestionKind.NICKNAME, 10);
+        assertThat(terms(suggestions), contains("Sparky"));
+        assertThat(suggestions.get(0).getPopularity(), is(2L));
+
+        suggestionIndex.remove(SuggestionKind.NICKNAME, "SPARKY", 1);
+        assertThat(suggestionIndex.suggest("spa", SuggestionKind.NICKNAME, 10).get(0).getPopularity(), is(1L));
+
+        suggestionIndex.remove(SuggestionKind.NICKNAME, "Sparky", 1);
+        assertThat(suggestionIndex.suggest("spa", SuggestionKind.NICKNAME, 10), is(empty()));
+    }
+
+    @Test
+    public void renameMovesPopularityTest() {
+        suggestionIndex.rename(SuggestionKind.TRAINER, "Brocky123", "Brock");
+
+        List<SuggestionIndex.Suggestion> suggestions = suggestionIndex.suggest("brock", SuggestionKind.TRAINER, 10);
+        assertThat(terms(suggestions), contains("Brock"));
+        assertThat(suggestions.get(0).getPopularity(), is(20L));
+    }
+
+    @Test
+    public void addPopularityTest() {
+        suggestionIndex.addPopularity(SuggestionKind.TRAINER, "asterix", 10);
+        suggestionIndex.addPopularity(SuggestionKind.TRAINER, "Obelix", 10);
+
+        assertThat(terms(suggestionIndex.suggest("as", SuggestionKind.TRAINER, 10)),
+                contains("Asterix", "ash.ketchum", "Ash123"));
+        assertThat(suggestionIndex.size(SuggestionKind.TRAINER), is(4));
+    }
+
+    @Test
+    public void notReadyIndexSuggestsNothingTest() {
+        suggestionIndex.clear();
+        suggestionIndex.add(SuggestionKind.TRAINER, "Ash123", 5);
+
+        assertThat(suggestionIndex.suggest("ash", SuggestionKind.TRAINER, 10), is(empty()));
+        suggestionIndex.markReady();
+        assertThat(terms(suggestionIndex.suggest("ash", SuggestionKind.TRAINER, 10)), contains("Ash123"));
+    }
+
+    @Test
+    public void shortPrefixIsServedWithoutScanTest() {
+        for (int i = 0; i < 10 * SuggestionIndex.TOP_SIZE; i++) {
+            suggestionIndex.add(SuggestionKind.TRAINER, "ashling" + i, i);
+        }
+
+        List<SuggestionIndex.Suggestion> suggestions = suggestionIndex.suggest("a", SuggestionKind.TRAINER, 3);
+        int last = 10 * SuggestionIndex.TOP_SIZE - 1;
+        assertThat(terms(suggestions), contains("ashling" + last, "ashling" + (last - 1), "ashling" + (last - 2)));
+        assertThat(suggestionIndex.getScannedCount(), is(0L));
+
+        // a longer prefix scans its range
+        assertThat(terms(suggestionIndex.suggest("ashling49", SuggestionKind.TRAINER, 1)), contains("ashling499"));
+        assertThat(suggestionIndex.getScannedCount(), is(greaterThan(0L)));
+    }
+
+    @Test
+    public void shortPrefixIsTakenAgainAfterDecreaseTest() {
+        for (int i = 0; i < 2 * SuggestionIndex.TOP_SIZE; i++) {
+            suggestionIndex.add(SuggestionKind.TRAINER, "misty" + i, 100 + i);
+        }
+        int last = 2 * SuggestionIndex.TOP_SIZE - 1;
+
+        suggestionIndex.addPopularity(SuggestionKind.TRAINER, "misty" + last, -1000);
+        suggestionIndex.remove(SuggestionKind.TRAINER, "misty" + (last - 1), 100 + last - 1);
+
+        assertThat(terms(suggestionIndex.suggest("mi", SuggestionKind.TRAINER, SuggestionIndex.TOP_SIZE)),
+                hasItem("misty" + (last - SuggestionIndex.TOP_SIZE)));
+        assertThat(terms(suggestionIndex.suggest("mi", SuggestionKind.TRAINER, 2)),
+                contains("misty" + (last - 2), "misty" + (last - 3)));
+        assertThat(terms(suggestionIndex.suggest("mis", SuggestionKind.TRAINER, SuggestionIndex.TOP_SIZE)),
+                not(hasItem("misty" + last)));
+    }
+
+    @Test
+    public void renameMovesTermBetweenShortPrefixesTest() {
+        suggestionIndex.rename(SuggestionKind.TRAINER, "Ash123", "Gary");
+
+        assertThat(terms(suggestionIndex.suggest("as", SuggestionKind.TRAINER, 10)), contains("ash.ketchum", "Asterix"));
+        assertThat(terms(suggestionIndex.suggest("g", SuggestionKind.TRAINER, 10)), contains("Gary"));
+    }
+
+    private static List<String> terms(List<SuggestionIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(SuggestionIndex.Suggestion::getTerm).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,205 @@
+package com.kodemon.service.test;
+
+import com.kodemon.api.enums.SuggestionKind;
+import com.kodemon.persistence.dao.BadgeDao;
+import com.kodemon.persistence.dao.GymDao;
+import com.kodemon.persistence.dao.PokemonDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.dao.TrainerFightDao;
+import com.kodemon.persistence.entity.Gym;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.entity.TrainerFight;
+import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.service.config.ServiceConfig;
+import com.kodemon.service.implementations.*;
+import com.kodemon.service.interfaces.SuggestionService;
+import com.kodemon.service.interfaces.TrainerFightService;
+import com.kodemon.service.util.FightWriteBehind;
+import com.kodemon.service.util.SuggestionIndex;
+import com.kodemon.service.util.TeamSnapshotCache;
+import com.kodemon.service.util.TrainerVersions;
+import com.kodemon.service.util.WildEncounters;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests of the suggestions rebuilt from the database and kept current by the Hibernate writes
+ * <p>
+ * The data are committed, as the index is changed once the transaction commits.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = ServiceConfig.class)
+public class SuggestionServiceTest extends AbstractTestNGSpringContextTests {
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Inject
+    private GymDao gymDao;
+
+    @Inject
+    private PokemonDao pokemonDao;
+
+    @Inject
+    private TrainerFightDao trainerFightDao;
+
+    @Inject
+    private BadgeDao badgeDao;
+
+    @Inject
+    private TrainerVersions trainerVersions;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private SuggestionIndex suggestionIndex;
+
+    private SuggestionService suggestionService;
+    private TransactionTemplate transactionTemplate;
+    private Long challengerId;
+    private Long gymId;
+
+    @BeforeClass
+    public void setup() {
+        suggestionService = new SuggestionServiceImpl(trainerDao, gymDao, pokemonDao, suggestionIndex, transactionManager);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> {
+            Trainer challenger = trainerDao.save(trainer("SuggestChallenger"));
+            trainerDao.save(trainer("suggestQuiet"));
+            Gym gym = new Gym(trainerDao.save(trainer("SuggestLeader")));
+            gym.setCity("Suggestville");
+            gym.setBadgeName("Suggest Badge");
+            gym.setType(PokemonType.FIRE);
+            gymDao.save(gym);
+            trainerFightDao.save(fight(challenger, gym));
+            trainerFightDao.save(fight(challenger, gym));
+            challengerId = challenger.getId();
+            gymId = gym.getId();
+            return null;
+        });
+        suggestionService.rebuildIndex();
+    }
+
+    @AfterClass
+    public void cleanup() {
+        transactionTemplate.execute(status -> {
+            trainerFightDao.delete(trainerFightDao.findByTargetGym(gymDao.findOne(gymId)));
+            gymDao.delete(gymId);
+            for (String userName : new String[]{"SuggestChallenger", "SuggestRenamed", "SuggestLeader"}) {
+                trainerDao.delete(trainerDao.findByUserName(userName));
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void rebuiltPopularityTest() {
+        List<SuggestionIndex.Suggestion> suggestions = suggestionService.suggest("SUGGEST", SuggestionKind.TRAINER, 1);
+
+        assertThat(terms(suggestions), contains("SuggestChallenger"));
+        assertThat(suggestions.get(0).getPopularity(), is(greaterThanOrEqualTo(2L)));
+        assertThat(terms(suggestionService.suggest("suggestv", null, 10)), contains("Suggestville"));
+        assertThat(terms(suggestionService.suggest("suggest b", SuggestionKind.BADGE, 10)), contains("Suggest Badge"));
+    }
+
+    @Test
+    public void committedFightAddsPopularityTest() {
+        long trainerPopularity = popularity(SuggestionKind.TRAINER, "SuggestChallenger");
+        long gymPopularity = popularity(SuggestionKind.GYM, "Suggestville");
+
+        transactionTemplate.execute(status -> trainerFightDao.save(
+                fight(trainerDao.findOne(challengerId), gymDao.findOne(gymId))));
+
+        assertThat(popularity(SuggestionKind.TRAINER, "SuggestChallenger"), is(trainerPopularity + 1));
+        assertThat(popularity(SuggestionKind.GYM, "Suggestville"), is(gymPopularity + 1));
+    }
+
+    @Test
+    public void fightForBadgeWithCachedTeamAddsPopularityTest() {
+        TrainerServiceImpl trainerService = new TrainerServiceImpl(trainerDao,
+                new PokemonServiceImpl(pokemonDao, WildEncounters.standard()));
+        TeamSnapshotCache teamSnapshotCache = new TeamSnapshotCache(trainerVersions, 10);
+        TrainerFightService trainerFightService = new TrainerFightServiceImpl(trainerDao, trainerFightDao,
+                new PokemonFightServiceImpl(new PokemonFightAdvantageServiceImpl()), gymDao, new BadgeServiceImpl(badgeDao),
+                trainerService, new TimeServiceImpl(), teamSnapshotCache, FightWriteBehind.synchronous(trainerFightDao));
+        // detached, as they come from the facades
+        Trainer challenger = transactionTemplate.execute(status -> trainerDao.findOne(challengerId));
+        Gym gym = transactionTemplate.execute(status -> gymDao.findOne(gymId));
+        long trainerPopularity = popularity(SuggestionKind.TRAINER, "SuggestChallenger");
+        long gymPopularity = popularity(SuggestionKind.GYM, "Suggestville");
+
+        // the second fight takes the challenger's team from the cache
+        for (int i = 0; i < 2; i++) {
+            transactionTemplate.execute(status -> trainerFightService.fightForBadge(challenger, gym));
+        }
+
+        assertThat(teamSnapshotCache.getHitCount(), is(greaterThan(0L)));
+        assertThat(popularity(SuggestionKind.TRAINER, "SuggestChallenger"), is(trainerPopularity + 2));
+        assertThat(popularity(SuggestionKind.GYM, "Suggestville"), is(gymPopularity + 2));
+    }
+
+    @Test
+    public void committedRenameTest() {
+        transactionTemplate.execute(status -> {
+            trainerDao.findByUserNameNormalized("suggestquiet").setUserName("SuggestRenamed");
+            return null;
+        });
+
+        assertThat(suggestionService.suggest("suggestq", SuggestionKind.TRAINER, 10), is(empty()));
+        assertThat(terms(suggestionService.suggest("suggestr", SuggestionKind.TRAINER, 10)), contains("SuggestRenamed"));
+    }
+
+    @Test
+    public void rolledBackInsertIsNotSuggestedTest() {
+        transactionTemplate.execute(status -> {
+            trainerDao.save(trainer("SuggestRolledBack"));
+            trainerDao.flush();
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(suggestionService.suggest("suggestro", SuggestionKind.TRAINER, 10), is(empty()));
+    }
+
+    private long popularity(SuggestionKind kind, String term) {
+        return suggestionService.suggest(term, kind, 1).get(0).getPopularity();
+    }
+
+    private static List<String> terms(List<SuggestionIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(SuggestionIndex.Suggestion::getTerm).collect(Collectors.toList());
+    }
+
+    private static TrainerFight fight(Trainer challenger, Gym gym) {
+        TrainerFight fight = new TrainerFight();
+        fight.setChallenger(challenger);
+        fight.setTargetGym(gym);
+        fight.setFightTime(new Date());
+        fight.setWasChallengerSuccessful(false);
+        return fight;
+    }
+
+    private static Trainer trainer(String userName) {
+        Trainer trainer = new Trainer();
+        trainer.setUserName(userName);
+        trainer.setFirstName("Suggest");
+        trainer.setLastName(userName);
+        trainer.setDateOfBirth(new Calendar.Builder().setDate(1990, 1, 1).build().getTime());
+        return trainer;
+    }
+}
@@ -0,0 +1,79 @@
+package com.kodemon.service.test;
+
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.service.util.TeamOptimizer;
+import com.kodemon.service.util.TeamSnapshot;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Latency of the team suggestion for a trainer with five hundred Pokemons by default
+ * <p>
+ * Belongs to the {@code performance} group, which is only run with the {@code performance} Maven profile.
+ * {@code -Dkodemon.performance.pokemonCount} changes the number of the Pokemons.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Test(groups = "performance")
+public class TeamOptimizerLatencyTest {
+
+    private static final int POKEMON_COUNT = Integer.getInteger("kodemon.performance.pokemonCount", 500);
+
+    private static final int WARM_UP_CALLS = 200;
+    private static final int MEASURED_CALLS = 200;
+    private static final long SUGGESTION_BUDGET_MILLIS = 50;
+
+    private TeamOptimizer teamOptimizer;
+    private int[][] species;
+    private int[][] levels;
+    private TeamSnapshot[] leaders;
+
+    @BeforeClass
+    public void setup() {
+        teamOptimizer = new TeamOptimizer(Runtime.getRuntime().availableProcessors());
+        SplittableRandom random = new SplittableRandom(42);
+        int calls = WARM_UP_CALLS + MEASURED_CALLS;
+        species = new int[calls][POKEMON_COUNT];
+        levels = new int[calls][POKEMON_COUNT];
+        leaders = new TeamSnapshot[calls];
+        for (int call = 0; call < calls; call++) {
+            for (int pokemon = 0; pokemon < POKEMON_COUNT; pokemon++) {
+                species[call][pokemon] = random.nextInt(PokemonName.values().length);
+                levels[call][pokemon] = 1 + random.nextInt(100);
+            }
+            int[] leaderSpecies = new int[6];
+            int[] leaderLevels = new int[6];
+            for (int slot = 0; slot < 6; slot++) {
+                leaderSpecies[slot] = random.nextInt(PokemonName.values().length);
+                leaderLevels[slot] = 1 + random.nextInt(100);
+            }
+            leaders[call] = new TeamSnapshot((long) call, "leader" + call, leaderSpecies, leaderLevels);
+        }
+    }
+
+    @AfterClass
+    public void closeOptimizer() {
+        teamOptimizer.close();
+    }
+
+    @Test
+    public void suggestTeamTest() {
+        for (int call = 0; call < WARM_UP_CALLS; call++) {
+            assertThat(teamOptimizer.optimize(species[call], levels[call], leaders[call]).getIndices(), hasSize(6));
+        }
+        long maxNanos = 0;
+        for (int call = WARM_UP_CALLS; call < species.length; call++) {
+            long start = System.nanoTime();
+            assertThat(teamOptimizer.optimize(species[call], levels[call], leaders[call]).getIndices(), hasSize(6));
+            maxNanos = Math.max(maxNanos, System.nanoTime() - start);
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(maxNanos), is(lessThan(SUGGESTION_BUDGET_MILLIS)));
+    }
+}
@@ -0,0 +1,162 @@
+package com.kodemon.service.test;
+
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.service.util.TeamOptimizer;
+import com.kodemon.service.util.TeamSnapshot;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TeamOptimizerTest {
+
+    private static final int SPECIES = PokemonName.values().length;
+
+    private final TeamOptimizer teamOptimizer = new TeamOptimizer(2);
+
+    @AfterClass
+    public void closeOptimizer() {
+        teamOptimizer.close();
+    }
+
+    @Test
+    public void bestOfAllSelectionsTest() {
+        SplittableRandom random = new SplittableRandom(17);
+        for (int i = 0; i < 300; i++) {
+            int[] species = randomSpecies(random, random.nextInt(9));
+            int[] levels = randomLevels(random, species.length);
+            int leaderTeamSize = 1 + random.nextInt(6);
+            TeamSnapshot defender = new TeamSnapshot(1L, "leader", randomSpecies(random, leaderTeamSize),
+                    randomLevels(random, leaderTeamSize));
+
+            TeamOptimizer.Team team = teamOptimizer.optimize(species, levels, defender);
+
+            assertThat(team.getMargin(), is(bestMargin(species, levels, defender, allIndices(species.length))));
+            assertThat(team.getMargin(), is(margin(species, levels, team.getIndices(), defender)));
+            assertThat(team.getIndices(), hasSize(Math.min(species.length, 6)));
+            assertThat(new HashSet<>(team.getIndices()), hasSize(team.getIndices().size()));
+        }
+    }
+
+    @Test
+    public void largeCollectionSearchedInParallelTest() {
+        SplittableRandom random = new SplittableRandom(23);
+        int[] species = randomSpecies(random, 500);
+        int[] levels = randomLevels(random, 500);
+        TeamSnapshot defender = new TeamSnapshot(1L, "leader", randomSpecies(random, 6), randomLevels(random, 6));
+
+        TeamOptimizer.Team team = teamOptimizer.optimize(species, levels, defender);
+
+        // every slot is filled from the Pokemons left by the slots before, kept by the set of the filled slots
+        double[] best = new double[1 << 6];
+        Arrays.fill(best, Double.NEGATIVE_INFINITY);
+        best[0] = 0;
+        for (int pokemon = 0; pokemon < species.length; pokemon++) {
+            for (int filled = (1 << 6) - 1; filled >= 0; filled--) {
+                for (int slot = 0; slot < 6; slot++) {
+                    if ((filled & 1 << slot) == 0 && best[filled] > Double.NEGATIVE_INFINITY) {
+                        best[filled | 1 << slot] = Math.max(best[filled | 1 << slot],
+                                best[filled] + slotScore(species, levels, pokemon, slot, defender));
+                    }
+                }
+            }
+        }
+        // the sums are rounded in another order than in the fight
+        assertThat(team.getMargin(), is(closeTo(best[(1 << 6) - 1] - defender.getLevelSum(), 1e-9)));
+        assertThat(team.getMargin(), is(margin(species, levels, team.getIndices(), defender)));
+        assertThat(teamOptimizer.optimize(species, levels, defender).getIndices(), is(team.getIndices()));
+    }
+
+    @Test
+    public void smallerTeamThanLeaderTest() {
+        int[] species = {PokemonName.PIDGEY.ordinal()};
+        int[] levels = {10};
+        TeamSnapshot defender = new TeamSnapshot(1L, "leader",
+                new int[]{PokemonName.RATTATA.ordinal(), PokemonName.RATTATA.ordinal()}, new int[]{5, 5});
+
+        TeamOptimizer.Team team = teamOptimizer.optimize(species, levels, defender);
+
+        assertThat(team.getIndices(), contains(0));
+        assertThat(team.getMargin(), is(0.0));
+        assertThat(team.isWinning(), is(false));
+    }
+
+    @Test
+    public void noPokemonsTest() {
+        TeamSnapshot defender = new TeamSnapshot(1L, "leader", new int[]{PokemonName.RATTATA.ordinal()}, new int[]{5});
+
+        TeamOptimizer.Team team = teamOptimizer.optimize(new int[0], new int[0], defender);
+
+        assertThat(team.getIndices(), is(empty()));
+        assertThat(team.getMargin(), is(-5.0));
+    }
+
+    private static double bestMargin(int[] species, int[] levels, TeamSnapshot defender, List<Integer> candidates) {
+        return bestMargin(species, levels, defender, candidates, new ArrayList<>(), Math.min(species.length, 6));
+    }
+
+    private static double bestMargin(int[] species, int[] levels, TeamSnapshot defender, List<Integer> candidates,
+                                     List<Integer> picked, int size) {
+        if (picked.size() == size) {
+            return margin(species, levels, picked, defender);
+        }
+        double best = Double.NEGATIVE_INFINITY;
+        for (int candidate : candidates) {
+            if (!picked.contains(candidate)) {
+                picked.add(candidate);
+                best = Math.max(best, bestMargin(species, levels, defender, candidates, picked, size));
+                picked.remove(picked.size() - 1);
+            }
+        }
+        return best;
+    }
+
+    private static double margin(int[] species, int[] levels, List<Integer> picked, TeamSnapshot defender) {
+        int[] teamSpecies = new int[picked.size()];
+        int[] teamLevels = new int[picked.size()];
+        for (int slot = 0; slot < picked.size(); slot++) {
+            teamSpecies[slot] = species[picked.get(slot)];
+            teamLevels[slot] = levels[picked.get(slot)];
+        }
+        return new TeamSnapshot(null, null, teamSpecies, teamLevels).margin(defender);
+    }
+
+    private static double slotScore(int[] species, int[] levels, int pokemon, int slot, TeamSnapshot defender) {
+        return new TeamSnapshot(null, null, new int[]{species[pokemon]}, new int[]{levels[pokemon]})
+                .margin(new TeamSnapshot(null, null, new int[]{defender.getSpecies(slot)}, new int[]{0}));
+    }
+
+    private static List<Integer> allIndices(int size) {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            indices.add(i);
+        }
+        return indices;
+    }
+
+    private static int[] randomSpecies(SplittableRandom random, int size) {
+        int[] species = new int[size];
+        for (int i = 0; i < size; i++) {
+            species[i] = random.nextInt(SPECIES);
+        }
+        return species;
+    }
+
+    private static int[] randomLevels(SplittableRandom random, int size) {
+        int[] levels = new int[size];
+        for (int i = 0; i < size; i++) {
+            levels[i] = 1 + random.nextInt(100);
+        }
+        return levels;
+    }
+}
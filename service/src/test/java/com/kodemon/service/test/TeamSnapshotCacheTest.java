@@ -0,0 +1,103 @@
+package com.kodemon.service.test;
+
+import com.kodemon.service.util.TeamSnapshot;
+import com.kodemon.service.util.TeamSnapshotCache;
+import com.kodemon.service.util.TrainerVersions;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class TeamSnapshotCacheTest {
+
+    private static final int CAPACITY = 3;
+
+    private TrainerVersions trainerVersions;
+    private TeamSnapshotCache teamSnapshotCache;
+    private AtomicInteger loadCount;
+
+    @BeforeMethod
+    public void setUp() {
+        trainerVersions = new TrainerVersions();
+        teamSnapshotCache = new TeamSnapshotCache(trainerVersions, CAPACITY);
+        loadCount = new AtomicInteger();
+    }
+
+    @Test
+    public void getLoadsOnlyOnMissTest() {
+        TeamSnapshot first = teamSnapshotCache.getChallengerTeam(1L, this::load);
+        TeamSnapshot second = teamSnapshotCache.getChallengerTeam(1L, this::load);
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(loadCount.get(), is(1));
+        assertThat(teamSnapshotCache.getMissCount(), is(1L));
+        assertThat(teamSnapshotCache.getHitCount(), is(1L));
+        assertThat(teamSnapshotCache.getPutCount(), is(1L));
+    }
+
+    @Test
+    public void advancedVersionReloadsTeamTest() {
+        TeamSnapshot first = teamSnapshotCache.getChallengerTeam(1L, this::load);
+        teamSnapshotCache.getLeaderTeam(2L, this::load);
+
+        trainerVersions.advance(1L);
+        trainerVersions.advance(2L);
+
+        TeamSnapshot second = teamSnapshotCache.getChallengerTeam(1L, this::load);
+        assertThat(second, is(not(sameInstance(first))));
+        teamSnapshotCache.getLeaderTeam(2L, this::load);
+        assertThat(loadCount.get(), is(4));
+        assertThat(teamSnapshotCache.size(), is(2));
+    }
+
+    @Test
+    public void teamLoadedDuringWriteIsReloadedTest() {
+        teamSnapshotCache.getChallengerTeam(1L, id -> {
+            trainerVersions.advance(id);
+            return load(id);
+        });
+
+        teamSnapshotCache.getChallengerTeam(1L, this::load);
+        teamSnapshotCache.getChallengerTeam(1L, this::load);
+
+        assertThat(loadCount.get(), is(2));
+    }
+
+    @Test
+    public void missingTrainerIsNotCachedTest() {
+        assertThat(teamSnapshotCache.getChallengerTeam(1L, id -> null), is(nullValue()));
+        assertThat(teamSnapshotCache.size(), is(0));
+    }
+
+    @Test
+    public void leadersStayWhenChallengersAreEvictedTest() {
+        teamSnapshotCache.getLeaderTeam(100L, this::load);
+        for (long id = 1; id <= 10; id++) {
+            teamSnapshotCache.getChallengerTeam(id, this::load);
+        }
+
+        assertThat(teamSnapshotCache.size(), is(CAPACITY + 1));
+        assertThat(teamSnapshotCache.getEvictionCount(), is(10L - CAPACITY));
+        int loads = loadCount.get();
+        teamSnapshotCache.getLeaderTeam(100L, this::load);
+        // the latest challenger is never the one evicted
+        teamSnapshotCache.getChallengerTeam(10L, this::load);
+        assertThat(loadCount.get(), is(loads));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void zeroCapacityTest() {
+        new TeamSnapshotCache(trainerVersions, 0);
+    }
+
+    private TeamSnapshot load(Long id) {
+        loadCount.incrementAndGet();
+        return new TeamSnapshot(id, "trainer" + id, new int[]{id.intValue() % 151}, new int[]{5});
+    }
+}
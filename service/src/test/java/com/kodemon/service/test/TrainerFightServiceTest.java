@@ -12,10 +12,13 @@ import com.kodemon.persistence.enums.PokemonType;
 import com.kodemon.service.config.ServiceConfig;
 import com.kodemon.service.interfaces.PokemonFightService;
 import com.kodemon.service.interfaces.TrainerFightService;
-import com.kodemon.service.util.Pair;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
 import org.testng.annotations.BeforeClass;
@@ -130,7 +133,8 @@ public class TrainerFightServiceTest extends AbstractTransactionalTestNGSpringCo
 
     @Test
     public void wasFightForBadgeSuccessfulTest() {
-        when(pokemonFightService.getScorePair(pikachu, onix)).thenReturn(new Pair<Double, Double>(3.2, 5.0));
+        when(pokemonFightService.getChallengerScore(pikachu, onix)).thenReturn(3.2);
+        when(pokemonFightService.getTargetScore(pikachu, onix)).thenReturn(5.0);
         Boolean result = trainerFightService.wasFightForBadgeSuccessful(challenger, defender);
         assertThat(result, is(false));
     }
@@ -153,8 +157,10 @@ public class TrainerFightServiceTest extends AbstractTransactionalTestNGSpringCo
         defender.addPokemon(charizard);
         defender.addActivePokemon(charizard);
 
-        when(pokemonFightService.getScorePair(pikachu, onix)).thenReturn(new Pair<Double, Double>(3.2, 5.0));
-        when(pokemonFightService.getScorePair(articuno, charizard)).thenReturn(new Pair<Double, Double>(10.0, 6.0));
+        when(pokemonFightService.getChallengerScore(pikachu, onix)).thenReturn(3.2);
+        when(pokemonFightService.getTargetScore(pikachu, onix)).thenReturn(5.0);
+        when(pokemonFightService.getChallengerScore(articuno, charizard)).thenReturn(10.0);
+        when(pokemonFightService.getTargetScore(articuno, charizard)).thenReturn(6.0);
         Boolean result = trainerFightService.wasFightForBadgeSuccessful(challenger, defender);
         assertThat(result, is(true));
     }
@@ -220,6 +226,28 @@ public class TrainerFightServiceTest extends AbstractTransactionalTestNGSpringCo
         verify(trainerFightDao).findAll();
     }
 
+    @Test
+    public void findAllPagedTest() {
+        Pageable pageable = new PageRequest(1, 2, TrainerFightDao.HISTORY_ORDER);
+        Slice<TrainerFight> slice = new SliceImpl<>(Arrays.asList(firstFight, secondFight), pageable, true);
+        when(trainerFightDao.findAllBy(pageable)).thenReturn(slice);
+
+        Slice<TrainerFight> result = trainerFightService.findAll(new PageRequest(1, 2));
+        assertThat(result, is(slice));
+    }
+
+    @Test
+    public void findLatestSinceTest() {
+        Date from = new Calendar.Builder().setDate(2016, 0, 1).build().getTime();
+        Date beforeTime = new Calendar.Builder().setDate(2016, 5, 1).build().getTime();
+        Pageable pageable = new PageRequest(0, 2, TrainerFightDao.HISTORY_ORDER);
+        when(trainerFightDao.findByFightTimeGreaterThanEqual(from, pageable)).thenReturn(Arrays.asList(firstFight, secondFight));
+        when(trainerFightDao.findByFightTimeGreaterThanEqualBefore(from, beforeTime, 7L, pageable)).thenReturn(Collections.singletonList(secondFight));
+
+        assertThat(trainerFightService.findLatestSince(from, null, null, null, 2), is(Arrays.asList(firstFight, secondFight)));
+        assertThat(trainerFightService.findLatestSince(from, beforeTime, 7L, null, 2), is(Collections.singletonList(secondFight)));
+    }
+
     @Test
     public void successfulSaveTest() {
         when(trainerFightDao.save(firstFight)).thenReturn(firstFight);
@@ -0,0 +1,122 @@
+package com.kodemon.service.test;
+
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.service.config.ServiceConfig;
+import com.kodemon.service.implementations.TrainerSearchServiceImpl;
+import com.kodemon.service.interfaces.TrainerSearchService;
+import com.kodemon.service.util.UserNameIndex;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.Calendar;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests of the username search through the index kept by the Hibernate writes
+ * <p>
+ * The trainers are committed, as the index is changed once the transaction commits.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = ServiceConfig.class)
+public class TrainerSearchServiceTest extends AbstractTestNGSpringContextTests {
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private UserNameIndex userNameIndex;
+
+    private TrainerSearchService trainerSearchService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeClass
+    public void setup() {
+        trainerSearchService = new TrainerSearchServiceImpl(trainerDao, userNameIndex, transactionManager);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> {
+            trainerDao.save(trainer("SearchMeOnce"));
+            trainerDao.save(trainer("searchmetwice"));
+            trainerDao.save(trainer("FindNobody"));
+            return null;
+        });
+    }
+
+    @AfterClass
+    public void cleanup() {
+        transactionTemplate.execute(status -> {
+            for (String userName : new String[]{"SearchMeOnce", "searchmetwice", "FindNobody", "RenamedSearcher"}) {
+                trainerDao.delete(trainerDao.findByUserName(userName));
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void indexIsBuiltOnStartupTest() {
+        assertThat(userNameIndex.isReady(), is(true));
+    }
+
+    @Test
+    public void findByUserNameIgnoreCaseContainingTest() {
+        assertThat(userNames(trainerSearchService.findByUserNameIgnoreCaseContaining("SEARCHME")),
+                contains("SearchMeOnce", "searchmetwice"));
+        assertThat(userNames(trainerSearchService.findByUserNameIgnoreCaseContaining("metw")), contains("searchmetwice"));
+        assertThat(trainerSearchService.findByUserNameIgnoreCaseContaining("searchnobody"), is(empty()));
+    }
+
+    @Test
+    public void findByUserNameContainingTest() {
+        assertThat(userNames(trainerSearchService.findByUserNameContaining("SearchMe")), contains("SearchMeOnce"));
+    }
+
+    @Test
+    public void findAfterRenameTest() {
+        transactionTemplate.execute(status -> {
+            trainerDao.findByUserName("FindNobody").get(0).setUserName("RenamedSearcher");
+            return null;
+        });
+
+        assertThat(trainerSearchService.findByUserNameIgnoreCaseContaining("nobody"), is(empty()));
+        assertThat(userNames(trainerSearchService.findByUserNameIgnoreCaseContaining("dsearch")), contains("RenamedSearcher"));
+    }
+
+    @Test
+    public void rolledBackInsertIsNotIndexedTest() {
+        long[] before = userNameIndex.candidates("rolledback");
+        transactionTemplate.execute(status -> {
+            trainerDao.saveAndFlush(trainer("RolledBackTrainer"));
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(userNameIndex.candidates("rolledback"), is(before));
+    }
+
+    private static List<String> userNames(List<Trainer> trainers) {
+        return trainers.stream().map(Trainer::getUserName).collect(Collectors.toList());
+    }
+
+    private static Trainer trainer(String userName) {
+        Trainer trainer = new Trainer();
+        trainer.setUserName(userName);
+        trainer.setFirstName("Search");
+        trainer.setLastName(userName);
+        trainer.setDateOfBirth(new Calendar.Builder().setDate(1990, 1, 1).build().getTime());
+        return trainer;
+    }
+}
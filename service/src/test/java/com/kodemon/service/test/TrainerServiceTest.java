@@ -12,6 +12,9 @@ import com.kodemon.service.interfaces.TrainerService;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
 import org.testng.annotations.BeforeClass;
@@ -101,6 +104,13 @@ public class TrainerServiceTest extends AbstractTransactionalTestNGSpringContext
         verify(trainerDao).findByUserName("Bobby");
     }
 
+    @Test
+    public void findByUserNameIgnoreCaseTest() {
+        when(trainerDao.findByUserNameNormalized("bobby")).thenReturn(trainer1);
+        assertThat(trainerService.findByUserNameIgnoreCase("BoBBy"), is(trainer1));
+        verify(trainerDao).findByUserNameNormalized("bobby");
+    }
+
     @Test
     public void findByUserNameLikeTest() {
         when(trainerDao.findByUserNameLike("Bob-by")).thenReturn(Collections.singletonList(trainer1));
@@ -197,6 +207,16 @@ public class TrainerServiceTest extends AbstractTransactionalTestNGSpringContext
         verify(trainerDao).findAll();
     }
 
+    @Test
+    public void findAfterIdTest() {
+        Pageable firstPage = new PageRequest(0, 2, new Sort(Sort.Direction.ASC, "id"));
+        when(trainerDao.findByIdGreaterThan(0L, firstPage)).thenReturn(Arrays.asList(trainer1, trainer2));
+        when(trainerDao.findByIdGreaterThan(5L, firstPage)).thenReturn(Collections.singletonList(trainer2));
+
+        assertThat(trainerService.findAfterId(null, 2), contains(trainer1, trainer2));
+        assertThat(trainerService.findAfterId(5L, 2), contains(trainer2));
+    }
+
     @Test
     public void saveCorrectTest() {
         when(trainerDao.save(trainer1)).thenReturn(trainer1);
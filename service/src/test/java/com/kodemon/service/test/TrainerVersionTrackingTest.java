@@ -0,0 +1,139 @@
+package com.kodemon.service.test;
+
+import com.kodemon.persistence.dao.PokemonDao;
+import com.kodemon.persistence.dao.TrainerDao;
+import com.kodemon.persistence.entity.Pokemon;
+import com.kodemon.persistence.entity.Trainer;
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.service.config.ServiceConfig;
+import com.kodemon.service.util.TrainerVersions;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.Calendar;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests of the trainer versions advanced by the Hibernate writes
+ * <p>
+ * The data are committed, as the versions are advanced once more when the transaction completes.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = ServiceConfig.class)
+public class TrainerVersionTrackingTest extends AbstractTestNGSpringContextTests {
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Inject
+    private PokemonDao pokemonDao;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private TrainerVersions trainerVersions;
+
+    private TransactionTemplate transactionTemplate;
+    private Long trainerId;
+    private Long otherTrainerId;
+
+    @BeforeClass
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        trainerId = transactionTemplate.execute(status -> trainer("versionedTrainer", PokemonName.PIKACHU).getId());
+        otherTrainerId = transactionTemplate.execute(status -> trainer("otherTrainer", PokemonName.EEVEE).getId());
+    }
+
+    @AfterClass
+    public void cleanup() {
+        transactionTemplate.execute(status -> {
+            for (Long id : new Long[]{trainerId, otherTrainerId}) {
+                Trainer trainer = trainerDao.findOne(id);
+                trainer.getActivePokemons().clear();
+                pokemonDao.delete(trainer.getPokemons());
+                trainerDao.delete(trainer);
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void levelUpAdvancesVersionTest() {
+        long version = trainerVersions.getVersion(trainerId);
+        long otherVersion = trainerVersions.getVersion(otherTrainerId);
+
+        transactionTemplate.execute(status -> {
+            Pokemon pokemon = trainerDao.findOne(trainerId).getPokemons().get(0);
+            pokemon.setLevel(pokemon.getLevel() + 1);
+            return null;
+        });
+
+        assertThat(trainerVersions.getVersion(trainerId), is(greaterThan(version)));
+        assertThat(trainerVersions.getVersion(otherTrainerId), is(otherVersion));
+    }
+
+    @Test
+    public void teamReorderAdvancesVersionTest() {
+        long version = trainerVersions.getVersion(trainerId);
+
+        transactionTemplate.execute(status -> {
+            Trainer trainer = trainerDao.findOne(trainerId);
+            trainer.getActivePokemons().clear();
+            return null;
+        });
+
+        assertThat(trainerVersions.getVersion(trainerId), is(greaterThan(version)));
+    }
+
+    @Test
+    public void readDoesNotAdvanceVersionTest() {
+        long version = trainerVersions.getVersion(trainerId);
+
+        transactionTemplate.execute(status -> trainerDao.findOne(trainerId).getPokemons().size());
+
+        assertThat(trainerVersions.getVersion(trainerId), is(version));
+    }
+
+    @Test
+    public void versionsStayWithinStripesTest() {
+        TrainerVersions versions = new TrainerVersions(16);
+        for (long id = 1; id <= 1000; id++) {
+            versions.advance(id);
+        }
+
+        assertThat(versions.size(), is(16));
+        assertThat(versions.getVersion(1L), is(versions.getVersion(17L)));
+        assertThat(versions.getVersion(1L), is(greaterThan(1L)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void stripesNotPowerOfTwoTest() {
+        new TrainerVersions(100);
+    }
+
+    private Trainer trainer(String userName, PokemonName pokemonName) {
+        Trainer trainer = new Trainer();
+        trainer.setUserName(userName);
+        trainer.setFirstName("Version");
+        trainer.setLastName(userName);
+        trainer.setDateOfBirth(new Calendar.Builder().setDate(1990, 1, 1).build().getTime());
+        trainerDao.save(trainer);
+        Pokemon pokemon = new Pokemon(pokemonName);
+        pokemon.setTrainer(trainer);
+        pokemon.setLevel(5);
+        pokemonDao.save(pokemon);
+        trainer.addPokemon(pokemon);
+        trainer.addActivePokemon(pokemon);
+        return trainer;
+    }
+}
@@ -0,0 +1,64 @@
+package com.kodemon.service.test;
+
+import com.kodemon.service.util.UserNameIndex;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Latency of the substring search in the username index over five million usernames by default
+ * <p>
+ * Belongs to the {@code performance} group, which is only run with the {@code performance} Maven profile.
+ * The index alone is measured, the usernames are generated rather than stored; {@code -Dkodemon.performance.trainerCount}
+ * changes their number.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Test(groups = "performance")
+public class UserNameIndexLatencyTest {
+
+    private static final int TRAINER_COUNT = Integer.getInteger("kodemon.performance.trainerCount", 5_000_000);
+    private static final String CHARACTERS = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    private static final int WARM_UP_CALLS = 20;
+    private static final int MEASURED_CALLS = 200;
+    private static final long SEARCH_BUDGET_MILLIS = 10;
+
+    private UserNameIndex userNameIndex;
+    private String[] userNames;
+
+    @BeforeClass
+    public void setup() {
+        Random random = new Random(42);
+        userNameIndex = new UserNameIndex();
+        userNames = new String[WARM_UP_CALLS + MEASURED_CALLS];
+        for (int id = 0; id < TRAINER_COUNT; id++) {
+            StringBuilder userName = new StringBuilder();
+            for (int i = 6 + random.nextInt(6); i > 0; i--) {
+                userName.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+            }
+            userNameIndex.add((long) id, userName.toString());
+            if (id % (TRAINER_COUNT / userNames.length) == 0 && id / (TRAINER_COUNT / userNames.length) < userNames.length) {
+                userNames[id / (TRAINER_COUNT / userNames.length)] = userName.toString();
+            }
+        }
+    }
+
+    @Test
+    public void substringSearchTest() {
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            assertThat(userNameIndex.candidates(userNames[i].substring(1, 5)).length, is(greaterThan(0)));
+        }
+        long start = System.nanoTime();
+        for (int i = WARM_UP_CALLS; i < userNames.length; i++) {
+            assertThat(userNameIndex.candidates(userNames[i].substring(1, 5)).length, is(greaterThan(0)));
+        }
+        long averageMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / MEASURED_CALLS;
+        assertThat(averageMillis, is(lessThanOrEqualTo(SEARCH_BUDGET_MILLIS)));
+    }
+}
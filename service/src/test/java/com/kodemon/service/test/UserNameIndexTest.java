@@ -0,0 +1,63 @@
+package com.kodemon.service.test;
+
+import com.kodemon.service.util.UserNameIndex;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class UserNameIndexTest {
+
+    private UserNameIndex userNameIndex;
+
+    @BeforeMethod
+    public void setUp() {
+        userNameIndex = new UserNameIndex();
+        userNameIndex.add(3L, "Ash123");
+        userNameIndex.add(1L, "ash.ketchum");
+        userNameIndex.add(2L, "Brocky123");
+        userNameIndex.add(4L, "MistygurlxD");
+    }
+
+    @Test
+    public void candidatesOfLongSubstringTest() {
+        assertThat(userNameIndex.candidates("ASH"), is(new long[]{1L, 3L}));
+        assertThat(userNameIndex.candidates("y123"), is(new long[]{2L}));
+        assertThat(userNameIndex.candidates("ketchup"), is(new long[0]));
+    }
+
+    @Test
+    public void candidatesOfShortSubstringTest() {
+        assertThat(userNameIndex.candidates("12"), is(new long[]{2L, 3L}));
+        assertThat(userNameIndex.candidates("x"), is(new long[]{4L}));
+        assertThat(userNameIndex.candidates(""), is(new long[]{1L, 2L, 3L, 4L}));
+    }
+
+    @Test
+    public void candidatesMayNotContainSubstringTest() {
+        userNameIndex.add(5L, "abcxbcd");
+        // all the grams of "abcd" are there, just not next to each other
+        assertThat(userNameIndex.candidates("abcd"), is(new long[]{5L}));
+    }
+
+    @Test
+    public void removeTest() {
+        userNameIndex.remove(3L, "Ash123");
+
+        assertThat(userNameIndex.candidates("ash"), is(new long[]{1L}));
+        assertThat(userNameIndex.candidates("123"), is(new long[]{2L}));
+    }
+
+    @Test
+    public void addTwiceTest() {
+        userNameIndex.add(1L, "ash.ketchum");
+        userNameIndex.remove(1L, "ash.ketchum");
+
+        assertThat(userNameIndex.candidates("ash"), is(new long[]{3L}));
+        assertThat(userNameIndex.getQueryCount(), is(1L));
+    }
+}
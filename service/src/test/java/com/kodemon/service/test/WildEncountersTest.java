@@ -0,0 +1,101 @@
+package com.kodemon.service.test;
+
+import com.kodemon.persistence.entity.Pokemon;
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.service.util.WildEncounters;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class WildEncountersTest {
+
+    private static final int ENCOUNTERS = 10_000;
+
+    private final WildEncounters wildEncounters = WildEncounters.standard();
+
+    @Test
+    public void sameSeedSameEncountersTest() {
+        SplittableRandom first = new SplittableRandom(7);
+        SplittableRandom second = new SplittableRandom(7);
+        for (int i = 0; i < 100; i++) {
+            Pokemon one = wildEncounters.encounter(null, 10, 20, first);
+            Pokemon other = wildEncounters.encounter(null, 10, 20, second);
+            assertThat(other.getName(), is(one.getName()));
+            assertThat(other.getLevel(), is(one.getLevel()));
+        }
+    }
+
+    @Test
+    public void encounterOfTypeTest() {
+        for (PokemonType type : PokemonType.values()) {
+            Pokemon pokemon = wildEncounters.encounter(type, 1, 5);
+            assertThat(type, isIn(pokemon.getType()));
+            assertThat(pokemon.getTrainer(), is(nullValue()));
+        }
+        assertThat(wildEncounters.getSpecies(PokemonType.DRAGON),
+                contains(PokemonName.DRATINI, PokemonName.DRAGONAIR, PokemonName.DRAGONITE));
+        assertThat(wildEncounters.getSpecies(null), hasSize(PokemonName.values().length));
+    }
+
+    @Test
+    public void levelWithinBoundsTest() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < ENCOUNTERS; i++) {
+            assertThat(wildEncounters.encounter(null, 10, 12, random).getLevel(),
+                    is(both(greaterThanOrEqualTo(10)).and(lessThanOrEqualTo(12))));
+        }
+        assertThat(wildEncounters.encounter(null, -5, 0, random).getLevel(), is(1));
+    }
+
+    @Test
+    public void weightedSpawnTest() {
+        Map<PokemonName, WildEncounters.Rarity> rarities = new EnumMap<>(PokemonName.class);
+        rarities.put(PokemonName.DRAGONITE, WildEncounters.Rarity.LEGENDARY);
+        WildEncounters encounters = WildEncounters.withRarities(rarities);
+        SplittableRandom random = new SplittableRandom(3);
+
+        Map<PokemonName, Integer> counts = new EnumMap<>(PokemonName.class);
+        for (int i = 0; i < ENCOUNTERS; i++) {
+            counts.merge(encounters.encounter(PokemonType.DRAGON, 1, 100, random).getName(), 1, Integer::sum);
+        }
+
+        // 1 in 201 encounters of the dragons is a Dragonite
+        assertThat(counts.getOrDefault(PokemonName.DRAGONITE, 0), is(lessThan(ENCOUNTERS / 50)));
+        assertThat(counts.get(PokemonName.DRATINI), is(greaterThan(ENCOUNTERS * 2 / 5)));
+        assertThat(counts.get(PokemonName.DRAGONAIR), is(greaterThan(ENCOUNTERS * 2 / 5)));
+    }
+
+    @Test
+    public void rareSpeciesComeAtHigherLevelsTest() {
+        Map<PokemonName, WildEncounters.Rarity> rarities = new EnumMap<>(PokemonName.class);
+        rarities.put(PokemonName.DRAGONITE, WildEncounters.Rarity.RARE);
+        rarities.put(PokemonName.DRAGONAIR, WildEncounters.Rarity.RARE);
+        rarities.put(PokemonName.DRATINI, WildEncounters.Rarity.RARE);
+        WildEncounters rareDragons = WildEncounters.withRarities(rarities);
+        WildEncounters allCommon = WildEncounters.withRarities(Collections.emptyMap());
+        SplittableRandom random = new SplittableRandom(5);
+
+        long rareLevels = 0;
+        long commonLevels = 0;
+        for (int i = 0; i < ENCOUNTERS; i++) {
+            rareLevels += rareDragons.encounter(PokemonType.DRAGON, 1, 100, random).getLevel();
+            commonLevels += allCommon.encounter(PokemonType.DRAGON, 1, 100, random).getLevel();
+        }
+
+        // the highest of two draws averages two thirds of the range, a single draw a half
+        assertThat(rareLevels / ENCOUNTERS, is(greaterThan(60L)));
+        assertThat(commonLevels / ENCOUNTERS, is(lessThan(55L)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void maxLevelBelowMinLevelTest() {
+        wildEncounters.encounter(null, 10, 5);
+    }
+}
@@ -0,0 +1,352 @@
+package com.kodemon.service.test.facade;
+
+import com.kodemon.api.dto.FightDTO;
+import com.kodemon.api.dto.FightExportDTO;
+import com.kodemon.api.dto.GymDTO;
+import com.kodemon.api.dto.UserDTO;
+import com.kodemon.api.enums.FightPeriod;
+import com.kodemon.api.facade.FightFacade;
+import com.kodemon.api.facade.GymFacade;
+import com.kodemon.api.facade.UserFacade;
+import com.kodemon.persistence.dao.*;
+import com.kodemon.persistence.entity.*;
+import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.service.config.ServiceConfig;
+import com.kodemon.service.facade.FightFacadeImpl;
+import com.kodemon.service.facade.GymFacadeImpl;
+import com.kodemon.service.facade.UserFacadeImpl;
+import com.kodemon.service.implementations.*;
+import com.kodemon.service.interfaces.*;
+import com.kodemon.service.util.FightWriteBehind;
+import com.kodemon.service.util.GymSnapshotCache;
+import com.kodemon.service.util.OrikaMapper;
+import com.kodemon.service.util.ParallelMapping;
+import com.kodemon.service.util.PasswordStorage;
+import com.kodemon.service.util.TeamOptimizer;
+import com.kodemon.service.util.TeamSnapshotCache;
+import com.kodemon.service.util.TrainerVersions;
+import com.kodemon.service.util.UserNameIndex;
+import com.kodemon.service.util.WildEncounters;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.kodemon.persistence.util.Constants.MAX_ACTIVE_POKEMON;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Regression test of the number of SQL statements a single facade call issues
+ * <p>
+ * With eagerly fetched Trainer collections, listing the fights of this data set took over 80 statements.
+ * <p>
+ * Every call runs against a freshly stored data set, in a transaction that is rolled back afterwards.
+ * The facades and services are created here, as the context ones get their dependencies replaced by mocks in other tests.
+ * The fights are recorded by the context writer, which queues them as in production.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@ContextConfiguration(classes = ServiceConfig.class)
+public class FacadeStatementCountTest extends AbstractTestNGSpringContextTests {
+
+    private static final int CHALLENGER_COUNT = 20;
+    private static final int CHALLENGER_POKEMON_COUNT = 10;
+    private static final int FIGHT_COUNT = 100;
+
+    @Inject
+    private TrainerDao trainerDao;
+
+    @Inject
+    private PokemonDao pokemonDao;
+
+    @Inject
+    private GymDao gymDao;
+
+    @Inject
+    private BadgeDao badgeDao;
+
+    @Inject
+    private TrainerFightDao trainerFightDao;
+
+    @Inject
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Inject
+    private AuthenticationService authenticationService;
+
+    @Inject
+    private GymSnapshotCache gymSnapshotCache;
+
+    @Inject
+    private TrainerVersions trainerVersions;
+
+    @Inject
+    private UserNameIndex userNameIndex;
+
+    @Inject
+    private TeamOptimizer teamOptimizer;
+
+    @Inject
+    private FightWriteBehind fightWriteBehind;
+
+    private ParallelMapping parallelMapping;
+    private GymService gymService;
+    private UserFacade userFacade;
+    private GymFacade gymFacade;
+    private FightFacade fightFacade;
+
+    @BeforeClass
+    public void setup() {
+        // splits even the short lists of this data set, the lazy collections have to be loaded before the chunks are mapped
+        parallelMapping = new ParallelMapping(4, 2);
+        BeanMappingService beanMappingService = new BeanMappingServiceImpl(new OrikaMapper(), parallelMapping);
+        PokemonService pokemonService = new PokemonServiceImpl(pokemonDao, WildEncounters.standard());
+        TrainerService trainerService = new TrainerServiceImpl(trainerDao, pokemonService);
+        PokemonFightService pokemonFightService = new PokemonFightServiceImpl(new PokemonFightAdvantageServiceImpl());
+        TimeService timeService = new TimeServiceImpl();
+        gymService = new GymServiceImpl(gymDao, trainerDao, pokemonDao);
+        TrainerFightServiceImpl trainerFightService = new TrainerFightServiceImpl(trainerDao, trainerFightDao, pokemonFightService,
+                gymDao, new BadgeServiceImpl(badgeDao), trainerService, timeService, new TeamSnapshotCache(trainerVersions, CHALLENGER_COUNT),
+                fightWriteBehind);
+        trainerFightService.setEntityManager(entityManager);
+
+        userFacade = new UserFacadeImpl(beanMappingService, trainerService, authenticationService, transactionManager,
+                trainerVersions, new TrainerSearchServiceImpl(trainerDao, userNameIndex, transactionManager), gymService,
+                teamOptimizer);
+        gymFacade = new GymFacadeImpl(beanMappingService, gymService, gymSnapshotCache);
+        fightFacade = new FightFacadeImpl(beanMappingService, trainerFightService, pokemonFightService, pokemonService,
+                trainerService, timeService);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        parallelMapping.close();
+    }
+
+    @Test
+    public void findAllUsersTest() {
+        long statements = countStatements(() -> userFacade.findAllUsers(),
+                users -> assertThat(users, hasSize(CHALLENGER_COUNT + 8)));
+
+        // trainers, then one batch per lazy collection and for the gyms of the badges
+        assertThat(statements, is(lessThanOrEqualTo(8L)));
+    }
+
+    @Test
+    public void findAllGymsTest() {
+        long statements = countStatements(() -> gymFacade.findAll(),
+                gyms -> assertThat(gyms, hasSize(8)));
+
+        assertThat(statements, is(lessThanOrEqualTo(6L)));
+    }
+
+    @Test
+    public void findGymByIdTest() {
+        Map<Long, Integer> leaderPokemonCounts = new HashMap<>();
+        long statements = countStatements(() -> {
+            // the gym fought most often, its leader used to be returned with (fights * Pokemons) of them
+            Gym gym = gymDao.findAll().stream()
+                    .max(Comparator.comparingInt((Gym g) -> trainerFightDao.findByTargetGym(g).size()))
+                    .orElseThrow(IllegalStateException::new);
+            assertThat(trainerFightDao.findByTargetGym(gym).size(), is(greaterThan(FIGHT_COUNT / 8)));
+            leaderPokemonCounts.put(gym.getId(), gym.getTrainer().getPokemons().size());
+            entityManager.clear();
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+
+            GymDTO found = gymFacade.findGymById(gym.getId());
+            long loadStatements = statistics.getPrepareStatementCount();
+            GymDTO cached = gymFacade.findGymById(gym.getId());
+            assertThat(statistics.getPrepareStatementCount(), is(loadStatements));
+            assertThat(cached, is(not(sameInstance(found))));
+            return found;
+        }, gym -> assertThat(gym.getTrainer().getPokemons(), hasSize(leaderPokemonCounts.get(gym.getId()))));
+
+        // gym with its leader, then the leader's Pokemons, active Pokemons and badges
+        assertThat(statements, is(lessThanOrEqualTo(4L)));
+    }
+
+    @Test
+    public void listFightsBetweenTest() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.YEAR, -1);
+        Date from = calendar.getTime();
+        long statements = countStatements(() -> fightFacade.listFightsBetween(from, new Date()),
+                fights -> assertThat(fights, hasSize(FIGHT_COUNT)));
+
+        // fights joined with challengers and gyms, then the batches of the lazy collections the mapping touches
+        assertThat(statements, is(lessThanOrEqualTo(8L)));
+    }
+
+    @Test
+    public void listAllFightsInParallelTest() {
+        BeanMappingService sequentialMapping = new BeanMappingServiceImpl(new OrikaMapper(), new ParallelMapping(1, Integer.MAX_VALUE));
+        long parallelCount = parallelMapping.getParallelCount();
+        long statements = countStatements(() -> fightFacade.listAllFights(), fights -> {
+            List<FightDTO> expected = sequentialMapping.mapListTo(trainerFightDao.findAll(), FightDTO.class);
+            assertThat(fights, contains(expected.toArray()));
+        });
+
+        assertThat(parallelMapping.getParallelCount(), is(parallelCount + 1));
+        // the lazy collections are loaded in the same batches before the split as they would be while mapping
+        assertThat(statements, is(lessThanOrEqualTo(8L)));
+    }
+
+    @Test
+    public void listSummariesTest() {
+        long statements = countStatements(() -> userFacade.findUserSummaries(0, CHALLENGER_COUNT), users -> {
+            assertThat(users.getContent(), hasSize(CHALLENGER_COUNT));
+            assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount(), is(0));
+        });
+        assertThat(statements, is(1L));
+
+        statements = countStatements(() -> gymFacade.findAllSummaries(), gyms -> {
+            assertThat(gyms, hasSize(8));
+            assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount(), is(0));
+        });
+        assertThat(statements, is(lessThanOrEqualTo(1L)));
+
+        statements = countStatements(() -> fightFacade.listFightSummariesOfPeriod(FightPeriod.ALL, null, FIGHT_COUNT), fights -> {
+            assertThat(fights.getContent(), hasSize(FIGHT_COUNT));
+            assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount(), is(0));
+        });
+        // the summaries are selected with a constructor expression, nothing is loaded as an entity
+        assertThat(statements, is(1L));
+    }
+
+    @Test
+    public void exportFightsTest() {
+        List<FightExportDTO> rows = new ArrayList<>();
+        long statements = countStatements(() -> fightFacade.exportFights(rows::add), count -> {
+            assertThat(count, is((long) FIGHT_COUNT));
+            // nothing the export read is left in the persistence context
+            assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount(), is(0));
+        });
+
+        assertThat(rows, hasSize(FIGHT_COUNT));
+        // fights joined with challengers, gyms and leaders
+        assertThat(statements, is(1L));
+    }
+
+    @Test
+    public void fightForBadgeTest() {
+        UserDTO user = new UserDTO();
+        user.setUserName("challenger0");
+        GymDTO gym = new GymDTO();
+        gym.setBadgeName("Boulder Badge");
+        long statements = countStatements(() -> fightFacade.fightForBadge(user, gym), won -> {
+        });
+
+        // the fight is written behind the request, as in production, and dropped with the rolled back transaction
+        assertThat(fightWriteBehind.isWriteBehind(), is(true));
+        // challenger with the active team, gym with the leader's active team, then the writes
+        assertThat(statements, is(lessThanOrEqualTo(8L)));
+    }
+
+    @Test
+    public void fightForBadgeWithCachedTeamsTest() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        UserDTO user = new UserDTO();
+        GymDTO gym = new GymDTO();
+        long statements = countStatements(() -> {
+            user.setId(trainerDao.findByUserName("challenger0").get(0).getId());
+            gym.setId(gymDao.findByBadgeName("Boulder Badge").get(0).getId());
+            fightFacade.fightForBadge(user, gym);
+            entityManager.flush();
+            entityManager.clear();
+            statistics.clear();
+            return fightFacade.fightForBadge(user, gym);
+        }, won -> {
+        });
+
+        // both teams are cached by the first fight: at most the gym with its leader, then the writes
+        assertThat(statements, is(lessThanOrEqualTo(5L)));
+    }
+
+    /**
+     * Stores the test data, then runs the facade call and counts the statements it prepared, flush included
+     */
+    private <T> long countStatements(Supplier<T> facadeCall, Consumer<T> check) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            // nothing stored here is needed by any other test
+            status.setRollbackOnly();
+            storeData();
+            entityManager.flush();
+            entityManager.clear();
+
+            statistics.setStatisticsEnabled(true);
+            statistics.clear();
+            T result = facadeCall.get();
+            entityManager.flush();
+
+            check.accept(result);
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    private void storeData() {
+        try {
+            gymService.initializeGyms();
+        } catch (PasswordStorage.CannotPerformOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        List<Gym> gyms = gymDao.findAll();
+        PokemonName[] names = PokemonName.values();
+        Random random = new Random(42);
+        List<Trainer> challengers = new ArrayList<>();
+        for (int i = 0; i < CHALLENGER_COUNT; i++) {
+            Trainer trainer = new Trainer();
+            trainer.setUserName("challenger" + i);
+            trainer.setFirstName("First" + i);
+            trainer.setLastName("Last" + i);
+            trainer.setDateOfBirth(new Calendar.Builder().setDate(1990, 1, 1 + i).build().getTime());
+            trainerDao.save(trainer);
+            for (int j = 0; j < CHALLENGER_POKEMON_COUNT; j++) {
+                Pokemon pokemon = new Pokemon(names[random.nextInt(names.length)]);
+                pokemon.setLevel(1 + random.nextInt(50));
+                pokemon.setTrainer(trainer);
+                pokemonDao.save(pokemon);
+                trainer.addPokemon(pokemon);
+                if (j < MAX_ACTIVE_POKEMON) {
+                    trainer.addActivePokemon(pokemon);
+                }
+            }
+            for (int j = 0; j < i % gyms.size(); j++) {
+                Badge badge = new Badge(gyms.get(j));
+                badgeDao.save(badge);
+                trainer.addBadge(badge);
+            }
+            challengers.add(trainer);
+        }
+        for (int i = 0; i < FIGHT_COUNT; i++) {
+            TrainerFight fight = new TrainerFight();
+            fight.setChallenger(challengers.get(random.nextInt(CHALLENGER_COUNT)));
+            fight.setTargetGym(gyms.get(random.nextInt(gyms.size())));
+            fight.setFightTime(new Date(System.currentTimeMillis() - 60_000L * (i + 1)));
+            fight.setWasChallengerSuccessful(random.nextBoolean());
+            trainerFightDao.save(fight);
+        }
+    }
+}
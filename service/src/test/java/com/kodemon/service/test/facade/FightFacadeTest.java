@@ -1,21 +1,27 @@
 package com.kodemon.service.test.facade;
 
 import com.kodemon.api.dto.FightDTO;
+import com.kodemon.api.dto.FightSummaryDTO;
 import com.kodemon.api.dto.GymDTO;
+import com.kodemon.api.dto.PageDTO;
 import com.kodemon.api.dto.PokemonDTO;
 import com.kodemon.api.dto.UserDTO;
+import com.kodemon.api.enums.FightPeriod;
 import com.kodemon.api.enums.WildPokemonFightMode;
 import com.kodemon.api.facade.FightFacade;
 import com.kodemon.persistence.entity.*;
 import com.kodemon.persistence.enums.PokemonName;
 import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.FightSummary;
 import com.kodemon.service.config.ServiceConfig;
 import com.kodemon.service.facade.FightFacadeImpl;
 import com.kodemon.service.interfaces.*;
-import com.kodemon.service.util.Pair;
 import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -26,7 +32,7 @@ import java.util.*;
 
 import static com.kodemon.service.util.TimeUtils.asDate;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -86,8 +92,8 @@ public class FightFacadeTest extends AbstractTestNGSpringContextTests {
     public void fightForBadgeTest() {
         Date today = new Calendar.Builder().setDate(2015, 4, 1).build().getTime();
 
-        when(trainerService.findByUserName(challenger.getUserName())).thenReturn(Collections.singletonList(challenger));
-        when(gymService.findByBadgeName(targetGym.getBadgeName())).thenReturn(Collections.singletonList(targetGym));
+        when(trainerService.findWithActiveTeamByUserName(challenger.getUserName())).thenReturn(Collections.singletonList(challenger));
+        when(gymService.findWithLeaderTeamByBadgeName(targetGym.getBadgeName())).thenReturn(Collections.singletonList(targetGym));
 
         when(beanMappingService.mapTo(pikachuDTO, Pokemon.class)).thenReturn(pikachu);
         when(beanMappingService.mapTo(pikachu, PokemonDTO.class)).thenReturn(pikachuDTO);
@@ -139,7 +145,8 @@ public class FightFacadeTest extends AbstractTestNGSpringContextTests {
         randomWildPokemon.setNickname("Teleportabra");
 
         when(pokemonService.findById(null)).thenReturn(pikachu);
-        when(pokemonFightService.getScorePair(pikachu, randomWildPokemon)).thenReturn(new Pair<Double, Double>(20.0, 1.0));
+        when(pokemonFightService.getChallengerScore(pikachu, randomWildPokemon)).thenReturn(20.0);
+        when(pokemonFightService.getTargetScore(pikachu, randomWildPokemon)).thenReturn(1.0);
 
         PokemonDTO wildPokemonDto = new PokemonDTO();
         wildPokemonDto.setLevel(randomWildPokemon.getLevel());
@@ -155,7 +162,7 @@ public class FightFacadeTest extends AbstractTestNGSpringContextTests {
 
     @Test
     public void listFightsBetweenTest() {
-        when(beanMappingService.mapListTo(trainerFights, FightDTO.class)).thenReturn(fights);
+        when(beanMappingService.mapListToInParallel(trainerFights, FightDTO.class)).thenReturn(fights);
         Date from = new Calendar.Builder().setDate(2015, 4, 1).build().getTime();
         Date to = new Calendar.Builder().setDate(2015, 4, 3).build().getTime();
         when(trainerFightService.findByFightTimeBetween(from, to)).thenReturn(trainerFights);
@@ -173,7 +180,7 @@ public class FightFacadeTest extends AbstractTestNGSpringContextTests {
         when(timeService.startOfTheDay(todayDate)).thenReturn(dayStart);
         when(timeService.endOfTheDay(todayDate)).thenReturn(dayEnd);
         when(trainerFightService.findByFightTimeBetween(dayStart, dayEnd)).thenReturn(Collections.singletonList(fight1e));
-        when(beanMappingService.mapListTo(Collections.singletonList(fight1e), FightDTO.class)).thenReturn(Collections.singletonList(fight1));
+        when(beanMappingService.mapListToInParallel(Collections.singletonList(fight1e), FightDTO.class)).thenReturn(Collections.singletonList(fight1));
 
         Collection<FightDTO> todaysFights = fightFacade.listTodaysFights();
         assertThat(todaysFights.size(), is(1));
@@ -181,12 +188,130 @@ public class FightFacadeTest extends AbstractTestNGSpringContextTests {
 
     @Test
     public void listAllFightsTest() {
-        when(beanMappingService.mapListTo(trainerFights, FightDTO.class)).thenReturn(fights);
+        when(beanMappingService.mapListToInParallel(trainerFights, FightDTO.class)).thenReturn(fights);
         when(trainerFightService.findAll()).thenReturn(trainerFights);
         Collection<FightDTO> allFights = fightFacade.listAllFights();
         assertThat(allFights.size(), is(2));
     }
 
+    @Test
+    public void listFightsOfPeriodTest() {
+        LocalDate today = LocalDate.of(2015, Month.APRIL, 10);
+        Date todayDate = asDate(today.atStartOfDay());
+        when(timeService.currentDate()).thenReturn(todayDate);
+        when(timeService.startOfTheDay(todayDate)).thenReturn(todayDate);
+        ReflectionTestUtils.setField(fight1e, "id", 1L);
+        ReflectionTestUtils.setField(fight2e, "id", 2L);
+        TrainerFight fight3e = new TrainerFight();
+        Date yearStart = asDate(LocalDate.of(2015, Month.JANUARY, 1).atStartOfDay());
+        when(trainerFightService.findLatestSince(yearStart, null, null, null, 3)).thenReturn(Arrays.asList(fight2e, fight1e, fight3e));
+        when(beanMappingService.mapListTo(Arrays.asList(fight2e, fight1e), FightDTO.class)).thenReturn(Arrays.asList(fight2, fight1));
+
+        PageDTO<FightDTO> page = fightFacade.listFightsOfPeriod(FightPeriod.YEAR, null, 2);
+        assertThat(page.getContent(), contains(fight2, fight1));
+        assertThat(page.isHasNext(), is(true));
+        assertThat(page.getNextCursor(), is(fight1e.getFightTime().getTime() + "_1"));
+
+        Date monthStart = asDate(LocalDate.of(2015, Month.APRIL, 1).atStartOfDay());
+        when(trainerFightService.findLatestSince(monthStart, fight1e.getFightTime(), 1L, null, 3)).thenReturn(Collections.emptyList());
+        when(beanMappingService.mapListTo(Collections.emptyList(), FightDTO.class)).thenReturn(Collections.emptyList());
+
+        page = fightFacade.listFightsOfPeriod(FightPeriod.MONTH, page.getNextCursor(), 2);
+        assertThat(page.getContent(), is(empty()));
+        assertThat(page.isHasNext(), is(false));
+        assertThat(page.getNextCursor(), is(nullValue()));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void listFightsOfPeriodMalformedCursorTest() {
+        fightFacade.listFightsOfPeriod(FightPeriod.ALL, "yesterday", 2);
+    }
+
+    @Test
+    public void listFightSummariesOfPeriodTest() {
+        Date now = asDate(LocalDate.of(2015, Month.APRIL, 10).atStartOfDay());
+        when(timeService.currentDate()).thenReturn(now);
+        when(timeService.startOfTheDay(now)).thenReturn(now);
+        FightSummary newer = new FightSummary(7L, new Date(2000L), 1L, "Ash", "Ash", 2L, "Pallet", true);
+        FightSummary older = new FightSummary(5L, new Date(1000L), 1L, "Ash", "Ash", 2L, "Pallet", false);
+        when(trainerFightService.findSummariesSince(new Date(0), null, null, null, 2)).thenReturn(Arrays.asList(newer, older));
+        FightSummaryDTO newerDTO = new FightSummaryDTO();
+        newerDTO.setId(7L);
+        when(beanMappingService.mapListTo(Collections.singletonList(newer), FightSummaryDTO.class))
+                .thenReturn(Collections.singletonList(newerDTO));
+
+        PageDTO<FightSummaryDTO> page = fightFacade.listFightSummariesOfPeriod(FightPeriod.ALL, null, 1);
+        assertThat(page.getContent(), contains(newerDTO));
+        assertThat(page.isHasNext(), is(true));
+        assertThat(page.getNextCursor(), is("2000_7"));
+
+        when(trainerFightService.findSummariesSince(new Date(0), new Date(2000L), 7L, null, 2)).thenReturn(Collections.singletonList(older));
+        FightSummaryDTO olderDTO = new FightSummaryDTO();
+        olderDTO.setId(5L);
+        when(beanMappingService.mapListTo(Collections.singletonList(older), FightSummaryDTO.class))
+                .thenReturn(Collections.singletonList(olderDTO));
+        page = fightFacade.listFightSummariesOfPeriod(FightPeriod.ALL, page.getNextCursor(), 1);
+        assertThat(page.getContent(), contains(olderDTO));
+        assertThat(page.isHasNext(), is(false));
+        assertThat(page.getNextCursor(), is(nullValue()));
+    }
+
+    @Test
+    public void listFightSummariesOfPeriodQueuedCursorTest() {
+        Date now = asDate(LocalDate.of(2015, Month.APRIL, 10).atStartOfDay());
+        when(timeService.currentDate()).thenReturn(now);
+        when(timeService.startOfTheDay(now)).thenReturn(now);
+        FightSummary queued = new FightSummary(null, new Date(2000L), 1L, "Ash", "Ash", 2L, "Pallet", true, 4L);
+        FightSummary older = new FightSummary(5L, new Date(1000L), 1L, "Ash", "Ash", 2L, "Pallet", false);
+        when(trainerFightService.findSummariesSince(new Date(0), null, null, null, 2)).thenReturn(Arrays.asList(queued, older));
+        when(beanMappingService.mapListTo(Collections.singletonList(queued), FightSummaryDTO.class))
+                .thenReturn(Collections.singletonList(new FightSummaryDTO()));
+
+        PageDTO<FightSummaryDTO> page = fightFacade.listFightSummariesOfPeriod(FightPeriod.ALL, null, 1);
+        assertThat(page.getNextCursor(), is("2000_p4"));
+
+        when(trainerFightService.findSummariesSince(new Date(0), new Date(2000L), null, 4L, 2)).thenReturn(Collections.singletonList(older));
+        FightSummaryDTO olderDTO = new FightSummaryDTO();
+        olderDTO.setId(5L);
+        when(beanMappingService.mapListTo(Collections.singletonList(older), FightSummaryDTO.class))
+                .thenReturn(Collections.singletonList(olderDTO));
+        page = fightFacade.listFightSummariesOfPeriod(FightPeriod.ALL, page.getNextCursor(), 1);
+        assertThat(page.getContent(), contains(olderDTO));
+        assertThat(page.isHasNext(), is(false));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void listFightSummariesOfPeriodMalformedCursorTest() {
+        fightFacade.listFightSummariesOfPeriod(FightPeriod.ALL, "1_2_3", 2);
+    }
+
+    @Test
+    public void listFightSummariesOfTrainerAndGymTest() {
+        challengerDTO.setId(1L);
+        targetGymDTO.setId(2L);
+        List<FightSummary> summaries = Collections.singletonList(
+                new FightSummary(7L, new Date(2000L), 1L, "Ash", "Ash", 2L, "Pallet", true));
+        FightSummaryDTO summaryDTO = new FightSummaryDTO();
+        summaryDTO.setId(7L);
+        when(trainerFightService.findSummariesByChallengerId(1L)).thenReturn(summaries);
+        when(trainerFightService.findSummariesByTargetGymId(2L)).thenReturn(summaries);
+        when(beanMappingService.mapListTo(summaries, FightSummaryDTO.class)).thenReturn(Collections.singletonList(summaryDTO));
+
+        assertThat(fightFacade.listFightSummariesOfTrainer(challengerDTO), contains(summaryDTO));
+        assertThat(fightFacade.listFightSummariesOfGym(targetGymDTO), contains(summaryDTO));
+    }
+
+    @Test
+    public void listAllFightsPagedTest() {
+        when(trainerFightService.findAll(new PageRequest(1, 2))).thenReturn(new SliceImpl<>(trainerFights, new PageRequest(1, 2), false));
+        when(beanMappingService.mapListTo(trainerFights, FightDTO.class)).thenReturn(fights);
+
+        PageDTO<FightDTO> page = fightFacade.listAllFights(1, 2);
+        assertThat(page.getContent(), is(fights));
+        assertThat(page.getPage(), is(1));
+        assertThat(page.isHasNext(), is(false));
+    }
+
     @Test
     public void listFightsOfTrainerTest() {
         when(beanMappingService.mapTo(challengerDTO, Trainer.class)).thenReturn(challenger);
@@ -1,15 +1,18 @@
 package com.kodemon.service.test.facade;
 
 import com.kodemon.api.dto.GymDTO;
+import com.kodemon.api.dto.GymSummaryDTO;
 import com.kodemon.api.dto.UserDTO;
 import com.kodemon.api.facade.GymFacade;
 import com.kodemon.persistence.entity.Gym;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.enums.PokemonType;
+import com.kodemon.persistence.projection.GymSummary;
 import com.kodemon.service.config.ServiceConfig;
 import com.kodemon.service.facade.GymFacadeImpl;
 import com.kodemon.service.interfaces.BeanMappingService;
 import com.kodemon.service.interfaces.GymService;
+import com.kodemon.service.util.GymSnapshotCache;
 import org.mockito.Mockito;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
@@ -21,8 +24,9 @@ import java.util.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.*;
 
 /**
  * Test class for Gym Facade
@@ -45,7 +49,7 @@ public class GymFacadeTest extends AbstractTestNGSpringContextTests {
     public void prepare() {
         beanMappingService = mock(BeanMappingService.class);
         gymService = mock(GymService.class);
-        gymFacade = new GymFacadeImpl(beanMappingService, gymService);
+        gymFacade = new GymFacadeImpl(beanMappingService, gymService, new GymSnapshotCache());
         UserDTO user1, user2;
         Trainer trainer1, trainer2;
 
@@ -113,6 +117,35 @@ public class GymFacadeTest extends AbstractTestNGSpringContextTests {
         assertThat(result.contains(gymdto1) && result.contains(gymdto2), is(true));
     }
 
+    @Test
+    public void findAllSummariesTest() {
+        List<GymSummary> summaries = Arrays.asList(
+                new GymSummary(1L, "Sydney", "Bug Badge", PokemonType.BUG, 10L, "Tommy"),
+                new GymSummary(2L, "Kansas City", "Ghost Badge", PokemonType.GHOST, 11L, "Timmy"));
+        List<GymSummaryDTO> summaryDTOs = Arrays.asList(new GymSummaryDTO(), new GymSummaryDTO());
+        when(gymService.findSummaries()).thenReturn(summaries);
+        when(beanMappingService.mapListTo(summaries, GymSummaryDTO.class)).thenReturn(summaryDTOs);
+        Collection<GymSummaryDTO> result = gymFacade.findAllSummaries();
+        assertThat(result, is(summaryDTOs));
+    }
+
+    @Test
+    public void findGymByIdTest() {
+        GymDTO copy = new GymDTO();
+        when(gymService.findById(1L)).thenReturn(gym1);
+        when(beanMappingService.mapTo(gym1, GymDTO.class)).thenReturn(gymdto1);
+        when(beanMappingService.mapTo(gymdto1, GymDTO.class)).thenReturn(copy);
+
+        assertThat(gymFacade.findGymById(1L), is(sameInstance(copy)));
+        assertThat(gymFacade.findGymById(1L), is(sameInstance(copy)));
+        verify(gymService, times(1)).findById(1L);
+    }
+
+    @Test
+    public void findMissingGymByIdTest() {
+        assertThat(gymFacade.findGymById(3L), is(nullValue()));
+    }
+
     @AfterMethod
     void resetMocks() {
         Mockito.reset(beanMappingService, gymService);
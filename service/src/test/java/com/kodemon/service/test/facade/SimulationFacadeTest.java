@@ -0,0 +1,130 @@
+package com.kodemon.service.test.facade;
+
+import com.kodemon.api.dto.TournamentSimulationDTO;
+import com.kodemon.api.facade.SimulationFacade;
+import com.kodemon.service.facade.SimulationFacadeImpl;
+import com.kodemon.service.interfaces.SimulationService;
+import com.kodemon.service.util.MatchupSimulator;
+import com.kodemon.service.util.TeamSnapshot;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests of the simulations asked for while the same one is running
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+public class SimulationFacadeTest {
+
+    private static final long WAIT_SECONDS = 10;
+
+    private SimulationService simulationService;
+    private SimulationFacade simulationFacade;
+    private MatchupSimulator.Tournament tournament;
+    private ExecutorService callers;
+
+    @BeforeMethod
+    public void prepare() {
+        simulationService = mock(SimulationService.class);
+        simulationFacade = new SimulationFacadeImpl(simulationService);
+        try (MatchupSimulator simulator = new MatchupSimulator(1)) {
+            tournament = simulator.tournament(new TeamSnapshot[]{
+                    new TeamSnapshot(1L, "first", new int[]{25}, new int[]{50}),
+                    new TeamSnapshot(2L, "second", new int[]{133}, new int[]{5})});
+        }
+        callers = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterMethod
+    public void shutdown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void runningSimulationIsSharedTest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        when(simulationService.simulateTournament(2)).thenAnswer(invocation -> {
+            runs.incrementAndGet();
+            started.countDown();
+            release.await(WAIT_SECONDS, TimeUnit.SECONDS);
+            return tournament;
+        });
+
+        Future<TournamentSimulationDTO> first = callers.submit(() -> simulationFacade.simulateTournament(2));
+        assertThat(started.await(WAIT_SECONDS, TimeUnit.SECONDS), is(true));
+        Future<TournamentSimulationDTO> second = callers.submit(() -> simulationFacade.simulateTournament(2));
+        assertThat(isWaiting(second), is(true));
+        release.countDown();
+
+        TournamentSimulationDTO simulation = first.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertThat(second.get(WAIT_SECONDS, TimeUnit.SECONDS), is(sameInstance(simulation)));
+        assertThat(runs.get(), is(1));
+    }
+
+    @Test
+    public void finishedSimulationIsRunAgainTest() {
+        when(simulationService.simulateTournament(2)).thenReturn(tournament);
+
+        TournamentSimulationDTO first = simulationFacade.simulateTournament(2);
+        TournamentSimulationDTO second = simulationFacade.simulateTournament(2);
+
+        assertThat(second, is(not(sameInstance(first))));
+        verify(simulationService, times(2)).simulateTournament(2);
+    }
+
+    @Test
+    public void failureIsPassedToWaitingCallerTest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(simulationService.simulateTournament(2)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(WAIT_SECONDS, TimeUnit.SECONDS);
+            throw new IllegalStateException("failed");
+        });
+
+        Future<TournamentSimulationDTO> first = callers.submit(() -> simulationFacade.simulateTournament(2));
+        assertThat(started.await(WAIT_SECONDS, TimeUnit.SECONDS), is(true));
+        Future<TournamentSimulationDTO> second = callers.submit(() -> simulationFacade.simulateTournament(2));
+        assertThat(isWaiting(second), is(true));
+        release.countDown();
+
+        for (Future<TournamentSimulationDTO> result : new Future[]{first, second}) {
+            try {
+                result.get(WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), is(instanceOf(IllegalStateException.class)));
+                continue;
+            }
+            throw new AssertionError("The simulation did not fail");
+        }
+        verify(simulationService, times(1)).simulateTournament(2);
+    }
+
+    /**
+     * Waits a while for the caller to block on the running simulation; it is not done before the release either way
+     */
+    private static boolean isWaiting(Future<?> caller) throws InterruptedException, ExecutionException {
+        try {
+            caller.get(100, TimeUnit.MILLISECONDS);
+            return false;
+        } catch (TimeoutException e) {
+            return true;
+        }
+    }
+}
@@ -1,28 +1,51 @@
 package com.kodemon.service.test.facade;
 
+import com.kodemon.api.dto.PageDTO;
+import com.kodemon.api.dto.TeamSuggestionDTO;
 import com.kodemon.api.dto.UserAuthDTO;
 import com.kodemon.api.dto.UserDTO;
 import com.kodemon.api.dto.UserRegisterDTO;
+import com.kodemon.api.dto.UserSnapshotDTO;
+import com.kodemon.api.dto.UserSummaryDTO;
 import com.kodemon.api.facade.UserFacade;
+import com.kodemon.persistence.entity.Gym;
+import com.kodemon.persistence.entity.Pokemon;
 import com.kodemon.persistence.entity.Trainer;
 import com.kodemon.persistence.enums.PokemonName;
+import com.kodemon.persistence.projection.TrainerSummary;
 import com.kodemon.service.config.ServiceConfig;
 import com.kodemon.service.facade.UserFacadeImpl;
+import com.kodemon.service.interfaces.AuthenticationService;
 import com.kodemon.service.interfaces.BeanMappingService;
+import com.kodemon.service.interfaces.GymService;
+import com.kodemon.service.interfaces.TrainerSearchService;
 import com.kodemon.service.interfaces.TrainerService;
 import com.kodemon.service.util.PasswordStorage;
+import com.kodemon.service.util.PokemonAdvantageTable;
+import com.kodemon.service.util.TeamOptimizer;
+import com.kodemon.service.util.TrainerVersions;
 import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
+import static com.kodemon.persistence.util.Constants.MAX_PAGE_SIZE;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +60,11 @@ public class UserFacadeTest extends AbstractTestNGSpringContextTests {
     private UserFacade userFacade;
     private BeanMappingService beanMappingService;
     private TrainerService trainerService;
+    private AuthenticationService authenticationService;
+    private TrainerVersions trainerVersions;
+    private TrainerSearchService trainerSearchService;
+    private GymService gymService;
+    private final TeamOptimizer teamOptimizer = new TeamOptimizer(1);
 
     private UserDTO user;
     private UserDTO user2;
@@ -48,7 +76,12 @@ public class UserFacadeTest extends AbstractTestNGSpringContextTests {
     public void prepare() {
         beanMappingService = mock(BeanMappingService.class);
         trainerService = mock(TrainerService.class);
-        userFacade = new UserFacadeImpl(beanMappingService, trainerService);
+        authenticationService = mock(AuthenticationService.class);
+        trainerVersions = new TrainerVersions();
+        trainerSearchService = mock(TrainerSearchService.class);
+        gymService = mock(GymService.class);
+        userFacade = new UserFacadeImpl(beanMappingService, trainerService, authenticationService, mock(PlatformTransactionManager.class),
+                trainerVersions, trainerSearchService, gymService, teamOptimizer);
 
         trainer = new Trainer();
         trainer.setUserName("brock1999");
@@ -125,19 +158,71 @@ public class UserFacadeTest extends AbstractTestNGSpringContextTests {
         assertThat(result, is(true));
     }
 
+    @Test
+    public void registerAsyncTest() {
+        when(authenticationService.createHash("password")).thenReturn(CompletableFuture.completedFuture("hash"));
+        when(trainerService.registerWithHash(
+                userRegisterDTO.getUserName(),
+                userRegisterDTO.getFirstName(),
+                userRegisterDTO.getLastName(),
+                userRegisterDTO.getDateOfBirth(),
+                userRegisterDTO.getPokemon(),
+                "hash"))
+                .thenReturn(trainer);
+        when(beanMappingService.mapTo(trainer, UserDTO.class)).thenReturn(user);
+
+        assertThat(userFacade.registerAsync(userRegisterDTO).join(), is(equalTo(user)));
+    }
+
+    @Test
+    public void authenticateTest() {
+        trainer.setPwdHash("hash");
+        UserAuthDTO userAuth = new UserAuthDTO();
+        userAuth.setUserName(trainer.getUserName());
+        userAuth.setPassword("password");
+        when(trainerService.findByUserNameIgnoreCase(trainer.getUserName())).thenReturn(trainer);
+        when(beanMappingService.mapTo(trainer, UserDTO.class)).thenReturn(user);
+
+        when(authenticationService.verifyPassword("password", "hash")).thenReturn(CompletableFuture.completedFuture(true));
+        assertThat(userFacade.authenticate(userAuth).join(), is(user));
+
+        when(authenticationService.verifyPassword("password", "hash")).thenReturn(CompletableFuture.completedFuture(false));
+        assertThat(userFacade.authenticate(userAuth).join(), is(nullValue()));
+    }
+
+    @Test
+    public void authenticateUnknownUserTest() {
+        UserAuthDTO userAuth = new UserAuthDTO();
+        userAuth.setUserName("unknown");
+        userAuth.setPassword("password");
+        when(trainerService.findByUserNameIgnoreCase("unknown")).thenReturn(null);
+
+        assertThat(userFacade.authenticate(userAuth).join(), is(nullValue()));
+        Mockito.verifyZeroInteractions(authenticationService);
+    }
+
     @Test
     public void findUserByUserNameTest() {
         List<Trainer> trainerList = new ArrayList<>();
         trainerList.add(trainer);
         List<UserDTO> userList = new ArrayList<>();
         userList.add(user);
-        when(trainerService.findByUserNameIgnoreCaseContaining(trainer.getUserName())).thenReturn(trainerList);
+        when(trainerSearchService.findByUserNameIgnoreCaseContaining(trainer.getUserName())).thenReturn(trainerList);
         when(beanMappingService.mapListTo(trainerList, UserDTO.class)).thenReturn(userList);
         Collection<UserDTO> result = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(user.getUserName());
         assertThat(result.size(), is(1));
         assertThat(result, is(equalTo(userList)));
     }
 
+    @Test
+    public void findUserByUserNameIgnoringCaseTest() {
+        when(trainerService.findByUserNameIgnoreCase("BROCK1999")).thenReturn(trainer);
+        when(beanMappingService.mapTo(trainer, UserDTO.class)).thenReturn(user);
+
+        assertThat(userFacade.findUserByUserNameIgnoringCase("BROCK1999"), is(user));
+        assertThat(userFacade.findUserByUserNameIgnoringCase("brock"), is(nullValue()));
+    }
+
     @Test
     public void findAllUsersTest() {
         List<Trainer> allTrainers = new ArrayList<>();
@@ -147,15 +232,165 @@ public class UserFacadeTest extends AbstractTestNGSpringContextTests {
         allUsers.add(user);
         allUsers.add(user2);
         when(trainerService.findAll()).thenReturn(allTrainers);
-        when(beanMappingService.mapListTo(allTrainers, UserDTO.class)).thenReturn(allUsers);
+        when(beanMappingService.mapListToInParallel(allTrainers, UserDTO.class)).thenReturn(allUsers);
         Collection<UserDTO> result = userFacade.findAllUsers();
         assertThat(result.size(), is(2));
         assertThat(result.contains(user) && result.contains(user2), is(true));
     }
 
+    @Test
+    public void findAllUsersPagedTest() {
+        List<Trainer> trainers = Arrays.asList(trainer, trainer2);
+        when(trainerService.findAll(new PageRequest(0, MAX_PAGE_SIZE)))
+                .thenReturn(new SliceImpl<>(trainers, new PageRequest(0, MAX_PAGE_SIZE), false));
+        when(beanMappingService.mapListTo(trainers, UserDTO.class)).thenReturn(Arrays.asList(user, user2));
+
+        PageDTO<UserDTO> page = userFacade.findAllUsers(-1, MAX_PAGE_SIZE + 1);
+        assertThat(page.getContent(), contains(user, user2));
+        assertThat(page.getPage(), is(0));
+        assertThat(page.getSize(), is(MAX_PAGE_SIZE));
+        assertThat(page.isHasNext(), is(false));
+    }
+
+    @Test
+    public void findUsersAfterTest() {
+        ReflectionTestUtils.setField(trainer, "id", 3L);
+        ReflectionTestUtils.setField(trainer2, "id", 8L);
+        Trainer trainer3 = new Trainer();
+        ReflectionTestUtils.setField(trainer3, "id", 9L);
+        when(trainerService.findAfterId(2L, 3)).thenReturn(Arrays.asList(trainer, trainer2, trainer3));
+        when(beanMappingService.mapListTo(Arrays.asList(trainer, trainer2), UserDTO.class)).thenReturn(Arrays.asList(user, user2));
+
+        PageDTO<UserDTO> page = userFacade.findUsersAfter("2", 2);
+        assertThat(page.getContent(), contains(user, user2));
+        assertThat(page.isHasNext(), is(true));
+        assertThat(page.getNextCursor(), is("8"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void findUsersAfterMalformedCursorTest() {
+        userFacade.findUsersAfter("abc", 2);
+    }
+
+    @Test
+    public void findUserSummariesTest() {
+        Date born = new Calendar.Builder().setDate(1990, 0, 1).build().getTime();
+        List<TrainerSummary> summaries = Arrays.asList(
+                new TrainerSummary(3L, "Tommy", "Tom", "Lee", born),
+                new TrainerSummary(8L, "Timmy", "Tim", "Chan", born));
+        when(trainerService.findSummaries(new PageRequest(1, 2)))
+                .thenReturn(new SliceImpl<>(summaries, new PageRequest(1, 2), true));
+        List<UserSummaryDTO> dtos = Arrays.asList(new UserSummaryDTO(), new UserSummaryDTO());
+        when(beanMappingService.mapListTo(summaries, UserSummaryDTO.class)).thenReturn(dtos);
+
+        PageDTO<UserSummaryDTO> page = userFacade.findUserSummaries(1, 2);
+        assertThat(page.getContent(), is(dtos));
+        assertThat(page.getPage(), is(1));
+        assertThat(page.isHasNext(), is(true));
+    }
+
+    @Test
+    public void findUserSummariesAfterTest() {
+        Date born = new Calendar.Builder().setDate(1990, 0, 1).build().getTime();
+        List<TrainerSummary> summaries = Arrays.asList(
+                new TrainerSummary(3L, "Tommy", "Tom", "Lee", born),
+                new TrainerSummary(8L, "Timmy", "Tim", "Chan", born),
+                new TrainerSummary(9L, "Jimmy", "Jim", "Wu", born));
+        when(trainerService.findSummariesAfterId(null, 3)).thenReturn(summaries);
+        List<UserSummaryDTO> dtos = Arrays.asList(new UserSummaryDTO(), new UserSummaryDTO());
+        when(beanMappingService.mapListTo(summaries.subList(0, 2), UserSummaryDTO.class)).thenReturn(dtos);
+
+        PageDTO<UserSummaryDTO> page = userFacade.findUserSummariesAfter(null, 2);
+        assertThat(page.getContent(), is(dtos));
+        assertThat(page.isHasNext(), is(true));
+        assertThat(page.getNextCursor(), is("8"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void findUserSummariesAfterMalformedCursorTest() {
+        userFacade.findUserSummariesAfter("abc", 2);
+    }
+
+    @Test
+    public void refreshCurrentUserSnapshotTest() {
+        when(trainerService.findById(1L)).thenReturn(trainer);
+        when(beanMappingService.mapTo(trainer, UserDTO.class)).thenReturn(user);
+        UserSnapshotDTO snapshot = userFacade.takeUserSnapshot(1L);
+        assertThat(snapshot.getUser(), is(user));
+
+        assertThat(userFacade.refreshUserSnapshot(snapshot), is(sameInstance(snapshot)));
+        Mockito.verify(trainerService, Mockito.times(1)).findById(1L);
+        assertThat(trainerVersions.getSnapshotHitCount(), is(1L));
+        assertThat(trainerVersions.getSnapshotReloadCount(), is(1L));
+    }
+
+    @Test
+    public void refreshStaleUserSnapshotTest() {
+        when(trainerService.findById(1L)).thenReturn(trainer);
+        when(beanMappingService.mapTo(trainer, UserDTO.class)).thenReturn(user);
+        UserSnapshotDTO snapshot = userFacade.takeUserSnapshot(1L);
+
+        trainerVersions.advance(2L);
+        assertThat(userFacade.refreshUserSnapshot(snapshot), is(sameInstance(snapshot)));
+
+        trainerVersions.advance(1L);
+        when(beanMappingService.mapTo(trainer, UserDTO.class)).thenReturn(user2);
+        UserSnapshotDTO refreshed = userFacade.refreshUserSnapshot(snapshot);
+        assertThat(refreshed.getUser(), is(user2));
+        assertThat(refreshed.getVersion(), is(1L));
+        assertThat(userFacade.refreshUserSnapshot(refreshed), is(sameInstance(refreshed)));
+        assertThat(trainerVersions.getSnapshotReloadCount(), is(2L));
+    }
+
+    @Test
+    public void refreshSnapshotOfDeletedUserTest() {
+        UserSnapshotDTO snapshot = new UserSnapshotDTO(1L, 0, user);
+        trainerVersions.advance(1L);
+
+        assertThat(userFacade.refreshUserSnapshot(snapshot), is(nullValue()));
+    }
+
+    @Test
+    public void suggestTeamTest() {
+        trainer.addPokemon(pokemon(PokemonName.RATTATA, 5));
+        trainer.addPokemon(pokemon(PokemonName.SQUIRTLE, 20));
+        trainer.addPokemon(pokemon(PokemonName.GEODUDE, 30));
+        Gym gym = new Gym(trainer2);
+        trainer2.addActivePokemon(pokemon(PokemonName.CHARMANDER, 25));
+        when(trainerService.findById(1L)).thenReturn(trainer);
+        when(gymService.findById(2L)).thenReturn(gym);
+
+        TeamSuggestionDTO suggestion = userFacade.suggestTeam(1L, 2L);
+
+        // the Geodude is the strongest against the Charmander, past the leader's team only the levels count
+        assertThat(suggestion.getGymId(), is(2L));
+        assertThat(suggestion.getPokemonIndices(), contains(2, 1, 0));
+        assertThat(suggestion.getMargin(), is(30 * PokemonAdvantageTable.advantage(PokemonName.GEODUDE, PokemonName.CHARMANDER) + 20 + 5 - 25));
+        assertThat(suggestion.isWinning(), is(true));
+    }
+
+    @Test
+    public void suggestTeamAgainstUnknownGymTest() {
+        when(trainerService.findById(1L)).thenReturn(trainer);
+
+        assertThat(userFacade.suggestTeam(1L, 2L), is(nullValue()));
+    }
+
+    @AfterClass
+    void closeTeamOptimizer() {
+        teamOptimizer.close();
+    }
+
     @AfterMethod
     void resetMocks() {
         Mockito.reset(beanMappingService);
         Mockito.reset(trainerService);
+        Mockito.reset(gymService);
+    }
+
+    private static Pokemon pokemon(PokemonName name, int level) {
+        Pokemon pokemon = new Pokemon(name);
+        pokemon.setLevel(level);
+        return pokemon;
     }
 }
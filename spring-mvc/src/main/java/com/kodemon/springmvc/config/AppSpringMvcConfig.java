@@ -2,6 +2,7 @@ package com.kodemon.springmvc.config;
 
 import com.kodemon.sampledata.config.SampleDataConfig;
 import com.kodemon.springmvc.controllers.UserController;
+import com.kodemon.springmvc.session.SessionUser;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -24,7 +25,7 @@ import javax.validation.Validator;
 @EnableWebMvc
 @Configuration
 @Import({SampleDataConfig.class})
-@ComponentScan(basePackageClasses = UserController.class)
+@ComponentScan(basePackageClasses = {UserController.class, SessionUser.class})
 public class AppSpringMvcConfig extends WebMvcConfigurerAdapter {
 
     public static final String TEXTS = "Texts";
@@ -1,11 +1,13 @@
 package com.kodemon.springmvc.controllers;
 
 import com.kodemon.api.dto.*;
+import com.kodemon.api.enums.FightPeriod;
 import com.kodemon.api.enums.WildPokemonFightMode;
 import com.kodemon.api.facade.FightFacade;
 import com.kodemon.api.facade.GymFacade;
 import com.kodemon.api.facade.PokemonFacade;
 import com.kodemon.api.facade.UserFacade;
+import com.kodemon.springmvc.session.SessionUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
@@ -23,6 +25,8 @@ import javax.servlet.http.HttpSession;
 import java.util.Collection;
 import java.util.Locale;
 
+import static com.kodemon.persistence.util.Constants.DEFAULT_PAGE_SIZE;
+
 /**
  * @author Matej Poklemba
  */
@@ -37,6 +41,7 @@ public class FightController {
     private UserFacade userFacade;
     private PokemonFacade pokemonFacade;
     private GymFacade gymFacade;
+    private SessionUser sessionUser;
     private MessageSource messageSource;
 
     @Inject
@@ -45,38 +50,54 @@ public class FightController {
             UserFacade userFacade,
             PokemonFacade pokemonFacade,
             GymFacade gymFacade,
+            SessionUser sessionUser,
             MessageSource messageSource) {
         this.fightFacade = fightFacade;
         this.userFacade = userFacade;
         this.pokemonFacade = pokemonFacade;
         this.gymFacade = gymFacade;
+        this.sessionUser = sessionUser;
         this.messageSource = messageSource;
     }
 
     /**
-     * Show list of all fights.
+     * Show one page of the fights of the given period, newest first.
      *
-     * @param model data to display
+     * @param period period of the fights, one of year, month, today or all
+     * @param cursor cursor of the page, the first page when empty
+     * @param model  data to display
      * @return JSP page name
      */
     @RequestMapping(value = "/list", method = RequestMethod.GET)
-    public String list(@RequestParam String period, Model model) {
-        Collection<FightDTO> fights;
+    public String list(@RequestParam(defaultValue = "all") String period,
+                       @RequestParam(required = false) String cursor,
+                       Model model, Locale locale) {
+        FightPeriod fightPeriod;
         switch (period) {
             case "year":
-                fights = fightFacade.listThisYearsFights();
+                fightPeriod = FightPeriod.YEAR;
                 break;
             case "month":
-                fights = fightFacade.listThisMonthsFights();
+                fightPeriod = FightPeriod.MONTH;
                 break;
             case "today":
-                fights = fightFacade.listTodaysFights();
+                fightPeriod = FightPeriod.TODAY;
                 break;
             default:
-                fights = fightFacade.listAllFights();
+                fightPeriod = FightPeriod.ALL;
                 break;
         }
-        model.addAttribute("fights", fights);
+        PageDTO<FightSummaryDTO> fights;
+        try {
+            fights = fightFacade.listFightSummariesOfPeriod(fightPeriod, cursor, DEFAULT_PAGE_SIZE);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Malformed fight cursor {}", cursor);
+            model.addAttribute("alert_warning", getMessage("warning.fight.pageNotFound", locale));
+            fights = fightFacade.listFightSummariesOfPeriod(fightPeriod, null, DEFAULT_PAGE_SIZE);
+        }
+        model.addAttribute("fights", fights.getContent());
+        model.addAttribute("period", period);
+        model.addAttribute("nextCursor", fights.getNextCursor());
         LOG.debug("Viewing fights of {}", period);
         return "fight/list";
     }
@@ -91,7 +112,7 @@ public class FightController {
     @RequestMapping(value = "/listFightsOfGym", method = RequestMethod.GET)
     public String listFightsOfGym(@RequestParam Long id, Model model, Locale locale) {
         GymDTO gym = gymFacade.findGymById(id);
-        Collection<FightDTO> fights = fightFacade.listFightsOfGym(gym);
+        Collection<FightSummaryDTO> fights = fightFacade.listFightSummariesOfGym(gym);
         if (fights.isEmpty()) {
             model.addAttribute("alert_warning", getMessage("warning.fight.noFightsOfGym", locale));
             model.addAttribute("gym", gym);
@@ -113,16 +134,16 @@ public class FightController {
     @RequestMapping(value = "/listFightsOfUser", method = RequestMethod.GET)
     public String listFightsOfUser(@RequestParam String username, Model model, Locale locale) {
 
-        Collection<UserDTO> user = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(username);
-        if (user.isEmpty()) {
+        UserDTO user = userFacade.findUserByUserNameIgnoringCase(username);
+        if (user == null) {
             model.addAttribute("alert_warning", getMessage("warning.fight.noTrainerWithSuchUsername", locale));
             LOG.error("Tried to look up fights of '{}' - user doesn't exists.", username);
             return "home";
         }
-        Collection<FightDTO> fights = fightFacade.listFightsOfTrainer(userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(username).iterator().next());
+        Collection<FightSummaryDTO> fights = fightFacade.listFightSummariesOfTrainer(user);
         if (fights.isEmpty()) {
             model.addAttribute("alert_warning", getMessage("warning.fight.noFightsOfUser", locale));
-            model.addAttribute("trainer", userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(username).iterator().next());
+            model.addAttribute("trainer", user);
             LOG.debug("Tried to look up fights of '{}' - user doesn't have any fight history.", username);
             return "user/detail";
         }
@@ -140,13 +161,12 @@ public class FightController {
             LOG.error("User not logged in.");
             return "home";
         }
-        Collection<UserDTO> users = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(((UserDTO) session.getAttribute("authenticatedUser")).getUserName());
-        if (users.isEmpty()) {
+        UserDTO user = sessionUser.current(session);
+        if (user == null) {
             model.addAttribute("alert_warning", getMessage("warning.fight.userNotFound", locale));
             LOG.error("Error: User not found in database!");
             return "home";
         }
-        UserDTO user = users.iterator().next();
         PokemonDTO wildPokemon = pokemonFacade.generateWildPokemon(user);
         session.setAttribute("wildPokemon", wildPokemon);
         model.addAttribute("wildPokemon", wildPokemon);
@@ -186,13 +206,12 @@ public class FightController {
             return "home";
         }
 
-        Collection<UserDTO> users = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(((UserDTO) session.getAttribute("authenticatedUser")).getUserName());
-        if (users.isEmpty()) {
+        UserDTO user = sessionUser.current(session);
+        if (user == null) {
             model.addAttribute("alert_warning", getMessage("warning.fight.userNotFound", locale));
             LOG.error("Error: User not found in database!");
             return "home";
         }
-        UserDTO user = users.iterator().next();
 
         boolean fightResult = fightFacade.fightWildPokemon(user, wildPokemon, mode_);
         String wildPokemonName = wildPokemon.getName().getName();
@@ -211,14 +230,13 @@ public class FightController {
                     getMessage("success.fight.pokemonNotCaught", locale, wildPokemonName) :
                     getMessage("success.fight.ownPokemonFainted", locale, userPokemonName)));
         }
-        users = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(((UserDTO) session.getAttribute("authenticatedUser")).getUserName());
-        if (users.isEmpty()) {
+        // reloaded only when the fight has changed the trainer
+        user = sessionUser.current(session);
+        if (user == null) {
             model.addAttribute("alert_warning", getMessage("warning.fight.userNotFound", locale));
             LOG.error("Error: User not found in database!");
             return "home";
         }
-        user = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(user.getUserName()).iterator().next();
-        session.setAttribute("authenticatedUser", user);
 
         LOG.debug("{} {} wild {} level {} -> {}", user.getUserName(), (mode_ == WildPokemonFightMode.CATCH ? " catching" : " fighting"), wildPokemon.getName().getName(), wildPokemon.getLevel(), (fightResult ? "Success!" : "Failed"));
         wildPokemon = pokemonFacade.generateWildPokemon(user);
@@ -239,13 +257,12 @@ public class FightController {
             LOG.error("User not logged in.");
             return "home";
         }
-        Collection<UserDTO> users = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(userDTO.getUserName());
-        if (users.isEmpty()) {
+        userDTO = sessionUser.current(session);
+        if (userDTO == null) {
             model.addAttribute("alert_warning", getMessage("warning.fight.userNotFound", locale));
             LOG.error("Error: User not found in database!");
             return "home";
         }
-        userDTO = users.iterator().next();
         GymDTO gym = gymFacade.findGymById(id);
         if (gym == null) {
             model.addAttribute("alert_warning", getMessage("warning.fight.gymNotFound", locale));
@@ -273,14 +290,12 @@ public class FightController {
                     gym.getTrainer().getUserName(), gym.getBadgeName()));
         else
             model.addAttribute("alert_warning", getMessage("warning.fight.youLost", locale));
-        users = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(userDTO.getUserName());
-        if (users.isEmpty()) {
+        userDTO = sessionUser.current(session);
+        if (userDTO == null) {
             model.addAttribute("alert_warning", getMessage("warning.fight.userNotFound", locale));
             LOG.error("Error: User not found in database!");
             return "home";
         }
-        userDTO = users.iterator().next();
-        session.setAttribute("authenticatedUser", userDTO);
         LOG.debug("{} is fighting [} Gym -> {}", userDTO.getUserName(), gym.getCity(), (fightResult ? "Success!" : "Failed"));
         return "home";
     }
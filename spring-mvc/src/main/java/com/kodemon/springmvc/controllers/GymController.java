@@ -44,7 +44,7 @@ public class GymController {
      */
     @RequestMapping(value = "/list", method = RequestMethod.GET)
     public String list(Model model) {
-        model.addAttribute("gyms", gymFacade.findAll());
+        model.addAttribute("gyms", gymFacade.findAllSummaries());
         return "gym/list";
     }
 
@@ -62,7 +62,7 @@ public class GymController {
         if (gym == null) {
             LOG.warn("No gym with this id found");
             redirectAttributes.addFlashAttribute("alert_warning", getMessage("warning.gym.noGymWithId", locale));
-            redirectAttributes.addFlashAttribute("gyms", gymFacade.findAll());
+            redirectAttributes.addFlashAttribute("gyms", gymFacade.findAllSummaries());
             return "redirect:/gym/list";
         }
         model.addAttribute("gym", gym);
@@ -0,0 +1,49 @@
+package com.kodemon.springmvc.controllers;
+
+import com.kodemon.api.dto.UserDTO;
+import com.kodemon.api.dto.UserSnapshotStatisticsDTO;
+import com.kodemon.api.facade.StatisticsFacade;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpSession;
+
+/**
+ * Runtime statistics of the web application, for the administrators
+ * <p>
+ * The snapshots of the logged in trainers are kept by the sessions of this application, so only its own service layer
+ * counts how often they were served and how often reloaded.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Controller
+@RequestMapping("/statistics")
+public class StatisticsController {
+
+    private StatisticsFacade statisticsFacade;
+
+    @Inject
+    public StatisticsController(StatisticsFacade statisticsFacade) {
+        this.statisticsFacade = statisticsFacade;
+    }
+
+    /**
+     * Returns how often the snapshots of the logged in trainers were still current and how often they were reloaded
+     *
+     * @param session session of the administrator
+     * @return 200 with the statistics of the user snapshots, 403 unless an administrator is logged in
+     */
+    @RequestMapping(value = "/userSnapshots", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserSnapshotStatisticsDTO> userSnapshots(HttpSession session) {
+        UserDTO authenticated = (UserDTO) session.getAttribute("authenticatedUser");
+        if (authenticated == null || !authenticated.isAdmin()) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        return ResponseEntity.ok(statisticsFacade.getUserSnapshotStatistics());
+    }
+}
@@ -1,8 +1,15 @@
 package com.kodemon.springmvc.controllers;
 
+import com.kodemon.api.dto.GymSummaryDTO;
+import com.kodemon.api.dto.PageDTO;
+import com.kodemon.api.dto.TeamSuggestionDTO;
 import com.kodemon.api.dto.UserAuthDTO;
 import com.kodemon.api.dto.UserDTO;
+import com.kodemon.api.dto.UserSummaryDTO;
+import com.kodemon.api.exception.ServiceOverloadedException;
+import com.kodemon.api.facade.GymFacade;
 import com.kodemon.api.facade.UserFacade;
+import com.kodemon.springmvc.session.SessionUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
@@ -17,12 +24,15 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import javax.inject.Inject;
 import javax.servlet.ServletRequest;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
+import static com.kodemon.persistence.util.Constants.DEFAULT_PAGE_SIZE;
 import static com.kodemon.persistence.util.Constants.MAX_ACTIVE_POKEMON;
 import static com.kodemon.persistence.util.Constants.MIN_USERNAME_LENGTH;
 
@@ -35,25 +45,31 @@ import static com.kodemon.persistence.util.Constants.MIN_USERNAME_LENGTH;
 public class UserController {
 
     private final static Logger LOG = LoggerFactory.getLogger(UserController.class);
+    private static final String RETRY_AFTER = "Retry-After";
 
     private UserFacade userFacade;
+    private GymFacade gymFacade;
+    private SessionUser sessionUser;
     private MessageSource messageSource;
 
     @Inject
-    public UserController(UserFacade userFacade, MessageSource messageSource) {
+    public UserController(UserFacade userFacade, GymFacade gymFacade, SessionUser sessionUser, MessageSource messageSource) {
         this.userFacade = userFacade;
+        this.gymFacade = gymFacade;
+        this.sessionUser = sessionUser;
         this.messageSource = messageSource;
     }
 
     /**
-     * Show list of all trainers.
+     * Show one page of the list of all trainers.
      *
+     * @param page  number of the page, starting at 0
      * @param model data to display
      * @return JSP page name
      */
     @RequestMapping(value = "/list", method = RequestMethod.GET)
-    public String list(Model model) {
-        model.addAttribute("users", userFacade.findAllUsers());
+    public String list(@RequestParam(defaultValue = "0") int page, Model model) {
+        addPageOfUsers(page, model);
         return "user/list";
     }
 
@@ -67,14 +83,13 @@ public class UserController {
      */
     @RequestMapping(value = "/detail/{username}", method = RequestMethod.GET)
     public String detail(@PathVariable String username, Model model, RedirectAttributes redirectAttributes, Locale locale) {
-        Collection<UserDTO> user = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(username);
-        if (user.isEmpty()) {
+        UserDTO user = userFacade.findUserByUserNameIgnoringCase(username);
+        if (user == null) {
             LOG.warn("No trainer with such username found");
             redirectAttributes.addFlashAttribute("alert_warning", getMessage("warning.user.noTrainerFound", locale));
-            redirectAttributes.addFlashAttribute("users", userFacade.findAllUsers());
             return "redirect:/user/list";
         }
-        model.addAttribute("trainer", user.iterator().next());
+        model.addAttribute("trainer", user);
         return "user/detail";
     }
 
@@ -87,53 +102,65 @@ public class UserController {
      */
     @RequestMapping(value = "/find", method = RequestMethod.GET)
     public String find(@RequestParam String username, Model model, Locale locale) {
-        Collection<UserDTO> result;
         if (username.length() < MIN_USERNAME_LENGTH) {
             model.addAttribute("alert_warning", getMessage("warning.user.searchQueryShort", locale, MIN_USERNAME_LENGTH));
-            result = userFacade.findAllUsers();
+            addPageOfUsers(0, model);
         } else {
             Collection<UserDTO> found = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(username);
             if (found.isEmpty()) {
                 LOG.warn("No trainer with such username found");
                 model.addAttribute("alert_warning", getMessage("warning.user.noTrainerFound", locale));
-                result = userFacade.findAllUsers();
+                addPageOfUsers(0, model);
             } else {
-                result = found;
+                model.addAttribute("users", found);
             }
         }
-        model.addAttribute("users", result);
         return "/user/list";
     }
 
     /**
+     * Logs the trainer in. The password is verified off the request thread, the request is completed once it is.
+     *
      * @param username of trainer to be logged in
      * @param password of trainer to be logged in
      * @param r        servlet request to create session
+     * @param response servlet response, 503 when too many logins are in progress
      * @param model    data to display
-     * @return JSP page name
+     * @return JSP page name, once the password is verified
      */
     @RequestMapping(value = "/login", method = RequestMethod.POST)
-    public String login(@RequestParam String username, @RequestParam String password, ServletRequest r, Model model, Locale locale) {
+    public CompletableFuture<String> login(@RequestParam String username, @RequestParam String password, ServletRequest r,
+                                           HttpServletResponse response, Model model, Locale locale) {
         UserAuthDTO userAuthDTO = new UserAuthDTO();
         userAuthDTO.setUserName(username);
         userAuthDTO.setPassword(password);
 
-        HttpServletRequest request = (HttpServletRequest) r;
-        if (userFacade.login(userAuthDTO)) {
-            UserDTO authenticated = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(username).iterator().next();
+        // the session is got here, the request must not be used by the thread verifying the password
+        HttpSession session = ((HttpServletRequest) r).getSession();
+        CompletableFuture<UserDTO> authentication;
+        try {
+            authentication = userFacade.authenticate(userAuthDTO);
+        } catch (ServiceOverloadedException e) {
+            LOG.warn("Login of {} rejected: {}", username, e.getMessage());
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            model.addAttribute("alert_danger", getMessage("danger.user.tooManyLogins", locale));
+            return CompletableFuture.completedFuture("login");
+        }
+        return authentication.thenApply(authenticated -> {
+            if (authenticated == null) {
+                model.addAttribute("alert_danger", getMessage("danger.user.incorrectCredentials", locale));
+                return "login";
+            }
             if (authenticated.isBlocked()) {
                 model.addAttribute("alert_danger", getMessage("danger.user.accountBlocked", locale));
                 return "login";
             }
-            HttpSession session = request.getSession();
             session.setAttribute("authenticatedUser", authenticated);
             model.addAttribute("alert_success", getMessage("success.user.welcomeUser", locale, username));
             model.addAttribute("trainer", authenticated);
             return "user/detail";
-        } else {
-            model.addAttribute("alert_danger", getMessage("danger.user.incorrectCredentials", locale));
-            return "login";
-        }
+        });
     }
 
     /**
@@ -149,7 +176,7 @@ public class UserController {
     public String blockUser(@RequestParam String username, ServletRequest r, Model model, Locale locale) {
         HttpServletRequest request = (HttpServletRequest) r;
         HttpSession session = request.getSession();
-        UserDTO toBeBlocked = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(username).iterator().next();
+        UserDTO toBeBlocked = userFacade.findUserByUserNameIgnoringCase(username);
         if (toBeBlocked == null) {
             model.addAttribute("alert_warning", getMessage("warning.user.doesNotExist", locale));
             LOG.error("Trying to block non-existing user");
@@ -183,7 +210,7 @@ public class UserController {
     public String unblockUser(@RequestParam String username, ServletRequest r, Model model, Locale locale) {
         HttpServletRequest request = (HttpServletRequest) r;
         HttpSession session = request.getSession();
-        UserDTO toBeUnblocked = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(username).iterator().next();
+        UserDTO toBeUnblocked = userFacade.findUserByUserNameIgnoringCase(username);
         if (toBeUnblocked == null) {
             model.addAttribute("alert_warning", getMessage("warning.user.doesNotExist", locale));
             LOG.error("Trying to unblock non-existing user");
@@ -218,38 +245,71 @@ public class UserController {
             return "login";
         }
         LOG.info("User logged out");
-        session.removeAttribute("authenticatedUser");
+        sessionUser.clear(session);
         model.addAttribute("alert_success", getMessage("success.user.userLoggedOut", locale));
         return "login";
     }
 
+    private void addPageOfUsers(int page, Model model) {
+        PageDTO<UserSummaryDTO> users = userFacade.findUserSummaries(page, DEFAULT_PAGE_SIZE);
+        model.addAttribute("users", users.getContent());
+        model.addAttribute("page", users.getPage());
+        model.addAttribute("hasNextPage", users.isHasNext());
+    }
+
     private String getMessage(String code, Locale locale, Object... args) {
         return messageSource.getMessage(code, args, locale);
     }
 
     /**
      * Page for selecting first 6 pokemons to be used for fight
+     * <p>
+     * With a gym selected, the team beating the gym leader by the widest margin is preselected instead of the current one.
      *
+     * @param gymId  gym to suggest the team against, the current team is shown if missing
      * @param r      servlet request to get logged user
      * @param model  data to display
      * @param locale locale settings
      * @return JSP page name
      */
     @RequestMapping(value = "/reorder", method = RequestMethod.GET)
-    public String reorder(ServletRequest r, Model model, Locale locale) {
+    public String reorder(@RequestParam(value = "gym", required = false) Long gymId, ServletRequest r, Model model, Locale locale) {
         HttpServletRequest request = (HttpServletRequest) r;
         HttpSession session = request.getSession();
-        if (session.getAttribute("authenticatedUser") == null) {
+        UserDTO currentUser = sessionUser.current(session);
+        if (currentUser == null) {
             model.addAttribute("alert_warning", getMessage("warning.user.notLoggedIn", locale));
             return "login";
         }
-        UserDTO currentUser = (UserDTO) session.getAttribute("authenticatedUser");
         model.addAttribute("pokemons", currentUser.getPokemons());
         model.addAttribute("activePokemons", currentUser.getActivePokemons());
         model.addAttribute("numberOfPokemonsForFight", MAX_ACTIVE_POKEMON);
+        Collection<GymSummaryDTO> gyms = gymFacade.findAllSummaries();
+        model.addAttribute("gyms", gyms);
+        if (gymId != null) {
+            suggestTeam(currentUser, gyms, gymId, model, locale);
+        }
         return "user/reorder";
     }
 
+    private void suggestTeam(UserDTO currentUser, Collection<GymSummaryDTO> gyms, Long gymId, Model model, Locale locale) {
+        GymSummaryDTO gym = gyms.stream().filter(summary -> summary.getId().equals(gymId)).findFirst().orElse(null);
+        TeamSuggestionDTO suggestion = gym == null ? null : userFacade.suggestTeam(currentUser.getId(), gymId);
+        if (suggestion == null) {
+            model.addAttribute("alert_warning", getMessage("warning.gym.noGymWithId", locale));
+            return;
+        }
+        model.addAttribute("selectedGymId", gymId);
+        model.addAttribute("suggestedIndices", suggestion.getPokemonIndices());
+        String leader = gym.getLeaderUserName();
+        String margin = String.format(locale, "%.1f", Math.abs(suggestion.getMargin()));
+        if (suggestion.isWinning()) {
+            model.addAttribute("alert_success", getMessage("success.reorder.suggestedTeamWins", locale, leader, margin));
+        } else {
+            model.addAttribute("alert_warning", getMessage("warning.reorder.suggestedTeamLoses", locale, leader, margin));
+        }
+    }
+
     @RequestMapping(value = "setFirstSixPokemons", method = RequestMethod.POST)
     public String setFirstSixPokemons(ServletRequest r, Model model, RedirectAttributes redirectAttributes, Locale locale) {
         HttpServletRequest request = (HttpServletRequest) r;
@@ -269,7 +329,7 @@ public class UserController {
         userFacade.chooseActivePokemons(currentUser.getId(), pokemonIndices);
 
         redirectAttributes.addFlashAttribute("alert_success", getMessage("success.reorder.changed", locale));
-        UserDTO user = userFacade.findUserByUserNameIgnoringCaseIncludeSubstrings(currentUser.getUserName()).iterator().next();
+        UserDTO user = sessionUser.current(session);
         redirectAttributes.addFlashAttribute("trainer", user);
 
         return "redirect:/user/detail/"+user.getUserName();
@@ -0,0 +1,70 @@
+package com.kodemon.springmvc.session;
+
+import com.kodemon.api.dto.UserDTO;
+import com.kodemon.api.dto.UserSnapshotDTO;
+import com.kodemon.api.facade.UserFacade;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpSession;
+
+/**
+ * The logged in trainer, kept in the session as a snapshot
+ * <p>
+ * The snapshot is reloaded only when the trainer has changed since it was taken, by a catch, a level-up, a badge or
+ * a reordering of the team, otherwise the controllers get it without a single query. The {@code authenticatedUser}
+ * attribute the pages read is kept up to date with the snapshot.
+ *
+ * @author <a href="mailto:xseleng@fi.muni.cz">Maros Seleng, 422624</a>
+ */
+@Component
+public class SessionUser {
+
+    private static final String AUTHENTICATED_USER = "authenticatedUser";
+    private static final String USER_SNAPSHOT = "userSnapshot";
+
+    private UserFacade userFacade;
+
+    @Inject
+    public SessionUser(UserFacade userFacade) {
+        this.userFacade = userFacade;
+    }
+
+    /**
+     * Returns the current state of the logged in trainer
+     *
+     * @param session session of the trainer
+     * @return the trainer, null if nobody is logged in or the trainer does not exist any more
+     */
+    public UserDTO current(HttpSession session) {
+        UserDTO authenticated = (UserDTO) session.getAttribute(AUTHENTICATED_USER);
+        if (authenticated == null) {
+            session.removeAttribute(USER_SNAPSHOT);
+            return null;
+        }
+        UserSnapshotDTO snapshot = (UserSnapshotDTO) session.getAttribute(USER_SNAPSHOT);
+        // the login stores only the user, and another trainer may have logged in since
+        UserSnapshotDTO current = snapshot != null && snapshot.getUserId().equals(authenticated.getId())
+                ? userFacade.refreshUserSnapshot(snapshot)
+                : userFacade.takeUserSnapshot(authenticated.getId());
+        if (current == null) {
+            session.removeAttribute(USER_SNAPSHOT);
+            return null;
+        }
+        if (current != snapshot) {
+            session.setAttribute(USER_SNAPSHOT, current);
+            session.setAttribute(AUTHENTICATED_USER, current.getUser());
+        }
+        return current.getUser();
+    }
+
+    /**
+     * Forgets the logged in trainer
+     *
+     * @param session session of the trainer
+     */
+    public void clear(HttpSession session) {
+        session.removeAttribute(AUTHENTICATED_USER);
+        session.removeAttribute(USER_SNAPSHOT);
+    }
+}
@@ -85,7 +85,7 @@ public class UserRegisterDTOValidator implements Validator {
                     "UserRegisterDTOValidator.userName.short",
                     new Object[]{Constants.MIN_USERNAME_LENGTH},
                     "User name needs to be at least {} characters long");
-        } else if (!userFacade.findUserByUserNameExactMatch(userName).isEmpty()) {
+        } else if (userFacade.findUserByUserNameIgnoringCase(userName) != null) {
             errors.rejectValue("userName", "UserRegisterDTOValidator.userName.taken");
         }
     }
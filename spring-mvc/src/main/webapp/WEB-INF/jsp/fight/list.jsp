@@ -21,9 +21,15 @@
             <fmt:formatDate value="${fight.fightTime}" pattern="dd.MM.yyyy" var="fightDate"/>
             <kodemon:a href="detail/${fight.id}">
                 <s:message code="fight.list.challengerVsDefenderOnDate"
-                           arguments="${fight.challenger.firstName},${fight.targetGym.city},${fightDate}"/>
+                           arguments="${fight.challengerFirstName},${fight.targetGymCity},${fightDate}"/>
             </kodemon:a>
         </h3>
     </c:forEach>
+
+    <c:if test="${not empty nextCursor}">
+        <ul class="pager">
+            <li class="next"><kodemon:a href="/fight/list?period=${period}&cursor=${nextCursor}"><fmt:message key="fight.list.olderFights"/></kodemon:a></li>
+        </ul>
+    </c:if>
 </jsp:attribute>
 </kodemon:pagetemplate>
@@ -22,5 +22,14 @@
         <h3><kodemon:a href="detail/${trainer.userName}"><c:out
                 value="${trainer.firstName} ${trainer.lastName}"/></kodemon:a></h3>
     </c:forEach>
+
+    <ul class="pager">
+        <c:if test="${page > 0}">
+            <li class="previous"><kodemon:a href="/user/list?page=${page - 1}"><fmt:message key="user.list.previousPage"/></kodemon:a></li>
+        </c:if>
+        <c:if test="${hasNextPage}">
+            <li class="next"><kodemon:a href="/user/list?page=${page + 1}"><fmt:message key="user.list.nextPage"/></kodemon:a></li>
+        </c:if>
+    </ul>
 </jsp:attribute>
 </kodemon:pagetemplate>
@@ -10,6 +10,18 @@
 <kodemon:pagetemplate title="${pageTitle}">
     <jsp:attribute name="body">
         <h1><fmt:message key="user.reorder.infoMessage"/></h1>
+        <form method="get" action="${pageContext.request.contextPath}/user/reorder" class="form-inline">
+            <div class="form-group">
+                <label for="gym"><fmt:message key="user.reorder.suggestTeamAgainst"/></label>
+                <select name="gym" id="gym" class="form-control" required>
+                    <c:forEach items="${gyms}" var="gym">
+                        <option value="${gym.id}" ${gym.id == selectedGymId ? 'selected="selected"' : ''}>
+                            <c:out value="${gym.city} (${gym.leaderUserName})"/></option>
+                    </c:forEach>
+                </select>
+            </div>
+            <button type="submit" class="btn btn-default"><fmt:message key="user.reorder.suggestTeamButton"/></button>
+        </form>
         <form method="post" action="${pageContext.request.contextPath}/user/setFirstSixPokemons">
             <c:set var="numberOfTrainerPokemons" value="${fn:length(pokemons)}" scope="page"/>
             <c:forEach begin="1" end="${numberOfPokemonsForFight > numberOfTrainerPokemons ? numberOfTrainerPokemons : numberOfPokemonsForFight}" var="number">
@@ -19,7 +31,8 @@
                         <c:set var="index" value="0" scope="page"/>
                         <option value="${index}" selected disabled><fmt:message key="user.reorder.selectPokemonOption" /></option>
                         <c:forEach items="${pokemons}" var="pokemon">
-                            <option value="${index}" ${pokemon == activePokemons[number - 1] ? 'selected="selected"' : ''}>
+                            <c:set var="selected" value="${empty suggestedIndices ? pokemon == activePokemons[number - 1] : index == suggestedIndices[number - 1]}" scope="page"/>
+                            <option value="${index}" ${selected ? 'selected="selected"' : ''}>
                                 <s:message code="user.reorder.pokemonAtLevel"
                                            arguments="${pokemon.name},${pokemon.level}"/></option>
                             <c:set var="index" value="${index + 1}" scope="page"/>